@@ -0,0 +1,246 @@
+/*
+ * Copyright 2019 Crown Copyright
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package uk.gov.gchq.gaffer.accumulostore.performancetesting.ingest;
+
+import org.apache.accumulo.core.client.AccumuloException;
+import org.apache.accumulo.core.client.TableNotFoundException;
+import org.apache.accumulo.core.client.rfile.RFile;
+import org.apache.accumulo.core.client.rfile.RFileWriter;
+import org.apache.accumulo.core.data.Key;
+import org.apache.accumulo.core.data.Value;
+import org.apache.hadoop.conf.Configuration;
+import org.apache.hadoop.fs.FileSystem;
+import org.apache.hadoop.fs.Path;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import uk.gov.gchq.gaffer.accumulostore.AccumuloStore;
+import uk.gov.gchq.gaffer.accumulostore.key.AccumuloElementConverter;
+import uk.gov.gchq.gaffer.accumulostore.operation.hdfs.operation.ImportAccumuloKeyValueFiles;
+import uk.gov.gchq.gaffer.commonutil.pair.Pair;
+import uk.gov.gchq.gaffer.data.element.Element;
+import uk.gov.gchq.gaffer.operation.OperationException;
+import uk.gov.gchq.gaffer.performancetesting.Metrics;
+import uk.gov.gchq.gaffer.performancetesting.MetricsListener;
+import uk.gov.gchq.gaffer.performancetesting.corpus.ElementCorpusReader;
+import uk.gov.gchq.gaffer.performancetesting.ingest.ElementIngestTest;
+import uk.gov.gchq.gaffer.store.Context;
+import uk.gov.gchq.gaffer.store.StoreException;
+
+import java.io.IOException;
+import java.nio.file.Paths;
+import java.util.AbstractMap;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
+
+/**
+ * This class measures the time taken to add elements to an Accumulo table by bulk import, as an alternative to adding
+ * them through a batch writer with the {@link ElementIngestTest}.
+ *
+ * <p>The elements are the same as those the {@link ElementIngestTest} would add with the same test properties (or are
+ * read from the corpus file if one is specified). They are processed in chunks: each chunk of elements is converted to
+ * Accumulo keys and values using the store's key package, sorted and written to an RFile. The directory of RFiles is
+ * then imported into the table with an {@link ImportAccumuloKeyValueFiles} operation. The time spent in each of these
+ * phases (generate, sort, write and import) is logged and, if a {@link MetricsListener} is specified, reported as a
+ * {@link BulkImportMetrics}.
+ */
+public class AccumuloBulkImportTest {
+    private static final Logger LOGGER = LoggerFactory.getLogger(AccumuloBulkImportTest.class);
+
+    private final AccumuloStore accumuloStore;
+    private final AccumuloElementIngestTestProperties testProperties;
+    private final Configuration conf;
+    private MetricsListener metricsListener;
+    private long generateNanos;
+    private long sortNanos;
+    private long writeNanos;
+    private long numGenerated;
+
+    public AccumuloBulkImportTest(final AccumuloStore accumuloStore,
+                                  final AccumuloElementIngestTestProperties testProperties,
+                                  final Configuration conf) {
+        this.accumuloStore = accumuloStore;
+        this.testProperties = testProperties;
+        this.conf = conf;
+        if (null != testProperties.getMetricsListenerClass()) {
+            try {
+                metricsListener = Class.forName(testProperties.getMetricsListenerClass())
+                        .asSubclass(MetricsListener.class).newInstance();
+                metricsListener.initialise(testProperties);
+                LOGGER.info("Initialised MetricsListener of {}", metricsListener);
+            } catch (final ClassNotFoundException | InstantiationException | IllegalAccessException e) {
+                throw new IllegalArgumentException("MetricsListener could not be created: "
+                        + testProperties.getMetricsListenerClass(), e);
+            }
+        }
+    }
+
+    /**
+     * Runs the test. Any files left in the bulk import directories by an earlier run are deleted first, so that only
+     * the elements generated by this run are imported.
+     *
+     * @return The rate at which elements were imported (number of elements per second), including the time taken by
+     * every phase.
+     * @throws OperationException if the elements could not be imported
+     */
+    public double run() throws OperationException {
+        final String filesDirectory = testProperties.getTempDirectory() + "/bulk_import_files";
+        final String failuresDirectory = testProperties.getTempDirectory() + "/bulk_import_failures";
+        final FileSystem fs;
+        try {
+            fs = FileSystem.get(conf);
+            for (final String directory : new String[]{filesDirectory, failuresDirectory}) {
+                if (fs.exists(new Path(directory))) {
+                    LOGGER.info("Deleting existing directory " + directory);
+                    fs.delete(new Path(directory), true);
+                }
+            }
+            fs.mkdirs(new Path(failuresDirectory));
+        } catch (final IOException e) {
+            throw new OperationException("IOException creating directories for bulk import", e);
+        }
+        generateNanos = 0L;
+        sortNanos = 0L;
+        writeNanos = 0L;
+        numGenerated = 0L;
+
+        final long numElements = testProperties.getNumElements();
+        final long elementsPerFile = testProperties.getBulkImportElementsPerFile();
+        final Iterator<Element> elements = getElements(numElements);
+        final AccumuloElementConverter converter = accumuloStore.getKeyPackage().getKeyConverter();
+        final Iterable<Map.Entry<String, String>> tableProperties = getTableProperties();
+        long numWritten = 0L;
+        int fileNumber = 0;
+        while (elements.hasNext()) {
+            final List<Map.Entry<Key, Value>> keyValues = generate(elements, elementsPerFile, converter);
+            sort(keyValues);
+            write(keyValues, fs, new Path(filesDirectory, String.format("part-%05d.rf", fileNumber)),
+                    tableProperties);
+            numWritten += keyValues.size();
+            fileNumber++;
+        }
+        LOGGER.info("Wrote " + numWritten + " key-values to " + fileNumber + " RFile(s)");
+
+        final long importStartTime = System.nanoTime();
+        final ImportAccumuloKeyValueFiles importFiles = new ImportAccumuloKeyValueFiles.Builder()
+                .inputPath(filesDirectory)
+                .failurePath(failuresDirectory)
+                .build();
+        accumuloStore.execute(importFiles, new Context());
+        final long importNanos = System.nanoTime() - importStartTime;
+
+        final double totalSeconds = (generateNanos + sortNanos + writeNanos + importNanos) / 1.0E9;
+        final double rate = numGenerated / totalSeconds;
+        LOGGER.info("Test result: " + numGenerated + " elements bulk imported in " + totalSeconds
+                + " seconds (rate was " + rate + " per second); generate = " + generateNanos / 1.0E9 + "s, sort = " + sortNanos / 1.0E9
+                + "s, write = " + writeNanos / 1.0E9 + "s, import = " + importNanos / 1.0E9 + "s");
+        final BulkImportMetrics metrics = new BulkImportMetrics();
+        metrics.putMetric(BulkImportMetrics.GENERATE_SECONDS, generateNanos / 1.0E9);
+        metrics.putMetric(BulkImportMetrics.SORT_SECONDS, sortNanos / 1.0E9);
+        metrics.putMetric(BulkImportMetrics.WRITE_SECONDS, writeNanos / 1.0E9);
+        metrics.putMetric(BulkImportMetrics.IMPORT_SECONDS, importNanos / 1.0E9);
+        metrics.putMetric(BulkImportMetrics.ELEMENTS_PER_SECOND_OVERALL, rate);
+        update(metrics);
+        if (null != metricsListener) {
+            metricsListener.close();
+        }
+        return rate;
+    }
+
+    private Iterator<Element> getElements(final long numElements) throws OperationException {
+        if (null != testProperties.getCorpusFile()) {
+            try {
+                final ElementCorpusReader corpus = new ElementCorpusReader(Paths.get(testProperties.getCorpusFile()),
+                        accumuloStore.getSchema());
+                return StreamSupport.stream(corpus.spliterator(), false).limit(numElements).iterator();
+            } catch (final IOException e) {
+                throw new OperationException("Exception reading corpus file " + testProperties.getCorpusFile(), e);
+            }
+        }
+        final ElementIngestTest.ElementSupplierFactory elementSupplierFactory
+                = new ElementIngestTest.ElementSupplierFactory(testProperties);
+        if (null != testProperties.getSeed()) {
+            // The elements of the same edges of the seeded graph as the ElementIngestTest adds
+            return elementSupplierFactory.streamElementsOfEdges(0L, elementSupplierFactory.getNumEdges(numElements))
+                    .iterator();
+        }
+        return Stream.generate(elementSupplierFactory.get())
+                .limit(numElements)
+                .iterator();
+    }
+
+    private Iterable<Map.Entry<String, String>> getTableProperties() throws OperationException {
+        try {
+            return accumuloStore.getConnection().tableOperations().getProperties(accumuloStore.getTableName());
+        } catch (final StoreException | AccumuloException | TableNotFoundException e) {
+            throw new OperationException("Exception getting the properties of table "
+                    + accumuloStore.getTableName(), e);
+        }
+    }
+
+    private List<Map.Entry<Key, Value>> generate(final Iterator<Element> elements,
+                                                 final long maxElements,
+                                                 final AccumuloElementConverter converter) {
+        final long startTime = System.nanoTime();
+        final List<Map.Entry<Key, Value>> keyValues = new ArrayList<>();
+        for (long i = 0L; i < maxElements && elements.hasNext(); i++) {
+            final Element element = elements.next();
+            numGenerated++;
+            final Pair<Key, Key> keys = converter.getKeysFromElement(element);
+            final Value value = converter.getValueFromElement(element);
+            keyValues.add(new AbstractMap.SimpleImmutableEntry<>(keys.getFirst(), value));
+            if (null != keys.getSecond()) {
+                keyValues.add(new AbstractMap.SimpleImmutableEntry<>(keys.getSecond(), value));
+            }
+        }
+        generateNanos += System.nanoTime() - startTime;
+        return keyValues;
+    }
+
+    private void sort(final List<Map.Entry<Key, Value>> keyValues) {
+        final long startTime = System.nanoTime();
+        keyValues.sort(Map.Entry.comparingByKey());
+        sortNanos += System.nanoTime() - startTime;
+    }
+
+    private void write(final List<Map.Entry<Key, Value>> keyValues,
+                       final FileSystem fs,
+                       final Path file,
+                       final Iterable<Map.Entry<String, String>> tableProperties) throws OperationException {
+        final long startTime = System.nanoTime();
+        try (final RFileWriter writer = RFile.newWriter()
+                .to(file.toString())
+                .withFileSystem(fs)
+                .withTableProperties(tableProperties)
+                .build()) {
+            writer.startDefaultLocalityGroup();
+            writer.append(keyValues);
+        } catch (final IOException e) {
+            throw new OperationException("IOException writing RFile " + file, e);
+        }
+        writeNanos += System.nanoTime() - startTime;
+    }
+
+    private void update(final Metrics metrics) {
+        if (null != metricsListener) {
+            metricsListener.update(metrics);
+        }
+    }
+}
@@ -22,6 +22,8 @@ import org.apache.hadoop.fs.Path;
 import org.apache.hadoop.io.BytesWritable;
 import org.apache.hadoop.io.NullWritable;
 import org.apache.hadoop.io.SequenceFile;
+import org.apache.hadoop.io.compress.CompressionCodec;
+import org.apache.hadoop.util.ReflectionUtils;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
@@ -32,7 +34,6 @@ import uk.gov.gchq.gaffer.hdfs.operation.SampleDataForSplitPoints;
 import uk.gov.gchq.gaffer.operation.OperationException;
 import uk.gov.gchq.gaffer.operation.impl.SplitStore;
 import uk.gov.gchq.gaffer.performancetesting.ingest.ElementIngestTest;
-import uk.gov.gchq.gaffer.randomelementgeneration.generator.ElementGeneratorFromSupplier;
 import uk.gov.gchq.gaffer.serialisation.ToBytesSerialiser;
 import uk.gov.gchq.gaffer.store.Context;
 import uk.gov.gchq.gaffer.store.StoreException;
@@ -42,8 +43,14 @@ import uk.gov.gchq.gaffer.store.serialiser.ElementSerialiser;
 
 import java.io.File;
 import java.io.IOException;
-import java.util.Collections;
-import java.util.function.Supplier;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.stream.Stream;
 
 public class AccumuloElementIngestTest extends Configured {
     private static final Logger LOGGER = LoggerFactory.getLogger(AccumuloElementIngestTest.class);
@@ -70,33 +77,12 @@ public class AccumuloElementIngestTest extends Configured {
             throw new OperationException("IOException obtaining FileSystem from conf", e);
         }
 
-        // Create generator
-        final Supplier<Element> elementSupplier = new ElementIngestTest.ElementSupplierFactory(testProperties).get();
-        final ElementGeneratorFromSupplier generator = new ElementGeneratorFromSupplier(
-                Long.parseLong(testProperties.getNumElementsForSplitEstimation()), elementSupplier);
-
-        // Serialiser to go from elements to a byte array and back
-        final ToBytesSerialiser<Element> serialisation = new ElementSerialiser(accumuloStore.getSchema());
-
-        // Write random data to a sequence file
-        LOGGER.info("Writing random elements to a temporary file");
+        // Write random data to sequence files
         if (null == testProperties.getTempDirectory()) {
             throw new OperationException("Missing temporary directory");
         }
         final String tmpData = testProperties.getTempDirectory() + "/tmp_random_data/";
-        try {
-            final SequenceFile.Writer writer = SequenceFile.createWriter(conf,
-                    SequenceFile.Writer.file(new Path(tmpData)),
-                    SequenceFile.Writer.compression(SequenceFile.CompressionType.NONE),
-                    SequenceFile.Writer.keyClass(NullWritable.class),
-                    SequenceFile.Writer.valueClass(BytesWritable.class));
-            for (final Element element : generator.apply(Collections.singletonList("DUMMY"))) {
-                writer.append(NullWritable.get(), new BytesWritable(serialisation.serialise(element)));
-            }
-            writer.close();
-        } catch (final IOException e) {
-            throw new OperationException("IOException creating SequenceFile of random data", e);
-        }
+        final long numWritten = writeSplitEstimationData(conf, new Path(tmpData));
 
         // Find out number of tablet servers so that we can create the correct number of split points
         final int numTabletServers;
@@ -122,7 +108,13 @@ public class AccumuloElementIngestTest extends Configured {
                 .validate(false)
                 .proportionToSample(1.0F)
                 .build();
+        final long sampleStartTime = System.currentTimeMillis();
         accumuloStore.execute(sample, new Context());
+        final double sampleDurationInSeconds = (System.currentTimeMillis() - sampleStartTime) / 1000.0;
+        // Every record that was written is sampled
+        LOGGER.info("SampleDataForSplitPoints job read " + numWritten + " records in " + sampleDurationInSeconds
+                + " seconds (rate was " + numWritten / sampleDurationInSeconds + " per second); see the "
+                + BytesWritableMapperGenerator.Counters.class.getName() + " job counters for the mapper throughput");
 
         // Check if split points were output (if there was only 1 tablet server then no split points will be output)
         boolean splitsFileExists = false;
@@ -146,9 +138,102 @@ public class AccumuloElementIngestTest extends Configured {
         }
 
         // Run test
-        LOGGER.info("Running ElementIngestTest");
-        final ElementIngestTest test = new ElementIngestTest(graph, testProperties);
-        test.run();
+        if (AccumuloElementIngestTestProperties.IngestMode.BULK_IMPORT == testProperties.getIngestMode()) {
+            LOGGER.info("Running AccumuloBulkImportTest");
+            final AccumuloBulkImportTest test = new AccumuloBulkImportTest(accumuloStore, testProperties, conf);
+            test.run();
+        } else {
+            LOGGER.info("Running ElementIngestTest");
+            final ElementIngestTest test = new ElementIngestTest(graph, testProperties);
+            test.run();
+        }
+    }
+
+    /**
+     * Writes the random elements used to estimate the split points to a directory of SequenceFiles. The files are
+     * written concurrently, each by its own thread with its own supplier of elements, and are compressed as specified
+     * in the test properties. As each file is an input to the sampling job, writing several files also allows that job
+     * to use several mappers.
+     *
+     * @param conf      the configuration
+     * @param directory the directory to write the files to
+     * @return the number of elements written
+     * @throws OperationException if the files could not be written
+     */
+    private long writeSplitEstimationData(final Configuration conf, final Path directory) throws OperationException {
+        final long numElements = Long.parseLong(testProperties.getNumElementsForSplitEstimation());
+        final int numFiles = testProperties.getNumSplitEstimationFiles();
+        final SequenceFile.CompressionType compressionType = testProperties.getSplitEstimationCompressionType();
+        final CompressionCodec codec;
+        try {
+            codec = ReflectionUtils.newInstance(Class.forName(testProperties.getSplitEstimationCompressionCodec())
+                    .asSubclass(CompressionCodec.class), conf);
+        } catch (final ClassNotFoundException e) {
+            throw new OperationException("Unknown compression codec "
+                    + testProperties.getSplitEstimationCompressionCodec(), e);
+        }
+        LOGGER.info("Writing up to " + numElements + " random elements to " + numFiles + " temporary file(s) "
+                + "(compression " + compressionType + " using " + codec.getClass().getSimpleName() + ")");
+        final long startTime = System.currentTimeMillis();
+        final ElementIngestTest.ElementSupplierFactory elementSupplierFactory
+                = new ElementIngestTest.ElementSupplierFactory(testProperties);
+        final boolean reproducible = null != testProperties.getSeed();
+        // With a seed the files partition the edges of the seeded graph, so that each edge's elements are in one file
+        final long numItems = reproducible ? elementSupplierFactory.getNumEdges(numElements) : numElements;
+        final ExecutorService executorService = Executors.newFixedThreadPool(numFiles);
+        long numWritten = 0L;
+        try {
+            final List<Future<Long>> futures = new ArrayList<>(numFiles);
+            for (int i = 0; i < numFiles; i++) {
+                // File i contains elements (or edges) first to last - 1, so each one is in exactly one file
+                final long first = numItems * i / numFiles;
+                final long last = numItems * (i + 1) / numFiles;
+                final Path file = new Path(directory, String.format("part-%05d", i));
+                futures.add(executorService.submit(() -> {
+                    final Iterator<Element> elements = reproducible
+                            ? elementSupplierFactory.streamElementsOfEdges(first, last).iterator()
+                            : Stream.generate(elementSupplierFactory.get()).limit(last - first).iterator();
+                    return writeSequenceFile(conf, file, compressionType, codec, elements);
+                }));
+            }
+            for (final Future<Long> future : futures) {
+                numWritten += future.get();
+            }
+        } catch (final InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new OperationException("Interrupted creating SequenceFiles of random data", e);
+        } catch (final ExecutionException e) {
+            throw new OperationException("Exception creating SequenceFiles of random data", e.getCause());
+        } finally {
+            executorService.shutdownNow();
+        }
+        final double durationInSeconds = (System.currentTimeMillis() - startTime) / 1000.0;
+        LOGGER.info("Wrote " + numWritten + " random elements in " + durationInSeconds + " seconds (rate was "
+                + numWritten / durationInSeconds + " per second)");
+        return numWritten;
+    }
+
+    private long writeSequenceFile(final Configuration conf,
+                                   final Path file,
+                                   final SequenceFile.CompressionType compressionType,
+                                   final CompressionCodec codec,
+                                   final Iterator<Element> elements) throws IOException {
+        final ToBytesSerialiser<Element> serialisation = new ElementSerialiser(accumuloStore.getSchema());
+        final BytesWritable value = new BytesWritable();
+        long numWritten = 0L;
+        try (final SequenceFile.Writer writer = SequenceFile.createWriter(conf,
+                SequenceFile.Writer.file(file),
+                SequenceFile.Writer.compression(compressionType, codec),
+                SequenceFile.Writer.keyClass(NullWritable.class),
+                SequenceFile.Writer.valueClass(BytesWritable.class))) {
+            while (elements.hasNext()) {
+                final byte[] bytes = serialisation.serialise(elements.next());
+                value.set(bytes, 0, bytes.length);
+                writer.append(NullWritable.get(), value);
+                numWritten++;
+            }
+        }
+        return numWritten;
     }
 
     public static void main(final String[] args) throws StoreException, IOException {
@@ -15,6 +15,9 @@
  */
 package uk.gov.gchq.gaffer.accumulostore.performancetesting.ingest;
 
+import org.apache.hadoop.io.SequenceFile;
+import org.apache.hadoop.io.compress.DefaultCodec;
+
 import uk.gov.gchq.gaffer.performancetesting.ingest.ElementIngestTestProperties;
 
 public class AccumuloElementIngestTestProperties extends ElementIngestTestProperties {
@@ -25,6 +28,25 @@ public class AccumuloElementIngestTestProperties extends ElementIngestTestProper
             "gaffer.accumulostore.performancetesting.ingest.numElementsForSplitEstimation";
     private static final String NUM_SPLIT_POINTS_PER_TABLET_SERVER =
             "gaffer.accumulostore.performancetesting.ingest.numSplitPointsPerTabletServer";
+    private static final String NUM_SPLIT_ESTIMATION_FILES =
+            "gaffer.accumulostore.performancetesting.ingest.numSplitEstimationFiles";
+    private static final String SPLIT_ESTIMATION_COMPRESSION_TYPE =
+            "gaffer.accumulostore.performancetesting.ingest.splitEstimationCompressionType";
+    private static final String SPLIT_ESTIMATION_COMPRESSION_CODEC =
+            "gaffer.accumulostore.performancetesting.ingest.splitEstimationCompressionCodec";
+    private static final String INGEST_MODE = "gaffer.accumulostore.performancetesting.ingest.mode";
+    private static final String BULK_IMPORT_ELEMENTS_PER_FILE =
+            "gaffer.accumulostore.performancetesting.ingest.bulkImportElementsPerFile";
+
+    /**
+     * The ways in which elements can be added to the table: through a batch writer using an
+     * {@link uk.gov.gchq.gaffer.operation.impl.add.AddElements} operation, or by writing RFiles and bulk importing
+     * them.
+     */
+    public enum IngestMode {
+        ADD_ELEMENTS,
+        BULK_IMPORT
+    }
 
     public AccumuloElementIngestTestProperties() {
         super();
@@ -53,4 +75,58 @@ public class AccumuloElementIngestTestProperties extends ElementIngestTestProper
     public void setNumSplitPointsPerTabletServer(final String numSplitPointsPerTabletServer) {
         setProperty(NUM_SPLIT_POINTS_PER_TABLET_SERVER, numSplitPointsPerTabletServer);
     }
+
+    public int getNumSplitEstimationFiles() {
+        return Integer.parseInt(getProperty(NUM_SPLIT_ESTIMATION_FILES, "1"));
+    }
+
+    public void setNumSplitEstimationFiles(final int numSplitEstimationFiles) {
+        if (numSplitEstimationFiles <= 0) {
+            throw new IllegalArgumentException("The number of split estimation files must be greater than 0.");
+        }
+        setProperty(NUM_SPLIT_ESTIMATION_FILES, "" + numSplitEstimationFiles);
+    }
+
+    public SequenceFile.CompressionType getSplitEstimationCompressionType() {
+        return SequenceFile.CompressionType.valueOf(getProperty(SPLIT_ESTIMATION_COMPRESSION_TYPE,
+                SequenceFile.CompressionType.NONE.name()));
+    }
+
+    public void setSplitEstimationCompressionType(final SequenceFile.CompressionType compressionType) {
+        setProperty(SPLIT_ESTIMATION_COMPRESSION_TYPE, compressionType.name());
+    }
+
+    /**
+     * Returns the class name of the Hadoop compression codec used for the split estimation files, e.g.
+     * <code>org.apache.hadoop.io.compress.SnappyCodec</code>. The default is DEFLATE
+     * ({@link DefaultCodec}). The codec is only used if the compression type is not <code>NONE</code>.
+     *
+     * @return the class name of the compression codec
+     */
+    public String getSplitEstimationCompressionCodec() {
+        return getProperty(SPLIT_ESTIMATION_COMPRESSION_CODEC, DefaultCodec.class.getName());
+    }
+
+    public void setSplitEstimationCompressionCodec(final String codecClassName) {
+        setProperty(SPLIT_ESTIMATION_COMPRESSION_CODEC, codecClassName);
+    }
+
+    public IngestMode getIngestMode() {
+        return IngestMode.valueOf(getProperty(INGEST_MODE, IngestMode.ADD_ELEMENTS.name()));
+    }
+
+    public void setIngestMode(final IngestMode ingestMode) {
+        setProperty(INGEST_MODE, ingestMode.name());
+    }
+
+    public long getBulkImportElementsPerFile() {
+        return Long.parseLong(getProperty(BULK_IMPORT_ELEMENTS_PER_FILE, "1000000"));
+    }
+
+    public void setBulkImportElementsPerFile(final long bulkImportElementsPerFile) {
+        if (bulkImportElementsPerFile <= 0L) {
+            throw new IllegalArgumentException("The number of elements per file must be greater than 0.");
+        }
+        setProperty(BULK_IMPORT_ELEMENTS_PER_FILE, "" + bulkImportElementsPerFile);
+    }
 }
@@ -0,0 +1,66 @@
+/*
+ * Copyright 2019 Crown Copyright
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package uk.gov.gchq.gaffer.accumulostore.performancetesting.ingest;
+
+import uk.gov.gchq.gaffer.performancetesting.Metrics;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.SortedSet;
+import java.util.TreeSet;
+
+/**
+ * This class contains the results from a {@link AccumuloBulkImportTest}: the time in seconds spent in each phase of
+ * the bulk import and the overall number of {@link uk.gov.gchq.gaffer.data.element.Element}s imported per second.
+ */
+public class BulkImportMetrics implements Metrics {
+    public static final String GENERATE_SECONDS = "generate_seconds";
+    public static final String SORT_SECONDS = "sort_seconds";
+    public static final String WRITE_SECONDS = "write_seconds";
+    public static final String IMPORT_SECONDS = "import_seconds";
+    public static final String ELEMENTS_PER_SECOND_OVERALL = "elements_per_second_overall";
+    private static final SortedSet<String> METRIC_NAMES = Collections.unmodifiableSortedSet(new TreeSet<>(
+            Arrays.asList(GENERATE_SECONDS, SORT_SECONDS, WRITE_SECONDS, IMPORT_SECONDS,
+                    ELEMENTS_PER_SECOND_OVERALL)));
+    private final Map<String, Double> metrics;
+
+    public BulkImportMetrics() {
+        this.metrics = new HashMap<>();
+    }
+
+    @Override
+    public SortedSet<String> getMetricNames() {
+        return METRIC_NAMES;
+    }
+
+    @Override
+    public Object getMetric(final String metricName) {
+        return metrics.get(metricName);
+    }
+
+    @Override
+    public void putMetric(final String metricName, final Object metric) {
+        if (!METRIC_NAMES.contains(metricName)) {
+            throw new IllegalArgumentException("Unrecognised metric " + metricName);
+        }
+        if (!(metric instanceof Double)) {
+            throw new IllegalArgumentException("Metric must be a double (got " + metricName.getClass().getName() + ")");
+        }
+        metrics.put(metricName, (Double) metric);
+    }
+}
@@ -38,14 +38,24 @@ public class BytesWritableElementGenerator implements ElementGenerator<BytesWrit
     public Iterable<? extends Element> apply(final Iterable<? extends BytesWritable> domainObjects) {
         final Stream<Element> elementStream = StreamSupport
                 .stream(domainObjects.spliterator(), false)
-                .map(bw -> {
-                    try {
-                        return elementSerialisation.deserialise(bw.getBytes());
-                    } catch (final SerialisationException e) {
-                        throw new RuntimeException("SerialisationException getting elements from BytesWritable", e);
-                    }
-                });
+                .map(this::deserialise);
         final Iterable<Element> elementIterable = elementStream::iterator;
         return new WrappedCloseableIterable<>(elementIterable::iterator);
     }
+
+    /**
+     * Deserialises a single {@link Element}. The array returned by {@link BytesWritable#getBytes()} is the
+     * {@link BytesWritable}'s internal buffer, which is reused between records and may be longer than the current
+     * record, so only the first {@link BytesWritable#getLength()} bytes are deserialised.
+     *
+     * @param bytesWritable the serialised element
+     * @return the element
+     */
+    public Element deserialise(final BytesWritable bytesWritable) {
+        try {
+            return elementSerialisation.deserialise(bytesWritable.getBytes(), 0, bytesWritable.getLength());
+        } catch (final SerialisationException e) {
+            throw new RuntimeException("SerialisationException getting elements from BytesWritable", e);
+        }
+    }
 }
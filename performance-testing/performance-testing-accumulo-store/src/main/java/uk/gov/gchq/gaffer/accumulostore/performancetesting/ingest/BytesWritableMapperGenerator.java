@@ -33,9 +33,30 @@ import java.io.UnsupportedEncodingException;
 import java.util.ArrayList;
 import java.util.List;
 
+/**
+ * A {@link MapperGenerator} for {@link BytesWritable}s containing {@link Element}s serialised with an
+ * {@link ElementSerialiser}, e.g. for sampling data from a SequenceFile with {@link SampleDataForSplitPointsJobFactory}.
+ *
+ * <p>Each record is deserialised exactly once. The number of records, the number of bytes and the time spent
+ * deserialising are recorded in the job's {@link Counters}, so the mapper throughput can be seen in the job's
+ * counters.
+ */
 public class BytesWritableMapperGenerator implements MapperGenerator<NullWritable, BytesWritable> {
 
+    /**
+     * The counters updated by this mapper generator.
+     */
+    public enum Counters {
+        RECORDS,
+        BYTES,
+        DESERIALISATION_MILLIS
+    }
+
+    private static final long NANOS_PER_MILLI = 1000000L;
+
     private final List<BytesWritable> singleItemList = new ArrayList<>(1);
+    private final List<Element> singleElementList = new ArrayList<>(1);
+    private long deserialisationNanos = 0L;
     private ElementGenerator<BytesWritable> elementGenerator;
 
     public BytesWritableMapperGenerator() {
@@ -64,11 +85,32 @@ public class BytesWritableMapperGenerator implements MapperGenerator<NullWritabl
         if (null == elementGenerator) {
             createElementGenerator(context.getConfiguration());
         }
-        singleItemList.clear();
-        singleItemList.add(bytesWritable);
+        final long startTime = System.nanoTime();
+        final Iterable<? extends Element> elements;
+        if (elementGenerator instanceof BytesWritableElementGenerator) {
+            singleElementList.clear();
+            singleElementList.add(((BytesWritableElementGenerator) elementGenerator).deserialise(bytesWritable));
+            elements = singleElementList;
+        } else {
+            singleItemList.clear();
+            singleItemList.add(bytesWritable);
+            elements = elementGenerator.apply(singleItemList);
+        }
+        updateCounters(bytesWritable, System.nanoTime() - startTime, context);
+        return elements;
+    }
 
-        elementGenerator.apply(singleItemList).forEach(System.out::println);
-        return elementGenerator.apply(singleItemList);
+    private void updateCounters(final BytesWritable bytesWritable,
+                                final long durationInNanos,
+                                final MapContext<NullWritable, BytesWritable, ?, ?> context) {
+        context.getCounter(Counters.RECORDS).increment(1L);
+        context.getCounter(Counters.BYTES).increment(bytesWritable.getLength());
+        // Accumulate nanoseconds locally so that the counter is not truncated to 0 for every record
+        deserialisationNanos += durationInNanos;
+        if (deserialisationNanos >= NANOS_PER_MILLI) {
+            context.getCounter(Counters.DESERIALISATION_MILLIS).increment(deserialisationNanos / NANOS_PER_MILLI);
+            deserialisationNanos %= NANOS_PER_MILLI;
+        }
     }
 
     public ElementGenerator<BytesWritable> getElementGenerator() {
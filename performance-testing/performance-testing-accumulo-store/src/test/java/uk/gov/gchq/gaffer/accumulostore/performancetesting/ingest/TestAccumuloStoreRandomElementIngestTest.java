@@ -16,6 +16,7 @@
 package uk.gov.gchq.gaffer.accumulostore.performancetesting.ingest;
 
 import org.apache.hadoop.conf.Configuration;
+import org.apache.hadoop.io.SequenceFile;
 import org.junit.Rule;
 import org.junit.Test;
 import org.junit.rules.TemporaryFolder;
@@ -25,14 +26,26 @@ import uk.gov.gchq.gaffer.accumulostore.AccumuloStore;
 import uk.gov.gchq.gaffer.accumulostore.MockAccumuloStore;
 import uk.gov.gchq.gaffer.commonutil.CommonTestConstants;
 import uk.gov.gchq.gaffer.commonutil.StreamUtil;
+import uk.gov.gchq.gaffer.data.element.Edge;
+import uk.gov.gchq.gaffer.data.element.Element;
+import uk.gov.gchq.gaffer.data.element.Entity;
 import uk.gov.gchq.gaffer.graph.Graph;
 import uk.gov.gchq.gaffer.operation.OperationException;
+import uk.gov.gchq.gaffer.operation.impl.get.GetAllElements;
+import uk.gov.gchq.gaffer.performancetesting.ingest.ElementIngestTest;
 import uk.gov.gchq.gaffer.randomelementgeneration.Constants;
 import uk.gov.gchq.gaffer.randomelementgeneration.supplier.RmatElementSupplier;
 import uk.gov.gchq.gaffer.store.StoreException;
 import uk.gov.gchq.gaffer.store.schema.Schema;
+import uk.gov.gchq.gaffer.user.User;
 
+import java.io.File;
 import java.io.IOException;
+import java.util.HashMap;
+import java.util.Map;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
 
 public class TestAccumuloStoreRandomElementIngestTest {
 
@@ -69,4 +82,110 @@ public class TestAccumuloStoreRandomElementIngestTest {
         test.setConf(conf);
         test.run();
     }
+
+    @Test
+    public void testAccumuloStoreRandomElementIngestTestRunsWithParallelCompressedSplitEstimationFiles()
+            throws StoreException, OperationException, IOException {
+        // Given
+        final AccumuloElementIngestTestProperties testProperties = new AccumuloElementIngestTestProperties();
+        testProperties.setNumElements(100L);
+        testProperties.setBatchSize(10);
+        testProperties.setElementSupplierClass(RmatElementSupplier.class.getName());
+        testProperties.setRmatProbabilities(Constants.RMAT_PROBABILITIES);
+        testProperties.setRmatMaxNodeId(100L);
+        testProperties.setNumElementsForSplitEstimation("1000");
+        testProperties.setNumSplitEstimationFiles(3);
+        testProperties.setSplitEstimationCompressionType(SequenceFile.CompressionType.BLOCK);
+        final File tempDirectory = tempFolder.newFolder();
+        testProperties.setTempDirectory(tempDirectory.getCanonicalPath());
+
+        final Schema schema = Schema.fromJson(StreamUtil.schemas(Constants.class));
+        final AccumuloProperties storeProperties = AccumuloProperties.loadStoreProperties(
+                StreamUtil.openStream(Constants.class, "mockaccumulostore.properties")
+        );
+        final AccumuloStore accumuloStore = new MockAccumuloStore();
+        accumuloStore.initialise("1", schema, storeProperties);
+        final Graph graph = new Graph.Builder()
+                .graphId("1")
+                .store(accumuloStore)
+                .build();
+
+        // When
+        final AccumuloElementIngestTest test = new AccumuloElementIngestTest(graph, accumuloStore, testProperties);
+        test.setConf(new Configuration());
+        test.run();
+
+        // Then
+        final File[] parts = new File(tempDirectory, "tmp_random_data")
+                .listFiles((dir, name) -> name.startsWith("part-"));
+        assertEquals(3, parts.length);
+    }
+
+    @Test
+    public void testAccumuloStoreRandomElementIngestTestRunsInBulkImportMode()
+            throws StoreException, OperationException, IOException {
+        // Given
+        final AccumuloElementIngestTestProperties testProperties = new AccumuloElementIngestTestProperties();
+        testProperties.setNumElements(100L);
+        testProperties.setBatchSize(10);
+        testProperties.setSeed(1L);
+        testProperties.setElementSupplierClass(RmatElementSupplier.class.getName());
+        testProperties.setRmatProbabilities(Constants.RMAT_PROBABILITIES);
+        testProperties.setRmatMaxNodeId(100L);
+        testProperties.setRmatIncludeEntities(true);
+        testProperties.setTempDirectory(tempFolder.newFolder().getCanonicalPath());
+        testProperties.setIngestMode(AccumuloElementIngestTestProperties.IngestMode.BULK_IMPORT);
+        testProperties.setBulkImportElementsPerFile(30L);
+
+        final Schema schema = Schema.fromJson(StreamUtil.schemas(Constants.class));
+        final AccumuloProperties storeProperties = AccumuloProperties.loadStoreProperties(
+                StreamUtil.openStream(Constants.class, "mockaccumulostore.properties")
+        );
+        final AccumuloStore accumuloStore = new MockAccumuloStore();
+        accumuloStore.initialise("1", schema, storeProperties);
+        final Graph graph = new Graph.Builder()
+                .graphId("1")
+                .store(accumuloStore)
+                .build();
+        final Configuration conf = new Configuration();
+        final AccumuloBulkImportTest bulkImportTest = new AccumuloBulkImportTest(accumuloStore, testProperties, conf);
+        final ElementIngestTest.ElementSupplierFactory elementSupplierFactory
+                = new ElementIngestTest.ElementSupplierFactory(testProperties);
+        final Map<String, Long> expected = new HashMap<>();
+        for (final Element element : elementSupplierFactory.getElementsOfEdges(0L,
+                elementSupplierFactory.getNumEdges(100L))) {
+            expected.merge(getKey(element), 1L, Long::sum);
+        }
+
+        // When
+        final double rate = bulkImportTest.run();
+
+        // Then
+        assertTrue(rate > 0.0D);
+        assertEquals(expected, getCounts(graph));
+
+        // When the test is run again in the same directory
+        bulkImportTest.run();
+
+        // Then only the elements generated by the second run are imported, so every count has doubled
+        final Map<String, Long> doubled = new HashMap<>();
+        expected.forEach((key, count) -> doubled.put(key, 2L * count));
+        assertEquals(doubled, getCounts(graph));
+    }
+
+    private Map<String, Long> getCounts(final Graph graph) throws OperationException {
+        final Map<String, Long> counts = new HashMap<>();
+        for (final Element element : graph.execute(new GetAllElements(), new User())) {
+            counts.put(getKey(element), (Long) element.getProperty("count"));
+        }
+        return counts;
+    }
+
+    private String getKey(final Element element) {
+        if (element instanceof Edge) {
+            final Edge edge = (Edge) element;
+            return edge.getGroup() + " " + edge.getSource() + " " + edge.getDestination() + " " + edge.isDirected();
+        }
+        return element.getGroup() + " " + ((Entity) element).getVertex();
+    }
 }
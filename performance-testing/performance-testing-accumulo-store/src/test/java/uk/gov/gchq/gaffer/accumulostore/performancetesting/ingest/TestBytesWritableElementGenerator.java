@@ -0,0 +1,57 @@
+/*
+ * Copyright 2019 Crown Copyright
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package uk.gov.gchq.gaffer.accumulostore.performancetesting.ingest;
+
+import org.apache.hadoop.io.BytesWritable;
+import org.junit.Test;
+
+import uk.gov.gchq.gaffer.commonutil.StreamUtil;
+import uk.gov.gchq.gaffer.data.element.Edge;
+import uk.gov.gchq.gaffer.data.element.Element;
+import uk.gov.gchq.gaffer.randomelementgeneration.Constants;
+import uk.gov.gchq.gaffer.store.schema.Schema;
+import uk.gov.gchq.gaffer.store.serialiser.ElementSerialiser;
+
+import java.io.IOException;
+
+import static org.junit.Assert.assertEquals;
+
+public class TestBytesWritableElementGenerator {
+
+    @Test
+    public void testOnlyValidBytesAreDeserialisedWhenBufferIsReused() throws IOException {
+        // Given
+        final ElementSerialiser serialiser = new ElementSerialiser(Schema.fromJson(StreamUtil.schemas(Constants.class)));
+        final BytesWritableElementGenerator generator = new BytesWritableElementGenerator(serialiser);
+        final Edge longEdge = new Edge("edgeGroup", 1234567890123L, 9876543210987L, true);
+        longEdge.putProperty("count", 1000000L);
+        final Edge shortEdge = new Edge("edgeGroup", 1L, 2L, true);
+        shortEdge.putProperty("count", 1L);
+        final byte[] longBytes = serialiser.serialise(longEdge);
+        final byte[] shortBytes = serialiser.serialise(shortEdge);
+        final BytesWritable bytesWritable = new BytesWritable();
+
+        // When - reuse the writable as a SequenceFile reader does, so its buffer is longer than the second record
+        bytesWritable.set(longBytes, 0, longBytes.length);
+        final Element first = generator.deserialise(bytesWritable);
+        bytesWritable.set(shortBytes, 0, shortBytes.length);
+        final Element second = generator.deserialise(bytesWritable);
+
+        // Then
+        assertEquals(longEdge, first);
+        assertEquals(shortEdge, second);
+    }
+}
@@ -18,22 +18,42 @@ package uk.gov.gchq.gaffer.performancetesting.aws;
 
 import com.amazonaws.services.cloudwatch.AmazonCloudWatch;
 import com.amazonaws.services.cloudwatch.AmazonCloudWatchClientBuilder;
+import com.amazonaws.services.cloudwatch.model.AmazonCloudWatchException;
 import com.amazonaws.services.cloudwatch.model.Dimension;
 import com.amazonaws.services.cloudwatch.model.MetricDatum;
 import com.amazonaws.services.cloudwatch.model.PutMetricDataRequest;
 import com.amazonaws.services.cloudwatch.model.PutMetricDataResult;
 import com.amazonaws.services.cloudwatch.model.StandardUnit;
+import com.amazonaws.services.cloudwatch.model.StatisticSet;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
+import uk.gov.gchq.gaffer.performancetesting.LatencyHistogram;
 import uk.gov.gchq.gaffer.performancetesting.Metrics;
 import uk.gov.gchq.gaffer.performancetesting.MetricsListener;
 
 import java.util.ArrayList;
 import java.util.Date;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
 import java.util.Properties;
+import java.util.stream.Stream;
 
+/**
+ * A {@link MetricsListener} that publishes the results of a test to AWS CloudWatch.
+ *
+ * <p>Updates are aggregated in memory and published once every aggregation window (set by
+ * {@link #AGGREGATION_WINDOW_SECONDS_PROP}, 60 seconds by default), and when the listener is closed. For each metric a
+ * {@link StatisticSet} (minimum, maximum, sum and sample count) of the values seen in the window is published, along
+ * with the configured percentiles ({@link #PERCENTILES_PROP}) as separate metrics named
+ * <code>&lt;metric&gt;_p&lt;percentile&gt;</code>. Windows shorter than a minute are published as high-resolution
+ * metrics. The data is packed into as few requests as the CloudWatch API limits allow, see
+ * {@link PutMetricDataRequestPacker}. Setting the window to 0 publishes every update as it arrives.
+ *
+ * <p>Publishing happens on the thread that calls {@link #update(Metrics)}; wrap this listener in an
+ * {@link uk.gov.gchq.gaffer.performancetesting.AsyncMetricsListener} to take it off the test's threads.
+ */
 public class CloudWatchMetricsListener implements MetricsListener {
 
     private static final Logger LOGGER = LoggerFactory.getLogger(CloudWatchMetricsListener.class);
@@ -42,10 +62,37 @@ public class CloudWatchMetricsListener implements MetricsListener {
     public static final String DIMENSION_PROP_PREFIX = "gaffer.performancetesting.cloudwatchmetricslistener.dimensions.";
     public static final String DIMENSION_PROP_NAME_SUFFIX = ".name";
     public static final String DIMENSION_PROP_VALUE_SUFFIX = ".value";
+    public static final String AGGREGATION_WINDOW_SECONDS_PROP
+            = "gaffer.performancetesting.cloudwatchmetricslistener.aggregationWindowSeconds";
+    public static final String PERCENTILES_PROP = "gaffer.performancetesting.cloudwatchmetricslistener.percentiles";
+
+    private static final int DEFAULT_AGGREGATION_WINDOW_SECONDS = 60;
+    private static final String DEFAULT_PERCENTILES = "50,90,99";
+    // Values are multiplied by this before being recorded in the histogram, so that fractional values keep 3 digits
+    private static final double HISTOGRAM_SCALE = 1000.0D;
+    private static final int STANDARD_RESOLUTION_SECONDS = 60;
+    private static final int HIGH_RESOLUTION_SECONDS = 1;
 
     private AmazonCloudWatch cloudwatch = null;
     private String namespace = null;
     private List<Dimension> dimensions = new ArrayList<>();
+    private long aggregationWindowMillis = DEFAULT_AGGREGATION_WINDOW_SECONDS * 1000L;
+    private double[] percentiles;
+    private final Map<String, Aggregate> aggregates = new LinkedHashMap<>();
+    private long windowStart;
+
+    public CloudWatchMetricsListener() {
+    }
+
+    /**
+     * Creates a listener that publishes using the provided client rather than the default AWS client, e.g. one that
+     * records the requests locally.
+     *
+     * @param cloudwatch the client to publish with
+     */
+    public CloudWatchMetricsListener(final AmazonCloudWatch cloudwatch) {
+        this.cloudwatch = cloudwatch;
+    }
 
     @Override
     public void initialise(final Properties properties) {
@@ -70,51 +117,131 @@ public class CloudWatchMetricsListener implements MetricsListener {
             }
         }
 
-        this.cloudwatch = AmazonCloudWatchClientBuilder.defaultClient();
-    }
+        final int aggregationWindowSeconds = Integer.parseInt(properties.getProperty(AGGREGATION_WINDOW_SECONDS_PROP,
+                "" + DEFAULT_AGGREGATION_WINDOW_SECONDS));
+        if (aggregationWindowSeconds < 0) {
+            throw new IllegalArgumentException("The aggregation window must not be negative (got "
+                    + aggregationWindowSeconds + ")");
+        }
+        this.aggregationWindowMillis = aggregationWindowSeconds * 1000L;
 
-    @Override
-    public void update(final Metrics metrics) {
-        List<MetricDatum> cloudwatchMetrics = new ArrayList<>();
+        final String percentilesProperty = properties.getProperty(PERCENTILES_PROP, DEFAULT_PERCENTILES).trim();
+        this.percentiles = percentilesProperty.isEmpty()
+                ? new double[0]
+                : Stream.of(percentilesProperty.split(",")).mapToDouble(p -> Double.parseDouble(p.trim())).toArray();
 
-        Date now = new Date();
+        if (this.cloudwatch == null) {
+            this.cloudwatch = AmazonCloudWatchClientBuilder.defaultClient();
+        }
+        this.windowStart = System.currentTimeMillis();
+    }
 
+    @Override
+    public synchronized void update(final Metrics metrics) {
         for (final String name : metrics.getMetricNames()) {
             Object value = metrics.getMetric(name);
 
-            if (value instanceof Double) {
-                cloudwatchMetrics.add(
-                    new MetricDatum()
-                        .withMetricName(name)
-                        .withValue((double) value)
-                        .withUnit(StandardUnit.CountSecond)
-                        .withTimestamp(now)
-                        .withDimensions(this.dimensions)
-                );
+            // CloudWatch rejects NaN and infinite values
+            if (value instanceof Double && !((Double) value).isNaN() && !((Double) value).isInfinite()) {
+                aggregates.computeIfAbsent(name, k -> new Aggregate()).add((double) value);
             }
         }
 
-        if (cloudwatchMetrics.size() > 0) {
-            PutMetricDataResult response = this.cloudwatch.putMetricData(
-                new PutMetricDataRequest()
-                    .withNamespace(this.namespace)
-                    .withMetricData(cloudwatchMetrics)
-            );
-
-            LOGGER.info(
-                "AWS CloudWatch responseCode: {} requestId: {}",
-                response.getSdkHttpMetadata().getHttpStatusCode(),
-                response.getSdkResponseMetadata().getRequestId()
-            );
+        final long now = System.currentTimeMillis();
+        if (now - windowStart >= aggregationWindowMillis) {
+            publish(new Date(now));
+            windowStart = now;
         }
     }
 
     @Override
-    public void close() {
+    public synchronized void close() {
         if (this.cloudwatch != null) {
+            publish(new Date());
             this.cloudwatch.shutdown();
             this.cloudwatch = null;
         }
     }
 
+    private void publish(final Date timestamp) {
+        if (aggregates.isEmpty()) {
+            return;
+        }
+
+        final int storageResolution = aggregationWindowMillis < STANDARD_RESOLUTION_SECONDS * 1000L
+                ? HIGH_RESOLUTION_SECONDS
+                : STANDARD_RESOLUTION_SECONDS;
+        final List<MetricDatum> cloudwatchMetrics = new ArrayList<>();
+        for (final Map.Entry<String, Aggregate> entry : aggregates.entrySet()) {
+            final Aggregate aggregate = entry.getValue();
+            cloudwatchMetrics.add(
+                createDatum(entry.getKey(), timestamp, storageResolution)
+                    .withStatisticValues(
+                        new StatisticSet()
+                            .withMinimum(aggregate.min)
+                            .withMaximum(aggregate.max)
+                            .withSum(aggregate.sum)
+                            .withSampleCount((double) aggregate.count)
+                    )
+            );
+            if (aggregate.histogram.getTotalCount() > 0L) {
+                for (final double percentile : percentiles) {
+                    cloudwatchMetrics.add(
+                        createDatum(entry.getKey() + "_p" + formatPercentile(percentile), timestamp, storageResolution)
+                            .withValue(aggregate.histogram.getValueAtPercentile(percentile) / HISTOGRAM_SCALE)
+                    );
+                }
+            }
+        }
+        aggregates.clear();
+
+        for (final PutMetricDataRequest request : PutMetricDataRequestPacker.pack(this.namespace, cloudwatchMetrics)) {
+            try {
+                final PutMetricDataResult response = this.cloudwatch.putMetricData(request);
+                if (response.getSdkResponseMetadata() != null) {
+                    LOGGER.debug("AWS CloudWatch requestId: {}", response.getSdkResponseMetadata().getRequestId());
+                }
+            } catch (final AmazonCloudWatchException e) {
+                LOGGER.error("Failed publishing the following metrics to CloudWatch: " + request.getMetricData(), e);
+            }
+        }
+    }
+
+    private MetricDatum createDatum(final String name, final Date timestamp, final int storageResolution) {
+        return new MetricDatum()
+            .withMetricName(name)
+            .withUnit(StandardUnit.CountSecond)
+            .withTimestamp(timestamp)
+            .withStorageResolution(storageResolution)
+            .withDimensions(this.dimensions);
+    }
+
+    private static String formatPercentile(final double percentile) {
+        return percentile == Math.rint(percentile)
+                ? Long.toString((long) percentile)
+                : Double.toString(percentile).replace('.', '_');
+    }
+
+    /**
+     * The values of a single metric seen during the current window.
+     */
+    private static final class Aggregate {
+        private final LatencyHistogram histogram = new LatencyHistogram();
+        private double min = Double.MAX_VALUE;
+        private double max = -Double.MAX_VALUE;
+        private double sum = 0.0D;
+        private long count = 0L;
+
+        private void add(final double value) {
+            min = Math.min(min, value);
+            max = Math.max(max, value);
+            sum += value;
+            count++;
+            // The histogram can only record non-negative values, so negative values only contribute to the statistics
+            if (value >= 0.0D) {
+                histogram.recordValue(Math.round(value * HISTOGRAM_SCALE));
+            }
+        }
+    }
+
 }
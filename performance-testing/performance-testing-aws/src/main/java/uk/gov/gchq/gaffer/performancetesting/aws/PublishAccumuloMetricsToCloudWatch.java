@@ -75,6 +75,12 @@ public class PublishAccumuloMetricsToCloudWatch implements Runnable {
         this.interval = interval;
     }
 
+    public PublishAccumuloMetricsToCloudWatch(final String instanceName, final String zookeepers, final int interval,
+                                              final AmazonCloudWatch cloudwatch) {
+        this(instanceName, zookeepers, interval);
+        this.cloudwatch = cloudwatch;
+    }
+
     private void connect() {
         // Connect to Accumulo Master
         this.instance = new ZooKeeperInstance(this.instanceName, this.zookeepers);
@@ -82,8 +88,10 @@ public class PublishAccumuloMetricsToCloudWatch implements Runnable {
         this.context = new AccumuloServerContext(config);
         this.client = MasterClient.getConnection(this.context);
 
-        // Set up connection to AWS CloudWatch
-        this.cloudwatch = AmazonCloudWatchClientBuilder.defaultClient();
+        // Set up connection to AWS CloudWatch, unless a client has been provided
+        if (this.cloudwatch == null) {
+            this.cloudwatch = AmazonCloudWatchClientBuilder.defaultClient();
+        }
     }
 
     private void disconnect() {
@@ -264,19 +272,15 @@ public class PublishAccumuloMetricsToCloudWatch implements Runnable {
             }
         }
 
-        // There's a limit on the AWS API which means only 20 metrics can be submitted at once!
-        for (int i = 0; i < metrics.size(); i += 20) {
-            final List<MetricDatum> metricBatch = metrics.subList(i, i + 20 > metrics.size() ? metrics.size() : i + 20);
+        // There's a limit on the size of each request to the AWS API, so the metrics are split across as few requests
+        // as will fit
+        for (final PutMetricDataRequest request : PutMetricDataRequestPacker.pack("Accumulo", metrics)) {
             try {
-                final PutMetricDataResult response = this.cloudwatch.putMetricData(
-                    new PutMetricDataRequest()
-                        .withNamespace("Accumulo")
-                        .withMetricData(metricBatch)
-                );
+                final PutMetricDataResult response = this.cloudwatch.putMetricData(request);
 
                 LOGGER.debug(response.getSdkResponseMetadata().getRequestId());
             } catch (final AmazonCloudWatchException e) {
-                LOGGER.error("Failed publishing the following metrics to CloudWatch: " + metricBatch, e);
+                LOGGER.error("Failed publishing the following metrics to CloudWatch: " + request.getMetricData(), e);
             }
         }
     }
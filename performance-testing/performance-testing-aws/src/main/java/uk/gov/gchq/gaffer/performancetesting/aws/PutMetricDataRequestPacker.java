@@ -0,0 +1,89 @@
+/*
+ * Copyright 2019 Crown Copyright
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package uk.gov.gchq.gaffer.performancetesting.aws;
+
+import com.amazonaws.services.cloudwatch.model.Dimension;
+import com.amazonaws.services.cloudwatch.model.MetricDatum;
+import com.amazonaws.services.cloudwatch.model.PutMetricDataRequest;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Splits a list of {@link MetricDatum}s into as few {@link PutMetricDataRequest}s as possible while keeping each
+ * request within the limits of the CloudWatch API: at most {@link #MAX_DATUMS_PER_REQUEST} datums and at most
+ * {@link #MAX_REQUEST_BYTES} bytes of (form encoded) request body.
+ *
+ * <p>The size of a request is estimated from the lengths of the names and values in each datum plus a fixed allowance
+ * for the parameter names, so the estimate errs on the large side.
+ */
+public final class PutMetricDataRequestPacker {
+
+    // http://docs.aws.amazon.com/AmazonCloudWatch/latest/APIReference/API_PutMetricData.html
+    public static final int MAX_DATUMS_PER_REQUEST = 20;
+    public static final int MAX_REQUEST_BYTES = 40 * 1024;
+
+    // Allowance for the parameter names, e.g. "MetricData.member.20.StatisticValues.SampleCount=", and the numbers
+    private static final int DATUM_OVERHEAD_BYTES = 400;
+    private static final int DIMENSION_OVERHEAD_BYTES = 100;
+    private static final int REQUEST_OVERHEAD_BYTES = 100;
+
+    private PutMetricDataRequestPacker() {
+    }
+
+    public static List<PutMetricDataRequest> pack(final String namespace, final List<MetricDatum> metrics) {
+        return pack(namespace, metrics, MAX_DATUMS_PER_REQUEST, MAX_REQUEST_BYTES);
+    }
+
+    public static List<PutMetricDataRequest> pack(final String namespace,
+                                                  final List<MetricDatum> metrics,
+                                                  final int maxDatumsPerRequest,
+                                                  final int maxRequestBytes) {
+        final int requestOverhead = REQUEST_OVERHEAD_BYTES + namespace.length();
+        final List<PutMetricDataRequest> requests = new ArrayList<>();
+        List<MetricDatum> batch = new ArrayList<>();
+        int batchBytes = requestOverhead;
+        for (final MetricDatum metric : metrics) {
+            final int metricBytes = estimateSize(metric);
+            if (requestOverhead + metricBytes > maxRequestBytes) {
+                throw new IllegalArgumentException("Metric " + metric.getMetricName() + " is too large to publish ("
+                        + metricBytes + " bytes)");
+            }
+            if (batch.size() == maxDatumsPerRequest || batchBytes + metricBytes > maxRequestBytes) {
+                requests.add(new PutMetricDataRequest().withNamespace(namespace).withMetricData(batch));
+                batch = new ArrayList<>();
+                batchBytes = requestOverhead;
+            }
+            batch.add(metric);
+            batchBytes += metricBytes;
+        }
+        if (!batch.isEmpty()) {
+            requests.add(new PutMetricDataRequest().withNamespace(namespace).withMetricData(batch));
+        }
+        return requests;
+    }
+
+    static int estimateSize(final MetricDatum metric) {
+        int size = DATUM_OVERHEAD_BYTES + metric.getMetricName().length();
+        if (null != metric.getDimensions()) {
+            for (final Dimension dimension : metric.getDimensions()) {
+                size += DIMENSION_OVERHEAD_BYTES + dimension.getName().length() + dimension.getValue().length();
+            }
+        }
+        return size;
+    }
+}
@@ -0,0 +1,57 @@
+/*
+ * Copyright 2019 Crown Copyright
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package uk.gov.gchq.gaffer.performancetesting.aws;
+
+import com.amazonaws.services.cloudwatch.AbstractAmazonCloudWatch;
+import com.amazonaws.services.cloudwatch.model.PutMetricDataRequest;
+import com.amazonaws.services.cloudwatch.model.PutMetricDataResult;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * A stand-in for CloudWatch that records the requests it receives and rejects any that break the API limits.
+ */
+public class LocalCloudWatch extends AbstractAmazonCloudWatch {
+    private final List<PutMetricDataRequest> requests = new ArrayList<>();
+    private boolean shutdown = false;
+
+    @Override
+    public PutMetricDataResult putMetricData(final PutMetricDataRequest request) {
+        if (shutdown) {
+            throw new IllegalStateException("Client has been shut down");
+        }
+        if (request.getMetricData().size() > PutMetricDataRequestPacker.MAX_DATUMS_PER_REQUEST) {
+            throw new IllegalArgumentException("Too many metrics in request: " + request.getMetricData().size());
+        }
+        requests.add(request);
+        return new PutMetricDataResult();
+    }
+
+    @Override
+    public void shutdown() {
+        shutdown = true;
+    }
+
+    public List<PutMetricDataRequest> getRequests() {
+        return requests;
+    }
+
+    public boolean isShutdown() {
+        return shutdown;
+    }
+}
@@ -0,0 +1,114 @@
+/*
+ * Copyright 2019 Crown Copyright
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package uk.gov.gchq.gaffer.performancetesting.aws;
+
+import com.amazonaws.services.cloudwatch.model.MetricDatum;
+import com.amazonaws.services.cloudwatch.model.PutMetricDataRequest;
+import org.junit.Test;
+
+import uk.gov.gchq.gaffer.performancetesting.ingest.IngestMetrics;
+
+import java.util.Map;
+import java.util.Properties;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+public class TestCloudWatchMetricsListener {
+
+    @Test
+    public void testUpdatesAreAggregatedIntoStatisticSetsAndPercentiles() {
+        // Given
+        final LocalCloudWatch cloudwatch = new LocalCloudWatch();
+        final CloudWatchMetricsListener listener = new CloudWatchMetricsListener(cloudwatch);
+        listener.initialise(getProperties(3600, "50,99"));
+
+        // When
+        for (int i = 1; i <= 100; i++) {
+            final IngestMetrics metrics = new IngestMetrics();
+            metrics.putMetric(IngestMetrics.ELEMENTS_PER_SECOND_BATCH, (double) i);
+            listener.update(metrics);
+        }
+        assertTrue(cloudwatch.getRequests().isEmpty());
+        listener.close();
+
+        // Then
+        assertEquals(1, cloudwatch.getRequests().size());
+        final PutMetricDataRequest request = cloudwatch.getRequests().get(0);
+        assertEquals("namespace", request.getNamespace());
+        final Map<String, MetricDatum> datums = request.getMetricData().stream()
+                .collect(Collectors.toMap(MetricDatum::getMetricName, Function.identity()));
+        assertEquals(3, datums.size());
+        final MetricDatum statistics = datums.get(IngestMetrics.ELEMENTS_PER_SECOND_BATCH);
+        assertEquals(1.0D, statistics.getStatisticValues().getMinimum(), 0.0D);
+        assertEquals(100.0D, statistics.getStatisticValues().getMaximum(), 0.0D);
+        assertEquals(5050.0D, statistics.getStatisticValues().getSum(), 0.0D);
+        assertEquals(100.0D, statistics.getStatisticValues().getSampleCount(), 0.0D);
+        assertEquals(60, (int) statistics.getStorageResolution());
+        assertEquals("dimension", statistics.getDimensions().get(0).getName());
+        assertEquals(50.0D, datums.get(IngestMetrics.ELEMENTS_PER_SECOND_BATCH + "_p50").getValue(), 0.5D);
+        assertEquals(99.0D, datums.get(IngestMetrics.ELEMENTS_PER_SECOND_BATCH + "_p99").getValue(), 1.0D);
+        assertTrue(cloudwatch.isShutdown());
+    }
+
+    @Test
+    public void testEachUpdateIsPublishedAtHighResolutionWhenWindowIsZero() {
+        // Given
+        final LocalCloudWatch cloudwatch = new LocalCloudWatch();
+        final CloudWatchMetricsListener listener = new CloudWatchMetricsListener(cloudwatch);
+        listener.initialise(getProperties(0, ""));
+
+        // When
+        for (int i = 0; i < 3; i++) {
+            final IngestMetrics metrics = new IngestMetrics();
+            metrics.putMetric(IngestMetrics.ELEMENTS_PER_SECOND_BATCH, 10.0D);
+            metrics.putMetric(IngestMetrics.ELEMENTS_PER_SECOND_OVERALL, Double.NaN);
+            listener.update(metrics);
+        }
+        listener.close();
+
+        // Then
+        assertEquals(3, cloudwatch.getRequests().size());
+        for (final PutMetricDataRequest request : cloudwatch.getRequests()) {
+            assertEquals(1, request.getMetricData().size());
+            final MetricDatum datum = request.getMetricData().get(0);
+            assertEquals(IngestMetrics.ELEMENTS_PER_SECOND_BATCH, datum.getMetricName());
+            assertEquals(1, (int) datum.getStorageResolution());
+            assertEquals(1.0D, datum.getStatisticValues().getSampleCount(), 0.0D);
+        }
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testNamespaceMustBeSpecified() {
+        new CloudWatchMetricsListener(new LocalCloudWatch()).initialise(new Properties());
+    }
+
+    private static Properties getProperties(final int aggregationWindowSeconds, final String percentiles) {
+        final Properties properties = new Properties();
+        properties.setProperty(CloudWatchMetricsListener.NAMESPACE_PROP, "namespace");
+        properties.setProperty(CloudWatchMetricsListener.DIMENSION_PROP_PREFIX + "1"
+                + CloudWatchMetricsListener.DIMENSION_PROP_NAME_SUFFIX, "dimension");
+        properties.setProperty(CloudWatchMetricsListener.DIMENSION_PROP_PREFIX + "1"
+                + CloudWatchMetricsListener.DIMENSION_PROP_VALUE_SUFFIX, "value");
+        properties.setProperty(CloudWatchMetricsListener.AGGREGATION_WINDOW_SECONDS_PROP,
+                "" + aggregationWindowSeconds);
+        properties.setProperty(CloudWatchMetricsListener.PERCENTILES_PROP, percentiles);
+        return properties;
+    }
+}
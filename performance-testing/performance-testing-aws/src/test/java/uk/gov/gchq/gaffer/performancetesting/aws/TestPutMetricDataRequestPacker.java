@@ -0,0 +1,89 @@
+/*
+ * Copyright 2019 Crown Copyright
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package uk.gov.gchq.gaffer.performancetesting.aws;
+
+import com.amazonaws.services.cloudwatch.model.Dimension;
+import com.amazonaws.services.cloudwatch.model.MetricDatum;
+import com.amazonaws.services.cloudwatch.model.PutMetricDataRequest;
+import org.apache.commons.lang3.StringUtils;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+public class TestPutMetricDataRequestPacker {
+
+    @Test
+    public void testRequestsAreLimitedByNumberOfDatums() {
+        // Given
+        final List<MetricDatum> metrics = createMetrics(45, 1);
+
+        // When
+        final List<PutMetricDataRequest> requests = PutMetricDataRequestPacker.pack("namespace", metrics);
+
+        // Then
+        assertEquals(3, requests.size());
+        assertEquals(20, requests.get(0).getMetricData().size());
+        assertEquals(20, requests.get(1).getMetricData().size());
+        assertEquals(5, requests.get(2).getMetricData().size());
+        assertEquals(metrics.get(44), requests.get(2).getMetricData().get(4));
+    }
+
+    @Test
+    public void testRequestsAreLimitedBySize() {
+        // Given
+        final List<MetricDatum> metrics = createMetrics(20, 1000);
+        final int maxBytes = 10000;
+
+        // When
+        final List<PutMetricDataRequest> requests = PutMetricDataRequestPacker.pack("namespace", metrics, 20, maxBytes);
+
+        // Then
+        assertTrue(requests.size() > 1);
+        int total = 0;
+        for (final PutMetricDataRequest request : requests) {
+            int size = 0;
+            for (final MetricDatum metric : request.getMetricData()) {
+                size += PutMetricDataRequestPacker.estimateSize(metric);
+            }
+            assertTrue(size <= maxBytes);
+            total += request.getMetricData().size();
+        }
+        assertEquals(20, total);
+    }
+
+    @Test
+    public void testNoRequestsForNoMetrics() {
+        assertTrue(PutMetricDataRequestPacker.pack("namespace", new ArrayList<>()).isEmpty());
+    }
+
+    private static List<MetricDatum> createMetrics(final int numMetrics, final int dimensionValueLength) {
+        final List<MetricDatum> metrics = new ArrayList<>();
+        for (int i = 0; i < numMetrics; i++) {
+            metrics.add(new MetricDatum()
+                    .withMetricName("metric" + i)
+                    .withValue((double) i)
+                    .withDimensions(new Dimension()
+                            .withName("name")
+                            .withValue(StringUtils.repeat('a', dimensionValueLength))));
+        }
+        return metrics;
+    }
+}
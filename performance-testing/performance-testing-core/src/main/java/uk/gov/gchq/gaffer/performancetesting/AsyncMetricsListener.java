@@ -0,0 +1,260 @@
+/*
+ * Copyright 2019 Crown Copyright
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package uk.gov.gchq.gaffer.performancetesting;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import uk.gov.gchq.gaffer.commonutil.ToStringBuilder;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Properties;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * A {@link MetricsListener} that passes updates to another {@link MetricsListener} (the delegate) on a background
+ * thread, so that the thread running a test only adds the update to a queue and never waits for a slow sink, e.g. one
+ * that makes a network call.
+ *
+ * <p>The queue is a bounded, lock-free queue. If it is full when an update arrives then the overflow policy decides
+ * what happens: <code>DROP</code> discards the update; <code>COALESCE</code> replaces the latest queued update of the
+ * same kind in its place in the queue, or adds the update to the end of the queue if no update of that kind is
+ * waiting, so that the most recent update of each kind is never lost and updates are still passed on in order. The
+ * queue can therefore hold one update of each kind more than its size. Two updates are of the same kind if they have
+ * the same {@link Metrics#getType()}, have values for the same metrics and are for the same worker (see
+ * {@link Metrics#WORKER_ID}). So, for example, a per-batch update never replaces an overall update, and one worker's
+ * rate never replaces another's. On {@link #close()} every queued update is passed to the delegate before the delegate
+ * is closed.
+ *
+ * <p>The delegate is specified by the property {@link #DELEGATE_CLASS} and is initialised with the same properties.
+ * Alternatively it can be passed to the constructor.
+ */
+public class AsyncMetricsListener implements MetricsListener {
+    public static final String DELEGATE_CLASS = "gaffer.performancetesting.asyncmetricslistener.delegate";
+    public static final String QUEUE_SIZE = "gaffer.performancetesting.asyncmetricslistener.queueSize";
+    public static final String OVERFLOW_POLICY = "gaffer.performancetesting.asyncmetricslistener.overflowPolicy";
+    private static final Logger LOGGER = LoggerFactory.getLogger(AsyncMetricsListener.class);
+    private static final int DEFAULT_QUEUE_SIZE = 10000;
+    private static final long IDLE_PARK_NANOS = TimeUnit.MILLISECONDS.toNanos(50L);
+
+    /**
+     * What to do with an update that arrives when the queue is full.
+     */
+    public enum OverflowPolicy {
+        DROP,
+        COALESCE
+    }
+
+    // Each update is queued in a slot that the flusher empties, so that a coalesced update can replace it in place
+    private final Queue<AtomicReference<Metrics>> queue = new ConcurrentLinkedQueue<>();
+    private final AtomicInteger queued = new AtomicInteger(0);
+    private final AtomicLong dropped = new AtomicLong(0L);
+    private final Map<List<Object>, AtomicReference<Metrics>> latestSlotOfKind = new HashMap<>();
+    private MetricsListener delegate;
+    private int queueSize = DEFAULT_QUEUE_SIZE;
+    private OverflowPolicy overflowPolicy = OverflowPolicy.DROP;
+    private Thread flusher;
+    private volatile boolean closed = false;
+
+    public AsyncMetricsListener() {
+    }
+
+    public AsyncMetricsListener(final MetricsListener delegate,
+                                final int queueSize,
+                                final OverflowPolicy overflowPolicy) {
+        this.delegate = delegate;
+        setQueueSize(queueSize);
+        this.overflowPolicy = overflowPolicy;
+        start();
+    }
+
+    @Override
+    public void initialise(final Properties properties) {
+        if (!properties.containsKey(DELEGATE_CLASS)) {
+            throw new IllegalArgumentException("Properties should contain the class of the listener to pass updates "
+                    + "to (property " + DELEGATE_CLASS + ")");
+        }
+        try {
+            delegate = Class.forName(properties.getProperty(DELEGATE_CLASS))
+                    .asSubclass(MetricsListener.class).newInstance();
+        } catch (final ClassNotFoundException | InstantiationException | IllegalAccessException e) {
+            throw new IllegalArgumentException("MetricsListener could not be created: "
+                    + properties.getProperty(DELEGATE_CLASS), e);
+        }
+        delegate.initialise(properties);
+        setQueueSize(Integer.parseInt(properties.getProperty(QUEUE_SIZE, "" + DEFAULT_QUEUE_SIZE)));
+        overflowPolicy = OverflowPolicy.valueOf(properties.getProperty(OVERFLOW_POLICY, OverflowPolicy.DROP.name()));
+        start();
+    }
+
+    /**
+     * Adds the update to the queue. This never waits for the delegate.
+     *
+     * @param metrics the update
+     */
+    @Override
+    public void update(final Metrics metrics) {
+        if (closed) {
+            throw new IllegalStateException("Listener has been closed");
+        }
+        if (OverflowPolicy.COALESCE == overflowPolicy) {
+            coalesce(metrics);
+        } else if (tryReserve()) {
+            queue.offer(new AtomicReference<>(metrics));
+        } else {
+            dropped.incrementAndGet();
+        }
+        LockSupport.unpark(flusher);
+    }
+
+    private void coalesce(final Metrics metrics) {
+        final List<Object> kind = getKind(metrics);
+        synchronized (latestSlotOfKind) {
+            if (!tryReserve()) {
+                final AtomicReference<Metrics> latestSlot = latestSlotOfKind.get(kind);
+                if (null != latestSlot) {
+                    final Metrics replaced = latestSlot.get();
+                    // The flusher may empty the slot at any time, in which case the update joins the end of the queue
+                    if (null != replaced && latestSlot.compareAndSet(replaced, metrics)) {
+                        dropped.incrementAndGet();
+                        return;
+                    }
+                }
+                queued.incrementAndGet();
+            }
+            final AtomicReference<Metrics> slot = new AtomicReference<>(metrics);
+            latestSlotOfKind.put(kind, slot);
+            queue.offer(slot);
+        }
+    }
+
+    /**
+     * Passes every queued update to the delegate and then closes it. This should only be called once the test has
+     * stopped sending updates.
+     */
+    @Override
+    public void close() {
+        if (closed) {
+            return;
+        }
+        closed = true;
+        LockSupport.unpark(flusher);
+        try {
+            flusher.join();
+        } catch (final InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        if (dropped.get() > 0L) {
+            LOGGER.warn(dropped.get() + " metrics update(s) were dropped because the queue was full");
+        }
+        delegate.close();
+    }
+
+    /**
+     * @return the number of updates that were not passed to the delegate because the queue was full
+     */
+    public long getNumDropped() {
+        return dropped.get();
+    }
+
+    private boolean tryReserve() {
+        while (true) {
+            final int current = queued.get();
+            if (current >= queueSize) {
+                return false;
+            }
+            if (queued.compareAndSet(current, current + 1)) {
+                return true;
+            }
+        }
+    }
+
+    private void start() {
+        flusher = new Thread(this::flush, "AsyncMetricsListener-" + delegate.getClass().getSimpleName());
+        flusher.setDaemon(true);
+        flusher.start();
+    }
+
+    private void flush() {
+        while (true) {
+            // Read the flag before draining, so that nothing added before close() is missed
+            final boolean finished = closed;
+            boolean delivered = false;
+            AtomicReference<Metrics> slot;
+            while (null != (slot = queue.poll())) {
+                queued.decrementAndGet();
+                deliver(slot.getAndSet(null));
+                delivered = true;
+            }
+            if (finished) {
+                return;
+            }
+            if (!delivered) {
+                LockSupport.parkNanos(this, IDLE_PARK_NANOS);
+            }
+        }
+    }
+
+    /**
+     * @return the type of the update, the names of the metrics that have values and the worker id (if any)
+     */
+    static List<Object> getKind(final Metrics metrics) {
+        final List<Object> kind = new ArrayList<>();
+        kind.add(metrics.getType());
+        for (final String metricName : metrics.getMetricNames()) {
+            if (null != metrics.getMetric(metricName)) {
+                kind.add(metricName);
+            }
+        }
+        if (metrics.getMetricNames().contains(Metrics.WORKER_ID)) {
+            kind.add(metrics.getMetric(Metrics.WORKER_ID));
+        }
+        return kind;
+    }
+
+    private void deliver(final Metrics metrics) {
+        try {
+            delegate.update(metrics);
+        } catch (final RuntimeException e) {
+            LOGGER.error("Exception passing metrics to " + delegate, e);
+        }
+    }
+
+    private void setQueueSize(final int queueSize) {
+        if (queueSize <= 0) {
+            throw new IllegalArgumentException("The queue size must be greater than 0 (got " + queueSize + ")");
+        }
+        this.queueSize = queueSize;
+    }
+
+    @Override
+    public String toString() {
+        return new ToStringBuilder(this)
+                .append("delegate", delegate)
+                .append("queueSize", queueSize)
+                .append("overflowPolicy", overflowPolicy)
+                .build();
+    }
+}
@@ -0,0 +1,234 @@
+/*
+ * Copyright 2019 Crown Copyright
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package uk.gov.gchq.gaffer.performancetesting;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import uk.gov.gchq.gaffer.commonutil.ToStringBuilder;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Properties;
+import java.util.SortedSet;
+import java.util.TreeSet;
+import java.util.regex.Pattern;
+
+/**
+ * A {@link MetricsListener} that passes every update to several other listeners (sinks), e.g. a file, Prometheus and
+ * CloudWatch.
+ *
+ * <p>The sinks are named in the property {@link #SINKS} as a comma-separated list. For a sink called <code>file</code>
+ * the following properties are read:
+ * <ul>
+ * <li><code>gaffer.performancetesting.compositemetricslistener.sinks.file.class</code> - the class of the listener
+ * (required);</li>
+ * <li><code>gaffer.performancetesting.compositemetricslistener.sinks.file.include</code> - a regular expression; only
+ * metrics whose names match it are passed to the sink (optional, by default all metrics are passed);</li>
+ * <li><code>gaffer.performancetesting.compositemetricslistener.sinks.file.sampleRate</code> - the fraction of updates
+ * that are passed to the sink, between 0 and 1, e.g. 0.1 passes every tenth update (optional, default 1).</li>
+ * </ul>
+ * Updates are sampled separately for each kind of update (as defined by {@link AsyncMetricsListener}), and the first
+ * update of each kind is always passed on. So a sample rate thins out the updates that are repeated for every batch
+ * or interval, while one-off updates, such as the overall results at the end of a test, always reach the sink.
+ * Filtered updates keep the {@link Metrics#getType()} of the original update.
+ * Each sink is initialised with all the properties, overridden by any other property that starts with the sink's
+ * prefix, with the prefix removed. For example, two sinks called <code>a</code> and <code>b</code> can write to
+ * different files by setting <code>...sinks.a.gaffer.performancetesting.filewritermetricslistener.filename</code> and
+ * <code>...sinks.b.gaffer.performancetesting.filewritermetricslistener.filename</code>.
+ *
+ * <p>Each sink is wrapped in an {@link AsyncMetricsListener}, which can be configured with the same overrides, so
+ * that a slow sink cannot hold up the test or the other sinks, and an exception thrown by a sink is logged rather
+ * than passed on.
+ */
+public class CompositeMetricsListener implements MetricsListener {
+    public static final String SINKS = "gaffer.performancetesting.compositemetricslistener.sinks";
+    public static final String CLASS = "class";
+    public static final String INCLUDE = "include";
+    public static final String SAMPLE_RATE = "sampleRate";
+    private static final Logger LOGGER = LoggerFactory.getLogger(CompositeMetricsListener.class);
+    // Allows for rounding errors when adding up the sample rate, e.g. ten lots of 0.1
+    private static final double SAMPLE_TOLERANCE = 1e-9D;
+
+    private final List<Sink> sinks = new ArrayList<>();
+
+    public CompositeMetricsListener() {
+    }
+
+    @Override
+    public void initialise(final Properties properties) {
+        if (!properties.containsKey(SINKS)) {
+            throw new IllegalArgumentException("Properties should contain the names of the sinks to send metrics to "
+                    + "(property " + SINKS + ")");
+        }
+        try {
+            for (final String sinkName : properties.getProperty(SINKS).split(",")) {
+                sinks.add(createSink(sinkName.trim(), properties));
+            }
+        } catch (final RuntimeException e) {
+            // Stop the sinks that have already been started
+            close();
+            throw e;
+        }
+    }
+
+    @Override
+    public void update(final Metrics metrics) {
+        for (final Sink sink : sinks) {
+            sink.update(metrics);
+        }
+    }
+
+    @Override
+    public void close() {
+        for (final Sink sink : sinks) {
+            try {
+                sink.listener.close();
+            } catch (final RuntimeException e) {
+                LOGGER.error("Exception closing sink " + sink.name, e);
+            }
+        }
+    }
+
+    public static String getSinkProperty(final String sinkName, final String property) {
+        return SINKS + "." + sinkName + "." + property;
+    }
+
+    private static Sink createSink(final String sinkName, final Properties properties) {
+        final String sinkPrefix = getSinkProperty(sinkName, "");
+        final String sinkClass = properties.getProperty(sinkPrefix + CLASS);
+        if (null == sinkClass) {
+            throw new IllegalArgumentException("Properties should contain the class of the sink " + sinkName
+                    + " (property " + sinkPrefix + CLASS + ")");
+        }
+        final String include = properties.getProperty(sinkPrefix + INCLUDE);
+        final double sampleRate = Double.parseDouble(properties.getProperty(sinkPrefix + SAMPLE_RATE, "1"));
+        if (sampleRate < 0.0D || sampleRate > 1.0D) {
+            throw new IllegalArgumentException("The sample rate of sink " + sinkName + " must be between 0 and 1 (got "
+                    + sampleRate + ")");
+        }
+
+        final Properties sinkProperties = new Properties();
+        sinkProperties.putAll(properties);
+        for (final String key : properties.stringPropertyNames()) {
+            if (key.startsWith(sinkPrefix)) {
+                sinkProperties.setProperty(key.substring(sinkPrefix.length()), properties.getProperty(key));
+            }
+        }
+        sinkProperties.setProperty(AsyncMetricsListener.DELEGATE_CLASS, sinkClass);
+        final AsyncMetricsListener listener = new AsyncMetricsListener();
+        listener.initialise(sinkProperties);
+        return new Sink(sinkName, listener, null == include ? null : Pattern.compile(include), sampleRate);
+    }
+
+    @Override
+    public String toString() {
+        return new ToStringBuilder(this)
+                .append("sinks", sinks)
+                .build();
+    }
+
+    private static final class Sink {
+        private final String name;
+        private final MetricsListener listener;
+        private final Pattern include;
+        private final double sampleRate;
+        private final Map<List<Object>, Double> credits = new HashMap<>();
+
+        private Sink(final String name, final MetricsListener listener, final Pattern include,
+                     final double sampleRate) {
+            this.name = name;
+            this.listener = listener;
+            this.include = include;
+            this.sampleRate = sampleRate;
+        }
+
+        private void update(final Metrics metrics) {
+            if (!sample(AsyncMetricsListener.getKind(metrics))) {
+                return;
+            }
+            if (null == include) {
+                listener.update(metrics);
+            } else {
+                final FilteredMetrics filtered = new FilteredMetrics(metrics, include);
+                if (!filtered.getMetricNames().isEmpty()) {
+                    listener.update(filtered);
+                }
+            }
+        }
+
+        // Passes on updates of each kind evenly at the sample rate, starting with the first, e.g. the first, fifth,
+        // ninth and so on for a rate of 0.25
+        private synchronized boolean sample(final List<Object> kind) {
+            final double credit = credits.getOrDefault(kind, 1.0D - sampleRate) + sampleRate;
+            if (credit >= 1.0D - SAMPLE_TOLERANCE) {
+                credits.put(kind, credit - 1.0D);
+                return true;
+            }
+            credits.put(kind, credit);
+            return false;
+        }
+
+        @Override
+        public String toString() {
+            return new ToStringBuilder(this)
+                    .append("name", name)
+                    .append("listener", listener)
+                    .append("include", include)
+                    .append("sampleRate", sampleRate)
+                    .build();
+        }
+    }
+
+    /**
+     * A read-only view of the metrics whose names match a pattern.
+     */
+    private static final class FilteredMetrics implements Metrics {
+        private final Metrics metrics;
+        private final SortedSet<String> metricNames = new TreeSet<>();
+
+        private FilteredMetrics(final Metrics metrics, final Pattern include) {
+            this.metrics = metrics;
+            for (final String metricName : metrics.getMetricNames()) {
+                if (include.matcher(metricName).matches()) {
+                    metricNames.add(metricName);
+                }
+            }
+        }
+
+        @Override
+        public SortedSet<String> getMetricNames() {
+            return metricNames;
+        }
+
+        @Override
+        public Object getMetric(final String metricName) {
+            return metricNames.contains(metricName) ? metrics.getMetric(metricName) : null;
+        }
+
+        @Override
+        public void putMetric(final String metricName, final Object metric) {
+            throw new UnsupportedOperationException("Filtered metrics cannot be changed");
+        }
+
+        @Override
+        public String getType() {
+            return metrics.getType();
+        }
+    }
+}
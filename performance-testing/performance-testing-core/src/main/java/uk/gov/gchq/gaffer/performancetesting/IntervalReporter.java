@@ -0,0 +1,103 @@
+/*
+ * Copyright 2019 Crown Copyright
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package uk.gov.gchq.gaffer.performancetesting;
+
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * Reports the rate of one or more counters on a fixed interval, rather than after every batch, so that a long-running
+ * test produces a steady stream of updates of a manageable size.
+ *
+ * <p>Threads running the test call {@link #add(int, long)}. Every interval a background thread passes the rate per
+ * second of each counter over that interval to a {@link Listener}. {@link #close()} reports the final, possibly
+ * shorter, interval.
+ */
+public class IntervalReporter implements AutoCloseable {
+    /**
+     * Receives the rates over each interval.
+     */
+    public interface Listener {
+        /**
+         * @param rates             the rate per second of each counter over the interval
+         * @param durationInSeconds the length of the interval
+         */
+        void report(double[] rates, double durationInSeconds);
+    }
+
+    private final AtomicLongArray totals;
+    private final long[] reportedTotals;
+    private final Listener listener;
+    private final ScheduledExecutorService executor;
+    private long lastReportNanos;
+    private boolean closed = false;
+
+    public IntervalReporter(final long intervalInMillis, final int numCounters, final Listener listener) {
+        if (intervalInMillis <= 0L) {
+            throw new IllegalArgumentException("The reporting interval must be greater than 0 (got "
+                    + intervalInMillis + ")");
+        }
+        this.totals = new AtomicLongArray(numCounters);
+        this.reportedTotals = new long[numCounters];
+        this.listener = listener;
+        this.lastReportNanos = System.nanoTime();
+        this.executor = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            final Thread thread = new Thread(runnable, "interval-reporter");
+            thread.setDaemon(true);
+            return thread;
+        });
+        executor.scheduleAtFixedRate(this::report, intervalInMillis, intervalInMillis, TimeUnit.MILLISECONDS);
+    }
+
+    public void add(final int counter, final long delta) {
+        totals.addAndGet(counter, delta);
+    }
+
+    private synchronized void report() {
+        if (closed) {
+            return;
+        }
+        final long now = System.nanoTime();
+        final double durationInSeconds = (now - lastReportNanos) / 1.0E9;
+        if (durationInSeconds <= 0.0D) {
+            return;
+        }
+        final double[] rates = new double[reportedTotals.length];
+        for (int i = 0; i < rates.length; i++) {
+            final long total = totals.get(i);
+            rates[i] = (total - reportedTotals[i]) / durationInSeconds;
+            reportedTotals[i] = total;
+        }
+        lastReportNanos = now;
+        listener.report(rates, durationInSeconds);
+    }
+
+    @Override
+    public void close() {
+        executor.shutdownNow();
+        try {
+            executor.awaitTermination(1L, TimeUnit.MINUTES);
+        } catch (final InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        report();
+        synchronized (this) {
+            closed = true;
+        }
+    }
+}
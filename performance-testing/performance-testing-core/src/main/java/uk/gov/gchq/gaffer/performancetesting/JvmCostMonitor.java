@@ -0,0 +1,243 @@
+/*
+ * Copyright 2019 Crown Copyright
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package uk.gov.gchq.gaffer.performancetesting;
+
+import com.sun.management.GarbageCollectionNotificationInfo;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import javax.management.ListenerNotFoundException;
+import javax.management.Notification;
+import javax.management.NotificationEmitter;
+import javax.management.NotificationListener;
+import javax.management.openmbean.CompositeData;
+
+import java.lang.management.GarbageCollectorMXBean;
+import java.lang.management.ManagementFactory;
+import java.lang.management.ThreadMXBean;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Measures the cost to the client JVM of a piece of work, e.g. adding a batch of elements, so that time spent on
+ * client-side garbage collection, element generation and serialisation can be told apart from time spent in the
+ * store.
+ *
+ * <p>{@link #start()} takes a {@link Sample} on the current thread and {@link Sample#stop()} returns the
+ * {@link Cost} of the work done since. The bytes allocated and the CPU time are those of the current thread, from the
+ * {@link ThreadMXBean}; they are <code>-1</code> if the JVM does not support measuring them. The number and total
+ * duration of garbage collections are counted from the notifications sent by each {@link GarbageCollectorMXBean}.
+ * The duration is the time each collection took, which is not the time the application was paused: collectors such
+ * as G1, CMS and ZGC do much of their work concurrently with the application.
+ * Garbage collection affects the whole JVM, so when several threads are running work at once each sees every
+ * collection that happened while its work ran. Notifications are sent shortly after a collection finishes, so a
+ * collection right at the end of some work may be counted against the work that follows it.
+ */
+public class JvmCostMonitor implements AutoCloseable {
+    private static final Logger LOGGER = LoggerFactory.getLogger(JvmCostMonitor.class);
+
+    private final ThreadMXBean threadMXBean = ManagementFactory.getThreadMXBean();
+    private final boolean cpuTimeSupported;
+    private final boolean allocatedBytesSupported;
+    private final AtomicLong gcCount = new AtomicLong(0L);
+    private final AtomicLong gcTimeMillis = new AtomicLong(0L);
+    private final List<NotificationEmitter> emitters = new ArrayList<>();
+    private final NotificationListener gcListener = this::handleNotification;
+
+    public JvmCostMonitor() {
+        cpuTimeSupported = threadMXBean.isCurrentThreadCpuTimeSupported() && enableCpuTime();
+        allocatedBytesSupported = threadMXBean instanceof com.sun.management.ThreadMXBean
+                && ((com.sun.management.ThreadMXBean) threadMXBean).isThreadAllocatedMemorySupported()
+                && enableAllocatedMemory();
+        for (final GarbageCollectorMXBean gcBean : ManagementFactory.getGarbageCollectorMXBeans()) {
+            if (gcBean instanceof NotificationEmitter) {
+                final NotificationEmitter emitter = (NotificationEmitter) gcBean;
+                emitter.addNotificationListener(gcListener, null, null);
+                emitters.add(emitter);
+            }
+        }
+        if (!cpuTimeSupported || !allocatedBytesSupported || emitters.isEmpty()) {
+            LOGGER.info("Not all JVM costs can be measured: CPU time {}, allocated bytes {}, garbage collections {}",
+                    cpuTimeSupported ? "supported" : "not supported",
+                    allocatedBytesSupported ? "supported" : "not supported",
+                    emitters.isEmpty() ? "not supported" : "supported");
+        }
+    }
+
+    private boolean enableCpuTime() {
+        try {
+            if (!threadMXBean.isThreadCpuTimeEnabled()) {
+                threadMXBean.setThreadCpuTimeEnabled(true);
+            }
+            return true;
+        } catch (final UnsupportedOperationException | SecurityException e) {
+            return false;
+        }
+    }
+
+    private boolean enableAllocatedMemory() {
+        final com.sun.management.ThreadMXBean bean = (com.sun.management.ThreadMXBean) threadMXBean;
+        try {
+            if (!bean.isThreadAllocatedMemoryEnabled()) {
+                bean.setThreadAllocatedMemoryEnabled(true);
+            }
+            return true;
+        } catch (final UnsupportedOperationException | SecurityException e) {
+            return false;
+        }
+    }
+
+    private void handleNotification(final Notification notification, final Object handback) {
+        if (GarbageCollectionNotificationInfo.GARBAGE_COLLECTION_NOTIFICATION.equals(notification.getType())) {
+            final GarbageCollectionNotificationInfo info
+                    = GarbageCollectionNotificationInfo.from((CompositeData) notification.getUserData());
+            gcCount.incrementAndGet();
+            gcTimeMillis.addAndGet(info.getGcInfo().getDuration());
+        }
+    }
+
+    /**
+     * Starts measuring the cost of work done on the current thread. The returned {@link Sample} must be stopped on
+     * the same thread.
+     *
+     * @return the sample
+     */
+    public Sample start() {
+        return new Sample();
+    }
+
+    /**
+     * @return true if the CPU time used by a thread can be measured
+     */
+    public boolean isCpuTimeSupported() {
+        return cpuTimeSupported;
+    }
+
+    /**
+     * @return true if the bytes allocated by a thread can be measured
+     */
+    public boolean isAllocatedBytesSupported() {
+        return allocatedBytesSupported;
+    }
+
+    /**
+     * @return the number of garbage collections since this monitor was created
+     */
+    public long getTotalGcCount() {
+        return gcCount.get();
+    }
+
+    /**
+     * @return the total time in milliseconds taken by the garbage collections since this monitor was created,
+     * including any time they ran concurrently with the application
+     */
+    public long getTotalGcTimeMillis() {
+        return gcTimeMillis.get();
+    }
+
+    private long currentThreadAllocatedBytes() {
+        return allocatedBytesSupported
+                ? ((com.sun.management.ThreadMXBean) threadMXBean).getThreadAllocatedBytes(
+                        Thread.currentThread().getId())
+                : -1L;
+    }
+
+    private long currentThreadCpuTime() {
+        return cpuTimeSupported ? threadMXBean.getCurrentThreadCpuTime() : -1L;
+    }
+
+    @Override
+    public void close() {
+        for (final NotificationEmitter emitter : emitters) {
+            try {
+                emitter.removeNotificationListener(gcListener);
+            } catch (final ListenerNotFoundException e) {
+                // Already removed
+            }
+        }
+        emitters.clear();
+    }
+
+    /**
+     * The state of the JVM when some work started.
+     */
+    public final class Sample {
+        private final long allocatedBytes;
+        private final long cpuTimeNanos;
+        private final long gcCountAtStart;
+        private final long gcTimeMillisAtStart;
+
+        private Sample() {
+            this.gcCountAtStart = gcCount.get();
+            this.gcTimeMillisAtStart = gcTimeMillis.get();
+            this.allocatedBytes = currentThreadAllocatedBytes();
+            this.cpuTimeNanos = currentThreadCpuTime();
+        }
+
+        public Cost stop() {
+            final long cpuTimeAtEnd = currentThreadCpuTime();
+            final long allocatedBytesAtEnd = currentThreadAllocatedBytes();
+            return new Cost(allocatedBytes < 0L ? -1L : allocatedBytesAtEnd - allocatedBytes,
+                    cpuTimeNanos < 0L ? -1L : cpuTimeAtEnd - cpuTimeNanos,
+                    gcCount.get() - gcCountAtStart,
+                    gcTimeMillis.get() - gcTimeMillisAtStart);
+        }
+    }
+
+    /**
+     * The cost of some work to the client JVM.
+     */
+    public static final class Cost {
+        private final long allocatedBytes;
+        private final long cpuTimeNanos;
+        private final long gcCount;
+        private final long gcTimeMillis;
+
+        public Cost(final long allocatedBytes, final long cpuTimeNanos, final long gcCount, final long gcTimeMillis) {
+            this.allocatedBytes = allocatedBytes;
+            this.cpuTimeNanos = cpuTimeNanos;
+            this.gcCount = gcCount;
+            this.gcTimeMillis = gcTimeMillis;
+        }
+
+        /**
+         * @return the number of bytes allocated by the thread, or -1 if this could not be measured
+         */
+        public long getAllocatedBytes() {
+            return allocatedBytes;
+        }
+
+        /**
+         * @return the CPU time used by the thread in nanoseconds, or -1 if this could not be measured
+         */
+        public long getCpuTimeNanos() {
+            return cpuTimeNanos;
+        }
+
+        public long getGcCount() {
+            return gcCount;
+        }
+
+        /**
+         * @return the time in milliseconds taken by garbage collections, including any time they ran concurrently
+         * with the application
+         */
+        public long getGcTimeMillis() {
+            return gcTimeMillis;
+        }
+    }
+}
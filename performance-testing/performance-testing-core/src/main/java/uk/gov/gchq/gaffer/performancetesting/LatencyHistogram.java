@@ -0,0 +1,156 @@
+/*
+ * Copyright 2019 Crown Copyright
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package uk.gov.gchq.gaffer.performancetesting;
+
+/**
+ * A recording histogram of non-negative latencies, in the style of HdrHistogram. Values are stored in buckets whose
+ * width grows with the magnitude of the value, so that every recorded value is accurate to within 1% while the
+ * histogram uses a fixed amount of memory (one array of counts) however many values are recorded.
+ *
+ * <p>Values below 256 are recorded exactly. Larger values are split by the position of their most significant bit
+ * and then into 128 linear sub-buckets, so the reported value for a percentile is the upper bound of the bucket that
+ * contains it.
+ *
+ * <p>The units of the recorded values are chosen by the caller; the ingest and query tests record microseconds. All
+ * methods are synchronized so that a histogram can be shared by several threads.
+ */
+public class LatencyHistogram {
+    private static final int SUB_BUCKET_BITS = 7;
+    private static final int SUB_BUCKET_HALF_COUNT = 1 << SUB_BUCKET_BITS;
+    private static final int SUB_BUCKET_COUNT = 2 * SUB_BUCKET_HALF_COUNT;
+    private static final int NUM_BUCKETS = (Long.SIZE - SUB_BUCKET_BITS) * SUB_BUCKET_HALF_COUNT + SUB_BUCKET_COUNT;
+
+    private final long[] counts = new long[NUM_BUCKETS];
+    private long totalCount = 0L;
+    private long min = Long.MAX_VALUE;
+    private long max = 0L;
+    private double sum = 0.0D;
+
+    public synchronized void recordValue(final long value) {
+        recordValueWithCount(value, 1L);
+    }
+
+    public synchronized void recordValueWithCount(final long value, final long count) {
+        if (value < 0L) {
+            throw new IllegalArgumentException("Cannot record a negative value (got " + value + ")");
+        }
+        if (count <= 0L) {
+            return;
+        }
+        counts[indexFor(value)] += count;
+        totalCount += count;
+        sum += (double) value * count;
+        min = Math.min(min, value);
+        max = Math.max(max, value);
+    }
+
+    /**
+     * Adds all the values recorded in the provided histogram to this histogram.
+     *
+     * @param other the histogram to add
+     */
+    public void add(final LatencyHistogram other) {
+        final long[] otherCounts;
+        final long otherTotalCount;
+        final long otherMin;
+        final long otherMax;
+        final double otherSum;
+        synchronized (other) {
+            otherCounts = other.counts.clone();
+            otherTotalCount = other.totalCount;
+            otherMin = other.min;
+            otherMax = other.max;
+            otherSum = other.sum;
+        }
+        synchronized (this) {
+            for (int i = 0; i < NUM_BUCKETS; i++) {
+                counts[i] += otherCounts[i];
+            }
+            totalCount += otherTotalCount;
+            sum += otherSum;
+            min = Math.min(min, otherMin);
+            max = Math.max(max, otherMax);
+        }
+    }
+
+    public synchronized void reset() {
+        for (int i = 0; i < NUM_BUCKETS; i++) {
+            counts[i] = 0L;
+        }
+        totalCount = 0L;
+        min = Long.MAX_VALUE;
+        max = 0L;
+        sum = 0.0D;
+    }
+
+    public synchronized long getTotalCount() {
+        return totalCount;
+    }
+
+    public synchronized long getMin() {
+        return 0L == totalCount ? 0L : min;
+    }
+
+    public synchronized long getMax() {
+        return max;
+    }
+
+    public synchronized double getMean() {
+        return 0L == totalCount ? 0.0D : sum / totalCount;
+    }
+
+    /**
+     * Returns the value at the given percentile, i.e. the smallest value such that the given percentage of the
+     * recorded values are less than or equal to it (to within the precision of the histogram).
+     *
+     * @param percentile the percentile, between 0 and 100
+     * @return the value at the given percentile, or 0 if nothing has been recorded
+     */
+    public synchronized long getValueAtPercentile(final double percentile) {
+        if (percentile < 0.0D || percentile > 100.0D) {
+            throw new IllegalArgumentException("Percentile must be between 0 and 100 (got " + percentile + ")");
+        }
+        if (0L == totalCount) {
+            return 0L;
+        }
+        final long countAtPercentile = Math.max(1L, (long) Math.ceil((percentile / 100.0D) * totalCount));
+        long cumulativeCount = 0L;
+        for (int i = 0; i < NUM_BUCKETS; i++) {
+            cumulativeCount += counts[i];
+            if (cumulativeCount >= countAtPercentile) {
+                return Math.max(min, Math.min(max, highestValueInBucket(i)));
+            }
+        }
+        return max;
+    }
+
+    private static int indexFor(final long value) {
+        if (value < SUB_BUCKET_COUNT) {
+            return (int) value;
+        }
+        final int shift = (Long.SIZE - 1 - Long.numberOfLeadingZeros(value)) - SUB_BUCKET_BITS;
+        return (shift * SUB_BUCKET_HALF_COUNT) + (int) (value >>> shift);
+    }
+
+    private static long highestValueInBucket(final int index) {
+        if (index < SUB_BUCKET_COUNT) {
+            return index;
+        }
+        final int shift = (index / SUB_BUCKET_HALF_COUNT) - 1;
+        final long subBucket = index - ((long) shift * SUB_BUCKET_HALF_COUNT);
+        return ((subBucket + 1L) << shift) - 1L;
+    }
+}
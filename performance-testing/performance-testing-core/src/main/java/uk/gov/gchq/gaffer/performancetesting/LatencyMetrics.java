@@ -0,0 +1,112 @@
+/*
+ * Copyright 2019 Crown Copyright
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package uk.gov.gchq.gaffer.performancetesting;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.SortedSet;
+import java.util.TreeSet;
+
+/**
+ * This class contains a summary of one or more {@link LatencyHistogram}s. For each histogram, the count of recorded
+ * values and the 50th, 90th, 99th and 99.9th percentiles and maximum are provided. The histograms are assumed to
+ * record microseconds and the percentiles are reported in milliseconds.
+ *
+ * <p>The name of each metric is the name of the histogram followed by the name of the statistic, e.g. the 99th
+ * percentile of the batch latency is called <code>batch_latency_p99_ms</code>.
+ *
+ * <p>The {@link #AMORTISED_SEED_LATENCY} of a query is not the time taken to query for any one seed: each seed in a
+ * batch is recorded with an equal share of the batch latency, i.e. the batch latency divided by the number of seeds.
+ * So its distribution is that of the batch latency rescaled by the batch size.
+ */
+public class LatencyMetrics implements Metrics {
+    public static final String BATCH_LATENCY = "batch_latency";
+    public static final String AMORTISED_SEED_LATENCY = "amortised_seed_latency";
+    public static final String COUNT = "count";
+    public static final String P50 = "p50_ms";
+    public static final String P90 = "p90_ms";
+    public static final String P99 = "p99_ms";
+    public static final String P999 = "p999_ms";
+    public static final String MAX = "max_ms";
+    private static final List<String> STATISTICS = Collections.unmodifiableList(Arrays.asList(COUNT, P50, P90, P99,
+            P999, MAX));
+    private final SortedSet<String> metricNames;
+    private final Map<String, Double> metrics;
+
+    public LatencyMetrics() {
+        this.metricNames = new TreeSet<>();
+        this.metrics = new HashMap<>();
+    }
+
+    /**
+     * Allows subclasses to add metrics other than histogram summaries.
+     *
+     * @param metricName the name of the metric
+     */
+    protected void addMetricName(final String metricName) {
+        metricNames.add(metricName);
+    }
+
+    public static String getMetricName(final String histogramName, final String statistic) {
+        return histogramName + "_" + statistic;
+    }
+
+    /**
+     * Adds the summary statistics of the given histogram to these metrics.
+     *
+     * @param histogramName the name of the histogram, used as the prefix of each metric name
+     * @param histogram     the histogram, which is assumed to contain values in microseconds
+     * @return this object
+     */
+    public LatencyMetrics addHistogram(final String histogramName, final LatencyHistogram histogram) {
+        STATISTICS.forEach(statistic -> metricNames.add(getMetricName(histogramName, statistic)));
+        putMetric(getMetricName(histogramName, COUNT), (double) histogram.getTotalCount());
+        putMetric(getMetricName(histogramName, P50), toMillis(histogram.getValueAtPercentile(50.0D)));
+        putMetric(getMetricName(histogramName, P90), toMillis(histogram.getValueAtPercentile(90.0D)));
+        putMetric(getMetricName(histogramName, P99), toMillis(histogram.getValueAtPercentile(99.0D)));
+        putMetric(getMetricName(histogramName, P999), toMillis(histogram.getValueAtPercentile(99.9D)));
+        putMetric(getMetricName(histogramName, MAX), toMillis(histogram.getMax()));
+        return this;
+    }
+
+    private static double toMillis(final long micros) {
+        return micros / 1000.0D;
+    }
+
+    @Override
+    public SortedSet<String> getMetricNames() {
+        return Collections.unmodifiableSortedSet(metricNames);
+    }
+
+    @Override
+    public Object getMetric(final String metricName) {
+        return metrics.get(metricName);
+    }
+
+    @Override
+    public void putMetric(final String metricName, final Object metric) {
+        if (!metricNames.contains(metricName)) {
+            throw new IllegalArgumentException("Unrecognised metric " + metricName);
+        }
+        if (!(metric instanceof Double)) {
+            throw new IllegalArgumentException("Metric must be a double (got " + metric.getClass().getName() + ")");
+        }
+        metrics.put(metricName, (Double) metric);
+    }
+}
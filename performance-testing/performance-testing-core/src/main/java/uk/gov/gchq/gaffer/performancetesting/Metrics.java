@@ -23,9 +23,25 @@ import java.util.SortedSet;
  */
 public interface Metrics {
 
+    /**
+     * The name of the metric that identifies the worker an update is from, if a test has several workers. Listeners
+     * use it to keep the values of different workers apart.
+     */
+    String WORKER_ID = "worker_id";
+
     SortedSet<String> getMetricNames();
 
     Object getMetric(String metricName);
 
     void putMetric(String metricName, Object metric);
+
+    /**
+     * Returns the type of this update, which listeners use to tell different kinds of update apart. A view of another
+     * {@link Metrics} should return the type of the metrics it wraps.
+     *
+     * @return the type of this update, by default the simple name of its class
+     */
+    default String getType() {
+        return getClass().getSimpleName();
+    }
 }
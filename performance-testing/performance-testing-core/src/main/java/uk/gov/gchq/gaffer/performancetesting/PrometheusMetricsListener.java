@@ -0,0 +1,290 @@
+/*
+ * Copyright 2019 Crown Copyright
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package uk.gov.gchq.gaffer.performancetesting;
+
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+
+import uk.gov.gchq.gaffer.commonutil.ToStringBuilder;
+import uk.gov.gchq.gaffer.performancetesting.results.CompareRuns;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.util.Map;
+import java.util.Properties;
+import java.util.TreeMap;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Stream;
+
+/**
+ * A {@link MetricsListener} that runs an embedded HTTP server which exposes the results of a test in the OpenMetrics
+ * text format, so that a long running test can be scraped by Prometheus and watched alongside the metrics from the
+ * servers.
+ *
+ * <p>The endpoint is <code>/metrics</code> on the host and port given by the properties {@link #HOST} (localhost by
+ * default) and {@link #PORT} (0 picks a free port). For every numeric metric it exposes a gauge with the most recent
+ * value, e.g. <code>gaffer_performancetesting_elements_per_second_batch</code>. Rates and latencies, i.e. metrics
+ * whose names contain <code>per_second</code> or end in <code>_ms</code> (see {@link CompareRuns.Direction}), also
+ * have a histogram of all the values seen, named with the suffix <code>_observed</code>, whose bucket boundaries are
+ * given by the property {@link #BUCKETS}. If an update is from a worker (see {@link Metrics#WORKER_ID}) then its
+ * values are labelled with <code>worker="n"</code>, so that the workers do not overwrite each other's values. A
+ * counter, <code>gaffer_performancetesting_updates_total</code>, counts the updates received of each type of
+ * {@link Metrics}.
+ *
+ * <p>So that the final results of a test are scraped, if the server has been scraped during the test then
+ * {@link #close()} keeps it running until it has been scraped once more, or until the grace period given by the
+ * property {@link #CLOSE_GRACE_SECONDS} has passed. This should be at least the scrape interval. If the server has
+ * never been scraped then it is stopped straight away.
+ */
+public class PrometheusMetricsListener implements MetricsListener {
+    public static final String PORT = "gaffer.performancetesting.prometheusmetricslistener.port";
+    public static final String HOST = "gaffer.performancetesting.prometheusmetricslistener.host";
+    public static final String PREFIX = "gaffer.performancetesting.prometheusmetricslistener.prefix";
+    public static final String BUCKETS = "gaffer.performancetesting.prometheusmetricslistener.buckets";
+    public static final String CLOSE_GRACE_SECONDS
+            = "gaffer.performancetesting.prometheusmetricslistener.closeGraceSeconds";
+    public static final String CONTENT_TYPE = "application/openmetrics-text; version=1.0.0; charset=utf-8";
+    private static final String DEFAULT_PORT = "9404";
+    private static final String DEFAULT_HOST = "localhost";
+    private static final String DEFAULT_PREFIX = "gaffer_performancetesting_";
+    private static final String DEFAULT_BUCKETS = "1,10,100,1000,10000,100000,1000000,10000000";
+    // The scrape interval in Prometheus's example configuration
+    private static final String DEFAULT_CLOSE_GRACE_SECONDS = "15";
+    private static final String WORKER_LABEL = "worker";
+
+    // Keyed by the name of the metric and then by its labels
+    private final Map<String, Map<String, Double>> gauges = new TreeMap<>();
+    private final Map<String, Map<String, Histogram>> histograms = new TreeMap<>();
+    private final Map<String, Long> updateCounts = new TreeMap<>();
+    private String prefix = DEFAULT_PREFIX;
+    private double[] buckets;
+    private long closeGraceMillis;
+    private long numScrapes = 0L;
+    private HttpServer server;
+
+    public PrometheusMetricsListener() {
+    }
+
+    @Override
+    public void initialise(final Properties properties) {
+        prefix = properties.getProperty(PREFIX, DEFAULT_PREFIX);
+        buckets = Stream.of(properties.getProperty(BUCKETS, DEFAULT_BUCKETS).split(","))
+                .mapToDouble(b -> Double.parseDouble(b.trim()))
+                .sorted()
+                .toArray();
+        closeGraceMillis = TimeUnit.SECONDS.toMillis(Long.parseLong(properties.getProperty(CLOSE_GRACE_SECONDS,
+                DEFAULT_CLOSE_GRACE_SECONDS)));
+        final String host = properties.getProperty(HOST, DEFAULT_HOST);
+        final int port = Integer.parseInt(properties.getProperty(PORT, DEFAULT_PORT));
+        try {
+            server = HttpServer.create(new InetSocketAddress(host, port), 0);
+        } catch (final IOException e) {
+            throw new RuntimeException("IOException starting HTTP server on " + host + ":" + port, e);
+        }
+        server.createContext("/metrics", this::handle);
+        server.start();
+    }
+
+    @Override
+    public synchronized void update(final Metrics metrics) {
+        updateCounts.merge(metrics.getType(), 1L, Long::sum);
+        final String labels = getLabels(metrics);
+        for (final String metricName : metrics.getMetricNames()) {
+            final Object value = metrics.getMetric(metricName);
+            if (value instanceof Number && !Metrics.WORKER_ID.equals(metricName)) {
+                final String name = sanitise(prefix + metricName);
+                final double doubleValue = ((Number) value).doubleValue();
+                gauges.computeIfAbsent(name, k -> new TreeMap<>()).put(labels, doubleValue);
+                if (CompareRuns.Direction.UNKNOWN != CompareRuns.Direction.of(metricName)) {
+                    histograms.computeIfAbsent(name, k -> new TreeMap<>())
+                            .computeIfAbsent(labels, k -> new Histogram(buckets.length))
+                            .observe(doubleValue, buckets);
+                }
+            }
+        }
+    }
+
+    private static String getLabels(final Metrics metrics) {
+        final Object workerId = metrics.getMetric(Metrics.WORKER_ID);
+        if (!(workerId instanceof Number)) {
+            return "";
+        }
+        final double id = ((Number) workerId).doubleValue();
+        return WORKER_LABEL + "=\"" + (id == Math.rint(id) ? Long.toString((long) id) : format(id)) + "\"";
+    }
+
+    /**
+     * Stops the server once it has been scraped after this is called, or once the grace period has passed. If the
+     * server has never been scraped then it is stopped straight away.
+     */
+    @Override
+    public void close() {
+        if (null != server) {
+            awaitScrape();
+            server.stop(0);
+            server = null;
+        }
+    }
+
+    private synchronized void awaitScrape() {
+        final long scrapesBeforeClose = numScrapes;
+        if (0L == scrapesBeforeClose) {
+            // Nothing is scraping the server, so there is no point waiting
+            return;
+        }
+        final long deadline = System.currentTimeMillis() + closeGraceMillis;
+        long remaining = closeGraceMillis;
+        while (numScrapes == scrapesBeforeClose && remaining > 0L) {
+            try {
+                wait(remaining);
+            } catch (final InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return;
+            }
+            remaining = deadline - System.currentTimeMillis();
+        }
+    }
+
+    /**
+     * @return the port the HTTP server is listening on
+     */
+    public int getPort() {
+        return server.getAddress().getPort();
+    }
+
+    /**
+     * @return the current values of the metrics in the OpenMetrics text format
+     */
+    public synchronized String scrape() {
+        final StringBuilder builder = new StringBuilder();
+        for (final Map.Entry<String, Map<String, Double>> gaugesByLabels : gauges.entrySet()) {
+            final String name = gaugesByLabels.getKey();
+            builder.append("# TYPE ").append(name).append(" gauge\n");
+            for (final Map.Entry<String, Double> entry : gaugesByLabels.getValue().entrySet()) {
+                builder.append(name).append(withLabels(entry.getKey(), null)).append(' ')
+                        .append(format(entry.getValue())).append('\n');
+            }
+        }
+        for (final Map.Entry<String, Map<String, Histogram>> histogramsByLabels : histograms.entrySet()) {
+            final String name = histogramsByLabels.getKey() + "_observed";
+            builder.append("# TYPE ").append(name).append(" histogram\n");
+            for (final Map.Entry<String, Histogram> entry : histogramsByLabels.getValue().entrySet()) {
+                final String labels = entry.getKey();
+                final Histogram histogram = entry.getValue();
+                long cumulativeCount = 0L;
+                for (int i = 0; i < buckets.length; i++) {
+                    cumulativeCount += histogram.counts[i];
+                    builder.append(name).append("_bucket").append(withLabels(labels, format(buckets[i]))).append(' ')
+                            .append(cumulativeCount).append('\n');
+                }
+                builder.append(name).append("_bucket").append(withLabels(labels, "+Inf")).append(' ')
+                        .append(histogram.count).append('\n')
+                        .append(name).append("_count").append(withLabels(labels, null)).append(' ')
+                        .append(histogram.count).append('\n')
+                        .append(name).append("_sum").append(withLabels(labels, null)).append(' ')
+                        .append(format(histogram.sum)).append('\n');
+            }
+        }
+        if (!updateCounts.isEmpty()) {
+            final String name = sanitise(prefix + "updates");
+            builder.append("# TYPE ").append(name).append(" counter\n");
+            for (final Map.Entry<String, Long> entry : updateCounts.entrySet()) {
+                builder.append(name).append("_total{type=\"").append(entry.getKey()).append("\"} ")
+                        .append(entry.getValue()).append('\n');
+            }
+        }
+        builder.append("# EOF\n");
+        return builder.toString();
+    }
+
+    private void handle(final HttpExchange exchange) throws IOException {
+        try {
+            if (!"GET".equals(exchange.getRequestMethod())) {
+                exchange.sendResponseHeaders(405, -1);
+                return;
+            }
+            final byte[] response = scrape().getBytes(StandardCharsets.UTF_8);
+            exchange.getResponseHeaders().set("Content-Type", CONTENT_TYPE);
+            exchange.sendResponseHeaders(200, response.length);
+            try (final OutputStream out = exchange.getResponseBody()) {
+                out.write(response);
+            }
+            synchronized (this) {
+                numScrapes++;
+                notifyAll();
+            }
+        } finally {
+            exchange.close();
+        }
+    }
+
+    private static String withLabels(final String labels, final String bucket) {
+        final String allLabels = null == bucket
+                ? labels
+                : (labels.isEmpty() ? "" : labels + ",") + "le=\"" + bucket + "\"";
+        return allLabels.isEmpty() ? "" : "{" + allLabels + "}";
+    }
+
+    private static String sanitise(final String name) {
+        return name.replaceAll("[^a-zA-Z0-9_:]", "_");
+    }
+
+    private static String format(final double value) {
+        if (Double.isNaN(value)) {
+            return "NaN";
+        }
+        if (Double.isInfinite(value)) {
+            return value > 0 ? "+Inf" : "-Inf";
+        }
+        return Double.toString(value);
+    }
+
+    @Override
+    public String toString() {
+        return new ToStringBuilder(this)
+                .append("server", null == server ? null : server.getAddress())
+                .append("prefix", prefix)
+                .append("closeGraceMillis", closeGraceMillis)
+                .build();
+    }
+
+    /**
+     * The counts of the values that fell into each bucket, i.e. that were greater than the previous boundary and less
+     * than or equal to this one.
+     */
+    private static final class Histogram {
+        private final long[] counts;
+        private long count = 0L;
+        private double sum = 0.0D;
+
+        private Histogram(final int numBuckets) {
+            this.counts = new long[numBuckets];
+        }
+
+        private void observe(final double value, final double[] boundaries) {
+            for (int i = 0; i < boundaries.length; i++) {
+                if (value <= boundaries[i]) {
+                    counts[i]++;
+                    break;
+                }
+            }
+            count++;
+            sum += value;
+        }
+    }
+}
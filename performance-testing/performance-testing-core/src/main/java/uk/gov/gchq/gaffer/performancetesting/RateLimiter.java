@@ -0,0 +1,104 @@
+/*
+ * Copyright 2019 Crown Copyright
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package uk.gov.gchq.gaffer.performancetesting;
+
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * Limits the rate at which work is done by threads that share it, e.g. the workers of an ingest test, to a target
+ * number of permits (elements) per second.
+ *
+ * <p>Each call to {@link #acquire(long)} reserves the next slot after the permits acquired by previous calls and waits
+ * until it starts. A caller that has fallen behind the schedule is not allowed to catch up with a burst, so the rate
+ * never exceeds the target over any period longer than one acquisition.
+ *
+ * <p>{@link #acquireScheduled(long)} is for open-loop tests, which measure latency from when work should have started.
+ * Its schedule is fixed from the first call, so callers that fall behind do not wait and catch up instead, and it
+ * returns the start of the slot so that delays caused by earlier slow work are not hidden (coordinated omission). A
+ * rate limiter should be used through one of these methods, not both.
+ */
+public class RateLimiter {
+    private final double permitsPerSecond;
+    private long nextFreeNanos;
+    private boolean scheduleStarted = false;
+    private long nextScheduledNanos;
+
+    public RateLimiter(final double permitsPerSecond) {
+        if (permitsPerSecond <= 0.0D) {
+            throw new IllegalArgumentException("The target rate must be greater than 0 (got " + permitsPerSecond
+                    + ")");
+        }
+        this.permitsPerSecond = permitsPerSecond;
+        this.nextFreeNanos = System.nanoTime();
+    }
+
+    /**
+     * Waits until the given number of permits can be used without exceeding the target rate.
+     *
+     * @param permits the number of permits
+     * @return the time spent waiting, in nanoseconds
+     */
+    public long acquire(final long permits) {
+        final long start = System.nanoTime();
+        final long slot;
+        synchronized (this) {
+            if (nextFreeNanos - start < 0L) {
+                nextFreeNanos = start;
+            }
+            slot = nextFreeNanos;
+            nextFreeNanos += getNanos(permits);
+        }
+        waitUntil(slot);
+        return System.nanoTime() - start;
+    }
+
+    /**
+     * Reserves the next slot on a fixed schedule, which starts with the first call, and waits until the slot starts.
+     * The schedule is not reset if callers fall behind it, so a caller whose slot has already passed does not wait.
+     *
+     * @param permits the number of permits
+     * @return the start of the slot, as a {@link System#nanoTime()}
+     */
+    public long acquireScheduled(final long permits) {
+        final long slot;
+        synchronized (this) {
+            if (!scheduleStarted) {
+                scheduleStarted = true;
+                nextScheduledNanos = System.nanoTime();
+            }
+            slot = nextScheduledNanos;
+            nextScheduledNanos += getNanos(permits);
+        }
+        waitUntil(slot);
+        return slot;
+    }
+
+    private long getNanos(final long permits) {
+        return (long) (permits * 1.0E9 / permitsPerSecond);
+    }
+
+    private static void waitUntil(final long slot) {
+        long remaining = slot - System.nanoTime();
+        while (remaining > 0L) {
+            LockSupport.parkNanos(remaining);
+            remaining = slot - System.nanoTime();
+        }
+    }
+
+    public double getPermitsPerSecond() {
+        return permitsPerSecond;
+    }
+}
@@ -0,0 +1,150 @@
+/*
+ * Copyright 2019 Crown Copyright
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package uk.gov.gchq.gaffer.performancetesting;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Finds where a test reached a steady state, so that the batches before it (JIT compilation, connection setup, cold
+ * caches, table splits) can be reported separately from the rest of the test.
+ *
+ * <p>The rate of each batch is recorded in the order the batches finish. The steady state starts at the first batch
+ * of the first window of consecutive batches whose rates have a coefficient of variation (standard deviation divided
+ * by mean) no greater than the configured maximum. The rates before and after that point are the number of elements
+ * (or seeds) in those batches divided by the wall-clock time they spanned, so they are comparable with the overall
+ * rate of a test however many threads it uses.
+ */
+public class SteadyStateDetector {
+    private final int window;
+    private final double maxCoefficientOfVariation;
+    private final List<long[]> batches = new ArrayList<>();
+
+    public SteadyStateDetector(final int window, final double maxCoefficientOfVariation) {
+        if (window < 2) {
+            throw new IllegalArgumentException("The steady state window must be at least 2 batches (got " + window
+                    + ")");
+        }
+        this.window = window;
+        this.maxCoefficientOfVariation = maxCoefficientOfVariation;
+    }
+
+    /**
+     * Records a batch.
+     *
+     * @param count      the number of elements or seeds in the batch
+     * @param startNanos the value of {@link System#nanoTime()} when the batch started
+     * @param endNanos   the value of {@link System#nanoTime()} when the batch finished
+     */
+    public synchronized void record(final long count, final long startNanos, final long endNanos) {
+        batches.add(new long[]{count, startNanos, endNanos});
+    }
+
+    public synchronized Result getResult() {
+        final int numBatches = batches.size();
+        int start = -1;
+        double sum = 0.0D;
+        double sumOfSquares = 0.0D;
+        for (int i = 0; i < numBatches; i++) {
+            final double rate = rate(i);
+            sum += rate;
+            sumOfSquares += rate * rate;
+            if (i >= window) {
+                final double oldRate = rate(i - window);
+                sum -= oldRate;
+                sumOfSquares -= oldRate * oldRate;
+            }
+            if (i >= window - 1) {
+                final double mean = sum / window;
+                final double variance = Math.max(0.0D, sumOfSquares / window - mean * mean);
+                if (mean > 0.0D && Math.sqrt(variance) / mean <= maxCoefficientOfVariation) {
+                    start = i - window + 1;
+                    break;
+                }
+            }
+        }
+        if (start < 0) {
+            return new Result(-1, Double.NaN, Double.NaN);
+        }
+        return new Result(start + 1, rate(0, start), rate(start, numBatches));
+    }
+
+    private double rate(final int i) {
+        final long[] batch = batches.get(i);
+        final long durationNanos = Math.max(1L, batch[2] - batch[1]);
+        return batch[0] * 1.0E9 / durationNanos;
+    }
+
+    // The rate over the wall-clock time spanned by batches from (inclusive) to to (exclusive)
+    private double rate(final int from, final int to) {
+        if (from >= to) {
+            return Double.NaN;
+        }
+        long count = 0L;
+        long firstStart = Long.MAX_VALUE;
+        long lastEnd = Long.MIN_VALUE;
+        for (int i = from; i < to; i++) {
+            final long[] batch = batches.get(i);
+            count += batch[0];
+            firstStart = Math.min(firstStart, batch[1]);
+            lastEnd = Math.max(lastEnd, batch[2]);
+        }
+        return count * 1.0E9 / Math.max(1L, lastEnd - firstStart);
+    }
+
+    /**
+     * Where the steady state started, and the rates before and after it.
+     */
+    public static final class Result {
+        private final long steadyStateStartBatch;
+        private final double warmUpRate;
+        private final double steadyStateRate;
+
+        private Result(final long steadyStateStartBatch, final double warmUpRate, final double steadyStateRate) {
+            this.steadyStateStartBatch = steadyStateStartBatch;
+            this.warmUpRate = warmUpRate;
+            this.steadyStateRate = steadyStateRate;
+        }
+
+        public boolean isSteadyStateReached() {
+            return steadyStateStartBatch > 0L;
+        }
+
+        /**
+         * @return the (1-based) position, in order of completion, of the first batch in the steady state, or -1 if a
+         * steady state was not reached
+         */
+        public long getSteadyStateStartBatch() {
+            return steadyStateStartBatch;
+        }
+
+        /**
+         * @return the rate of the batches before the steady state, or NaN if the test was steady from the start or
+         * never steady
+         */
+        public double getWarmUpRate() {
+            return warmUpRate;
+        }
+
+        /**
+         * @return the rate from the start of the steady state to the end of the test, or NaN if a steady state was
+         * not reached
+         */
+        public double getSteadyStateRate() {
+            return steadyStateRate;
+        }
+    }
+}
@@ -0,0 +1,233 @@
+/*
+ * Copyright 2019 Crown Copyright
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package uk.gov.gchq.gaffer.performancetesting;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import uk.gov.gchq.gaffer.commonutil.ToStringBuilder;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.net.InetAddress;
+import java.net.UnknownHostException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Paths;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Properties;
+import java.util.TreeMap;
+import java.util.UUID;
+
+/**
+ * A {@link MetricsListener} that writes every update to a file in a structured format that can be loaded into other
+ * tools, or turned into a report by {@link uk.gov.gchq.gaffer.performancetesting.report.GenerateMetricsReport}.
+ *
+ * <p>Two formats are supported, chosen with the property {@link #FORMAT}:
+ * <ul>
+ * <li><code>JSON</code> (the default) writes JSON Lines. The first line describes the run: its id, start time, host
+ * and the properties the listener was initialised with. Each following line is one update, containing the time, the
+ * milliseconds since the start of the run, the sequence number of the update, the type and the metrics. The sequence
+ * number is the order in which this listener received the update among the updates of the same type. It is not a
+ * batch number: e.g. the per-batch, per-worker and overall updates of an ElementIngestTest are all
+ * {@link uk.gov.gchq.gaffer.performancetesting.ingest.IngestMetrics}, and with several threads batches finish out of
+ * order. Updates for a single batch instead carry its number as the metric <code>batch_number</code> (see
+ * {@link uk.gov.gchq.gaffer.performancetesting.ingest.IngestMetrics#BATCH_NUMBER} and
+ * {@link uk.gov.gchq.gaffer.performancetesting.query.QueryMetrics#BATCH_NUMBER}).</li>
+ * <li><code>CSV</code> writes the run description as comment lines starting with <code>#</code>, followed by a header
+ * and then one row per metric per update.</li>
+ * </ul>
+ * Properties whose names contain "password" are not written.
+ */
+public class StructuredMetricsListener implements MetricsListener {
+    public static final String FILENAME = "gaffer.performancetesting.structuredmetricslistener.filename";
+    public static final String FORMAT = "gaffer.performancetesting.structuredmetricslistener.format";
+    public static final String RUN_ID = "gaffer.performancetesting.structuredmetricslistener.runId";
+
+    public static final String RECORD = "record";
+    public static final String RUN_RECORD = "run";
+    public static final String METRICS_RECORD = "metrics";
+    public static final String START_TIME = "startTime";
+    public static final String HOST = "host";
+    public static final String PROPERTIES = "properties";
+    public static final String TIMESTAMP = "timestamp";
+    public static final String ELAPSED_MILLIS = "elapsedMillis";
+    public static final String SEQUENCE = "sequence";
+    public static final String TYPE = "type";
+    public static final String METRICS = "metrics";
+    public static final String CSV_HEADER = "run_id,timestamp,elapsed_millis,sequence,type,metric,value";
+    public static final String CSV_COMMENT = "#";
+
+    /**
+     * The formats that can be written.
+     */
+    public enum Format {
+        JSON,
+        CSV
+    }
+
+    private static final ObjectMapper MAPPER = new ObjectMapper();
+
+    private final Map<String, Long> sequences = new HashMap<>();
+    private String filename;
+    private Format format = Format.JSON;
+    private String runId;
+    private long startTime;
+    private BufferedWriter writer;
+
+    public StructuredMetricsListener() {
+    }
+
+    @Override
+    public void initialise(final Properties properties) {
+        if (!properties.containsKey(FILENAME)) {
+            throw new IllegalArgumentException("Properties should contain the filename to write to (property "
+                    + FILENAME + ")");
+        }
+        filename = properties.getProperty(FILENAME);
+        format = Format.valueOf(properties.getProperty(FORMAT, Format.JSON.name()).toUpperCase());
+        runId = properties.getProperty(RUN_ID, UUID.randomUUID().toString());
+        startTime = System.currentTimeMillis();
+        try {
+            writer = Files.newBufferedWriter(Paths.get(filename), StandardCharsets.UTF_8);
+            writeRun(properties);
+            writer.flush();
+        } catch (final IOException e) {
+            throw new RuntimeException("IOException writing to file " + filename, e);
+        }
+    }
+
+    @Override
+    public synchronized void update(final Metrics metrics) {
+        final long timestamp = System.currentTimeMillis();
+        final String type = metrics.getType();
+        final long sequence = sequences.merge(type, 1L, Long::sum);
+        final Map<String, Object> values = new LinkedHashMap<>();
+        for (final String metricName : metrics.getMetricNames()) {
+            final Object value = metrics.getMetric(metricName);
+            if (null != value) {
+                values.put(metricName, value);
+            }
+        }
+        try {
+            if (Format.JSON == format) {
+                final Map<String, Object> record = new LinkedHashMap<>();
+                record.put(RECORD, METRICS_RECORD);
+                record.put(RUN_RECORD, runId);
+                record.put(TIMESTAMP, timestamp);
+                record.put(ELAPSED_MILLIS, timestamp - startTime);
+                record.put(SEQUENCE, sequence);
+                record.put(TYPE, type);
+                record.put(METRICS, values);
+                writeJson(record);
+            } else {
+                final String prefix = String.join(",", escapeCsv(runId), "" + timestamp, "" + (timestamp - startTime),
+                        "" + sequence, escapeCsv(type));
+                for (final Map.Entry<String, Object> entry : values.entrySet()) {
+                    writer.write(prefix + "," + escapeCsv(entry.getKey()) + "," + escapeCsv("" + entry.getValue()));
+                    writer.newLine();
+                }
+            }
+            writer.flush();
+        } catch (final IOException e) {
+            throw new RuntimeException("IOException writing metrics to file " + filename, e);
+        }
+    }
+
+    @Override
+    public synchronized void close() {
+        if (null != writer) {
+            try {
+                writer.close();
+            } catch (final IOException e) {
+                throw new RuntimeException("IOException closing file " + filename, e);
+            }
+            writer = null;
+        }
+    }
+
+    public String getRunId() {
+        return runId;
+    }
+
+    private void writeRun(final Properties properties) throws IOException {
+        final Map<String, String> propertiesToWrite = new TreeMap<>();
+        for (final String key : properties.stringPropertyNames()) {
+            if (!key.toLowerCase().contains("password")) {
+                propertiesToWrite.put(key, properties.getProperty(key));
+            }
+        }
+        final Map<String, Object> record = new LinkedHashMap<>();
+        record.put(RECORD, RUN_RECORD);
+        record.put(RUN_RECORD, runId);
+        record.put(START_TIME, startTime);
+        record.put(HOST, getHostName());
+        record.put(PROPERTIES, propertiesToWrite);
+        if (Format.JSON == format) {
+            writeJson(record);
+        } else {
+            for (final Map.Entry<String, Object> entry : record.entrySet()) {
+                if (PROPERTIES.equals(entry.getKey())) {
+                    for (final Map.Entry<String, String> property : propertiesToWrite.entrySet()) {
+                        writer.write(CSV_COMMENT + " " + PROPERTIES + "." + property.getKey() + "="
+                                + property.getValue());
+                        writer.newLine();
+                    }
+                } else {
+                    writer.write(CSV_COMMENT + " " + entry.getKey() + "=" + entry.getValue());
+                    writer.newLine();
+                }
+            }
+            writer.write(CSV_HEADER);
+            writer.newLine();
+        }
+    }
+
+    private void writeJson(final Map<String, Object> record) throws IOException {
+        try {
+            writer.write(MAPPER.writeValueAsString(record));
+        } catch (final JsonProcessingException e) {
+            throw new IOException("Unable to serialise " + record, e);
+        }
+        writer.newLine();
+    }
+
+    private static String getHostName() {
+        try {
+            return InetAddress.getLocalHost().getHostName();
+        } catch (final UnknownHostException e) {
+            return "unknown";
+        }
+    }
+
+    static String escapeCsv(final String value) {
+        if (value.contains(",") || value.contains("\"") || value.contains("\n")) {
+            return "\"" + value.replace("\"", "\"\"") + "\"";
+        }
+        return value;
+    }
+
+    @Override
+    public String toString() {
+        return new ToStringBuilder(this)
+                .append("filename", filename)
+                .append("format", format)
+                .append("runId", runId)
+                .build();
+    }
+}
@@ -33,6 +33,18 @@ public class TestProperties extends Properties {
     private static final String RMAT_PROBABILITIES = "gaffer.performancetesting.rmat.probabilities";
     private static final String RMAT_INCLUDE_ENTITIES = "gaffer.performancetesting.rmat.includeEntities";
     private static final String RMAT_MAX_NODEID = "gaffer.performancetesting.rmat.maxNodeId";
+    private static final String SEED = "gaffer.performancetesting.seed";
+    private static final String WARM_UP_BATCHES = "gaffer.performancetesting.warmUpBatches";
+    private static final String STEADY_STATE_WINDOW = "gaffer.performancetesting.steadyState.window";
+    private static final String STEADY_STATE_MAX_CV = "gaffer.performancetesting.steadyState.maxCoefficientOfVariation";
+    private static final String DURATION_SECONDS = "gaffer.performancetesting.durationSeconds";
+    private static final String REPORTING_INTERVAL_SECONDS = "gaffer.performancetesting.reportingIntervalSeconds";
+    private static final String SWEEP_MIN_BATCH_SIZE = "gaffer.performancetesting.batchSizeSweep.min";
+    private static final String SWEEP_MAX_BATCH_SIZE = "gaffer.performancetesting.batchSizeSweep.max";
+    private static final String SWEEP_FACTOR = "gaffer.performancetesting.batchSizeSweep.factor";
+    private static final String SWEEP_REFINEMENT_STEPS = "gaffer.performancetesting.batchSizeSweep.refinementSteps";
+    private static final String SWEEP_MAX_P99_MILLIS = "gaffer.performancetesting.batchSizeSweep.maxP99Millis";
+    private static final String SWEEP_OUTPUT_FILE = "gaffer.performancetesting.batchSizeSweep.outputFile";
 
     public String getGraphId() {
         return getProperty(GRAPH_ID);
@@ -47,6 +59,10 @@ public class TestProperties extends Properties {
     }
 
     public void setMetricsListenerClass(final String metricsListenerClass) {
+        if (null == metricsListenerClass) {
+            remove(METRICS_LISTENER_CLASS);
+            return;
+        }
         setProperty(METRICS_LISTENER_CLASS, metricsListenerClass);
     }
 
@@ -99,7 +115,194 @@ public class TestProperties extends Properties {
         setProperty(RMAT_MAX_NODEID, "" + maxNodeId);
     }
 
-    private static String doubleArrayToString(final double[] values) {
+    /**
+     * Returns the seed for the random generation of elements and seeds, or <code>null</code> if no seed has been
+     * specified, in which case every run of a test uses different random data.
+     *
+     * @return the seed, or <code>null</code>
+     */
+    public Long getSeed() {
+        final String seed = getProperty(SEED);
+        return null == seed ? null : Long.parseLong(seed);
+    }
+
+    public void setSeed(final long seed) {
+        setProperty(SEED, "" + seed);
+    }
+
+    /**
+     * Returns the number of batches to run before a test starts. These batches are not included in the results.
+     *
+     * @return the number of warm-up batches
+     */
+    public long getWarmUpBatches() {
+        return Long.parseLong(getProperty(WARM_UP_BATCHES, "0"));
+    }
+
+    public void setWarmUpBatches(final long warmUpBatches) {
+        if (warmUpBatches < 0L) {
+            throw new IllegalArgumentException("The number of warm-up batches must not be negative.");
+        }
+        setProperty(WARM_UP_BATCHES, "" + warmUpBatches);
+    }
+
+    /**
+     * Returns the number of consecutive batches whose rates are compared to decide whether a test has reached a
+     * steady state, see {@link SteadyStateDetector}.
+     *
+     * @return the number of batches
+     */
+    public int getSteadyStateWindow() {
+        return Integer.parseInt(getProperty(STEADY_STATE_WINDOW, "10"));
+    }
+
+    public void setSteadyStateWindow(final int window) {
+        if (window < 2) {
+            throw new IllegalArgumentException("The steady state window must be at least 2 batches.");
+        }
+        setProperty(STEADY_STATE_WINDOW, "" + window);
+    }
+
+    public double getSteadyStateMaxCoefficientOfVariation() {
+        return Double.parseDouble(getProperty(STEADY_STATE_MAX_CV, "0.1"));
+    }
+
+    public void setSteadyStateMaxCoefficientOfVariation(final double maxCoefficientOfVariation) {
+        if (maxCoefficientOfVariation <= 0.0D) {
+            throw new IllegalArgumentException("The maximum coefficient of variation must be greater than 0.");
+        }
+        setProperty(STEADY_STATE_MAX_CV, "" + maxCoefficientOfVariation);
+    }
+
+    public SteadyStateDetector createSteadyStateDetector() {
+        return new SteadyStateDetector(getSteadyStateWindow(), getSteadyStateMaxCoefficientOfVariation());
+    }
+
+    /**
+     * Returns the maximum length of a test in seconds, or <code>null</code> if the test is only bounded by the number
+     * of elements or seeds. If a duration is specified but the number of elements or seeds is not then the test runs
+     * for the whole duration.
+     *
+     * @return the duration in seconds, or <code>null</code>
+     */
+    public Long getDurationSeconds() {
+        final String duration = getProperty(DURATION_SECONDS);
+        return null == duration ? null : Long.parseLong(duration);
+    }
+
+    public void setDurationSeconds(final long durationSeconds) {
+        if (durationSeconds <= 0L) {
+            throw new IllegalArgumentException("The duration must be greater than 0.");
+        }
+        setProperty(DURATION_SECONDS, "" + durationSeconds);
+    }
+
+    /**
+     * Returns the interval in seconds at which a test reports its rate to the metrics listener, or <code>null</code>
+     * if it reports the rate of every batch, see {@link IntervalReporter}.
+     *
+     * @return the interval in seconds, or <code>null</code>
+     */
+    public Long getReportingIntervalSeconds() {
+        final String interval = getProperty(REPORTING_INTERVAL_SECONDS);
+        return null == interval ? null : Long.parseLong(interval);
+    }
+
+    public void setReportingIntervalSeconds(final long reportingIntervalSeconds) {
+        if (reportingIntervalSeconds <= 0L) {
+            throw new IllegalArgumentException("The reporting interval must be greater than 0.");
+        }
+        setProperty(REPORTING_INTERVAL_SECONDS, "" + reportingIntervalSeconds);
+    }
+
+    public int getSweepMinBatchSize() {
+        return Integer.parseInt(getProperty(SWEEP_MIN_BATCH_SIZE, "100"));
+    }
+
+    public void setSweepMinBatchSize(final int minBatchSize) {
+        if (minBatchSize <= 0) {
+            throw new IllegalArgumentException("The minimum batch size must be greater than 0.");
+        }
+        setProperty(SWEEP_MIN_BATCH_SIZE, "" + minBatchSize);
+    }
+
+    public int getSweepMaxBatchSize() {
+        return Integer.parseInt(getProperty(SWEEP_MAX_BATCH_SIZE, "100000"));
+    }
+
+    public void setSweepMaxBatchSize(final int maxBatchSize) {
+        if (maxBatchSize <= 0) {
+            throw new IllegalArgumentException("The maximum batch size must be greater than 0.");
+        }
+        setProperty(SWEEP_MAX_BATCH_SIZE, "" + maxBatchSize);
+    }
+
+    /**
+     * Returns the factor between consecutive batch sizes in the geometric steps of a batch size sweep.
+     *
+     * @return the factor
+     */
+    public double getSweepFactor() {
+        return Double.parseDouble(getProperty(SWEEP_FACTOR, "2.0"));
+    }
+
+    public void setSweepFactor(final double factor) {
+        if (factor <= 1.0D) {
+            throw new IllegalArgumentException("The factor must be greater than 1.");
+        }
+        setProperty(SWEEP_FACTOR, "" + factor);
+    }
+
+    /**
+     * Returns the number of golden-section steps used to refine the best batch size found by the geometric steps of
+     * a batch size sweep.
+     *
+     * @return the number of refinement steps
+     */
+    public int getSweepRefinementSteps() {
+        return Integer.parseInt(getProperty(SWEEP_REFINEMENT_STEPS, "4"));
+    }
+
+    public void setSweepRefinementSteps(final int refinementSteps) {
+        if (refinementSteps < 0) {
+            throw new IllegalArgumentException("The number of refinement steps must not be negative.");
+        }
+        setProperty(SWEEP_REFINEMENT_STEPS, "" + refinementSteps);
+    }
+
+    /**
+     * Returns the maximum 99th percentile batch latency, in milliseconds, of a batch size that a sweep can choose, or
+     * <code>null</code> if the sweep chooses the batch size with the highest rate whatever its latency.
+     *
+     * @return the maximum latency, or <code>null</code>
+     */
+    public Double getSweepMaxP99Millis() {
+        final String maxP99 = getProperty(SWEEP_MAX_P99_MILLIS);
+        return null == maxP99 ? null : Double.parseDouble(maxP99);
+    }
+
+    public void setSweepMaxP99Millis(final double maxP99Millis) {
+        if (maxP99Millis <= 0.0D) {
+            throw new IllegalArgumentException("The maximum latency must be greater than 0.");
+        }
+        setProperty(SWEEP_MAX_P99_MILLIS, "" + maxP99Millis);
+    }
+
+    /**
+     * Returns the CSV file that a batch size sweep writes the measured curve to, or <code>null</code> if the curve is
+     * only logged and sent to the metrics listener.
+     *
+     * @return the output file, or <code>null</code>
+     */
+    public String getSweepOutputFile() {
+        return getProperty(SWEEP_OUTPUT_FILE);
+    }
+
+    public void setSweepOutputFile(final String outputFile) {
+        setProperty(SWEEP_OUTPUT_FILE, outputFile);
+    }
+
+    protected static String doubleArrayToString(final double[] values) {
         if (null == values) {
             throw new IllegalArgumentException("Cannot convert null array to a string");
         }
@@ -111,7 +314,7 @@ public class TestProperties extends Properties {
         return builder.substring(0, builder.length() - 1);
     }
 
-    private static double[] stringToDoubleArray(final String s) {
+    protected static double[] stringToDoubleArray(final String s) {
         if (null == s) {
             throw new IllegalArgumentException("Cannot convert null string to an array of doubles");
         }
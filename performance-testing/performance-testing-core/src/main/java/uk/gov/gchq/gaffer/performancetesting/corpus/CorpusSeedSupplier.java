@@ -0,0 +1,55 @@
+/*
+ * Copyright 2019 Crown Copyright
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package uk.gov.gchq.gaffer.performancetesting.corpus;
+
+import uk.gov.gchq.gaffer.operation.data.ElementSeed;
+
+import java.util.Iterator;
+import java.util.function.Supplier;
+
+/**
+ * Supplies an {@link ElementSeed} for each element in an {@link ElementCorpusReader}, starting again from the
+ * beginning of the corpus when it is exhausted. A supplier can start part way through the corpus, so that several
+ * suppliers used at once (e.g. by the threads of a scenario) supply different seeds.
+ */
+public class CorpusSeedSupplier implements Supplier<ElementSeed> {
+    private final ElementCorpusReader reader;
+    private Iterator<ElementSeed> seeds;
+
+    public CorpusSeedSupplier(final ElementCorpusReader reader) {
+        this(reader, 0L);
+    }
+
+    /**
+     * @param reader       the corpus
+     * @param firstElement the index of the element whose seed is supplied first
+     */
+    public CorpusSeedSupplier(final ElementCorpusReader reader, final long firstElement) {
+        if (0L == reader.getNumElements()) {
+            throw new IllegalArgumentException("The corpus must contain at least one element");
+        }
+        this.reader = reader;
+        this.seeds = reader.seeds(firstElement % reader.getNumElements()).iterator();
+    }
+
+    @Override
+    public ElementSeed get() {
+        if (!seeds.hasNext()) {
+            seeds = reader.seeds().iterator();
+        }
+        return seeds.next();
+    }
+}
@@ -0,0 +1,214 @@
+/*
+ * Copyright 2019 Crown Copyright
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package uk.gov.gchq.gaffer.performancetesting.corpus;
+
+import uk.gov.gchq.gaffer.data.element.Edge;
+import uk.gov.gchq.gaffer.data.element.Element;
+import uk.gov.gchq.gaffer.data.element.Entity;
+import uk.gov.gchq.gaffer.exception.SerialisationException;
+import uk.gov.gchq.gaffer.operation.data.EdgeSeed;
+import uk.gov.gchq.gaffer.operation.data.ElementSeed;
+import uk.gov.gchq.gaffer.operation.data.EntitySeed;
+import uk.gov.gchq.gaffer.serialisation.ToBytesSerialiser;
+import uk.gov.gchq.gaffer.store.schema.Schema;
+import uk.gov.gchq.gaffer.store.serialiser.ElementSerialiser;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+
+/**
+ * Replays a corpus file written by an {@link ElementCorpusWriter}, either as the {@link Element}s themselves (e.g. for
+ * an ingest test) or as an {@link ElementSeed} for each element (e.g. for a query test).
+ *
+ * <p>The file is memory-mapped, so reading it does not involve any system calls and the operating system's page cache
+ * is shared by all the iterators. Files larger than 2GB are mapped in several regions. Each call to
+ * {@link #iterator()} or {@link #seeds()} starts again from the beginning of the file. Separate iterators can be used
+ * by separate threads, but a single iterator is not thread-safe.
+ */
+public class ElementCorpusReader implements Iterable<Element> {
+    private static final int DEFAULT_REGION_SIZE = 1 << 30;
+
+    private final ToBytesSerialiser<Element> serialiser;
+    private final MappedByteBuffer[] regions;
+    private final long numElements;
+
+    public ElementCorpusReader(final Path file, final Schema schema) throws IOException {
+        this(file, schema, DEFAULT_REGION_SIZE);
+    }
+
+    ElementCorpusReader(final Path file, final Schema schema, final int regionSize) throws IOException {
+        this.serialiser = new ElementSerialiser(schema);
+        // The mappings remain valid after the channel is closed
+        try (final FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            final long size = channel.size();
+            if (size < ElementCorpusWriter.HEADER_SIZE) {
+                throw new IOException("File " + file + " is too short to be an element corpus");
+            }
+            final int numRegions = (int) ((size + regionSize - 1) / regionSize);
+            this.regions = new MappedByteBuffer[numRegions];
+            for (int i = 0; i < numRegions; i++) {
+                final long start = (long) i * regionSize;
+                regions[i] = channel.map(FileChannel.MapMode.READ_ONLY, start, Math.min(regionSize, size - start));
+            }
+        }
+        final ByteBuffer header = regions[0].duplicate();
+        if (header.getInt() != ElementCorpusWriter.MAGIC) {
+            throw new IOException("File " + file + " is not an element corpus");
+        }
+        final int version = header.getInt();
+        if (version != ElementCorpusWriter.VERSION) {
+            throw new IOException("Unsupported element corpus version " + version + " in file " + file);
+        }
+        this.numElements = header.getLong();
+    }
+
+    public long getNumElements() {
+        return numElements;
+    }
+
+    @Override
+    public Iterator<Element> iterator() {
+        return new ElementIterator();
+    }
+
+    /**
+     * @return an {@link Iterable} of an {@link EntitySeed} for each {@link Entity} and an {@link EdgeSeed} for each
+     * {@link Edge} in the corpus, in the same order as the elements
+     */
+    public Iterable<ElementSeed> seeds() {
+        return seeds(0L);
+    }
+
+    /**
+     * @param firstElement the index of the element to start from; the elements before it are skipped without being
+     *                     deserialised
+     * @return an {@link Iterable} of the seeds returned by {@link #seeds()}, starting from the given element
+     */
+    public Iterable<ElementSeed> seeds(final long firstElement) {
+        if (firstElement < 0L || firstElement > numElements) {
+            throw new IllegalArgumentException("The first element must be between 0 and " + numElements + " (got "
+                    + firstElement + ")");
+        }
+        return () -> new Iterator<ElementSeed>() {
+            private final Iterator<Element> elements = new ElementIterator(firstElement);
+
+            @Override
+            public boolean hasNext() {
+                return elements.hasNext();
+            }
+
+            @Override
+            public ElementSeed next() {
+                return toSeed(elements.next());
+            }
+        };
+    }
+
+    static ElementSeed toSeed(final Element element) {
+        if (element instanceof Entity) {
+            return new EntitySeed(((Entity) element).getVertex());
+        }
+        final Edge edge = (Edge) element;
+        return new EdgeSeed(edge.getSource(), edge.getDestination(), edge.getDirectedType());
+    }
+
+    private final class ElementIterator implements Iterator<Element> {
+        private final ByteBuffer[] views = new ByteBuffer[regions.length];
+        private final byte[] lengthBytes = new byte[Integer.BYTES];
+        private int region = 0;
+        private long remaining = numElements;
+
+        private ElementIterator() {
+            this(0L);
+        }
+
+        private ElementIterator(final long firstElement) {
+            for (int i = 0; i < regions.length; i++) {
+                views[i] = regions[i].duplicate();
+            }
+            views[0].position(ElementCorpusWriter.HEADER_SIZE);
+            for (long i = 0L; i < firstElement; i++) {
+                read(lengthBytes);
+                skip(ByteBuffer.wrap(lengthBytes).getInt());
+                remaining--;
+            }
+        }
+
+        @Override
+        public boolean hasNext() {
+            return remaining > 0L;
+        }
+
+        @Override
+        public Element next() {
+            if (!hasNext()) {
+                throw new NoSuchElementException("No more elements in the corpus");
+            }
+            read(lengthBytes);
+            final int length = ByteBuffer.wrap(lengthBytes).getInt();
+            final byte[] bytes = new byte[length];
+            read(bytes);
+            remaining--;
+            try {
+                return serialiser.deserialise(bytes);
+            } catch (final SerialisationException e) {
+                throw new RuntimeException("Exception deserialising element from corpus", e);
+            }
+        }
+
+        /**
+         * Moves the current position on by the given number of bytes, moving on to the next region if necessary.
+         */
+        private void skip(final int length) {
+            int skipped = 0;
+            while (skipped < length) {
+                if (!views[region].hasRemaining()) {
+                    if (region == views.length - 1) {
+                        throw new RuntimeException("Element corpus is truncated");
+                    }
+                    region++;
+                }
+                final int n = Math.min(length - skipped, views[region].remaining());
+                views[region].position(views[region].position() + n);
+                skipped += n;
+            }
+        }
+
+        /**
+         * Fills the array from the current position, moving on to the next region if the bytes span a boundary.
+         */
+        private void read(final byte[] destination) {
+            int offset = 0;
+            while (offset < destination.length) {
+                if (!views[region].hasRemaining()) {
+                    if (region == views.length - 1) {
+                        throw new RuntimeException("Element corpus is truncated");
+                    }
+                    region++;
+                }
+                final int n = Math.min(destination.length - offset, views[region].remaining());
+                views[region].get(destination, offset, n);
+                offset += n;
+            }
+        }
+    }
+}
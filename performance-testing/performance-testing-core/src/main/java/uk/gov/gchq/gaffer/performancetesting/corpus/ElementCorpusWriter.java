@@ -0,0 +1,97 @@
+/*
+ * Copyright 2019 Crown Copyright
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package uk.gov.gchq.gaffer.performancetesting.corpus;
+
+import uk.gov.gchq.gaffer.data.element.Element;
+import uk.gov.gchq.gaffer.serialisation.ToBytesSerialiser;
+import uk.gov.gchq.gaffer.store.schema.Schema;
+import uk.gov.gchq.gaffer.store.serialiser.ElementSerialiser;
+
+import java.io.BufferedOutputStream;
+import java.io.Closeable;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+
+/**
+ * Writes {@link Element}s to a corpus file that can be replayed by an {@link ElementCorpusReader}. This allows a large
+ * set of random elements to be generated once, so that the cost of generating them is not included in the results of
+ * a performance test.
+ *
+ * <p>The file starts with a header containing a magic number, a version and the number of elements. Each element is
+ * then written as its length (a 4 byte int) followed by the bytes produced by the schema's {@link ElementSerialiser}.
+ */
+public class ElementCorpusWriter implements Closeable {
+    static final int MAGIC = 0x47454331;
+    static final int VERSION = 1;
+    static final int HEADER_SIZE = 16;
+    private static final int NUM_ELEMENTS_OFFSET = 8;
+    private static final int BUFFER_SIZE = 1 << 16;
+
+    private final FileChannel channel;
+    private final DataOutputStream output;
+    private final ToBytesSerialiser<Element> serialiser;
+    private long numElements = 0L;
+    private boolean closed = false;
+
+    public ElementCorpusWriter(final Path file, final Schema schema) throws IOException {
+        this.channel = FileChannel.open(file, StandardOpenOption.CREATE, StandardOpenOption.WRITE,
+                StandardOpenOption.TRUNCATE_EXISTING);
+        this.output = new DataOutputStream(new BufferedOutputStream(Channels.newOutputStream(channel), BUFFER_SIZE));
+        this.serialiser = new ElementSerialiser(schema);
+        output.writeInt(MAGIC);
+        output.writeInt(VERSION);
+        // The number of elements is filled in when the writer is closed
+        output.writeLong(0L);
+    }
+
+    public void write(final Element element) throws IOException {
+        final byte[] bytes = serialiser.serialise(element);
+        output.writeInt(bytes.length);
+        output.write(bytes);
+        numElements++;
+    }
+
+    public void write(final Iterable<? extends Element> elements) throws IOException {
+        for (final Element element : elements) {
+            write(element);
+        }
+    }
+
+    public long getNumElements() {
+        return numElements;
+    }
+
+    @Override
+    public void close() throws IOException {
+        if (closed) {
+            return;
+        }
+        closed = true;
+        try {
+            output.flush();
+            final ByteBuffer count = ByteBuffer.allocate(Long.BYTES);
+            count.putLong(0, numElements);
+            channel.write(count, NUM_ELEMENTS_OFFSET);
+        } finally {
+            output.close();
+        }
+    }
+}
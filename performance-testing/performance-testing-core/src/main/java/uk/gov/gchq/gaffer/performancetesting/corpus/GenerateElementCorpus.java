@@ -0,0 +1,68 @@
+/*
+ * Copyright 2019 Crown Copyright
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package uk.gov.gchq.gaffer.performancetesting.corpus;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import uk.gov.gchq.gaffer.data.element.Element;
+import uk.gov.gchq.gaffer.performancetesting.ingest.ElementIngestTest;
+import uk.gov.gchq.gaffer.performancetesting.ingest.ElementIngestTestProperties;
+import uk.gov.gchq.gaffer.store.schema.Schema;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Paths;
+import java.util.function.Supplier;
+
+/**
+ * Generates the number of random elements specified by an {@link ElementIngestTestProperties}, using the same element
+ * supplier as the {@link ElementIngestTest}, and writes them to a corpus file with an {@link ElementCorpusWriter}.
+ * Setting the corpus file in the test properties of an ingest or query test then replays these elements.
+ */
+public final class GenerateElementCorpus {
+    private static final Logger LOGGER = LoggerFactory.getLogger(GenerateElementCorpus.class);
+
+    private GenerateElementCorpus() {
+
+    }
+
+    public static long generate(final Schema schema,
+                                final ElementIngestTestProperties testProperties,
+                                final String outputFile) throws IOException {
+        final long numElements = testProperties.getNumElements();
+        final Supplier<Element> elementSupplier = new ElementIngestTest.ElementSupplierFactory(testProperties).get();
+        final long startTime = System.currentTimeMillis();
+        try (final ElementCorpusWriter writer = new ElementCorpusWriter(Paths.get(outputFile), schema)) {
+            for (long i = 0L; i < numElements; i++) {
+                writer.write(elementSupplier.get());
+            }
+        }
+        final double durationInSeconds = (System.currentTimeMillis() - startTime) / 1000.0;
+        LOGGER.info("Wrote " + numElements + " elements to " + outputFile + " in " + durationInSeconds + " seconds");
+        return numElements;
+    }
+
+    public static void main(final String[] args) throws IOException {
+        if (args.length != 3) {
+            throw new RuntimeException("Usage: <schema_directory> <test_properties_file> <output_file>");
+        }
+        final Schema schema = Schema.fromJson(new File(args[0]).toPath());
+        final ElementIngestTestProperties testProperties = new ElementIngestTestProperties();
+        testProperties.loadTestProperties(args[1]);
+        generate(schema, testProperties, args[2]);
+    }
+}
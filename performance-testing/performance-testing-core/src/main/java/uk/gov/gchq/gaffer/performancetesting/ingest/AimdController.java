@@ -0,0 +1,156 @@
+/*
+ * Copyright 2019 Crown Copyright
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package uk.gov.gchq.gaffer.performancetesting.ingest;
+
+/**
+ * Adapts the batch size and the number of batches in flight to what the store can absorb, using additive increase,
+ * multiplicative decrease (AIMD), as in TCP congestion control.
+ *
+ * <p>Before adding a batch a worker calls {@link #acquire()}, which waits until fewer than the current concurrency
+ * batches are in flight and returns a permit giving the batch size to use; afterwards it calls
+ * {@link #complete(Permit, long, boolean)}. Once a round of batches (as many as the current concurrency) has
+ * completed within the target latency, the batch size is increased by the increment and the concurrency by one, up to
+ * their maximums. A batch that takes longer than the target latency or fails cuts both by the decrease factor, down to
+ * their minimums. Batches that were already in flight when the cut was made do not cut them again, so a single slow
+ * period is only counted once.
+ */
+public class AimdController {
+    private final int minBatchSize;
+    private final int maxBatchSize;
+    private final int batchSizeIncrement;
+    private final int maxConcurrency;
+    private final long targetLatencyNanos;
+    private final double decreaseFactor;
+    private int batchSize;
+    private int concurrency = 1;
+    private int inFlight = 0;
+    private int successesInRound = 0;
+    private long generation = 0L;
+    private long numIncreases = 0L;
+    private long numDecreases = 0L;
+
+    public AimdController(final int initialBatchSize,
+                          final int minBatchSize,
+                          final int maxBatchSize,
+                          final int batchSizeIncrement,
+                          final int maxConcurrency,
+                          final long targetLatencyNanos,
+                          final double decreaseFactor) {
+        if (minBatchSize <= 0 || maxBatchSize < minBatchSize) {
+            throw new IllegalArgumentException("The batch sizes must satisfy 0 < min <= max (got min = "
+                    + minBatchSize + ", max = " + maxBatchSize + ")");
+        }
+        if (maxConcurrency <= 0) {
+            throw new IllegalArgumentException("The maximum concurrency must be greater than 0 (got " + maxConcurrency
+                    + ")");
+        }
+        if (decreaseFactor <= 0.0D || decreaseFactor >= 1.0D) {
+            throw new IllegalArgumentException("The decrease factor must be between 0 and 1 (got " + decreaseFactor
+                    + ")");
+        }
+        this.minBatchSize = minBatchSize;
+        this.maxBatchSize = maxBatchSize;
+        this.batchSizeIncrement = batchSizeIncrement;
+        this.maxConcurrency = maxConcurrency;
+        this.targetLatencyNanos = targetLatencyNanos;
+        this.decreaseFactor = decreaseFactor;
+        this.batchSize = Math.max(minBatchSize, Math.min(maxBatchSize, initialBatchSize));
+    }
+
+    /**
+     * Waits until another batch can be put in flight.
+     *
+     * @return a permit giving the batch size to use, which must be passed to {@link #complete(Permit, long, boolean)}
+     * @throws InterruptedException if interrupted while waiting
+     */
+    public synchronized Permit acquire() throws InterruptedException {
+        while (inFlight >= concurrency) {
+            wait();
+        }
+        inFlight++;
+        return new Permit(batchSize, generation);
+    }
+
+    /**
+     * Records the outcome of a batch and adjusts the batch size and concurrency.
+     *
+     * @param permit       the permit returned by {@link #acquire()} for the batch
+     * @param latencyNanos the time taken to add the batch
+     * @param succeeded    whether the batch was added
+     */
+    public synchronized void complete(final Permit permit, final long latencyNanos, final boolean succeeded) {
+        inFlight--;
+        if (succeeded && latencyNanos <= targetLatencyNanos) {
+            successesInRound++;
+            if (successesInRound >= concurrency) {
+                batchSize = Math.min(maxBatchSize, batchSize + batchSizeIncrement);
+                concurrency = Math.min(maxConcurrency, concurrency + 1);
+                successesInRound = 0;
+                numIncreases++;
+            }
+        } else if (permit.generation == generation) {
+            batchSize = Math.max(minBatchSize, (int) (batchSize * decreaseFactor));
+            concurrency = Math.max(1, (int) (concurrency * decreaseFactor));
+            successesInRound = 0;
+            generation++;
+            numDecreases++;
+        }
+        notifyAll();
+    }
+
+    /**
+     * Returns a permit without recording an outcome, e.g. when there are no more elements to add.
+     *
+     * @param permit the permit returned by {@link #acquire()}
+     */
+    public synchronized void release(final Permit permit) {
+        inFlight--;
+        notifyAll();
+    }
+
+    public synchronized int getBatchSize() {
+        return batchSize;
+    }
+
+    public synchronized int getConcurrency() {
+        return concurrency;
+    }
+
+    public synchronized long getNumIncreases() {
+        return numIncreases;
+    }
+
+    public synchronized long getNumDecreases() {
+        return numDecreases;
+    }
+
+    /**
+     * Permission to put a batch in flight.
+     */
+    public static final class Permit {
+        private final int batchSize;
+        private final long generation;
+
+        private Permit(final int batchSize, final long generation) {
+            this.batchSize = batchSize;
+            this.generation = generation;
+        }
+
+        public int getBatchSize() {
+            return batchSize;
+        }
+    }
+}
@@ -0,0 +1,236 @@
+/*
+ * Copyright 2019 Crown Copyright
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package uk.gov.gchq.gaffer.performancetesting.ingest;
+
+import uk.gov.gchq.gaffer.data.element.Edge;
+import uk.gov.gchq.gaffer.data.element.Element;
+import uk.gov.gchq.gaffer.data.element.Entity;
+import uk.gov.gchq.gaffer.data.element.function.ElementAggregator;
+import uk.gov.gchq.gaffer.store.schema.Schema;
+import uk.gov.gchq.gaffer.store.schema.SchemaElementDefinition;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.NoSuchElementException;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Merges duplicate elements on the client before they are added to a store, using the ingest aggregators of the
+ * {@link Schema}. Elements are duplicates if they have the same group, the same vertex (for an {@link Entity}) or
+ * source, destination and directed flag (for an {@link Edge}), and the same values of the group-by and visibility
+ * properties; these are the elements that the store would aggregate together.
+ *
+ * <p>Only a bounded window of distinct elements is held in memory. When a new element does not match any element in
+ * the window and the window is full, the element that has been in the window longest is released. Elements of groups
+ * that are not aggregated are released as soon as they are read.
+ *
+ * <p>The first element with each key is shallow cloned before it is merged into, so the input elements are not
+ * changed unless an aggregator merges a property value in place (as the <code>HyperLogLogPlus</code> aggregator does).
+ * Each call to {@link #combine(Iterable)} returns a lazy view of its input, so combining is included in the time taken
+ * to add the batch. The time spent combining is measured so that it can be told apart from the time spent in the
+ * store. The numbers of elements read and released, and the time spent combining, are counted over all batches.
+ */
+public class ElementCombiner {
+    private final Schema schema;
+    private final int windowSize;
+    private final AtomicLong totalElementsIn = new AtomicLong(0L);
+    private final AtomicLong totalElementsOut = new AtomicLong(0L);
+    private final AtomicLong totalCombiningNanos = new AtomicLong(0L);
+
+    public ElementCombiner(final Schema schema, final int windowSize) {
+        if (windowSize <= 0) {
+            throw new IllegalArgumentException("The window size must be greater than 0 (got " + windowSize + ")");
+        }
+        this.schema = schema;
+        this.windowSize = windowSize;
+    }
+
+    /**
+     * Returns a view of the elements in which duplicates within the window have been merged. The view can only be
+     * iterated through once.
+     *
+     * @param elements the elements to combine
+     * @return the combined elements
+     */
+    public CombinedElements combine(final Iterable<Element> elements) {
+        return new CombinedElements(elements.iterator());
+    }
+
+    public int getWindowSize() {
+        return windowSize;
+    }
+
+    public long getTotalElementsIn() {
+        return totalElementsIn.get();
+    }
+
+    public long getTotalElementsOut() {
+        return totalElementsOut.get();
+    }
+
+    /**
+     * @return the total time in nanoseconds spent merging elements, over all batches
+     */
+    public long getTotalCombiningNanos() {
+        return totalCombiningNanos.get();
+    }
+
+    /**
+     * @return the fraction of the elements read by this combiner that were merged into another element
+     */
+    public double getReductionRatio() {
+        return reductionRatio(totalElementsIn.get(), totalElementsOut.get());
+    }
+
+    private static double reductionRatio(final long elementsIn, final long elementsOut) {
+        return elementsIn > 0L ? 1.0D - (double) elementsOut / elementsIn : 0.0D;
+    }
+
+    private List<Object> getKey(final Element element, final SchemaElementDefinition elementDefinition) {
+        final List<Object> key = new ArrayList<>();
+        key.add(element.getGroup());
+        if (element instanceof Entity) {
+            key.add(((Entity) element).getVertex());
+        } else {
+            final Edge edge = (Edge) element;
+            key.add(edge.getSource());
+            key.add(edge.getDestination());
+            key.add(edge.isDirected());
+        }
+        for (final String property : elementDefinition.getGroupBy()) {
+            key.add(element.getProperty(property));
+        }
+        if (null != schema.getVisibilityProperty()) {
+            key.add(element.getProperty(schema.getVisibilityProperty()));
+        }
+        return key;
+    }
+
+    /**
+     * The combined elements of one batch, together with the numbers of elements read and released so far and the
+     * time spent merging them.
+     */
+    public final class CombinedElements implements Iterable<Element> {
+        private final Iterator<Element> input;
+        private final Map<List<Object>, Element> window = new LinkedHashMap<>();
+        private final Deque<Element> output = new ArrayDeque<>();
+        private long elementsIn = 0L;
+        private long elementsOut = 0L;
+        private long combiningNanos = 0L;
+        private boolean iterated = false;
+
+        private CombinedElements(final Iterator<Element> input) {
+            this.input = input;
+        }
+
+        @Override
+        public Iterator<Element> iterator() {
+            if (iterated) {
+                throw new IllegalStateException("Combined elements can only be iterated through once");
+            }
+            iterated = true;
+            return new Iterator<Element>() {
+                @Override
+                public boolean hasNext() {
+                    fill();
+                    return !output.isEmpty();
+                }
+
+                @Override
+                public Element next() {
+                    if (!hasNext()) {
+                        throw new NoSuchElementException();
+                    }
+                    elementsOut++;
+                    totalElementsOut.incrementAndGet();
+                    return output.poll();
+                }
+            };
+        }
+
+        public long getElementsIn() {
+            return elementsIn;
+        }
+
+        public long getElementsOut() {
+            return elementsOut;
+        }
+
+        /**
+         * @return the time in nanoseconds spent merging the elements read so far, not including the time taken to
+         * read them from the input
+         */
+        public long getCombiningNanos() {
+            return combiningNanos;
+        }
+
+        /**
+         * @return the fraction of the elements read so far that were merged into another element
+         */
+        public double getReductionRatio() {
+            return reductionRatio(elementsIn, elementsOut);
+        }
+
+        private void fill() {
+            while (output.isEmpty() && input.hasNext()) {
+                final Element element = input.next();
+                final long startTime = System.nanoTime();
+                add(element);
+                recordCombiningTime(startTime);
+            }
+            if (output.isEmpty() && !window.isEmpty()) {
+                final long startTime = System.nanoTime();
+                output.addAll(window.values());
+                window.clear();
+                recordCombiningTime(startTime);
+            }
+        }
+
+        private void recordCombiningTime(final long startTime) {
+            final long durationInNanos = System.nanoTime() - startTime;
+            combiningNanos += durationInNanos;
+            totalCombiningNanos.addAndGet(durationInNanos);
+        }
+
+        private void add(final Element element) {
+            elementsIn++;
+            totalElementsIn.incrementAndGet();
+            final SchemaElementDefinition elementDefinition = schema.getElement(element.getGroup());
+            if (null == elementDefinition || !elementDefinition.isAggregate()) {
+                output.add(element);
+                return;
+            }
+            final List<Object> key = getKey(element, elementDefinition);
+            final Element state = window.get(key);
+            if (null != state) {
+                final ElementAggregator aggregator = elementDefinition.getIngestAggregator();
+                window.put(key, aggregator.apply(state, element));
+                return;
+            }
+            window.put(key, element.shallowClone());
+            if (window.size() > windowSize) {
+                final Iterator<Element> eldest = window.values().iterator();
+                output.add(eldest.next());
+                eldest.remove();
+            }
+        }
+    }
+}
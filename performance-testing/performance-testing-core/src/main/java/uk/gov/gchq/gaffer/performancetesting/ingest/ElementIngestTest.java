@@ -22,29 +22,105 @@ import uk.gov.gchq.gaffer.data.element.Element;
 import uk.gov.gchq.gaffer.graph.Graph;
 import uk.gov.gchq.gaffer.operation.OperationException;
 import uk.gov.gchq.gaffer.operation.impl.add.AddElements;
+import uk.gov.gchq.gaffer.performancetesting.IntervalReporter;
+import uk.gov.gchq.gaffer.performancetesting.JvmCostMonitor;
+import uk.gov.gchq.gaffer.performancetesting.LatencyHistogram;
+import uk.gov.gchq.gaffer.performancetesting.LatencyMetrics;
+import uk.gov.gchq.gaffer.performancetesting.Metrics;
 import uk.gov.gchq.gaffer.performancetesting.MetricsListener;
-import uk.gov.gchq.gaffer.randomelementgeneration.supplier.ElementsSupplier;
+import uk.gov.gchq.gaffer.performancetesting.RateLimiter;
+import uk.gov.gchq.gaffer.performancetesting.SteadyStateDetector;
+import uk.gov.gchq.gaffer.performancetesting.corpus.ElementCorpusReader;
+import uk.gov.gchq.gaffer.randomelementgeneration.supplier.RmatElementSpliterator;
 import uk.gov.gchq.gaffer.randomelementgeneration.supplier.RmatElementSupplier;
+import uk.gov.gchq.gaffer.randomelementgeneration.supplier.RmatElementStreamSupplier;
 import uk.gov.gchq.gaffer.store.StoreProperties;
 import uk.gov.gchq.gaffer.store.schema.Schema;
 import uk.gov.gchq.gaffer.user.User;
 
 import java.io.File;
+import java.io.IOException;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
 import java.util.function.Supplier;
+import java.util.stream.Collectors;
 import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
 
 /**
  * This class measures the time taken to add some elements to the provided {@link Graph}.
  *
  * <p>The test is configured using a {@link ElementIngestTestProperties}. This specifies the class to be
- * used to generate the random elements and the number of random elements.
+ * used to generate the random elements, the number of random elements and the number of threads to add them with.
+ * Alternatively, the elements can be read from a corpus file written by an
+ * {@link uk.gov.gchq.gaffer.performancetesting.corpus.ElementCorpusWriter}; each batch is read into memory before it
+ * is timed.
+ *
+ * <p>Optionally, a {@link MetricsListener} can be provided. This will receive an update of the performance at the end
+ * of every batch, the rate achieved by each worker (if there is more than one) and the overall rate. These updates are
+ * instances of {@link IngestMetrics}. At the end of the test it also receives a {@link LatencyMetrics} containing
+ * percentiles of the time taken to add each batch. The update for each batch includes the cost of the batch to the
+ * client JVM (allocation, CPU time and garbage collection), as measured by a {@link JvmCostMonitor}, so that
+ * client-side overhead can be seen next to the rate achieved by the store.
+ *
+ * <p>If the test properties specify warm-up batches then these are added before the test starts and are not included
+ * in the results. The overall rate is reported together with the rates before and after the test reached a steady
+ * state, as found by a {@link SteadyStateDetector}.
+ *
+ * <p>For soak testing, the test properties can bound the test by a duration instead of (or as well as) the number of
+ * elements, throttle the workers to a target rate between them using a {@link RateLimiter}, and report the rate to the
+ * metrics listener on a fixed interval using an {@link IntervalReporter} instead of after every batch.
+ *
+ * <p>If the test properties specify that the test is pipelined then the batches are generated in memory by separate
+ * threads and passed to the writing threads through an {@link IngestPipeline}, so that the rate is not limited by
+ * generating the elements.
+ *
+ * <p>If the test properties specify that the test is adaptive then an {@link AimdController} adapts the batch size
+ * and the number of batches in flight to the latency of the store, and batches that fail are retried. The batch size
+ * and concurrency are reported with each batch, or with each interval if the test reports on a fixed interval.
+ *
+ * <p>If the test properties specify that the test pre-aggregates then duplicate elements in each batch are merged by
+ * an {@link ElementCombiner} as they are added, and the fraction of elements removed is reported with each batch and at
+ * the end. The time spent merging the elements is reported separately from the rest of the time taken to add each
+ * batch, which is spent in the store. The rates are still of the elements before they were merged, so that they can
+ * be compared with a test that does not pre-aggregate.
  */
 public class ElementIngestTest {
     private static final Logger LOGGER = LoggerFactory.getLogger(ElementIngestTest.class);
+    // The counters of the interval reporter
+    private static final int ELEMENTS_COUNTER = 0;
+    private static final int ALLOCATED_BYTES_COUNTER = 1;
+    private static final int CPU_NANOS_COUNTER = 2;
+    private static final int COMBINED_ELEMENTS_COUNTER = 3;
+    private static final int COMBINING_NANOS_COUNTER = 4;
+    private static final int STORE_NANOS_COUNTER = 5;
+    private static final int NUM_COUNTERS = 6;
 
     private Graph graph;
     private ElementIngestTestProperties testProperties;
     private MetricsListener metricsListener;
+    private final LatencyHistogram batchLatencies = new LatencyHistogram();
+    private Iterator<Element> corpus;
+    private SteadyStateDetector steadyStateDetector;
+    private RateLimiter rateLimiter;
+    private IntervalReporter intervalReporter;
+    private JvmCostMonitor jvmCostMonitor;
+    private long intervalStartGcCount;
+    private long intervalStartGcTimeMillis;
+    private long startTimeInNanos;
+    private Long durationInNanos;
+    private IngestPipeline pipeline;
+    private volatile AimdController aimdController;
+    private ElementCombiner elementCombiner;
 
     public ElementIngestTest(final Graph graph,
                              final ElementIngestTestProperties testProperties) {
@@ -64,65 +140,659 @@ public class ElementIngestTest {
     }
 
     /**
-     * Runs a test of adding elements in batches.
+     * Runs a test of adding elements in batches. If the test properties specify more than one thread then that many
+     * workers add batches concurrently to the same {@link Graph}, each using its own {@link Supplier} of elements.
+     * The test stops once the number of elements has been added or the duration has passed, whichever is first; the
+     * last batch is cut short so that no more than the number of elements are added.
      *
      * @return The rate at which elements were added (number of elements per second).
      */
     public double run() {
         final long numElements = testProperties.getNumElements();
         final long batchSize = testProperties.getBatchSize();
-        final Supplier<Element> elementSupplier = new ElementSupplierFactory(testProperties).get();
-        long totalAdded = 0L;
-        long batchNumber = 0L;
+        final int numThreads = testProperties.getNumThreads();
+        final AtomicLong batchCounter = new AtomicLong(0L);
+        if (testProperties.isAdaptive() && testProperties.isPipelined()) {
+            throw new IllegalArgumentException("A test cannot be both adaptive and pipelined");
+        }
+        aimdController = null;
+        elementCombiner = testProperties.isPreAggregate()
+                ? testProperties.createElementCombiner(graph.getSchema())
+                : null;
+        batchLatencies.reset();
+        corpus = openCorpus();
+        final List<IngestWorker> workers = new ArrayList<>(numThreads);
+        final ElementSupplierFactory elementSupplierFactory = new ElementSupplierFactory(testProperties);
+        runWarmUp(elementSupplierFactory, numElements, batchSize);
+        steadyStateDetector = testProperties.createSteadyStateDetector();
+        final Double targetRate = testProperties.getTargetElementsPerSecond();
+        rateLimiter = null == targetRate ? null : new RateLimiter(targetRate);
+        final Long durationSeconds = testProperties.getDurationSeconds();
+        durationInNanos = null == durationSeconds ? null : TimeUnit.SECONDS.toNanos(durationSeconds);
+        for (int i = 0; i < numThreads; i++) {
+            workers.add(new IngestWorker(i, numThreads > 1, elementSupplierFactory, numElements, batchSize,
+                    batchCounter));
+        }
+        jvmCostMonitor = new JvmCostMonitor();
+        intervalReporter = createIntervalReporter();
         final long startTime = System.currentTimeMillis();
-        while (totalAdded < numElements) {
-            batchNumber++;
-            addBatch(elementSupplier, batchSize, batchNumber);
-            totalAdded += batchSize;
+        startTimeInNanos = System.nanoTime();
+        final long totalAdded;
+        try {
+            if (testProperties.isAdaptive()) {
+                totalAdded = runAdaptive(elementSupplierFactory, numElements);
+            } else if (testProperties.isPipelined()) {
+                totalAdded = runPipelined(elementSupplierFactory, numElements, batchSize, batchCounter);
+            } else if (1 == numThreads) {
+                totalAdded = workers.get(0).call();
+            } else {
+                totalAdded = runConcurrently(workers);
+            }
+        } finally {
+            jvmCostMonitor.close();
+            if (null != intervalReporter) {
+                intervalReporter.close();
+            }
         }
         final long endTime = System.currentTimeMillis();
         final double durationInSeconds = (endTime - startTime) / 1000.0;
-        final double rate = (double) numElements / durationInSeconds;
-        LOGGER.info("Test result: " + numElements + " elements added in " + durationInSeconds + " seconds (rate was "
-                + rate + " per second)");
-        log(numElements, true);
+        final double rate = (double) totalAdded / durationInSeconds;
+        LOGGER.info("Test result: " + totalAdded + " elements added in " + durationInSeconds + " seconds using "
+                + numThreads + " thread(s) (rate was " + rate + " per second)");
+        if (numThreads > 1 && !testProperties.isPipelined() && !testProperties.isAdaptive()) {
+            workers.forEach(worker -> logWorker(worker.getWorkerId(), worker.getRate()));
+        }
+        logLatencies();
+        logOverall(rate);
         if (null != metricsListener) {
             metricsListener.close();
         }
         return rate;
     }
 
-    private void addBatch(final Supplier<Element> elementSupplier, final long batchSize, final long batchNumber) {
-        final Iterable<Element> elements = Stream.generate(elementSupplier).limit(batchSize)::iterator;
+    private IntervalReporter createIntervalReporter() {
+        final Long intervalSeconds = testProperties.getReportingIntervalSeconds();
+        if (null == intervalSeconds) {
+            return null;
+        }
+        intervalStartGcCount = 0L;
+        intervalStartGcTimeMillis = 0L;
+        return new IntervalReporter(TimeUnit.SECONDS.toMillis(intervalSeconds), NUM_COUNTERS, this::reportInterval);
+    }
+
+    private void reportInterval(final double[] rates, final double durationInSeconds) {
+        final double rate = rates[ELEMENTS_COUNTER];
+        final long gcCount = jvmCostMonitor.getTotalGcCount();
+        final long gcTimeMillis = jvmCostMonitor.getTotalGcTimeMillis();
+        LOGGER.info("Interval of " + durationInSeconds + " seconds: rate was " + rate + " per second");
+        final IngestMetrics metrics = new IngestMetrics();
+        metrics.putMetric(IngestMetrics.ELEMENTS_PER_SECOND_REPORTING_INTERVAL, rate);
+        // The counters hold the sum over the batches, which are only counted if they could be measured
+        if (jvmCostMonitor.isAllocatedBytesSupported()) {
+            metrics.putMetric(IngestMetrics.JVM_ALLOCATED_BYTES_REPORTING_INTERVAL,
+                    (double) Math.round(rates[ALLOCATED_BYTES_COUNTER] * durationInSeconds));
+        }
+        if (jvmCostMonitor.isCpuTimeSupported()) {
+            metrics.putMetric(IngestMetrics.JVM_CPU_MILLIS_REPORTING_INTERVAL,
+                    rates[CPU_NANOS_COUNTER] * durationInSeconds / 1.0E6);
+        }
+        if (null != elementCombiner) {
+            final double reductionRatio = rate > 0.0D ? 1.0D - rates[COMBINED_ELEMENTS_COUNTER] / rate : 0.0D;
+            metrics.putMetric(IngestMetrics.PRE_AGGREGATION_REDUCTION_RATIO_REPORTING_INTERVAL, reductionRatio);
+            metrics.putMetric(IngestMetrics.PRE_AGGREGATION_MILLIS_REPORTING_INTERVAL,
+                    rates[COMBINING_NANOS_COUNTER] * durationInSeconds / 1.0E6);
+            metrics.putMetric(IngestMetrics.STORE_MILLIS_REPORTING_INTERVAL,
+                    rates[STORE_NANOS_COUNTER] * durationInSeconds / 1.0E6);
+        }
+        // Garbage collections are counted once for the whole JVM, rather than once for each batch they overlapped
+        metrics.putMetric(IngestMetrics.JVM_GC_COUNT_REPORTING_INTERVAL, (double) (gcCount - intervalStartGcCount));
+        metrics.putMetric(IngestMetrics.JVM_GC_TIME_MILLIS_REPORTING_INTERVAL,
+                (double) (gcTimeMillis - intervalStartGcTimeMillis));
+        intervalStartGcCount = gcCount;
+        intervalStartGcTimeMillis = gcTimeMillis;
+        // The batches are not reported individually, so report the batch size and concurrency chosen so far
+        final AimdController controller = aimdController;
+        if (null != controller) {
+            metrics.putMetric(IngestMetrics.INGEST_BATCH_SIZE, (double) controller.getBatchSize());
+            metrics.putMetric(IngestMetrics.INGEST_CONCURRENCY, (double) controller.getConcurrency());
+        }
+        update(metrics);
+    }
+
+    private boolean isDurationReached() {
+        return null != durationInNanos && System.nanoTime() - startTimeInNanos >= durationInNanos;
+    }
+
+    /**
+     * @return the latencies, in microseconds, of the batches of the last test run
+     */
+    public LatencyHistogram getBatchLatencies() {
+        return batchLatencies;
+    }
+
+    /**
+     * Adds the warm-up batches, which are not included in the results. If the test properties specify a seed then the
+     * warm-up batches contain the elements of the edges of the seeded graph that follow the last edge added by the
+     * test, so that the test still adds the same elements (or, if the test is only bounded by its duration, those at
+     * the end of the graph).
+     */
+    private void runWarmUp(final ElementSupplierFactory elementSupplierFactory,
+                           final long numElements,
+                           final long batchSize) {
+        final long warmUpBatches = testProperties.getWarmUpBatches();
+        if (warmUpBatches <= 0L) {
+            return;
+        }
+        final boolean reproducible = null != testProperties.getSeed();
+        final Supplier<Element> elementSupplier = reproducible ? null : elementSupplierFactory.get();
+        final long edgesPerBatch = elementSupplierFactory.getEdgesPerBatch(batchSize);
+        final long firstEdge = Math.min(elementSupplierFactory.getNumEdges(numElements),
+                Long.MAX_VALUE - warmUpBatches * edgesPerBatch);
+        final long startTime = System.nanoTime();
+        for (long i = 0L; i < warmUpBatches; i++) {
+            final Iterable<Element> batch = reproducible
+                    ? elementSupplierFactory.getElementsOfEdges(firstEdge + i * edgesPerBatch,
+                            firstEdge + (i + 1L) * edgesPerBatch)
+                    : Stream.generate(elementSupplier).limit(batchSize)::iterator;
+            try {
+                addElements(batch);
+            } catch (final OperationException e) {
+                throw new RuntimeException("Exception thrown adding warm-up elements", e);
+            }
+        }
+        LOGGER.info("Warm-up: " + warmUpBatches + " batches of up to " + batchSize + " elements added in "
+                + (System.nanoTime() - startTime) / 1.0E9 + " seconds");
+    }
+
+    private void addElements(final Iterable<Element> elements) throws OperationException {
         final AddElements addElements = new AddElements.Builder()
                 .input(elements)
                 .validate(false)
                 .build();
-        final long startTime = System.currentTimeMillis();
+        graph.execute(addElements, new User());
+    }
+
+    /**
+     * Runs the test with an {@link AimdController}: as many workers as the maximum concurrency each claim the next
+     * range of elements (or, if the test is seeded, of edges), of the batch size chosen by the controller, when the
+     * controller allows another batch to be put in flight.
+     */
+    private long runAdaptive(final ElementSupplierFactory elementSupplierFactory, final long numElements) {
+        aimdController = testProperties.createAimdController();
+        final AtomicLong nextElement = new AtomicLong(0L);
+        final AtomicLong batchCounter = new AtomicLong(0L);
+        final List<AdaptiveIngestWorker> workers = new ArrayList<>();
+        for (int i = 0; i < testProperties.getNumThreads(); i++) {
+            workers.add(new AdaptiveIngestWorker(elementSupplierFactory, numElements, nextElement, batchCounter));
+        }
+        LOGGER.info("Running adaptive test with an initial batch size of " + aimdController.getBatchSize()
+                + " and up to " + testProperties.getNumThreads() + " batches in flight");
+        return runConcurrently(workers);
+    }
+
+    private long runConcurrently(final List<? extends Callable<Long>> workers) {
+        final ExecutorService executorService = Executors.newFixedThreadPool(workers.size());
+        try {
+            final List<Future<Long>> futures = executorService.invokeAll(workers);
+            long totalAdded = 0L;
+            for (final Future<Long> future : futures) {
+                totalAdded += future.get();
+            }
+            return totalAdded;
+        } catch (final InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new RuntimeException("Interrupted waiting for ingest workers to finish", e);
+        } catch (final ExecutionException e) {
+            throw new RuntimeException("Exception thrown by ingest worker", e.getCause());
+        } finally {
+            executorService.shutdownNow();
+        }
+    }
+
+    /**
+     * Runs the test through an {@link IngestPipeline}: the generator threads claim batch numbers from the shared
+     * counter and create each batch in memory, and the worker threads add them. If the test properties specify a seed
+     * then batch <code>n</code> contains the elements of the same range of edges as in a test that is not pipelined.
+     */
+    private long runPipelined(final ElementSupplierFactory elementSupplierFactory,
+                              final long numElements,
+                              final long batchSize,
+                              final AtomicLong batchCounter) {
+        final boolean reproducible = null != testProperties.getSeed() && null == corpus;
+        final long numEdges = reproducible ? elementSupplierFactory.getNumEdges(numElements) : 0L;
+        final long edgesPerBatch = reproducible ? elementSupplierFactory.getEdgesPerBatch(batchSize) : 0L;
+        final ThreadLocal<Supplier<Element>> elementSuppliers = ThreadLocal.withInitial(elementSupplierFactory::get);
+        pipeline = new IngestPipeline(testProperties.getPipelineGeneratorThreads(), testProperties.getNumThreads(),
+                testProperties.getPipelineBufferSize());
+        LOGGER.info("Running pipelined test with " + testProperties.getPipelineGeneratorThreads() + " generator "
+                + "thread(s), " + testProperties.getNumThreads() + " writer thread(s) and a buffer of "
+                + testProperties.getPipelineBufferSize() + " batches");
+        return pipeline.run(() -> {
+            final long batchNumber = batchCounter.incrementAndGet();
+            if (isDurationReached()) {
+                return null;
+            }
+            final List<Element> batch;
+            if (reproducible) {
+                final long firstEdge = (batchNumber - 1L) * edgesPerBatch;
+                if (firstEdge >= numEdges) {
+                    return null;
+                }
+                batch = elementSupplierFactory.getElementsOfEdges(firstEdge,
+                        Math.min(numEdges, firstEdge + edgesPerBatch));
+            } else {
+                if ((batchNumber - 1L) * batchSize >= numElements) {
+                    return null;
+                }
+                final long maxElementsInBatch = Math.min(batchSize, numElements - (batchNumber - 1L) * batchSize);
+                if (null != corpus) {
+                    batch = readBatchFromCorpus(maxElementsInBatch);
+                    if (batch.isEmpty()) {
+                        return null;
+                    }
+                } else {
+                    batch = Stream.generate(elementSuppliers.get()).limit(maxElementsInBatch)
+                            .collect(Collectors.toList());
+                }
+            }
+            return new IngestPipeline.Batch(batchNumber, batch);
+        }, batch -> {
+            if (null != rateLimiter) {
+                rateLimiter.acquire(batch.size());
+            }
+            addBatch(batch.getElements(), batch.size(), batch.getBatchNumber(), null);
+        });
+    }
+
+    private Iterator<Element> openCorpus() {
+        if (null == testProperties.getCorpusFile()) {
+            return null;
+        }
         try {
-            graph.execute(addElements, new User());
+            final ElementCorpusReader reader
+                    = new ElementCorpusReader(Paths.get(testProperties.getCorpusFile()), graph.getSchema());
+            LOGGER.info("Reading " + reader.getNumElements() + " elements from corpus "
+                    + testProperties.getCorpusFile());
+            return reader.iterator();
+        } catch (final IOException e) {
+            throw new RuntimeException("Exception reading corpus file " + testProperties.getCorpusFile(), e);
+        }
+    }
+
+    /**
+     * Reads the next batch of elements from the corpus into memory, so that reading them is not included in the time
+     * taken to add them.
+     *
+     * @param batchSize the maximum number of elements to read
+     * @return the elements, which will be fewer than the batch size if the corpus is exhausted
+     */
+    private List<Element> readBatchFromCorpus(final long batchSize) {
+        final List<Element> batch = new ArrayList<>((int) batchSize);
+        synchronized (corpus) {
+            while (batch.size() < batchSize && corpus.hasNext()) {
+                batch.add(corpus.next());
+            }
+        }
+        return batch;
+    }
+
+    private double addBatch(final Iterable<Element> elements, final long batchSize, final long batchNumber,
+                            final Double workerId) {
+        try {
+            return tryAddBatch(elements, batchSize, batchNumber, workerId);
         } catch (final OperationException e) {
-            LOGGER.error("OperationException thrown after " + (System.currentTimeMillis() - startTime) / 1000.0
+            throw new RuntimeException("Exception thrown adding elements", e);
+        }
+    }
+
+    private double tryAddBatch(final Iterable<Element> elements, final long batchSize, final long batchNumber,
+                               final Double workerId) throws OperationException {
+        final JvmCostMonitor.Sample jvmCostSample = jvmCostMonitor.start();
+        final long startTime = System.nanoTime();
+        final ElementCombiner.CombinedElements combinedElements
+                = null == elementCombiner ? null : elementCombiner.combine(elements);
+        try {
+            addElements(null == combinedElements ? elements : combinedElements);
+        } catch (final OperationException e) {
+            LOGGER.error("OperationException thrown after " + (System.nanoTime() - startTime) / 1.0E9
                     + " seconds");
-            throw new RuntimeException("Exception thrown adding elements");
+            throw e;
         }
-        final long endTime = System.currentTimeMillis();
-        final double durationInSeconds = (endTime - startTime) / 1000.0;
+        final long durationInNanos = System.nanoTime() - startTime;
+        final JvmCostMonitor.Cost jvmCost = jvmCostSample.stop();
+        batchLatencies.recordValue(TimeUnit.NANOSECONDS.toMicros(durationInNanos));
+        steadyStateDetector.record(batchSize, startTime, startTime + durationInNanos);
+        final double durationInSeconds = durationInNanos / 1.0E9;
         final double rate = batchSize / durationInSeconds;
-        LOGGER.info("Batch number = " + batchNumber + ": " + batchSize + " elements added in " + durationInSeconds
-                + " seconds (rate was " + rate + " per second)");
-        log(rate, false);
+        // The elements are combined as the store reads them, so the rest of the time is spent adding them
+        final long combiningNanos = null == combinedElements ? 0L : combinedElements.getCombiningNanos();
+        final long storeNanos = durationInNanos - combiningNanos;
+        final String message = "Batch number = " + batchNumber + ": " + batchSize + " elements added in "
+                + durationInSeconds + " seconds (rate was " + rate + " per second), client allocated "
+                + jvmCost.getAllocatedBytes() + " bytes and used " + jvmCost.getCpuTimeNanos() / 1.0E6
+                + "ms of CPU, " + jvmCost.getGcCount() + " garbage collection(s) took " + jvmCost.getGcTimeMillis()
+                + "ms" + (null == combinedElements ? "" : ", pre-aggregated to "
+                + combinedElements.getElementsOut() + " elements in " + combiningNanos / 1.0E6 + "ms");
+        if (null != intervalReporter) {
+            LOGGER.debug(message);
+            intervalReporter.add(ELEMENTS_COUNTER, batchSize);
+            if (jvmCost.getAllocatedBytes() >= 0L) {
+                intervalReporter.add(ALLOCATED_BYTES_COUNTER, jvmCost.getAllocatedBytes());
+            }
+            if (jvmCost.getCpuTimeNanos() >= 0L) {
+                intervalReporter.add(CPU_NANOS_COUNTER, jvmCost.getCpuTimeNanos());
+            }
+            if (null != combinedElements) {
+                intervalReporter.add(COMBINED_ELEMENTS_COUNTER, combinedElements.getElementsOut());
+                intervalReporter.add(COMBINING_NANOS_COUNTER, combiningNanos);
+                intervalReporter.add(STORE_NANOS_COUNTER, storeNanos);
+            }
+            return durationInSeconds;
+        }
+        LOGGER.info(message);
+        final IngestMetrics metrics = new IngestMetrics();
+        metrics.putMetric(IngestMetrics.BATCH_NUMBER, (double) batchNumber);
+        metrics.putMetric(IngestMetrics.ELEMENTS_PER_SECOND_BATCH, rate);
+        if (jvmCost.getAllocatedBytes() >= 0L) {
+            metrics.putMetric(IngestMetrics.JVM_ALLOCATED_BYTES_BATCH, (double) jvmCost.getAllocatedBytes());
+        }
+        if (jvmCost.getCpuTimeNanos() >= 0L) {
+            metrics.putMetric(IngestMetrics.JVM_CPU_MILLIS_BATCH, jvmCost.getCpuTimeNanos() / 1.0E6);
+        }
+        metrics.putMetric(IngestMetrics.JVM_GC_COUNT_BATCH, (double) jvmCost.getGcCount());
+        metrics.putMetric(IngestMetrics.JVM_GC_TIME_MILLIS_BATCH, (double) jvmCost.getGcTimeMillis());
+        if (null != workerId) {
+            metrics.putMetric(IngestMetrics.WORKER_ID, workerId);
+        }
+        if (null != aimdController) {
+            metrics.putMetric(IngestMetrics.INGEST_BATCH_SIZE, (double) batchSize);
+            metrics.putMetric(IngestMetrics.INGEST_CONCURRENCY, (double) aimdController.getConcurrency());
+        }
+        if (null != combinedElements) {
+            metrics.putMetric(IngestMetrics.PRE_AGGREGATION_REDUCTION_RATIO_BATCH,
+                    combinedElements.getReductionRatio());
+            metrics.putMetric(IngestMetrics.PRE_AGGREGATION_MILLIS_BATCH, combiningNanos / 1.0E6);
+            metrics.putMetric(IngestMetrics.STORE_MILLIS_BATCH, storeNanos / 1.0E6);
+        }
+        update(metrics);
+        return durationInSeconds;
+    }
+
+    private void logOverall(final double elementsPerSecond) {
+        final IngestMetrics metrics = new IngestMetrics();
+        metrics.putMetric(IngestMetrics.ELEMENTS_PER_SECOND_OVERALL, elementsPerSecond);
+        metrics.putMetric(IngestMetrics.JVM_GC_COUNT_TOTAL, (double) jvmCostMonitor.getTotalGcCount());
+        metrics.putMetric(IngestMetrics.JVM_GC_TIME_MILLIS_TOTAL, (double) jvmCostMonitor.getTotalGcTimeMillis());
+        if (null != aimdController) {
+            LOGGER.info("Adaptive: final batch size was " + aimdController.getBatchSize() + ", final concurrency was "
+                    + aimdController.getConcurrency() + " (" + aimdController.getNumIncreases() + " increases, "
+                    + aimdController.getNumDecreases() + " decreases)");
+            metrics.putMetric(IngestMetrics.INGEST_BATCH_SIZE, (double) aimdController.getBatchSize());
+            metrics.putMetric(IngestMetrics.INGEST_CONCURRENCY, (double) aimdController.getConcurrency());
+        }
+        if (testProperties.isPipelined()) {
+            final double generatorStallMillis = pipeline.getGeneratorStallNanos() / 1.0E6;
+            final double writerStallMillis = pipeline.getWriterStallNanos() / 1.0E6;
+            LOGGER.info("Pipeline: generators waited " + generatorStallMillis + "ms for space in the buffer, writers "
+                    + "waited " + writerStallMillis + "ms for a batch");
+            metrics.putMetric(IngestMetrics.PIPELINE_GENERATOR_STALL_MILLIS, generatorStallMillis);
+            metrics.putMetric(IngestMetrics.PIPELINE_WRITER_STALL_MILLIS, writerStallMillis);
+        }
+        if (null != elementCombiner) {
+            LOGGER.info("Pre-aggregation: " + elementCombiner.getTotalElementsIn() + " elements were merged into "
+                    + elementCombiner.getTotalElementsOut() + " with a window of " + elementCombiner.getWindowSize()
+                    + " (reduction ratio was " + elementCombiner.getReductionRatio() + ") in "
+                    + elementCombiner.getTotalCombiningNanos() / 1.0E6 + "ms");
+            metrics.putMetric(IngestMetrics.PRE_AGGREGATION_REDUCTION_RATIO_OVERALL,
+                    elementCombiner.getReductionRatio());
+            metrics.putMetric(IngestMetrics.PRE_AGGREGATION_MILLIS_TOTAL,
+                    elementCombiner.getTotalCombiningNanos() / 1.0E6);
+        }
+        final SteadyStateDetector.Result steadyState = steadyStateDetector.getResult();
+        if (steadyState.isSteadyStateReached()) {
+            LOGGER.info("Steady state reached at batch " + steadyState.getSteadyStateStartBatch() + ": rate before "
+                    + "was " + steadyState.getWarmUpRate() + " per second, rate after was "
+                    + steadyState.getSteadyStateRate() + " per second");
+            metrics.putMetric(IngestMetrics.STEADY_STATE_START_BATCH, (double) steadyState.getSteadyStateStartBatch());
+            metrics.putMetric(IngestMetrics.ELEMENTS_PER_SECOND_STEADY_STATE, steadyState.getSteadyStateRate());
+            if (!Double.isNaN(steadyState.getWarmUpRate())) {
+                metrics.putMetric(IngestMetrics.ELEMENTS_PER_SECOND_WARM_UP, steadyState.getWarmUpRate());
+            }
+        } else {
+            LOGGER.info("A steady state was not reached");
+        }
+        update(metrics);
+    }
+
+    private void logLatencies() {
+        LOGGER.info("Batch latencies: p50 = " + batchLatencies.getValueAtPercentile(50.0D) / 1000.0 + "ms, p99 = "
+                + batchLatencies.getValueAtPercentile(99.0D) / 1000.0 + "ms, max = " + batchLatencies.getMax() / 1000.0
+                + "ms");
+        update(new LatencyMetrics().addHistogram(LatencyMetrics.BATCH_LATENCY, batchLatencies));
+    }
+
+    private void logWorker(final int workerId, final double elementsPerSecond) {
+        LOGGER.info("Worker " + workerId + " added elements at a rate of " + elementsPerSecond + " per second");
+        final IngestMetrics metrics = new IngestMetrics();
+        metrics.putMetric(IngestMetrics.ELEMENTS_PER_SECOND_WORKER, elementsPerSecond);
+        metrics.putMetric(IngestMetrics.WORKER_ID, (double) workerId);
+        update(metrics);
     }
 
-    private void log(final double elementsPerSecond, final boolean finalResult) {
+    private void update(final Metrics metrics) {
         if (null != metricsListener) {
-            final IngestMetrics metrics = new IngestMetrics();
-            if (finalResult) {
-                metrics.putMetric(IngestMetrics.ELEMENTS_PER_SECOND_OVERALL, elementsPerSecond);
-            } else {
-                metrics.putMetric(IngestMetrics.ELEMENTS_PER_SECOND_BATCH, elementsPerSecond);
+            // Workers share the listener so updates are serialised
+            synchronized (metricsListener) {
+                metricsListener.update(metrics);
+            }
+        }
+    }
+
+    /**
+     * Adds batches of elements until the shared batch counter shows that enough batches have been claimed or the
+     * duration of the test has passed. Each worker has its own {@link Supplier} of elements so that generation is not
+     * a point of contention. If there is a target rate then each batch waits for the shared {@link RateLimiter}.
+     *
+     * <p>If the test properties specify a seed then batch <code>n</code> contains every element of edges
+     * <code>(n - 1) * e</code> to <code>n * e - 1</code> of the seeded graph, where <code>e</code> is the number of
+     * edges whose elements fit in a batch, and the test adds the elements of as many edges as fit in the number of
+     * elements. The same elements are therefore added whatever the batch size and number of threads, and whichever
+     * worker claims each batch. Each of these batches is created in memory before it is timed.
+     */
+    private final class IngestWorker implements Callable<Long> {
+        private final int workerId;
+        private final boolean reportWorkerId;
+        private final ElementSupplierFactory elementSupplierFactory;
+        private final Supplier<Element> elementSupplier;
+        private final boolean reproducible;
+        private final long numElements;
+        private final long batchSize;
+        private final long numEdges;
+        private final long edgesPerBatch;
+        private final AtomicLong batchCounter;
+        private long totalAdded = 0L;
+        private long startNanos = 0L;
+        private long endNanos = 0L;
+
+        private IngestWorker(final int workerId,
+                             final boolean reportWorkerId,
+                             final ElementSupplierFactory elementSupplierFactory,
+                             final long numElements,
+                             final long batchSize,
+                             final AtomicLong batchCounter) {
+            this.workerId = workerId;
+            this.reportWorkerId = reportWorkerId;
+            this.elementSupplierFactory = elementSupplierFactory;
+            this.reproducible = null != testProperties.getSeed() && null == corpus;
+            this.elementSupplier = reproducible || null != corpus ? null : elementSupplierFactory.get();
+            this.numElements = numElements;
+            this.batchSize = batchSize;
+            this.numEdges = reproducible ? elementSupplierFactory.getNumEdges(numElements) : 0L;
+            this.edgesPerBatch = reproducible ? elementSupplierFactory.getEdgesPerBatch(batchSize) : 0L;
+            this.batchCounter = batchCounter;
+        }
+
+        @Override
+        public Long call() {
+            startNanos = System.nanoTime();
+            try {
+                addBatches();
+            } finally {
+                endNanos = System.nanoTime();
+            }
+            return totalAdded;
+        }
+
+        private void addBatches() {
+            long batchNumber = batchCounter.incrementAndGet();
+            while (hasBatch(batchNumber) && !isDurationReached()) {
+                final Iterable<Element> elements;
+                final long elementsInBatch;
+                if (reproducible) {
+                    final long firstEdge = (batchNumber - 1L) * edgesPerBatch;
+                    final List<Element> batch = elementSupplierFactory.getElementsOfEdges(firstEdge,
+                            Math.min(numEdges, firstEdge + edgesPerBatch));
+                    elements = batch;
+                    elementsInBatch = batch.size();
+                } else {
+                    // The last batch only contains the elements that are still needed
+                    final long maxElementsInBatch = Math.min(batchSize, numElements - (batchNumber - 1L) * batchSize);
+                    if (null != corpus) {
+                        final List<Element> batch = readBatchFromCorpus(maxElementsInBatch);
+                        if (batch.isEmpty()) {
+                            break;
+                        }
+                        elements = batch;
+                        elementsInBatch = batch.size();
+                    } else {
+                        elements = Stream.generate(elementSupplier).limit(maxElementsInBatch)::iterator;
+                        elementsInBatch = maxElementsInBatch;
+                    }
+                }
+                if (null != rateLimiter) {
+                    rateLimiter.acquire(elementsInBatch);
+                }
+                addBatch(elements, elementsInBatch, batchNumber, reportWorkerId ? (double) workerId : null);
+                totalAdded += elementsInBatch;
+                batchNumber = batchCounter.incrementAndGet();
+            }
+        }
+
+        private boolean hasBatch(final long batchNumber) {
+            return reproducible
+                    ? (batchNumber - 1L) * edgesPerBatch < numEdges
+                    : (batchNumber - 1L) * batchSize < numElements;
+        }
+
+        private int getWorkerId() {
+            return workerId;
+        }
+
+        /**
+         * Returns the rate at which this worker added elements over the wall-clock time from when it started to when
+         * it finished, so that the time spent creating batches and waiting for the rate limiter is included.
+         *
+         * @return the rate in elements per second
+         */
+        private double getRate() {
+            final double durationInSeconds = (endNanos - startNanos) / 1.0E9;
+            return durationInSeconds > 0.0D ? totalAdded / durationInSeconds : 0.0D;
+        }
+    }
+
+    /**
+     * Adds batches whose size is chosen by the {@link AimdController}, when the controller allows, until every element
+     * has been claimed or the duration of the test has passed. Each batch is created in memory before it is added so
+     * that it can be retried if it fails; a retry waits for the controller like a new batch. If the test properties
+     * specify a seed then each batch claims the next range of edges of the seeded graph, as many as fit in the batch
+     * size, and contains every element of those edges. The ranges cover the same edges as a test that is not adaptive,
+     * so the same elements are added whatever batch sizes are chosen.
+     */
+    private final class AdaptiveIngestWorker implements Callable<Long> {
+        private final ElementSupplierFactory elementSupplierFactory;
+        private final Supplier<Element> elementSupplier;
+        private final boolean reproducible;
+        private final long numElements;
+        private final long numEdges;
+        private final AtomicLong nextElement;
+        private final AtomicLong batchCounter;
+
+        /**
+         * @param nextElement the index of the next element to claim, or of the next edge if the test is seeded
+         */
+        private AdaptiveIngestWorker(final ElementSupplierFactory elementSupplierFactory,
+                                     final long numElements,
+                                     final AtomicLong nextElement,
+                                     final AtomicLong batchCounter) {
+            this.elementSupplierFactory = elementSupplierFactory;
+            this.reproducible = null != testProperties.getSeed() && null == corpus;
+            this.elementSupplier = reproducible || null != corpus ? null : elementSupplierFactory.get();
+            this.numElements = numElements;
+            this.numEdges = reproducible ? elementSupplierFactory.getNumEdges(numElements) : 0L;
+            this.nextElement = nextElement;
+            this.batchCounter = batchCounter;
+        }
+
+        @Override
+        public Long call() throws InterruptedException {
+            long totalAdded = 0L;
+            while (true) {
+                final AimdController.Permit permit = aimdController.acquire();
+                final List<Element> batch = reproducible ? claimEdges(permit) : claimElements(permit);
+                if (null == batch || batch.isEmpty()) {
+                    aimdController.release(permit);
+                    return totalAdded;
+                }
+                if (null != rateLimiter) {
+                    rateLimiter.acquire(batch.size());
+                }
+                addWithRetries(batch, batchCounter.incrementAndGet(), permit);
+                totalAdded += batch.size();
+            }
+        }
+
+        private List<Element> claimEdges(final AimdController.Permit permit) {
+            final long edgesInBatch = elementSupplierFactory.getEdgesPerBatch(permit.getBatchSize());
+            final long firstEdge = nextElement.getAndAdd(edgesInBatch);
+            if (firstEdge >= numEdges || isDurationReached()) {
+                return null;
+            }
+            return elementSupplierFactory.getElementsOfEdges(firstEdge, Math.min(numEdges, firstEdge + edgesInBatch));
+        }
+
+        private List<Element> claimElements(final AimdController.Permit permit) {
+            final long firstElement = nextElement.getAndAdd(permit.getBatchSize());
+            if (firstElement >= numElements || isDurationReached()) {
+                return null;
+            }
+            final long elementsInBatch = Math.min(permit.getBatchSize(), numElements - firstElement);
+            if (null != corpus) {
+                return readBatchFromCorpus(elementsInBatch);
+            }
+            return Stream.generate(elementSupplier).limit(elementsInBatch).collect(Collectors.toList());
+        }
+
+        private void addWithRetries(final List<Element> batch, final long batchNumber,
+                                    final AimdController.Permit firstPermit) throws InterruptedException {
+            final int maxRetries = testProperties.getAdaptiveMaxRetries();
+            AimdController.Permit permit = firstPermit;
+            for (int attempt = 0; ; attempt++) {
+                final long startTime = System.nanoTime();
+                try {
+                    final double durationInSeconds = tryAddBatch(batch, batch.size(), batchNumber, null);
+                    aimdController.complete(permit, (long) (durationInSeconds * 1.0E9), true);
+                    return;
+                } catch (final OperationException e) {
+                    aimdController.complete(permit, System.nanoTime() - startTime, false);
+                    if (attempt >= maxRetries) {
+                        throw new RuntimeException("Exception thrown adding elements (batch " + batchNumber
+                                + " failed " + (attempt + 1) + " times)", e);
+                    }
+                    LOGGER.warn("Batch number = " + batchNumber + " failed, retrying (attempt " + (attempt + 2)
+                            + " of " + (maxRetries + 1) + ")");
+                    permit = aimdController.acquire();
+                }
             }
-            metricsListener.update(metrics);
         }
     }
 
@@ -134,16 +804,100 @@ public class ElementIngestTest {
         }
 
         public Supplier<Element> get() {
+            return get(0L);
+        }
+
+        /**
+         * Returns a {@link Supplier} of elements. If the test properties specify a seed then the elements are those
+         * of the graph determined by the seed, starting from the edge with the given index; otherwise they are random.
+         *
+         * @param firstEdge the index of the first edge to supply the elements for
+         * @return the supplier
+         */
+        public Supplier<Element> get(final long firstEdge) {
             final String elementSupplierClass = testProperties.getElementSupplierClass();
             if (elementSupplierClass.equals(RmatElementSupplier.class.getName())) {
                 final double[] rmatProbabilities = testProperties.getRmatProbabilities();
                 final long maxNodeId = testProperties.getRmatMaxNodeId();
                 final boolean includeEntities = testProperties.getRmatIncludeEntities();
-                return new ElementsSupplier(new RmatElementSupplier(rmatProbabilities, maxNodeId, includeEntities));
+                final Long seed = testProperties.getSeed();
+                if (null == seed) {
+                    return new RmatElementStreamSupplier(rmatProbabilities, maxNodeId, includeEntities);
+                }
+                final int generationBatchSize = (int) Math.min(RmatElementStreamSupplier.DEFAULT_BATCH_SIZE,
+                        testProperties.getBatchSize());
+                return new RmatElementStreamSupplier(rmatProbabilities, maxNodeId, includeEntities, seed, firstEdge,
+                        generationBatchSize);
             } else {
                 throw new RuntimeException("Unknown ElementSupplier class of " + elementSupplierClass);
             }
         }
+
+        /**
+         * @return the largest number of elements supplied for one edge: three if entities are included (the edge and
+         * an entity for each end), otherwise one
+         */
+        public int getMaxElementsPerEdge() {
+            return testProperties.getRmatIncludeEntities() ? 3 : 1;
+        }
+
+        /**
+         * Returns the number of edges of the seeded graph that can be added without adding more than the given number
+         * of elements. The graph added by a test with a seed is the elements of these edges, so it only depends on the
+         * number of elements and not on how the edges are divided into batches.
+         *
+         * @param numElements the maximum number of elements
+         * @return the number of edges
+         */
+        public long getNumEdges(final long numElements) {
+            return numElements / getMaxElementsPerEdge();
+        }
+
+        /**
+         * Returns the number of edges in a batch of the seeded graph that has no more than the given number of
+         * elements. This is at least one, so that every batch makes progress.
+         *
+         * @param batchSize the maximum number of elements in the batch
+         * @return the number of edges
+         */
+        public long getEdgesPerBatch(final long batchSize) {
+            return Math.max(1L, batchSize / getMaxElementsPerEdge());
+        }
+
+        /**
+         * Returns every element of the edges with indices <code>firstEdge</code> to <code>lastEdge - 1</code> of the
+         * graph determined by the seed. Each edge's elements are all in the same range, so disjoint ranges of edges
+         * give disjoint sets of elements, and ranges that cover the edges cover the whole graph.
+         *
+         * @param firstEdge the index of the first edge
+         * @param lastEdge  the index after the last edge
+         * @return the elements
+         */
+        public List<Element> getElementsOfEdges(final long firstEdge, final long lastEdge) {
+            return streamElementsOfEdges(firstEdge, lastEdge).collect(Collectors.toList());
+        }
+
+        /**
+         * Returns a {@link Stream} of the elements returned by {@link #getElementsOfEdges(long, long)}, which are
+         * generated as the stream is consumed rather than held in memory.
+         *
+         * @param firstEdge the index of the first edge
+         * @param lastEdge  the index after the last edge
+         * @return the elements
+         */
+        public Stream<Element> streamElementsOfEdges(final long firstEdge, final long lastEdge) {
+            final Long seed = testProperties.getSeed();
+            if (null == seed) {
+                throw new IllegalStateException("The elements of a range of edges can only be supplied with a seed");
+            }
+            final String elementSupplierClass = testProperties.getElementSupplierClass();
+            if (!elementSupplierClass.equals(RmatElementSupplier.class.getName())) {
+                throw new RuntimeException("Unknown ElementSupplier class of " + elementSupplierClass);
+            }
+            return StreamSupport.stream(new RmatElementSpliterator(testProperties.getRmatProbabilities(),
+                    testProperties.getRmatMaxNodeId(), testProperties.getRmatIncludeEntities(), seed, firstEdge,
+                    lastEdge), false);
+        }
     }
 
     public static void main(final String[] args) {
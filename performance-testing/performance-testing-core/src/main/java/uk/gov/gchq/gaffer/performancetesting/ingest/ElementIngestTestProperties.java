@@ -17,6 +17,9 @@ package uk.gov.gchq.gaffer.performancetesting.ingest;
 
 import uk.gov.gchq.gaffer.performancetesting.TestProperties;
 import uk.gov.gchq.gaffer.randomelementgeneration.supplier.RmatElementSupplier;
+import uk.gov.gchq.gaffer.store.schema.Schema;
+
+import java.util.concurrent.TimeUnit;
 
 /**
  * These properties are used to specify a {@link uk.gov.gchq.gaffer.performancetesting.ingest.IngestMetrics}.
@@ -25,6 +28,24 @@ public class ElementIngestTestProperties extends TestProperties {
     private static final long serialVersionUID = 8594474188709038747L;
     private static final String ELEMENT_SUPPLIER_CLASS = "gaffer.performancetesting.ingest.elementSupplierClass";
     private static final String NUMBER_OF_ELEMENTS = "gaffer.performancetesting.ingest.numberOfElements";
+    private static final String NUMBER_OF_THREADS = "gaffer.performancetesting.ingest.numberOfThreads";
+    private static final String CORPUS_FILE = "gaffer.performancetesting.ingest.corpusFile";
+    private static final String TARGET_ELEMENTS_PER_SECOND = "gaffer.performancetesting.ingest.targetElementsPerSecond";
+    private static final String PIPELINED = "gaffer.performancetesting.ingest.pipelined";
+    private static final String PIPELINE_GENERATOR_THREADS
+            = "gaffer.performancetesting.ingest.pipeline.generatorThreads";
+    private static final String PIPELINE_BUFFER_SIZE = "gaffer.performancetesting.ingest.pipeline.bufferSize";
+    private static final String ADAPTIVE = "gaffer.performancetesting.ingest.adaptive";
+    private static final String ADAPTIVE_TARGET_LATENCY_MILLIS
+            = "gaffer.performancetesting.ingest.adaptive.targetLatencyMillis";
+    private static final String ADAPTIVE_MIN_BATCH_SIZE = "gaffer.performancetesting.ingest.adaptive.minBatchSize";
+    private static final String ADAPTIVE_MAX_BATCH_SIZE = "gaffer.performancetesting.ingest.adaptive.maxBatchSize";
+    private static final String ADAPTIVE_BATCH_SIZE_INCREMENT
+            = "gaffer.performancetesting.ingest.adaptive.batchSizeIncrement";
+    private static final String ADAPTIVE_DECREASE_FACTOR = "gaffer.performancetesting.ingest.adaptive.decreaseFactor";
+    private static final String ADAPTIVE_MAX_RETRIES = "gaffer.performancetesting.ingest.adaptive.maxRetries";
+    private static final String PRE_AGGREGATE = "gaffer.performancetesting.ingest.preAggregate";
+    private static final String PRE_AGGREGATE_WINDOW_SIZE = "gaffer.performancetesting.ingest.preAggregate.windowSize";
 
     public ElementIngestTestProperties() {
 
@@ -38,8 +59,19 @@ public class ElementIngestTestProperties extends TestProperties {
         setProperty(ELEMENT_SUPPLIER_CLASS, elementSupplierClass);
     }
 
+    /**
+     * Returns the number of elements to add. If this is not specified but a duration is (see
+     * {@link #getDurationSeconds()}) then the test is only bounded by the duration and this returns
+     * {@link Long#MAX_VALUE}.
+     *
+     * @return the number of elements
+     */
     public long getNumElements() {
-        return Long.parseLong(getProperty(NUMBER_OF_ELEMENTS));
+        final String numElements = getProperty(NUMBER_OF_ELEMENTS);
+        if (null == numElements && null != getDurationSeconds()) {
+            return Long.MAX_VALUE;
+        }
+        return Long.parseLong(numElements);
     }
 
     public void setNumElements(final long numEdges) {
@@ -48,4 +80,216 @@ public class ElementIngestTestProperties extends TestProperties {
         }
         setProperty(NUMBER_OF_ELEMENTS, "" + numEdges);
     }
+
+    public int getNumThreads() {
+        return Integer.parseInt(getProperty(NUMBER_OF_THREADS, "1"));
+    }
+
+    public void setNumThreads(final int numThreads) {
+        if (numThreads <= 0) {
+            throw new IllegalArgumentException("The number of threads must be greater than 0.");
+        }
+        setProperty(NUMBER_OF_THREADS, "" + numThreads);
+    }
+
+    /**
+     * Returns the corpus file to read the elements from, or <code>null</code> if the elements should be generated
+     * during the test.
+     *
+     * @return the corpus file, or <code>null</code>
+     */
+    public String getCorpusFile() {
+        return getProperty(CORPUS_FILE);
+    }
+
+    public void setCorpusFile(final String corpusFile) {
+        setProperty(CORPUS_FILE, corpusFile);
+    }
+
+    /**
+     * Returns the rate, in elements per second, that the workers are throttled to between them, or <code>null</code>
+     * if they add elements as fast as they can.
+     *
+     * @return the target rate, or <code>null</code>
+     */
+    public Double getTargetElementsPerSecond() {
+        final String rate = getProperty(TARGET_ELEMENTS_PER_SECOND);
+        return null == rate ? null : Double.parseDouble(rate);
+    }
+
+    public void setTargetElementsPerSecond(final double targetElementsPerSecond) {
+        if (targetElementsPerSecond <= 0.0D) {
+            throw new IllegalArgumentException("The target rate must be greater than 0.");
+        }
+        setProperty(TARGET_ELEMENTS_PER_SECOND, "" + targetElementsPerSecond);
+    }
+
+    /**
+     * Returns whether the elements are generated and added by an {@link IngestPipeline}, in which case the number of
+     * threads is the number of writer threads.
+     *
+     * @return whether the test is pipelined
+     */
+    public boolean isPipelined() {
+        return Boolean.parseBoolean(getProperty(PIPELINED, "false"));
+    }
+
+    public void setPipelined(final boolean pipelined) {
+        setProperty(PIPELINED, Boolean.toString(pipelined));
+    }
+
+    public int getPipelineGeneratorThreads() {
+        return Integer.parseInt(getProperty(PIPELINE_GENERATOR_THREADS, "1"));
+    }
+
+    public void setPipelineGeneratorThreads(final int generatorThreads) {
+        if (generatorThreads <= 0) {
+            throw new IllegalArgumentException("The number of generator threads must be greater than 0.");
+        }
+        setProperty(PIPELINE_GENERATOR_THREADS, "" + generatorThreads);
+    }
+
+    /**
+     * Returns the number of generated batches that an {@link IngestPipeline} can hold before they are written.
+     *
+     * @return the buffer size in batches
+     */
+    public int getPipelineBufferSize() {
+        return Integer.parseInt(getProperty(PIPELINE_BUFFER_SIZE, "4"));
+    }
+
+    public void setPipelineBufferSize(final int bufferSize) {
+        if (bufferSize <= 0) {
+            throw new IllegalArgumentException("The buffer size must be greater than 0.");
+        }
+        setProperty(PIPELINE_BUFFER_SIZE, "" + bufferSize);
+    }
+
+    /**
+     * Returns whether the batch size and the number of batches in flight are adapted to the latency of the store by
+     * an {@link AimdController}. If so, the batch size is the initial batch size and the number of threads is the
+     * maximum number of batches in flight.
+     *
+     * @return whether the test is adaptive
+     */
+    public boolean isAdaptive() {
+        return Boolean.parseBoolean(getProperty(ADAPTIVE, "false"));
+    }
+
+    public void setAdaptive(final boolean adaptive) {
+        setProperty(ADAPTIVE, Boolean.toString(adaptive));
+    }
+
+    public long getAdaptiveTargetLatencyMillis() {
+        return Long.parseLong(getProperty(ADAPTIVE_TARGET_LATENCY_MILLIS, "1000"));
+    }
+
+    public void setAdaptiveTargetLatencyMillis(final long targetLatencyMillis) {
+        if (targetLatencyMillis <= 0L) {
+            throw new IllegalArgumentException("The target latency must be greater than 0.");
+        }
+        setProperty(ADAPTIVE_TARGET_LATENCY_MILLIS, "" + targetLatencyMillis);
+    }
+
+    public int getAdaptiveMinBatchSize() {
+        return Integer.parseInt(getProperty(ADAPTIVE_MIN_BATCH_SIZE, "10"));
+    }
+
+    public void setAdaptiveMinBatchSize(final int minBatchSize) {
+        if (minBatchSize <= 0) {
+            throw new IllegalArgumentException("The minimum batch size must be greater than 0.");
+        }
+        setProperty(ADAPTIVE_MIN_BATCH_SIZE, "" + minBatchSize);
+    }
+
+    public int getAdaptiveMaxBatchSize() {
+        return Integer.parseInt(getProperty(ADAPTIVE_MAX_BATCH_SIZE, "100000"));
+    }
+
+    public void setAdaptiveMaxBatchSize(final int maxBatchSize) {
+        if (maxBatchSize <= 0) {
+            throw new IllegalArgumentException("The maximum batch size must be greater than 0.");
+        }
+        setProperty(ADAPTIVE_MAX_BATCH_SIZE, "" + maxBatchSize);
+    }
+
+    public int getAdaptiveBatchSizeIncrement() {
+        return Integer.parseInt(getProperty(ADAPTIVE_BATCH_SIZE_INCREMENT, "100"));
+    }
+
+    public void setAdaptiveBatchSizeIncrement(final int batchSizeIncrement) {
+        if (batchSizeIncrement < 0) {
+            throw new IllegalArgumentException("The batch size increment must not be negative.");
+        }
+        setProperty(ADAPTIVE_BATCH_SIZE_INCREMENT, "" + batchSizeIncrement);
+    }
+
+    public double getAdaptiveDecreaseFactor() {
+        return Double.parseDouble(getProperty(ADAPTIVE_DECREASE_FACTOR, "0.5"));
+    }
+
+    public void setAdaptiveDecreaseFactor(final double decreaseFactor) {
+        if (decreaseFactor <= 0.0D || decreaseFactor >= 1.0D) {
+            throw new IllegalArgumentException("The decrease factor must be between 0 and 1.");
+        }
+        setProperty(ADAPTIVE_DECREASE_FACTOR, "" + decreaseFactor);
+    }
+
+    /**
+     * Returns the number of times an adaptive test retries a batch that could not be added before it fails.
+     *
+     * @return the maximum number of retries
+     */
+    public int getAdaptiveMaxRetries() {
+        return Integer.parseInt(getProperty(ADAPTIVE_MAX_RETRIES, "3"));
+    }
+
+    public void setAdaptiveMaxRetries(final int maxRetries) {
+        if (maxRetries < 0) {
+            throw new IllegalArgumentException("The maximum number of retries must not be negative.");
+        }
+        setProperty(ADAPTIVE_MAX_RETRIES, "" + maxRetries);
+    }
+
+    public AimdController createAimdController() {
+        return new AimdController(getBatchSize(), getAdaptiveMinBatchSize(), getAdaptiveMaxBatchSize(),
+                getAdaptiveBatchSizeIncrement(), getNumThreads(),
+                TimeUnit.MILLISECONDS.toNanos(getAdaptiveTargetLatencyMillis()), getAdaptiveDecreaseFactor());
+    }
+
+    /**
+     * Returns whether duplicate elements in each batch are merged by an {@link ElementCombiner} before they are
+     * added.
+     *
+     * @return whether the test pre-aggregates
+     */
+    public boolean isPreAggregate() {
+        return Boolean.parseBoolean(getProperty(PRE_AGGREGATE, "false"));
+    }
+
+    public void setPreAggregate(final boolean preAggregate) {
+        setProperty(PRE_AGGREGATE, Boolean.toString(preAggregate));
+    }
+
+    /**
+     * Returns the number of distinct elements that an {@link ElementCombiner} holds while it looks for duplicates.
+     * This defaults to the batch size, so that all the duplicates within a batch are merged.
+     *
+     * @return the window size
+     */
+    public int getPreAggregateWindowSize() {
+        final String windowSize = getProperty(PRE_AGGREGATE_WINDOW_SIZE);
+        return null == windowSize ? getBatchSize() : Integer.parseInt(windowSize);
+    }
+
+    public void setPreAggregateWindowSize(final int windowSize) {
+        if (windowSize <= 0) {
+            throw new IllegalArgumentException("The window size must be greater than 0.");
+        }
+        setProperty(PRE_AGGREGATE_WINDOW_SIZE, "" + windowSize);
+    }
+
+    public ElementCombiner createElementCombiner(final Schema schema) {
+        return new ElementCombiner(schema, getPreAggregateWindowSize());
+    }
 }
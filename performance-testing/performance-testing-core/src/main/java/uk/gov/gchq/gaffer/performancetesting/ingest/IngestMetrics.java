@@ -19,29 +19,94 @@ import uk.gov.gchq.gaffer.performancetesting.Metrics;
 
 import java.util.Arrays;
 import java.util.Collections;
-import java.util.HashMap;
-import java.util.Map;
 import java.util.SortedSet;
+import java.util.TreeMap;
 import java.util.TreeSet;
 
 /**
  * This class contains the results from a {@link uk.gov.gchq.gaffer.performancetesting.ingest.ElementIngestTest}. It
- * provides the number of {@link uk.gov.gchq.gaffer.data.element.Element}s ingested per second.
+ * provides the number of {@link uk.gov.gchq.gaffer.data.element.Element}s ingested per second. When the test is run
+ * with multiple threads, the rate achieved by an individual worker, over the wall-clock time from when it started to
+ * when it finished, is reported together with the id of that worker.
+ * The overall rate is reported together with the rates before and after the test reached a steady state (see
+ * {@link uk.gov.gchq.gaffer.performancetesting.SteadyStateDetector}) and the batch at which the steady state started.
+ * If the test reports on a fixed interval then the rate over each interval replaces the rate of each batch.
+ *
+ * <p>The rate of each batch is reported together with the number of the batch and its cost to the client JVM, as
+ * measured by a {@link uk.gov.gchq.gaffer.performancetesting.JvmCostMonitor}: the bytes allocated and the CPU time used
+ * by the thread that added the batch, and the number and duration of garbage collections while it was added. If the
+ * test reports on a fixed interval then the same costs are reported for each interval. The overall rate is reported
+ * together with the number and duration of garbage collections during the whole test and, if the test was pipelined,
+ * the total time the generators and the writers of the
+ * {@link uk.gov.gchq.gaffer.performancetesting.ingest.IngestPipeline} spent waiting for each other. If the test was
+ * adaptive then the batch size and concurrency chosen by the
+ * {@link uk.gov.gchq.gaffer.performancetesting.ingest.AimdController} are reported with each batch or interval and
+ * at the end, and if the test pre-aggregated then so are the fraction of elements merged by the
+ * {@link uk.gov.gchq.gaffer.performancetesting.ingest.ElementCombiner} and the time spent merging them, which is
+ * reported separately from the rest of the time taken to add each batch. Only the metrics that apply to an update
+ * are put, so {@link #getMetricNames()} returns a different set of names for each kind of update.
  */
 public class IngestMetrics implements Metrics {
+    public static final String BATCH_NUMBER = "batch_number";
     public static final String ELEMENTS_PER_SECOND_BATCH = "elements_per_second_batch";
     public static final String ELEMENTS_PER_SECOND_OVERALL = "elements_per_second_overall";
+    public static final String ELEMENTS_PER_SECOND_REPORTING_INTERVAL = "elements_per_second_reporting_interval";
+    public static final String ELEMENTS_PER_SECOND_WORKER = "elements_per_second_worker";
+    public static final String ELEMENTS_PER_SECOND_STEADY_STATE = "elements_per_second_steady_state";
+    public static final String ELEMENTS_PER_SECOND_WARM_UP = "elements_per_second_warm_up";
+    public static final String STEADY_STATE_START_BATCH = "steady_state_start_batch";
+    public static final String WORKER_ID = Metrics.WORKER_ID;
+    public static final String JVM_ALLOCATED_BYTES_BATCH = "jvm_allocated_bytes_batch";
+    public static final String JVM_CPU_MILLIS_BATCH = "jvm_cpu_millis_batch";
+    public static final String JVM_GC_COUNT_BATCH = "jvm_gc_count_batch";
+    public static final String JVM_GC_TIME_MILLIS_BATCH = "jvm_gc_time_millis_batch";
+    public static final String JVM_GC_COUNT_TOTAL = "jvm_gc_count_total";
+    public static final String JVM_GC_TIME_MILLIS_TOTAL = "jvm_gc_time_millis_total";
+    public static final String JVM_ALLOCATED_BYTES_REPORTING_INTERVAL = "jvm_allocated_bytes_reporting_interval";
+    public static final String JVM_CPU_MILLIS_REPORTING_INTERVAL = "jvm_cpu_millis_reporting_interval";
+    public static final String JVM_GC_COUNT_REPORTING_INTERVAL = "jvm_gc_count_reporting_interval";
+    public static final String JVM_GC_TIME_MILLIS_REPORTING_INTERVAL = "jvm_gc_time_millis_reporting_interval";
+    public static final String INGEST_BATCH_SIZE = "ingest_batch_size";
+    public static final String INGEST_CONCURRENCY = "ingest_concurrency";
+    public static final String PIPELINE_GENERATOR_STALL_MILLIS = "pipeline_generator_stall_millis";
+    public static final String PIPELINE_WRITER_STALL_MILLIS = "pipeline_writer_stall_millis";
+    public static final String PRE_AGGREGATION_REDUCTION_RATIO_BATCH = "pre_aggregation_reduction_ratio_batch";
+    public static final String PRE_AGGREGATION_REDUCTION_RATIO_OVERALL = "pre_aggregation_reduction_ratio_overall";
+    public static final String PRE_AGGREGATION_REDUCTION_RATIO_REPORTING_INTERVAL
+            = "pre_aggregation_reduction_ratio_reporting_interval";
+    public static final String PRE_AGGREGATION_MILLIS_BATCH = "pre_aggregation_millis_batch";
+    public static final String PRE_AGGREGATION_MILLIS_REPORTING_INTERVAL = "pre_aggregation_millis_reporting_interval";
+    public static final String PRE_AGGREGATION_MILLIS_TOTAL = "pre_aggregation_millis_total";
+    public static final String STORE_MILLIS_BATCH = "store_millis_batch";
+    public static final String STORE_MILLIS_REPORTING_INTERVAL = "store_millis_reporting_interval";
     private static final SortedSet<String> METRIC_NAMES = Collections.unmodifiableSortedSet(new TreeSet<>(
-            Arrays.asList(ELEMENTS_PER_SECOND_BATCH, ELEMENTS_PER_SECOND_OVERALL)));
-    private final Map<String, Double> metrics;
+            Arrays.asList(BATCH_NUMBER, ELEMENTS_PER_SECOND_BATCH, ELEMENTS_PER_SECOND_OVERALL,
+                    ELEMENTS_PER_SECOND_REPORTING_INTERVAL, ELEMENTS_PER_SECOND_STEADY_STATE,
+                    ELEMENTS_PER_SECOND_WARM_UP, ELEMENTS_PER_SECOND_WORKER, INGEST_BATCH_SIZE, INGEST_CONCURRENCY,
+                    JVM_ALLOCATED_BYTES_BATCH, JVM_ALLOCATED_BYTES_REPORTING_INTERVAL,
+                    JVM_CPU_MILLIS_BATCH, JVM_CPU_MILLIS_REPORTING_INTERVAL, JVM_GC_COUNT_BATCH,
+                    JVM_GC_COUNT_REPORTING_INTERVAL, JVM_GC_COUNT_TOTAL, JVM_GC_TIME_MILLIS_BATCH,
+                    JVM_GC_TIME_MILLIS_REPORTING_INTERVAL, JVM_GC_TIME_MILLIS_TOTAL, PIPELINE_GENERATOR_STALL_MILLIS,
+                    PIPELINE_WRITER_STALL_MILLIS,
+                    PRE_AGGREGATION_MILLIS_BATCH, PRE_AGGREGATION_MILLIS_REPORTING_INTERVAL,
+                    PRE_AGGREGATION_MILLIS_TOTAL, PRE_AGGREGATION_REDUCTION_RATIO_BATCH,
+                    PRE_AGGREGATION_REDUCTION_RATIO_OVERALL, PRE_AGGREGATION_REDUCTION_RATIO_REPORTING_INTERVAL,
+                    STEADY_STATE_START_BATCH, STORE_MILLIS_BATCH, STORE_MILLIS_REPORTING_INTERVAL, WORKER_ID)));
+    private final TreeMap<String, Double> metrics;
 
     public IngestMetrics() {
-        this.metrics = new HashMap<>();
+        this.metrics = new TreeMap<>();
     }
 
+    /**
+     * Returns the names of the metrics that have been put, so that each update only contains the metrics that apply
+     * to it.
+     *
+     * @return the names of the metrics that have been put
+     */
     @Override
     public SortedSet<String> getMetricNames() {
-        return METRIC_NAMES;
+        return Collections.unmodifiableSortedSet(metrics.navigableKeySet());
     }
 
     @Override
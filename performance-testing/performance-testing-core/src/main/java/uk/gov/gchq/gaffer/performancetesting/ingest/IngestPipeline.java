@@ -0,0 +1,220 @@
+/*
+ * Copyright 2019 Crown Copyright
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package uk.gov.gchq.gaffer.performancetesting.ingest;
+
+import uk.gov.gchq.gaffer.data.element.Element;
+import uk.gov.gchq.gaffer.graph.Graph;
+import uk.gov.gchq.gaffer.operation.OperationException;
+import uk.gov.gchq.gaffer.operation.impl.add.AddElements;
+import uk.gov.gchq.gaffer.user.User;
+
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CompletionService;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorCompletionService;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Supplier;
+
+/**
+ * A producer/consumer pipeline for adding elements to a store. Generator threads create batches of elements in memory
+ * and put them into a bounded buffer; writer threads take batches from the buffer and write them, e.g. with
+ * {@link #forGraph(Graph, User)}. Batch <code>n + 1</code> is therefore generated (and, for a corpus, read and
+ * deserialised) while batch <code>n</code> is being written, so the writers are not held up by generation.
+ *
+ * <p>The time each side spends blocked on the buffer is recorded. Generators waiting for space in a full buffer shows
+ * that the store is the limit on the rate; writers waiting for a batch from an empty buffer shows that generation is.
+ */
+public class IngestPipeline {
+    private static final Batch END = new Batch(-1L, Collections.emptyList());
+
+    /**
+     * Writes a batch of elements.
+     */
+    public interface BatchWriter {
+        void write(Batch batch) throws OperationException;
+    }
+
+    private final int generatorThreads;
+    private final int writerThreads;
+    private final int bufferSize;
+    private final AtomicLong generatorStallNanos = new AtomicLong(0L);
+    private final AtomicLong writerStallNanos = new AtomicLong(0L);
+
+    public IngestPipeline(final int generatorThreads, final int writerThreads, final int bufferSize) {
+        if (generatorThreads <= 0 || writerThreads <= 0 || bufferSize <= 0) {
+            throw new IllegalArgumentException("The numbers of generator and writer threads and the buffer size must "
+                    + "be greater than 0 (got " + generatorThreads + ", " + writerThreads + ", " + bufferSize + ")");
+        }
+        this.generatorThreads = generatorThreads;
+        this.writerThreads = writerThreads;
+        this.bufferSize = bufferSize;
+    }
+
+    /**
+     * Returns a {@link BatchWriter} that adds each batch to a {@link Graph} with an {@link AddElements} operation.
+     *
+     * @param graph the graph
+     * @param user  the user to run the operations as
+     * @return the writer
+     */
+    public static BatchWriter forGraph(final Graph graph, final User user) {
+        return batch -> graph.execute(new AddElements.Builder().input(batch.getElements()).build(), user);
+    }
+
+    /**
+     * Runs the pipeline until the source is exhausted and every batch has been written. If a generator or writer
+     * throws an exception then the pipeline is stopped and the exception is rethrown.
+     *
+     * @param source supplies the batches; it is called concurrently by the generator threads and returns
+     *               <code>null</code> when there are no more batches
+     * @param writer writes the batches; it is called concurrently by the writer threads
+     * @return the number of elements written
+     */
+    public long run(final Supplier<Batch> source, final BatchWriter writer) {
+        generatorStallNanos.set(0L);
+        writerStallNanos.set(0L);
+        final BlockingQueue<Batch> buffer = new ArrayBlockingQueue<>(bufferSize);
+        final AtomicInteger runningGenerators = new AtomicInteger(generatorThreads);
+        final ExecutorService executorService = Executors.newFixedThreadPool(generatorThreads + writerThreads);
+        final CompletionService<Long> completionService = new ExecutorCompletionService<>(executorService);
+        try {
+            for (int i = 0; i < generatorThreads; i++) {
+                completionService.submit(new Generator(source, buffer, runningGenerators));
+            }
+            for (int i = 0; i < writerThreads; i++) {
+                completionService.submit(new Writer(writer, buffer));
+            }
+            long totalWritten = 0L;
+            for (int i = 0; i < generatorThreads + writerThreads; i++) {
+                totalWritten += completionService.take().get();
+            }
+            return totalWritten;
+        } catch (final InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new RuntimeException("Interrupted waiting for the ingest pipeline to finish", e);
+        } catch (final ExecutionException e) {
+            throw new RuntimeException("Exception thrown in the ingest pipeline", e.getCause());
+        } finally {
+            executorService.shutdownNow();
+        }
+    }
+
+    /**
+     * @return the total time in nanoseconds that generators spent waiting for space in the buffer
+     */
+    public long getGeneratorStallNanos() {
+        return generatorStallNanos.get();
+    }
+
+    /**
+     * @return the total time in nanoseconds that writers spent waiting for a batch
+     */
+    public long getWriterStallNanos() {
+        return writerStallNanos.get();
+    }
+
+    private final class Generator implements Callable<Long> {
+        private final Supplier<Batch> source;
+        private final BlockingQueue<Batch> buffer;
+        private final AtomicInteger runningGenerators;
+
+        private Generator(final Supplier<Batch> source,
+                          final BlockingQueue<Batch> buffer,
+                          final AtomicInteger runningGenerators) {
+            this.source = source;
+            this.buffer = buffer;
+            this.runningGenerators = runningGenerators;
+        }
+
+        @Override
+        public Long call() throws InterruptedException {
+            try {
+                Batch batch = source.get();
+                while (null != batch) {
+                    final long startTime = System.nanoTime();
+                    buffer.put(batch);
+                    generatorStallNanos.addAndGet(System.nanoTime() - startTime);
+                    batch = source.get();
+                }
+            } finally {
+                // The last generator to finish tells each writer there are no more batches
+                if (0 == runningGenerators.decrementAndGet()) {
+                    for (int i = 0; i < writerThreads; i++) {
+                        buffer.put(END);
+                    }
+                }
+            }
+            return 0L;
+        }
+    }
+
+    private final class Writer implements Callable<Long> {
+        private final BatchWriter writer;
+        private final BlockingQueue<Batch> buffer;
+
+        private Writer(final BatchWriter writer, final BlockingQueue<Batch> buffer) {
+            this.writer = writer;
+            this.buffer = buffer;
+        }
+
+        @Override
+        public Long call() throws InterruptedException, OperationException {
+            long written = 0L;
+            while (true) {
+                final long startTime = System.nanoTime();
+                final Batch batch = buffer.take();
+                writerStallNanos.addAndGet(System.nanoTime() - startTime);
+                if (END == batch) {
+                    return written;
+                }
+                writer.write(batch);
+                written += batch.size();
+            }
+        }
+    }
+
+    /**
+     * A batch of elements held in memory.
+     */
+    public static final class Batch {
+        private final long batchNumber;
+        private final List<Element> elements;
+
+        public Batch(final long batchNumber, final List<Element> elements) {
+            this.batchNumber = batchNumber;
+            this.elements = elements;
+        }
+
+        public long getBatchNumber() {
+            return batchNumber;
+        }
+
+        public List<Element> getElements() {
+            return elements;
+        }
+
+        public int size() {
+            return elements.size();
+        }
+    }
+}
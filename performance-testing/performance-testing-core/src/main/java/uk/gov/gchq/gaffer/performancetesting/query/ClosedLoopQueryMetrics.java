@@ -0,0 +1,54 @@
+/*
+ * Copyright 2019 Crown Copyright
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package uk.gov.gchq.gaffer.performancetesting.query;
+
+import uk.gov.gchq.gaffer.performancetesting.LatencyHistogram;
+import uk.gov.gchq.gaffer.performancetesting.LatencyMetrics;
+import uk.gov.gchq.gaffer.performancetesting.SteadyStateDetector;
+
+/**
+ * This class contains the results of a closed-loop {@link QueryTest}. It provides percentiles of the batch latency and
+ * of the amortised seed latency (see {@link LatencyMetrics#AMORTISED_SEED_LATENCY}), the overall number of seeds
+ * queried for per second, and the rates before and after the test reached a steady state (see
+ * {@link SteadyStateDetector}) together with the batch at which the steady state started. If a steady state was not
+ * reached then those metrics are not set.
+ */
+public class ClosedLoopQueryMetrics extends LatencyMetrics {
+    public static final String SEEDS_PER_SECOND_OVERALL = "seeds_per_second_overall";
+    public static final String SEEDS_PER_SECOND_STEADY_STATE = "seeds_per_second_steady_state";
+    public static final String SEEDS_PER_SECOND_WARM_UP = "seeds_per_second_warm_up";
+    public static final String STEADY_STATE_START_BATCH = "steady_state_start_batch";
+
+    public ClosedLoopQueryMetrics(final double seedsPerSecondOverall,
+                                  final SteadyStateDetector.Result steadyState,
+                                  final LatencyHistogram batchLatencies,
+                                  final LatencyHistogram amortisedSeedLatencies) {
+        addMetricName(SEEDS_PER_SECOND_OVERALL);
+        addMetricName(SEEDS_PER_SECOND_STEADY_STATE);
+        addMetricName(SEEDS_PER_SECOND_WARM_UP);
+        addMetricName(STEADY_STATE_START_BATCH);
+        putMetric(SEEDS_PER_SECOND_OVERALL, seedsPerSecondOverall);
+        if (steadyState.isSteadyStateReached()) {
+            putMetric(STEADY_STATE_START_BATCH, (double) steadyState.getSteadyStateStartBatch());
+            putMetric(SEEDS_PER_SECOND_STEADY_STATE, steadyState.getSteadyStateRate());
+            if (!Double.isNaN(steadyState.getWarmUpRate())) {
+                putMetric(SEEDS_PER_SECOND_WARM_UP, steadyState.getWarmUpRate());
+            }
+        }
+        addHistogram(BATCH_LATENCY, batchLatencies);
+        addHistogram(AMORTISED_SEED_LATENCY, amortisedSeedLatencies);
+    }
+}
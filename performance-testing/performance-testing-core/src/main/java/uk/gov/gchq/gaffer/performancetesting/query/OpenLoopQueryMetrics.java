@@ -0,0 +1,46 @@
+/*
+ * Copyright 2019 Crown Copyright
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package uk.gov.gchq.gaffer.performancetesting.query;
+
+import uk.gov.gchq.gaffer.performancetesting.LatencyHistogram;
+import uk.gov.gchq.gaffer.performancetesting.LatencyMetrics;
+
+/**
+ * This class contains the results of one step of an open-loop {@link QueryTest}. It provides the target and achieved
+ * number of queries per second, together with percentiles of the response time (measured from the time at which each
+ * query was scheduled to be sent) and of the service time (measured from the time at which it was actually sent).
+ *
+ * <p>Plotting the response time percentiles against the achieved rate for a sweep of target rates gives the
+ * latency-throughput curve of the store.
+ */
+public class OpenLoopQueryMetrics extends LatencyMetrics {
+    public static final String TARGET_QUERIES_PER_SECOND = "target_queries_per_second";
+    public static final String ACHIEVED_QUERIES_PER_SECOND = "achieved_queries_per_second";
+    public static final String RESPONSE_TIME = "response_time";
+    public static final String SERVICE_TIME = "service_time";
+
+    public OpenLoopQueryMetrics(final double targetQueriesPerSecond,
+                                final double achievedQueriesPerSecond,
+                                final LatencyHistogram responseTimes,
+                                final LatencyHistogram serviceTimes) {
+        addMetricName(TARGET_QUERIES_PER_SECOND);
+        addMetricName(ACHIEVED_QUERIES_PER_SECOND);
+        putMetric(TARGET_QUERIES_PER_SECOND, targetQueriesPerSecond);
+        putMetric(ACHIEVED_QUERIES_PER_SECOND, achievedQueriesPerSecond);
+        addHistogram(RESPONSE_TIME, responseTimes);
+        addHistogram(SERVICE_TIME, serviceTimes);
+    }
+}
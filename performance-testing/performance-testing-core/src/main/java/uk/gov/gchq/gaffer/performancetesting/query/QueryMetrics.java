@@ -19,31 +19,32 @@ import uk.gov.gchq.gaffer.performancetesting.Metrics;
 
 import java.util.Arrays;
 import java.util.Collections;
-import java.util.HashMap;
-import java.util.Map;
 import java.util.SortedSet;
+import java.util.TreeMap;
 import java.util.TreeSet;
 
 /**
  * This class contains the results from a {@link uk.gov.gchq.gaffer.performancetesting.query.QueryTest}. It provides
- * the number of seeds queried for per second and the number of results per second.
+ * the number of seeds queried for per second and the number of results per second. If the rates are of a single batch
+ * then the number of the batch is also given, so that updates can be matched up with the batch they describe.
  */
 public class QueryMetrics implements Metrics {
     public static final String SEEDS_PER_SECOND = "seeds_per_second";
     public static final String RESULTS_PER_SECOND = "results_per_second";
+    public static final String BATCH_NUMBER = "batch_number";
     private static final SortedSet<String> METRIC_NAMES = Collections.unmodifiableSortedSet(
-            new TreeSet<>(Arrays.asList(SEEDS_PER_SECOND, RESULTS_PER_SECOND)));
-    private final Map<String, Double> metrics;
+            new TreeSet<>(Arrays.asList(SEEDS_PER_SECOND, RESULTS_PER_SECOND, BATCH_NUMBER)));
+    private final TreeMap<String, Double> metrics;
 
     public QueryMetrics(final double seedsPerSecond, final double resultsPerSecond) {
-        this.metrics = new HashMap<>();
+        this.metrics = new TreeMap<>();
         metrics.put(SEEDS_PER_SECOND, seedsPerSecond);
         metrics.put(RESULTS_PER_SECOND, resultsPerSecond);
     }
 
     @Override
     public SortedSet<String> getMetricNames() {
-        return METRIC_NAMES;
+        return Collections.unmodifiableSortedSet(metrics.navigableKeySet());
     }
 
     @Override
@@ -19,12 +19,16 @@ import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
 import uk.gov.gchq.gaffer.commonutil.iterable.CloseableIterable;
-import uk.gov.gchq.gaffer.data.element.Element;
 import uk.gov.gchq.gaffer.graph.Graph;
 import uk.gov.gchq.gaffer.operation.OperationException;
 import uk.gov.gchq.gaffer.operation.data.ElementSeed;
-import uk.gov.gchq.gaffer.operation.impl.get.GetElements;
+import uk.gov.gchq.gaffer.performancetesting.IntervalReporter;
+import uk.gov.gchq.gaffer.performancetesting.LatencyHistogram;
+import uk.gov.gchq.gaffer.performancetesting.Metrics;
 import uk.gov.gchq.gaffer.performancetesting.MetricsListener;
+import uk.gov.gchq.gaffer.performancetesting.SteadyStateDetector;
+import uk.gov.gchq.gaffer.performancetesting.corpus.CorpusSeedSupplier;
+import uk.gov.gchq.gaffer.performancetesting.corpus.ElementCorpusReader;
 import uk.gov.gchq.gaffer.randomelementgeneration.supplier.EdgeSeedSupplier;
 import uk.gov.gchq.gaffer.randomelementgeneration.supplier.EntitySeedSupplier;
 import uk.gov.gchq.gaffer.store.StoreProperties;
@@ -32,10 +36,16 @@ import uk.gov.gchq.gaffer.store.schema.Schema;
 import uk.gov.gchq.gaffer.user.User;
 
 import java.io.File;
+import java.io.IOException;
+import java.nio.file.Paths;
 import java.util.ArrayList;
 import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.LockSupport;
 import java.util.function.Supplier;
-import java.util.stream.StreamSupport;
 
 /**
  * This class measures the time taken to query for a given number of {@link ElementSeed}s. The query is broken up into
@@ -43,17 +53,46 @@ import java.util.stream.StreamSupport;
  * results returned per second are recorded.
  *
  * <p>The test is configured using a {@link QueryTestProperties}. This specifies the class to be
- * used to generate the random seeds and the number of seeds to be queried for.
+ * used to generate the random seeds (or a corpus file written by an
+ * {@link uk.gov.gchq.gaffer.performancetesting.corpus.ElementCorpusWriter} to read them from instead) and the number
+ * of seeds to be queried for. If it also specifies one or more
+ * target rates then the test is run open-loop at each rate, see {@link #runOpenLoop(double)}.
  *
  * <p>Optionally, a {@link MetricsListener} can be provided. This will receive an update of the performance at the end
- * of every batch. This update is an instance of {@link QueryMetrics}.
+ * of every batch. This update is an instance of {@link QueryMetrics}. At the end of the test it also receives a
+ * {@link ClosedLoopQueryMetrics} containing the overall rate and percentiles of the latency of each batch and of each
+ * seed (each seed being assigned an equal share of the latency of its batch). In an open-loop test it instead receives
+ * an {@link OpenLoopQueryMetrics} for each target rate.
+ *
+ * <p>If the test properties specify warm-up batches then these are queried for, using the same supplier of seeds,
+ * before each test starts and are not included in the results. The closed-loop test also reports the rates before and
+ * after it reached a steady state, as found by a {@link SteadyStateDetector}.
+ *
+ * <p>For soak testing, the test properties can bound each test by a duration instead of (or as well as) the number of
+ * seeds. The closed-loop test can also report the rates to the metrics listener on a fixed interval, using an
+ * {@link IntervalReporter}, instead of after every batch.
+ *
+ * <p>By default each batch is queried for with a plain <code>GetElements</code>. If the test properties specify one or
+ * more {@link QueryType}s, e.g. chains of <code>GetAdjacentIds</code> hops with a filtering view, then the tests are
+ * run for each query type in turn. At the end of each test a {@link QueryTypeMetrics} is also sent, containing the
+ * time until each batch returned its first result and the total size of the results. The results are sized by a
+ * {@link ResultBytesCounter} on its own thread as they are read, without being kept in memory, so that sizing them does
+ * not slow down the queries.
  */
 public class QueryTest {
     private static final Logger LOGGER = LoggerFactory.getLogger(QueryTest.class);
+    private static final QueryType DEFAULT_QUERY_TYPE
+            = new QueryType(QueryType.GET_ELEMENTS, QueryType.GET_ELEMENTS, 1, false, null, null);
 
     private Graph graph;
     private QueryTestProperties testProperties;
     private MetricsListener metricsListener;
+    private final LatencyHistogram batchLatencies = new LatencyHistogram();
+    private final LatencyHistogram amortisedSeedLatencies = new LatencyHistogram();
+    private IntervalReporter intervalReporter;
+    private QueryType queryType;
+    private final LatencyHistogram timeToFirstResult = new LatencyHistogram();
+    private ResultBytesCounter resultBytesCounter;
 
     public QueryTest(final Graph graph,
                      final QueryTestProperties testProperties) {
@@ -73,85 +112,444 @@ public class QueryTest {
     }
 
     /**
-     * Runs a test of querying for the seeds in batches.
+     * Runs a test of querying for the seeds in batches. If the test properties specify one or more target rates then
+     * an open-loop test is run at each of those rates in turn (see {@link #runOpenLoop(double)}), otherwise a
+     * closed-loop test is run in which each batch is only queried for once the previous batch has completed. Each
+     * test stops once the number of seeds has been queried for or the duration has passed, whichever is first; the
+     * last batch is cut short so that no more than the number of seeds are queried for. If the test properties
+     * specify query types then these tests are run for each query type in turn.
      *
-     * @return The rate at which seeds were queried for (number of seeds per second).
+     * @return The rate at which seeds were queried for (number of seeds per second). For a sweep of target rates this
+     * is the rate achieved at the final target rate, and for several query types it is the rate of the last one.
      */
     public double run() {
+        final List<QueryType> queryTypes = testProperties.getQueryTypes();
+        double rate = 0.0D;
+        if (queryTypes.isEmpty()) {
+            rate = runQueryType(null);
+        } else {
+            for (final QueryType type : queryTypes) {
+                LOGGER.info("Running tests of query type " + type);
+                rate = runQueryType(type);
+            }
+        }
+        if (null != metricsListener) {
+            metricsListener.close();
+        }
+        return rate;
+    }
+
+    private double runQueryType(final QueryType type) {
+        queryType = type;
+        resultBytesCounter = null == type ? null : new ResultBytesCounter(new ResultSizer(graph.getSchema()));
+        try {
+            final double[] targetRates = testProperties.getTargetQueriesPerSecond();
+            double rate = 0.0D;
+            if (0 == targetRates.length) {
+                rate = runClosedLoop();
+            } else {
+                for (final double targetRate : targetRates) {
+                    rate = runOpenLoop(targetRate);
+                }
+            }
+            return rate;
+        } finally {
+            if (null != resultBytesCounter) {
+                resultBytesCounter.close();
+                resultBytesCounter = null;
+            }
+        }
+    }
+
+    private QueryType getQueryType() {
+        return null == queryType ? DEFAULT_QUERY_TYPE : queryType;
+    }
+
+    private double runClosedLoop() {
         final long numSeeds = testProperties.getNumSeeds();
         final long batchSize = testProperties.getBatchSize();
-        final Supplier<? extends ElementSeed> elementIdSupplier = new ElementIdSupplierFactory(testProperties).get();
+        final Supplier<? extends ElementSeed> elementIdSupplier
+                = new ElementIdSupplierFactory(testProperties, graph.getSchema()).get();
         long totalQueried = 0L;
+        long totalResults = 0L;
         long batchNumber = 0L;
+        batchLatencies.reset();
+        amortisedSeedLatencies.reset();
+        runWarmUp(elementIdSupplier, batchSize);
+        resetResultStats();
+        final SteadyStateDetector steadyStateDetector = testProperties.createSteadyStateDetector();
+        final long deadline = getDeadline();
+        intervalReporter = createIntervalReporter();
         final long startTime = System.currentTimeMillis();
-        while (totalQueried < numSeeds) {
-            batchNumber++;
-            queryBatch(elementIdSupplier, batchSize, batchNumber);
-            totalQueried += batchSize;
+        try {
+            while (totalQueried < numSeeds && System.nanoTime() - deadline < 0L) {
+                batchNumber++;
+                // The last batch only contains the seeds that are still needed
+                final long seedsInBatch = Math.min(batchSize, numSeeds - totalQueried);
+                totalResults += queryBatch(elementIdSupplier, seedsInBatch, batchNumber, steadyStateDetector);
+                totalQueried += seedsInBatch;
+            }
+        } finally {
+            if (null != intervalReporter) {
+                intervalReporter.close();
+                intervalReporter = null;
+            }
         }
         final long endTime = System.currentTimeMillis();
         final double durationInSeconds = (endTime - startTime) / 1000.0;
         final double rate = (double) totalQueried / durationInSeconds;
         LOGGER.info("Test result: " + totalQueried + " ids queried for in " + durationInSeconds + " seconds (rate was "
                 + rate + " per second)");
-        if (null != metricsListener) {
-            metricsListener.close();
+        LOGGER.info("Batch latencies: p50 = " + batchLatencies.getValueAtPercentile(50.0D) / 1000.0 + "ms, p99 = "
+                + batchLatencies.getValueAtPercentile(99.0D) / 1000.0 + "ms, max = " + batchLatencies.getMax() / 1000.0
+                + "ms");
+        final SteadyStateDetector.Result steadyState = steadyStateDetector.getResult();
+        if (steadyState.isSteadyStateReached()) {
+            LOGGER.info("Steady state reached at batch " + steadyState.getSteadyStateStartBatch() + ": rate before "
+                    + "was " + steadyState.getWarmUpRate() + " per second, rate after was "
+                    + steadyState.getSteadyStateRate() + " per second");
+        } else {
+            LOGGER.info("A steady state was not reached");
         }
+        update(new ClosedLoopQueryMetrics(rate, steadyState, batchLatencies, amortisedSeedLatencies));
+        logQueryType(rate, totalResults / durationInSeconds, durationInSeconds, batchLatencies);
         return rate;
     }
 
-    private void queryBatch(final Supplier<? extends ElementSeed> elementSeedSupplier, final long batchSize,
-                            final long batchNumber) {
-        // Create an in-memory list of seeds, so that expense of creating random seeds is not included in the test results
+    /**
+     * Runs an open-loop test: batches of seeds are queried for on a fixed schedule at the target rate, regardless of
+     * how long previous queries take to complete. Up to the configured maximum number of queries are executed
+     * concurrently; queries that are due while that many are in flight wait for a free slot. The response time of each
+     * query is measured from the time at which it was scheduled to be sent, so time spent waiting because the store is
+     * slow is included in the results rather than silently lowering the offered load. No more queries are sent once
+     * the duration of the test has passed.
+     *
+     * @param targetQueriesPerSecond the rate at which queries (batches of seeds) are sent
+     * @return The rate at which seeds were queried for (number of seeds per second).
+     */
+    public double runOpenLoop(final double targetQueriesPerSecond) {
+        final long batchSize = testProperties.getBatchSize();
+        final long numSeeds = testProperties.getNumSeeds();
+        final long maxQueries = numSeeds / batchSize + (0L == numSeeds % batchSize ? 0L : 1L);
+        final long intervalInNanos = (long) (1.0E9 / targetQueriesPerSecond);
+        final Supplier<? extends ElementSeed> elementIdSupplier
+                = new ElementIdSupplierFactory(testProperties, graph.getSchema()).get();
+        final LatencyHistogram responseTimes = new LatencyHistogram();
+        final LatencyHistogram serviceTimes = new LatencyHistogram();
+        final AtomicLong numFailures = new AtomicLong(0L);
+        final AtomicLong totalResults = new AtomicLong(0L);
+        runWarmUp(elementIdSupplier, batchSize);
+        resetResultStats();
+        final ExecutorService executorService = Executors.newFixedThreadPool(testProperties.getMaxQueriesInFlight());
+        LOGGER.info("Running open-loop test of up to " + maxQueries + " queries at a target rate of "
+                + targetQueriesPerSecond + " per second");
+        long numQueries = 0L;
+        long totalSeeds = 0L;
+        final long deadline = getDeadline();
+        final long startTime = System.nanoTime();
+        try {
+            for (long i = 0L; i < maxQueries; i++) {
+                final long scheduledTime = startTime + i * intervalInNanos;
+                if (scheduledTime - deadline >= 0L) {
+                    break;
+                }
+                // Seeds are created before the scheduled send time so that creating them does not delay the query
+                final List<ElementSeed> seeds
+                        = createSeeds(elementIdSupplier, Math.min(batchSize, numSeeds - totalSeeds));
+                numQueries++;
+                totalSeeds += seeds.size();
+                waitUntil(scheduledTime);
+                executorService.execute(() -> {
+                    final long sendTime = System.nanoTime();
+                    QueryResult result = null;
+                    try {
+                        result = executeQuery(seeds);
+                    } catch (final OperationException e) {
+                        numFailures.incrementAndGet();
+                        LOGGER.error("OperationException thrown after " + (System.nanoTime() - sendTime) / 1.0E9
+                                + " seconds", e);
+                    }
+                    final long endTime = System.nanoTime();
+                    responseTimes.recordValue(TimeUnit.NANOSECONDS.toMicros(endTime - scheduledTime));
+                    serviceTimes.recordValue(TimeUnit.NANOSECONDS.toMicros(endTime - sendTime));
+                    if (null != result) {
+                        totalResults.addAndGet(result.getNumResults());
+                        recordResultStats(result);
+                    }
+                });
+            }
+            executorService.shutdown();
+            executorService.awaitTermination(Long.MAX_VALUE, TimeUnit.NANOSECONDS);
+        } catch (final InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new RuntimeException("Interrupted running open-loop query test", e);
+        } finally {
+            executorService.shutdownNow();
+        }
+        if (numFailures.get() > 0L) {
+            throw new RuntimeException("Exception thrown getting elements (" + numFailures.get() + " of "
+                    + numQueries + " queries failed)");
+        }
+        final double durationInSeconds = (System.nanoTime() - startTime) / 1.0E9;
+        final double achievedQueriesPerSecond = numQueries / durationInSeconds;
+        final double seedRate = totalSeeds / durationInSeconds;
+        LOGGER.info("Test result: target rate was " + targetQueriesPerSecond + " queries per second, achieved rate was "
+                + achievedQueriesPerSecond + " queries per second (" + seedRate + " seeds per second), response time "
+                + "p50 = " + responseTimes.getValueAtPercentile(50.0D) / 1000.0 + "ms, p99 = "
+                + responseTimes.getValueAtPercentile(99.0D) / 1000.0 + "ms, max = " + responseTimes.getMax() / 1000.0
+                + "ms");
+        update(new OpenLoopQueryMetrics(targetQueriesPerSecond, achievedQueriesPerSecond, responseTimes,
+                serviceTimes));
+        logQueryType(seedRate, totalResults.get() / durationInSeconds, durationInSeconds, serviceTimes);
+        return seedRate;
+    }
+
+    /**
+     * @return the latencies, in microseconds, of the batches of the last test run
+     */
+    public LatencyHistogram getBatchLatencies() {
+        return batchLatencies;
+    }
+
+    /**
+     * @return the value of {@link System#nanoTime()} at which a test that starts now must stop, which is effectively
+     * never if the test properties do not specify a duration
+     */
+    private long getDeadline() {
+        final Long durationSeconds = testProperties.getDurationSeconds();
+        final long durationInNanos = null == durationSeconds ? Long.MAX_VALUE / 2L
+                : TimeUnit.SECONDS.toNanos(durationSeconds);
+        return System.nanoTime() + durationInNanos;
+    }
+
+    private IntervalReporter createIntervalReporter() {
+        final Long intervalSeconds = testProperties.getReportingIntervalSeconds();
+        if (null == intervalSeconds) {
+            return null;
+        }
+        return new IntervalReporter(TimeUnit.SECONDS.toMillis(intervalSeconds), 2, (rates, durationInSeconds) -> {
+            LOGGER.info("Interval of " + durationInSeconds + " seconds: " + rates[0] + " ids queried for per second, "
+                    + rates[1] + " results returned per second");
+            update(new QueryMetrics(rates[0], rates[1]));
+        });
+    }
+
+    private void runWarmUp(final Supplier<? extends ElementSeed> elementSeedSupplier, final long batchSize) {
+        final long warmUpBatches = testProperties.getWarmUpBatches();
+        if (warmUpBatches <= 0L) {
+            return;
+        }
+        final long startTime = System.nanoTime();
+        for (long i = 0L; i < warmUpBatches; i++) {
+            try {
+                executeQuery(createSeeds(elementSeedSupplier, batchSize));
+            } catch (final OperationException e) {
+                throw new RuntimeException("Exception thrown querying for warm-up seeds", e);
+            }
+        }
+        LOGGER.info("Warm-up: " + warmUpBatches + " batches of " + batchSize + " ids queried for in "
+                + (System.nanoTime() - startTime) / 1.0E9 + " seconds");
+    }
+
+    private static void waitUntil(final long nanoTime) {
+        long remaining = nanoTime - System.nanoTime();
+        while (remaining > 0L) {
+            LockSupport.parkNanos(remaining);
+            remaining = nanoTime - System.nanoTime();
+        }
+    }
+
+    private static List<ElementSeed> createSeeds(final Supplier<? extends ElementSeed> elementSeedSupplier,
+                                                 final long batchSize) {
         final List<ElementSeed> seeds = new ArrayList<>();
         for (int i = 0; i < batchSize; i++) {
             seeds.add(elementSeedSupplier.get());
         }
-        final GetElements getElements = new GetElements.Builder()
-                .input(seeds)
-                .build();
-        final long startTime = System.currentTimeMillis();
-        final long numResults;
+        return seeds;
+    }
+
+    /**
+     * Runs the query for a batch of seeds and reads all of its results. If the test is of a {@link QueryType} then
+     * each result is passed to the {@link ResultBytesCounter}, which sizes it on another thread.
+     */
+    private QueryResult executeQuery(final List<ElementSeed> seeds) throws OperationException {
+        final long startTime = System.nanoTime();
+        final CloseableIterable<?> results = graph.execute(getQueryType().createOperation(seeds), new User());
+        long numResults = 0L;
+        long timeToFirstResultInNanos = -1L;
+        try {
+            for (final Object result : results) {
+                if (0L == numResults) {
+                    timeToFirstResultInNanos = System.nanoTime() - startTime;
+                }
+                numResults++;
+                if (null != resultBytesCounter) {
+                    resultBytesCounter.add(result);
+                }
+            }
+        } finally {
+            results.close();
+        }
+        return new QueryResult(numResults, timeToFirstResultInNanos);
+    }
+
+    private void resetResultStats() {
+        timeToFirstResult.reset();
+        if (null != resultBytesCounter) {
+            resultBytesCounter.reset();
+        }
+    }
+
+    private void recordResultStats(final QueryResult result) {
+        if (null == queryType) {
+            return;
+        }
+        if (result.getTimeToFirstResultInNanos() >= 0L) {
+            timeToFirstResult.recordValue(TimeUnit.NANOSECONDS.toMicros(result.getTimeToFirstResultInNanos()));
+        }
+    }
+
+    private void logQueryType(final double seedsPerSecond, final double resultsPerSecond,
+                              final double durationInSeconds, final LatencyHistogram latencies) {
+        if (null == queryType) {
+            return;
+        }
+        final long resultBytes = resultBytesCounter.getBytes();
+        LOGGER.info("Query type " + queryType.getName() + ": " + resultBytes + " bytes of results were returned ("
+                + resultBytesCounter.getNumSized() + " of " + resultBytesCounter.getNumResults() + " results were "
+                + "sized), time to first result p50 = " + timeToFirstResult.getValueAtPercentile(50.0D) / 1000.0
+                + "ms, p99 = " + timeToFirstResult.getValueAtPercentile(99.0D) / 1000.0 + "ms");
+        update(new QueryTypeMetrics(queryType.getName(), seedsPerSecond, resultsPerSecond, resultBytes,
+                durationInSeconds, latencies, timeToFirstResult));
+    }
+
+    private long queryBatch(final Supplier<? extends ElementSeed> elementSeedSupplier, final long batchSize,
+                            final long batchNumber, final SteadyStateDetector steadyStateDetector) {
+        // Create an in-memory list of seeds, so that expense of creating random seeds is not included in the test results
+        final List<ElementSeed> seeds = createSeeds(elementSeedSupplier, batchSize);
+        final long startTime = System.nanoTime();
+        final QueryResult result;
         try {
-            final CloseableIterable<? extends Element> results = graph.execute(getElements, new User());
-            numResults = StreamSupport.stream(results.spliterator(), false).count();
+            result = executeQuery(seeds);
         } catch (final OperationException e) {
-            LOGGER.error("OperationException thrown after " + (System.currentTimeMillis() - startTime) / 1000.0
+            LOGGER.error("OperationException thrown after " + (System.nanoTime() - startTime) / 1.0E9
                     + " seconds");
             throw new RuntimeException("Exception thrown getting elements");
         }
-        final long endTime = System.currentTimeMillis();
-        final double durationInSeconds = (endTime - startTime) / 1000.0;
+        final long endTime = System.nanoTime();
+        final long numResults = result.getNumResults();
+        recordResultStats(result);
+        steadyStateDetector.record(batchSize, startTime, endTime);
+        final long durationInMicros = TimeUnit.NANOSECONDS.toMicros(endTime - startTime);
+        batchLatencies.recordValue(durationInMicros);
+        // Every seed in the batch is assigned an equal share of the batch latency
+        amortisedSeedLatencies.recordValueWithCount(durationInMicros / batchSize, batchSize);
+        final double durationInSeconds = durationInMicros / 1.0E6;
         final double seedRate = batchSize / durationInSeconds;
         final double resultsRate = numResults / durationInSeconds;
-        LOGGER.info("Batch number = " + batchNumber + ": " + batchSize + " ids queried for in " + durationInSeconds
-                + " seconds (rate was " + seedRate + " per second), " + numResults + " results were returned "
-                + "(rate was " + resultsRate + " per second)");
-        log(seedRate, resultsRate);
+        final String message = "Batch number = " + batchNumber + ": " + batchSize + " ids queried for in "
+                + durationInSeconds + " seconds (rate was " + seedRate + " per second), " + numResults
+                + " results were returned (rate was " + resultsRate + " per second)";
+        if (null != intervalReporter) {
+            LOGGER.debug(message);
+            intervalReporter.add(0, batchSize);
+            intervalReporter.add(1, numResults);
+            return numResults;
+        }
+        LOGGER.info(message);
+        final QueryMetrics metrics = new QueryMetrics(seedRate, resultsRate);
+        metrics.putMetric(QueryMetrics.BATCH_NUMBER, (double) batchNumber);
+        update(metrics);
+        return numResults;
     }
 
-    private void log(final double seedsPerSecond, final double resultsPerSecond) {
+    /**
+     * The number of results of a query and the time until its first result was returned (or -1 if it returned no
+     * results).
+     */
+    private static final class QueryResult {
+        private final long numResults;
+        private final long timeToFirstResultInNanos;
+
+        private QueryResult(final long numResults, final long timeToFirstResultInNanos) {
+            this.numResults = numResults;
+            this.timeToFirstResultInNanos = timeToFirstResultInNanos;
+        }
+
+        private long getNumResults() {
+            return numResults;
+        }
+
+        private long getTimeToFirstResultInNanos() {
+            return timeToFirstResultInNanos;
+        }
+    }
+
+    private void update(final Metrics metrics) {
         if (null != metricsListener) {
-            final QueryMetrics metrics = new QueryMetrics(seedsPerSecond, resultsPerSecond);
-            metricsListener.update(metrics);
+            // Interval updates are made on another thread so updates are serialised
+            synchronized (metricsListener) {
+                metricsListener.update(metrics);
+            }
         }
     }
 
     public static class ElementIdSupplierFactory {
         private QueryTestProperties testProperties;
+        private Schema schema;
 
         public ElementIdSupplierFactory(final QueryTestProperties testProperties) {
+            this(testProperties, null);
+        }
+
+        /**
+         * @param testProperties the test properties
+         * @param schema         the schema used to read the corpus file, if the test properties specify one
+         */
+        public ElementIdSupplierFactory(final QueryTestProperties testProperties, final Schema schema) {
             this.testProperties = testProperties;
+            this.schema = schema;
         }
 
         public Supplier<? extends ElementSeed> get() {
+            return get(0, 1);
+        }
+
+        /**
+         * Returns one of a number of {@link Supplier}s of seeds that are used at the same time, e.g. by separate
+         * threads. Each supplier gives a different sequence of seeds: if the test properties specify a seed then
+         * supplier <code>i</code> uses the seed plus <code>i</code>, and if they specify a corpus file then supplier
+         * <code>i</code> starts <code>i / numSuppliers</code> of the way through the corpus. Supplier 0 is the same as
+         * {@link #get()}.
+         *
+         * @param supplier     the index of the supplier, from 0 to <code>numSuppliers - 1</code>
+         * @param numSuppliers the number of suppliers
+         * @return the supplier
+         */
+        public Supplier<? extends ElementSeed> get(final int supplier, final int numSuppliers) {
+            if (numSuppliers <= 0 || supplier < 0 || supplier >= numSuppliers) {
+                throw new IllegalArgumentException("Invalid supplier " + supplier + " of " + numSuppliers);
+            }
+            if (null != testProperties.getCorpusFile()) {
+                if (null == schema) {
+                    throw new IllegalArgumentException("A schema is required to read seeds from a corpus file");
+                }
+                try {
+                    final ElementCorpusReader reader
+                            = new ElementCorpusReader(Paths.get(testProperties.getCorpusFile()), schema);
+                    return new CorpusSeedSupplier(reader, reader.getNumElements() / numSuppliers * supplier);
+                } catch (final IOException e) {
+                    throw new RuntimeException("Exception reading corpus file " + testProperties.getCorpusFile(), e);
+                }
+            }
             final String elementIdSupplierClass = testProperties.getElementIdSupplierClass();
+            final Long seed = null == testProperties.getSeed() ? null : testProperties.getSeed() + supplier;
             if (elementIdSupplierClass.equals(EntitySeedSupplier.class.getName())) {
                 final long maxNodeId = testProperties.getRmatMaxNodeId();
-                return new EntitySeedSupplier(maxNodeId);
+                return null == seed ? new EntitySeedSupplier(maxNodeId) : new EntitySeedSupplier(maxNodeId, seed);
             } else if (elementIdSupplierClass.equals(EdgeSeedSupplier.class.getName())) {
                 final long maxNodeId = testProperties.getRmatMaxNodeId();
-                return new EdgeSeedSupplier(maxNodeId);
+                return null == seed ? new EdgeSeedSupplier(maxNodeId) : new EdgeSeedSupplier(maxNodeId, seed);
             } else {
                 throw new RuntimeException("Unknown ElementIdSupplier class of " + elementIdSupplierClass);
             }
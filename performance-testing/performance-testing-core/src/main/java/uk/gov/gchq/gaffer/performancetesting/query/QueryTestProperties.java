@@ -15,16 +15,40 @@
  */
 package uk.gov.gchq.gaffer.performancetesting.query;
 
+import uk.gov.gchq.gaffer.data.element.id.DirectedType;
+import uk.gov.gchq.gaffer.data.elementdefinition.view.View;
 import uk.gov.gchq.gaffer.performancetesting.TestProperties;
 import uk.gov.gchq.gaffer.randomelementgeneration.supplier.EntitySeedSupplier;
 
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
 /**
  * These properties are used to specify a {@link uk.gov.gchq.gaffer.performancetesting.query.QueryTest}.
  */
 public class QueryTestProperties extends TestProperties {
     private static final long serialVersionUID = 3639506677531571597L;
     private static final String ID_SUPPLIER_CLASS = "gaffer.performancetesting.query.idSupplierClass";
+    private static final String CORPUS_FILE = "gaffer.performancetesting.query.corpusFile";
     private static final String NUM_SEEDS = "gaffer.performancetesting.query.numSeeds";
+    private static final String TARGET_QUERIES_PER_SECOND = "gaffer.performancetesting.query.targetQueriesPerSecond";
+    private static final String MAX_QUERIES_IN_FLIGHT = "gaffer.performancetesting.query.maxQueriesInFlight";
+    private static final String QUERY_TYPES = "gaffer.performancetesting.query.queryTypes";
+    private static final String QUERY_TYPE_PREFIX = "gaffer.performancetesting.query.queryType.";
+    private static final String OPERATION = ".operation";
+    private static final String HOPS = ".hops";
+    private static final String FETCH_ELEMENTS = ".fetchElements";
+    private static final String VIEW = ".view";
+    private static final String VIEW_FILE = ".viewFile";
+    private static final String PARAMETER = ".parameter.";
+    private static final String DIRECTED_TYPE = ".directedType";
+    private static final Pattern VIEW_PARAMETER = Pattern.compile("\\$\\{([^}]+)\\}");
 
     public QueryTestProperties() {
     }
@@ -37,11 +61,184 @@ public class QueryTestProperties extends TestProperties {
         setProperty(ID_SUPPLIER_CLASS, elementSupplierClass);
     }
 
+    /**
+     * Returns the number of seeds to query for. If this is not specified but a duration is (see
+     * {@link #getDurationSeconds()}) then the test is only bounded by the duration and this returns
+     * {@link Long#MAX_VALUE}; otherwise it defaults to 1000.
+     *
+     * @return the number of seeds
+     */
     public long getNumSeeds() {
+        if (null == getProperty(NUM_SEEDS) && null != getDurationSeconds()) {
+            return Long.MAX_VALUE;
+        }
         return Long.parseLong(getProperty(NUM_SEEDS, "" + 1000L));
     }
 
     public void setNumSeeds(final long numSeeds) {
         setProperty(NUM_SEEDS, "" + numSeeds);
     }
+
+    /**
+     * Returns the target rates, in queries per second, for an open-loop test. If no rates are specified then the test
+     * is closed-loop, i.e. each query is only sent once the previous one has completed.
+     *
+     * @return the target rates, or an empty array if the test is closed-loop
+     * @throws IllegalArgumentException if any of the rates is not strictly positive
+     */
+    public double[] getTargetQueriesPerSecond() {
+        if (null == getProperty(TARGET_QUERIES_PER_SECOND)) {
+            return new double[0];
+        }
+        final double[] targetQueriesPerSecond = stringToDoubleArray(getProperty(TARGET_QUERIES_PER_SECOND));
+        checkTargetQueriesPerSecond(targetQueriesPerSecond);
+        return targetQueriesPerSecond;
+    }
+
+    public void setTargetQueriesPerSecond(final double... targetQueriesPerSecond) {
+        if (null == targetQueriesPerSecond || 0 == targetQueriesPerSecond.length) {
+            remove(TARGET_QUERIES_PER_SECOND);
+            return;
+        }
+        checkTargetQueriesPerSecond(targetQueriesPerSecond);
+        setProperty(TARGET_QUERIES_PER_SECOND, doubleArrayToString(targetQueriesPerSecond));
+    }
+
+    private static void checkTargetQueriesPerSecond(final double[] targetQueriesPerSecond) {
+        for (final double rate : targetQueriesPerSecond) {
+            if (!(rate > 0.0D)) {
+                throw new IllegalArgumentException("Every target rate must be strictly positive (got " + rate + ").");
+            }
+        }
+    }
+
+    public int getMaxQueriesInFlight() {
+        return Integer.parseInt(getProperty(MAX_QUERIES_IN_FLIGHT, "10"));
+    }
+
+    public void setMaxQueriesInFlight(final int maxQueriesInFlight) {
+        if (maxQueriesInFlight <= 0) {
+            throw new IllegalArgumentException("The maximum number of queries in flight must be greater than 0.");
+        }
+        setProperty(MAX_QUERIES_IN_FLIGHT, "" + maxQueriesInFlight);
+    }
+
+    /**
+     * Returns the corpus file to create the seeds from, or <code>null</code> if the seeds should be generated by the
+     * element id supplier.
+     *
+     * @return the corpus file, or <code>null</code>
+     */
+    public String getCorpusFile() {
+        return getProperty(CORPUS_FILE);
+    }
+
+    public void setCorpusFile(final String corpusFile) {
+        setProperty(CORPUS_FILE, corpusFile);
+    }
+
+    /**
+     * Returns the types of query to run, in the order in which they are run. If no query types are specified then
+     * each batch of seeds is queried for with a plain <code>GetElements</code>.
+     *
+     * <p>Each query type <code>name</code> in the comma-separated list
+     * <code>gaffer.performancetesting.query.queryTypes</code> is configured by properties starting with
+     * <code>gaffer.performancetesting.query.queryType.name</code>:
+     * <ul>
+     * <li><code>.operation</code>: <code>GetElements</code> (the default) or <code>GetAdjacentIds</code>.</li>
+     * <li><code>.hops</code>: the number of <code>GetAdjacentIds</code> in the chain (default 1).</li>
+     * <li><code>.fetchElements</code>: whether the chain ends with a <code>GetElements</code> for the ids found by
+     * the last hop (default false).</li>
+     * <li><code>.view</code> or <code>.viewFile</code>: the JSON of the view, in which each
+     * <code>${parameter}</code> is replaced by the value of <code>.parameter.parameter</code>.</li>
+     * <li><code>.directedType</code>: <code>DIRECTED</code>, <code>UNDIRECTED</code> or <code>EITHER</code>.</li>
+     * </ul>
+     *
+     * @return the query types, which are empty if none are specified
+     */
+    public List<QueryType> getQueryTypes() {
+        final List<QueryType> queryTypes = new ArrayList<>();
+        if (null == getProperty(QUERY_TYPES)) {
+            return queryTypes;
+        }
+        for (final String name : getProperty(QUERY_TYPES).split(",")) {
+            final String prefix = QUERY_TYPE_PREFIX + name.trim();
+            final String directedType = getProperty(prefix + DIRECTED_TYPE);
+            queryTypes.add(new QueryType(name.trim(),
+                    getProperty(prefix + OPERATION, QueryType.GET_ELEMENTS),
+                    Integer.parseInt(getProperty(prefix + HOPS, "1")),
+                    Boolean.parseBoolean(getProperty(prefix + FETCH_ELEMENTS, "false")),
+                    getQueryTypeView(name.trim()),
+                    null == directedType ? null : DirectedType.valueOf(directedType)));
+        }
+        return queryTypes;
+    }
+
+    public void setQueryTypes(final String... names) {
+        if (null == names || 0 == names.length) {
+            remove(QUERY_TYPES);
+            return;
+        }
+        setProperty(QUERY_TYPES, String.join(",", names));
+    }
+
+    public void setQueryTypeOperation(final String name, final String operation) {
+        setProperty(QUERY_TYPE_PREFIX + name + OPERATION, operation);
+    }
+
+    public void setQueryTypeHops(final String name, final int hops) {
+        if (hops <= 0) {
+            throw new IllegalArgumentException("The number of hops must be greater than 0.");
+        }
+        setProperty(QUERY_TYPE_PREFIX + name + HOPS, "" + hops);
+    }
+
+    public void setQueryTypeFetchElements(final String name, final boolean fetchElements) {
+        setProperty(QUERY_TYPE_PREFIX + name + FETCH_ELEMENTS, Boolean.toString(fetchElements));
+    }
+
+    public void setQueryTypeView(final String name, final String viewJson) {
+        setProperty(QUERY_TYPE_PREFIX + name + VIEW, viewJson);
+    }
+
+    public void setQueryTypeViewFile(final String name, final String viewFile) {
+        setProperty(QUERY_TYPE_PREFIX + name + VIEW_FILE, viewFile);
+    }
+
+    public void setQueryTypeParameter(final String name, final String parameter, final String value) {
+        setProperty(QUERY_TYPE_PREFIX + name + PARAMETER + parameter, value);
+    }
+
+    public void setQueryTypeDirectedType(final String name, final DirectedType directedType) {
+        setProperty(QUERY_TYPE_PREFIX + name + DIRECTED_TYPE, directedType.name());
+    }
+
+    private View getQueryTypeView(final String name) {
+        final String prefix = QUERY_TYPE_PREFIX + name;
+        String viewJson = getProperty(prefix + VIEW);
+        if (null == viewJson && null != getProperty(prefix + VIEW_FILE)) {
+            try {
+                viewJson = new String(Files.readAllBytes(Paths.get(getProperty(prefix + VIEW_FILE))),
+                        StandardCharsets.UTF_8);
+            } catch (final IOException e) {
+                throw new RuntimeException("Failed to read view file for query type " + name + ": "
+                        + e.getMessage(), e);
+            }
+        }
+        if (null == viewJson) {
+            return null;
+        }
+        final Matcher matcher = VIEW_PARAMETER.matcher(viewJson);
+        final StringBuffer substituted = new StringBuffer();
+        while (matcher.find()) {
+            final String value = getProperty(prefix + PARAMETER + matcher.group(1));
+            if (null == value) {
+                throw new IllegalArgumentException("No value for parameter " + matcher.group(1) + " of the view of "
+                        + "query type " + name);
+            }
+            matcher.appendReplacement(substituted, Matcher.quoteReplacement(value));
+        }
+        matcher.appendTail(substituted);
+        return View.fromJson(substituted.toString().getBytes(StandardCharsets.UTF_8));
+    }
 }
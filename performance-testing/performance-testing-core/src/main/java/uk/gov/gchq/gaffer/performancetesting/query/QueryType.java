@@ -0,0 +1,172 @@
+/*
+ * Copyright 2019 Crown Copyright
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package uk.gov.gchq.gaffer.performancetesting.query;
+
+import uk.gov.gchq.gaffer.commonutil.ToStringBuilder;
+import uk.gov.gchq.gaffer.commonutil.iterable.CloseableIterable;
+import uk.gov.gchq.gaffer.data.element.id.DirectedType;
+import uk.gov.gchq.gaffer.data.element.id.EntityId;
+import uk.gov.gchq.gaffer.data.elementdefinition.view.View;
+import uk.gov.gchq.gaffer.operation.Operation;
+import uk.gov.gchq.gaffer.operation.OperationChain;
+import uk.gov.gchq.gaffer.operation.data.EdgeSeed;
+import uk.gov.gchq.gaffer.operation.data.ElementSeed;
+import uk.gov.gchq.gaffer.operation.data.EntitySeed;
+import uk.gov.gchq.gaffer.operation.impl.get.GetAdjacentIds;
+import uk.gov.gchq.gaffer.operation.impl.get.GetElements;
+import uk.gov.gchq.gaffer.operation.io.Output;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * A template for the query that a {@link QueryTest} runs for each batch of seeds. A query is either a
+ * <code>GetElements</code> or a chain of one or more <code>GetAdjacentIds</code> hops, optionally followed by a
+ * <code>GetElements</code> for the ids found by the last hop. Every operation in the query uses the same
+ * {@link View} (which can contain filters and aggregation, so that they are included in the test) and
+ * {@link DirectedType}.
+ *
+ * <p>The query types are configured by a {@link QueryTestProperties}, see
+ * {@link QueryTestProperties#getQueryTypes()}.
+ */
+public class QueryType {
+    public static final String GET_ELEMENTS = "GetElements";
+    public static final String GET_ADJACENT_IDS = "GetAdjacentIds";
+
+    private final String name;
+    private final String operation;
+    private final int hops;
+    private final boolean fetchElements;
+    private final View view;
+    private final DirectedType directedType;
+
+    public QueryType(final String name,
+                     final String operation,
+                     final int hops,
+                     final boolean fetchElements,
+                     final View view,
+                     final DirectedType directedType) {
+        if (!GET_ELEMENTS.equals(operation) && !GET_ADJACENT_IDS.equals(operation)) {
+            throw new IllegalArgumentException("The operation of query type " + name + " must be " + GET_ELEMENTS
+                    + " or " + GET_ADJACENT_IDS + " (got " + operation + ")");
+        }
+        if (GET_ADJACENT_IDS.equals(operation) && hops <= 0) {
+            throw new IllegalArgumentException("The number of hops of query type " + name
+                    + " must be greater than 0");
+        }
+        this.name = name;
+        this.operation = operation;
+        this.hops = hops;
+        this.fetchElements = fetchElements;
+        this.view = view;
+        this.directedType = directedType;
+    }
+
+    /**
+     * Creates the query for a batch of seeds. If the query starts with a <code>GetAdjacentIds</code> then each
+     * {@link EdgeSeed} is replaced by an {@link EntitySeed} for its source.
+     *
+     * @param seeds the seeds
+     * @return the query
+     */
+    public Output<? extends CloseableIterable<?>> createOperation(final List<? extends ElementSeed> seeds) {
+        if (GET_ELEMENTS.equals(operation)) {
+            return createGetElements(seeds);
+        }
+        final List<EntityId> vertices = new ArrayList<>(seeds.size());
+        for (final ElementSeed seed : seeds) {
+            vertices.add(toEntityId(seed));
+        }
+        final List<Operation> operations = new ArrayList<>();
+        operations.add(createGetAdjacentIds(vertices));
+        for (int i = 1; i < hops; i++) {
+            operations.add(createGetAdjacentIds(null));
+        }
+        if (fetchElements) {
+            operations.add(createGetElements(null));
+        }
+        if (1 == operations.size()) {
+            return (GetAdjacentIds) operations.get(0);
+        }
+        return new OperationChain<CloseableIterable<?>>(operations);
+    }
+
+    /**
+     * @param seed an element seed
+     * @return the seed if it is an {@link EntitySeed}, or an {@link EntitySeed} for the source of an {@link EdgeSeed}
+     */
+    public static EntityId toEntityId(final ElementSeed seed) {
+        if (seed instanceof EdgeSeed) {
+            return new EntitySeed(((EdgeSeed) seed).getSource());
+        }
+        return (EntitySeed) seed;
+    }
+
+    private GetElements createGetElements(final List<? extends ElementSeed> seeds) {
+        final GetElements.Builder builder = new GetElements.Builder()
+                .view(view)
+                .directedType(directedType);
+        if (null != seeds) {
+            builder.input(seeds);
+        }
+        return builder.build();
+    }
+
+    private GetAdjacentIds createGetAdjacentIds(final List<EntityId> vertices) {
+        final GetAdjacentIds.Builder builder = new GetAdjacentIds.Builder()
+                .view(view)
+                .directedType(directedType);
+        if (null != vertices) {
+            builder.input(vertices);
+        }
+        return builder.build();
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    public String getOperation() {
+        return operation;
+    }
+
+    public int getHops() {
+        return hops;
+    }
+
+    public boolean isFetchElements() {
+        return fetchElements;
+    }
+
+    public View getView() {
+        return view;
+    }
+
+    public DirectedType getDirectedType() {
+        return directedType;
+    }
+
+    @Override
+    public String toString() {
+        return new ToStringBuilder(this)
+                .append("name", name)
+                .append("operation", operation)
+                .append("hops", hops)
+                .append("fetchElements", fetchElements)
+                .append("directedType", directedType)
+                .build();
+    }
+}
@@ -0,0 +1,55 @@
+/*
+ * Copyright 2019 Crown Copyright
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package uk.gov.gchq.gaffer.performancetesting.query;
+
+import uk.gov.gchq.gaffer.performancetesting.LatencyHistogram;
+import uk.gov.gchq.gaffer.performancetesting.LatencyMetrics;
+
+/**
+ * This class contains the results of a {@link QueryTest} for one {@link QueryType}. The name of each metric is the
+ * name of the query type followed by the name of the statistic, e.g. <code>twoHops_seeds_per_second</code> or
+ * <code>twoHops_time_to_first_result_p99_ms</code>, so that the results of several query types can be compared. It
+ * provides the overall number of seeds queried for and results returned per second, the total size of the results
+ * in bytes, and percentiles of the latency of each batch and of the time until each batch returned its first result.
+ */
+public class QueryTypeMetrics extends LatencyMetrics {
+    public static final String SEEDS_PER_SECOND = "seeds_per_second";
+    public static final String RESULTS_PER_SECOND = "results_per_second";
+    public static final String RESULT_BYTES = "result_bytes";
+    public static final String RESULT_BYTES_PER_SECOND = "result_bytes_per_second";
+    public static final String TIME_TO_FIRST_RESULT = "time_to_first_result";
+
+    public QueryTypeMetrics(final String queryTypeName,
+                            final double seedsPerSecond,
+                            final double resultsPerSecond,
+                            final long resultBytes,
+                            final double durationInSeconds,
+                            final LatencyHistogram batchLatencies,
+                            final LatencyHistogram timeToFirstResult) {
+        putQueryTypeMetric(queryTypeName, SEEDS_PER_SECOND, seedsPerSecond);
+        putQueryTypeMetric(queryTypeName, RESULTS_PER_SECOND, resultsPerSecond);
+        putQueryTypeMetric(queryTypeName, RESULT_BYTES, (double) resultBytes);
+        putQueryTypeMetric(queryTypeName, RESULT_BYTES_PER_SECOND, resultBytes / durationInSeconds);
+        addHistogram(getMetricName(queryTypeName, BATCH_LATENCY), batchLatencies);
+        addHistogram(getMetricName(queryTypeName, TIME_TO_FIRST_RESULT), timeToFirstResult);
+    }
+
+    private void putQueryTypeMetric(final String queryTypeName, final String statistic, final double value) {
+        final String metricName = getMetricName(queryTypeName, statistic);
+        addMetricName(metricName);
+        putMetric(metricName, value);
+    }
+}
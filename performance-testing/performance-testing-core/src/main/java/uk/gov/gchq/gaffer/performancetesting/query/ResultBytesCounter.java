@@ -0,0 +1,150 @@
+/*
+ * Copyright 2019 Crown Copyright
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package uk.gov.gchq.gaffer.performancetesting.query;
+
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * Counts the bytes of query results with a {@link ResultSizer} on its own thread, so that serialising the results does
+ * not slow down the threads that read them. Each result is offered to a bounded queue without blocking and without
+ * the results being retained beyond the queue. If the sizing thread falls behind and the queue is full, the result is
+ * counted but not sized, and the total is estimated from the mean size of the results that were sized.
+ */
+public class ResultBytesCounter implements AutoCloseable {
+    public static final int DEFAULT_QUEUE_SIZE = 10000;
+
+    private final ResultSizer resultSizer;
+    private final BlockingQueue<Object> queue;
+    private final ExecutorService executorService;
+    private final AtomicLong numResults = new AtomicLong(0L);
+    private final AtomicLong numSized = new AtomicLong(0L);
+    private final AtomicLong sizedBytes = new AtomicLong(0L);
+    private final AtomicLong pending = new AtomicLong(0L);
+    private volatile RuntimeException failure;
+
+    public ResultBytesCounter(final ResultSizer resultSizer) {
+        this(resultSizer, DEFAULT_QUEUE_SIZE);
+    }
+
+    public ResultBytesCounter(final ResultSizer resultSizer, final int queueSize) {
+        if (queueSize <= 0) {
+            throw new IllegalArgumentException("The queue size must be greater than 0 (got " + queueSize + ")");
+        }
+        this.resultSizer = resultSizer;
+        this.queue = new ArrayBlockingQueue<>(queueSize);
+        this.executorService = Executors.newSingleThreadExecutor(runnable -> {
+            final Thread thread = new Thread(runnable, "result-bytes-counter");
+            thread.setDaemon(true);
+            return thread;
+        });
+        executorService.execute(this::sizeResults);
+    }
+
+    /**
+     * Counts a result, and queues it to be sized if there is space in the queue. This never blocks.
+     *
+     * @param result the result
+     */
+    public void add(final Object result) {
+        numResults.incrementAndGet();
+        pending.incrementAndGet();
+        if (!queue.offer(result)) {
+            pending.decrementAndGet();
+        }
+    }
+
+    /**
+     * Waits for the queued results to be sized and returns the number of bytes of all the results counted since the
+     * last reset. This is exact if every result was sized, and otherwise estimated from the mean size of those that
+     * were.
+     *
+     * @return the number of bytes
+     * @throws RuntimeException if a result could not be sized
+     */
+    public long getBytes() {
+        awaitSized();
+        if (null != failure) {
+            throw failure;
+        }
+        final long sized = numSized.get();
+        if (0L == sized) {
+            return 0L;
+        }
+        final long total = numResults.get();
+        return sized == total ? sizedBytes.get() : Math.round((double) sizedBytes.get() * total / sized);
+    }
+
+    /**
+     * @return the number of results counted since the last reset
+     */
+    public long getNumResults() {
+        return numResults.get();
+    }
+
+    /**
+     * @return the number of results that have been sized since the last reset
+     */
+    public long getNumSized() {
+        return numSized.get();
+    }
+
+    /**
+     * Waits for the queued results to be sized and then forgets all the results.
+     */
+    public void reset() {
+        awaitSized();
+        numResults.set(0L);
+        numSized.set(0L);
+        sizedBytes.set(0L);
+        failure = null;
+    }
+
+    @Override
+    public void close() {
+        executorService.shutdownNow();
+    }
+
+    private void awaitSized() {
+        while (pending.get() > 0L) {
+            LockSupport.parkNanos(100000L);
+        }
+    }
+
+    private void sizeResults() {
+        try {
+            while (true) {
+                final Object result = queue.take();
+                try {
+                    sizedBytes.addAndGet(resultSizer.sizeOf(result));
+                    numSized.incrementAndGet();
+                } catch (final RuntimeException e) {
+                    if (null == failure) {
+                        failure = e;
+                    }
+                } finally {
+                    pending.decrementAndGet();
+                }
+            }
+        } catch (final InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
@@ -0,0 +1,64 @@
+/*
+ * Copyright 2019 Crown Copyright
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package uk.gov.gchq.gaffer.performancetesting.query;
+
+import uk.gov.gchq.gaffer.data.element.Element;
+import uk.gov.gchq.gaffer.data.element.id.EntityId;
+import uk.gov.gchq.gaffer.exception.SerialisationException;
+import uk.gov.gchq.gaffer.serialisation.ToBytesSerialiser;
+import uk.gov.gchq.gaffer.store.schema.Schema;
+import uk.gov.gchq.gaffer.store.serialiser.ElementSerialiser;
+
+/**
+ * Measures the size of query results as the number of bytes they are serialised to using the {@link Schema}: an
+ * {@link Element} is serialised with an {@link ElementSerialiser} and an {@link EntityId} (e.g. a result of a
+ * <code>GetAdjacentIds</code>) with the vertex serialiser. The size of any other result, or of a vertex whose
+ * serialiser does not serialise to bytes, is counted as 0.
+ */
+public class ResultSizer {
+    private final ElementSerialiser elementSerialiser;
+    private final ToBytesSerialiser<Object> vertexSerialiser;
+
+    @SuppressWarnings("unchecked")
+    public ResultSizer(final Schema schema) {
+        this.elementSerialiser = new ElementSerialiser(schema);
+        this.vertexSerialiser = schema.getVertexSerialiser() instanceof ToBytesSerialiser
+                ? (ToBytesSerialiser<Object>) schema.getVertexSerialiser()
+                : null;
+    }
+
+    public long sizeOf(final Iterable<?> results) {
+        long size = 0L;
+        for (final Object result : results) {
+            size += sizeOf(result);
+        }
+        return size;
+    }
+
+    public long sizeOf(final Object result) {
+        try {
+            if (result instanceof Element) {
+                return elementSerialiser.serialise((Element) result).length;
+            }
+            if (result instanceof EntityId && null != vertexSerialiser) {
+                return vertexSerialiser.serialise(((EntityId) result).getVertex()).length;
+            }
+            return 0L;
+        } catch (final SerialisationException e) {
+            throw new RuntimeException("Exception serialising result " + result, e);
+        }
+    }
+}
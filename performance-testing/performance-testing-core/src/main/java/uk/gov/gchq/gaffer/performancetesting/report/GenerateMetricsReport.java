@@ -0,0 +1,289 @@
+/*
+ * Copyright 2019 Crown Copyright
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package uk.gov.gchq.gaffer.performancetesting.report;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Date;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeSet;
+
+/**
+ * Turns one or more logs written by {@link uk.gov.gchq.gaffer.performancetesting.StructuredMetricsListener} into a
+ * self-contained HTML report and a CSV summary, so that runs can be reviewed and compared without any other tools.
+ *
+ * <p>The report contains a description of each run, including its properties, and for each metric a timeline of its
+ * values against the time since the start of the run (one line per run) and a table of its percentiles in each run.
+ * Throughput metrics (those whose names contain <code>per_second</code>) are shown first, then latency metrics
+ * (those whose names end in <code>_ms</code>), then any others.
+ */
+public final class GenerateMetricsReport {
+    private static final Logger LOGGER = LoggerFactory.getLogger(GenerateMetricsReport.class);
+    public static final String HTML_REPORT = "report.html";
+    public static final String CSV_SUMMARY = "summary.csv";
+    static final String SUMMARY_HEADER = "run_id,metric,count,min,mean,p50,p90,p99,max";
+
+    private static final int CHART_WIDTH = 800;
+    private static final int CHART_HEIGHT = 300;
+    private static final int CHART_MARGIN = 60;
+    private static final String[] COLOURS = {"#1f77b4", "#ff7f0e", "#2ca02c", "#d62728", "#9467bd", "#8c564b",
+            "#e377c2", "#7f7f7f", "#bcbd22", "#17becf"};
+
+    private GenerateMetricsReport() {
+    }
+
+    public static void generate(final List<MetricsLog> logs, final Path outputDirectory) throws IOException {
+        Files.createDirectories(outputDirectory);
+        final List<String> metricNames = getOrderedMetricNames(logs);
+        try (final BufferedWriter writer = Files.newBufferedWriter(outputDirectory.resolve(CSV_SUMMARY),
+                StandardCharsets.UTF_8)) {
+            writer.write(SUMMARY_HEADER);
+            writer.newLine();
+            for (final MetricsLog log : logs) {
+                for (final String metricName : metricNames) {
+                    final Summary summary = Summary.of(getValues(log, metricName));
+                    if (summary.count > 0) {
+                        writer.write(String.join(",", csv(log.getRunId()), csv(metricName), "" + summary.count,
+                                "" + summary.min, "" + summary.mean, "" + summary.p50, "" + summary.p90,
+                                "" + summary.p99, "" + summary.max));
+                        writer.newLine();
+                    }
+                }
+            }
+        }
+        try (final BufferedWriter writer = Files.newBufferedWriter(outputDirectory.resolve(HTML_REPORT),
+                StandardCharsets.UTF_8)) {
+            writer.write(toHtml(logs, metricNames));
+        }
+    }
+
+    static String toHtml(final List<MetricsLog> logs, final List<String> metricNames) {
+        final StringBuilder html = new StringBuilder();
+        html.append("<!DOCTYPE html>\n<html>\n<head>\n<meta charset=\"utf-8\">\n")
+                .append("<title>Performance test report</title>\n")
+                .append("<style>body{font-family:sans-serif} table{border-collapse:collapse;margin-bottom:1em} ")
+                .append("td,th{border:1px solid #ccc;padding:2px 6px;text-align:right} ")
+                .append("td:first-child,th:first-child{text-align:left}</style>\n</head>\n<body>\n")
+                .append("<h1>Performance test report</h1>\n<h2>Runs</h2>\n")
+                .append("<table>\n<tr><th>Run</th><th>Host</th><th>Start time</th><th>Updates</th></tr>\n");
+        for (int i = 0; i < logs.size(); i++) {
+            final MetricsLog log = logs.get(i);
+            html.append("<tr><td style=\"color:").append(colour(i)).append("\">").append(escape(log.getRunId()))
+                    .append("</td><td>").append(escape(log.getHost()))
+                    .append("</td><td>").append(escape(new Date(log.getStartTime()).toString()))
+                    .append("</td><td>").append(log.getRecords().size()).append("</td></tr>\n");
+        }
+        html.append("</table>\n");
+        for (final MetricsLog log : logs) {
+            html.append("<details><summary>Properties of ").append(escape(log.getRunId()))
+                    .append("</summary>\n<table>\n");
+            for (final Map.Entry<String, String> property : log.getProperties().entrySet()) {
+                html.append("<tr><td>").append(escape(property.getKey())).append("</td><td>")
+                        .append(escape(property.getValue())).append("</td></tr>\n");
+            }
+            html.append("</table>\n</details>\n");
+        }
+
+        for (final String metricName : metricNames) {
+            html.append("<h2>").append(escape(metricName)).append("</h2>\n");
+            appendChart(html, logs, metricName);
+            html.append("<table>\n<tr><th>Run</th><th>Count</th><th>Min</th><th>Mean</th><th>p50</th><th>p90</th>")
+                    .append("<th>p99</th><th>Max</th></tr>\n");
+            for (final MetricsLog log : logs) {
+                final Summary summary = Summary.of(getValues(log, metricName));
+                html.append("<tr><td>").append(escape(log.getRunId())).append("</td><td>").append(summary.count);
+                for (final double value : new double[]{summary.min, summary.mean, summary.p50, summary.p90,
+                        summary.p99, summary.max}) {
+                    html.append("</td><td>").append(format(value));
+                }
+                html.append("</td></tr>\n");
+            }
+            html.append("</table>\n");
+        }
+        html.append("</body>\n</html>\n");
+        return html.toString();
+    }
+
+    private static void appendChart(final StringBuilder html, final List<MetricsLog> logs, final String metricName) {
+        double maxX = 0.0D;
+        double minY = Double.MAX_VALUE;
+        double maxY = -Double.MAX_VALUE;
+        for (final MetricsLog log : logs) {
+            for (final MetricsLog.Record record : log.getRecords()) {
+                final Double value = record.getValues().get(metricName);
+                if (null != value && !value.isNaN() && !value.isInfinite()) {
+                    maxX = Math.max(maxX, record.getElapsedMillis() / 1000.0D);
+                    minY = Math.min(minY, value);
+                    maxY = Math.max(maxY, value);
+                }
+            }
+        }
+        if (minY > maxY) {
+            return;
+        }
+        minY = Math.min(0.0D, minY);
+        final double rangeX = maxX > 0.0D ? maxX : 1.0D;
+        final double rangeY = maxY > minY ? maxY - minY : 1.0D;
+        final int plotWidth = CHART_WIDTH - 2 * CHART_MARGIN;
+        final int plotHeight = CHART_HEIGHT - 2 * CHART_MARGIN;
+
+        html.append("<svg width=\"").append(CHART_WIDTH).append("\" height=\"").append(CHART_HEIGHT)
+                .append("\" xmlns=\"http://www.w3.org/2000/svg\" font-size=\"12\">\n")
+                .append("<rect x=\"").append(CHART_MARGIN).append("\" y=\"").append(CHART_MARGIN)
+                .append("\" width=\"").append(plotWidth).append("\" height=\"").append(plotHeight)
+                .append("\" fill=\"none\" stroke=\"#999\"/>\n")
+                .append(text(CHART_MARGIN - 5, CHART_MARGIN + 4, "end", format(maxY)))
+                .append(text(CHART_MARGIN - 5, CHART_MARGIN + plotHeight + 4, "end", format(minY)))
+                .append(text(CHART_MARGIN, CHART_MARGIN + plotHeight + 16, "start", "0"))
+                .append(text(CHART_MARGIN + plotWidth, CHART_MARGIN + plotHeight + 16, "end", format(maxX)))
+                .append(text(CHART_MARGIN + plotWidth / 2, CHART_MARGIN + plotHeight + 32, "middle",
+                        "seconds since start of run"));
+        for (int i = 0; i < logs.size(); i++) {
+            final StringBuilder points = new StringBuilder();
+            for (final MetricsLog.Record record : logs.get(i).getRecords()) {
+                final Double value = record.getValues().get(metricName);
+                if (null != value && !value.isNaN() && !value.isInfinite()) {
+                    final double x = CHART_MARGIN + plotWidth * (record.getElapsedMillis() / 1000.0D) / rangeX;
+                    final double y = CHART_MARGIN + plotHeight * (1.0D - (value - minY) / rangeY);
+                    points.append(String.format("%.1f,%.1f ", x, y));
+                }
+            }
+            if (points.length() > 0) {
+                html.append("<polyline fill=\"none\" stroke=\"").append(colour(i)).append("\" points=\"")
+                        .append(points.toString().trim()).append("\"/>\n");
+            }
+        }
+        html.append("</svg>\n");
+    }
+
+    private static String text(final int x, final int y, final String anchor, final String text) {
+        return "<text x=\"" + x + "\" y=\"" + y + "\" text-anchor=\"" + anchor + "\">" + escape(text) + "</text>\n";
+    }
+
+    static List<String> getOrderedMetricNames(final List<MetricsLog> logs) {
+        final TreeSet<String> names = new TreeSet<>();
+        logs.forEach(log -> names.addAll(log.getMetricNames()));
+        final List<String> throughput = new ArrayList<>();
+        final List<String> latency = new ArrayList<>();
+        final List<String> other = new ArrayList<>();
+        for (final String name : names) {
+            if (name.contains("per_second")) {
+                throughput.add(name);
+            } else if (name.endsWith("_ms")) {
+                latency.add(name);
+            } else {
+                other.add(name);
+            }
+        }
+        final List<String> ordered = new ArrayList<>(throughput);
+        ordered.addAll(latency);
+        ordered.addAll(other);
+        return ordered;
+    }
+
+    private static List<Double> getValues(final MetricsLog log, final String metricName) {
+        final List<Double> values = new ArrayList<>();
+        for (final MetricsLog.Record record : log.getRecords()) {
+            final Double value = record.getValues().get(metricName);
+            if (null != value && !value.isNaN()) {
+                values.add(value);
+            }
+        }
+        return values;
+    }
+
+    private static String colour(final int i) {
+        return COLOURS[i % COLOURS.length];
+    }
+
+    private static String format(final double value) {
+        return Double.isNaN(value) ? "" : String.format("%.3f", value);
+    }
+
+    private static String csv(final String value) {
+        if (value.contains(",") || value.contains("\"")) {
+            return "\"" + value.replace("\"", "\"\"") + "\"";
+        }
+        return value;
+    }
+
+    private static String escape(final String value) {
+        if (null == value) {
+            return "";
+        }
+        return value.replace("&", "&amp;").replace("<", "&lt;").replace(">", "&gt;").replace("\"", "&quot;");
+    }
+
+    /**
+     * Summary statistics of the values of a metric. The percentiles use the nearest-rank method.
+     */
+    static final class Summary {
+        final int count;
+        final double min;
+        final double mean;
+        final double p50;
+        final double p90;
+        final double p99;
+        final double max;
+
+        private Summary(final List<Double> sorted) {
+            count = sorted.size();
+            min = count > 0 ? sorted.get(0) : Double.NaN;
+            max = count > 0 ? sorted.get(count - 1) : Double.NaN;
+            mean = count > 0 ? sorted.stream().mapToDouble(Double::doubleValue).sum() / count : Double.NaN;
+            p50 = percentile(sorted, 50.0D);
+            p90 = percentile(sorted, 90.0D);
+            p99 = percentile(sorted, 99.0D);
+        }
+
+        static Summary of(final List<Double> values) {
+            final List<Double> sorted = new ArrayList<>(values);
+            Collections.sort(sorted);
+            return new Summary(sorted);
+        }
+
+        private static double percentile(final List<Double> sorted, final double percentile) {
+            if (sorted.isEmpty()) {
+                return Double.NaN;
+            }
+            final int rank = (int) Math.ceil(percentile / 100.0D * sorted.size());
+            return sorted.get(Math.max(0, rank - 1));
+        }
+    }
+
+    public static void main(final String[] args) throws IOException {
+        if (args.length < 2) {
+            throw new RuntimeException("Usage: <output_directory> <metrics_log> [<metrics_log> ...]");
+        }
+        final List<MetricsLog> logs = new ArrayList<>();
+        for (int i = 1; i < args.length; i++) {
+            logs.add(MetricsLog.read(Paths.get(args[i])));
+        }
+        final Path outputDirectory = Paths.get(args[0]);
+        generate(logs, outputDirectory);
+        LOGGER.info("Wrote report to " + outputDirectory.resolve(HTML_REPORT));
+    }
+}
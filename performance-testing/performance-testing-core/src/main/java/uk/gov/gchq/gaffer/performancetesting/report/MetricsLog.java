@@ -0,0 +1,258 @@
+/*
+ * Copyright 2019 Crown Copyright
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package uk.gov.gchq.gaffer.performancetesting.report;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import uk.gov.gchq.gaffer.performancetesting.StructuredMetricsListener;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.TreeSet;
+
+/**
+ * The contents of a file written by {@link StructuredMetricsListener}, in either of its formats.
+ */
+public class MetricsLog {
+    private String runId;
+    private long startTime;
+    private String host;
+    private final Map<String, String> properties = new TreeMap<>();
+    private final List<Record> records = new ArrayList<>();
+
+    /**
+     * Reads a log. The format is detected from the first character of the file.
+     *
+     * @param path the log file
+     * @return the log
+     * @throws IOException if the file cannot be read or is not in a recognised format
+     */
+    public static MetricsLog read(final Path path) throws IOException {
+        final MetricsLog log = new MetricsLog();
+        try (final BufferedReader reader = Files.newBufferedReader(path, StandardCharsets.UTF_8)) {
+            final List<String> lines = new ArrayList<>();
+            String line;
+            while (null != (line = reader.readLine())) {
+                if (!line.trim().isEmpty()) {
+                    lines.add(line);
+                }
+            }
+            if (lines.isEmpty()) {
+                throw new IOException("Metrics log " + path + " is empty");
+            }
+            if (lines.get(0).startsWith("{")) {
+                log.readJson(lines);
+            } else if (lines.get(0).startsWith(StructuredMetricsListener.CSV_COMMENT)) {
+                log.readCsv(lines);
+            } else {
+                throw new IOException("Metrics log " + path + " is not in a recognised format");
+            }
+        }
+        return log;
+    }
+
+    private void readJson(final List<String> lines) throws IOException {
+        final ObjectMapper mapper = new ObjectMapper();
+        for (final String line : lines) {
+            final JsonNode node = mapper.readTree(line);
+            final String recordType = node.path(StructuredMetricsListener.RECORD).asText();
+            if (StructuredMetricsListener.RUN_RECORD.equals(recordType)) {
+                runId = node.path(StructuredMetricsListener.RUN_RECORD).asText();
+                startTime = node.path(StructuredMetricsListener.START_TIME).asLong();
+                host = node.path(StructuredMetricsListener.HOST).asText();
+                final Iterator<Map.Entry<String, JsonNode>> fields
+                        = node.path(StructuredMetricsListener.PROPERTIES).fields();
+                while (fields.hasNext()) {
+                    final Map.Entry<String, JsonNode> field = fields.next();
+                    properties.put(field.getKey(), field.getValue().asText());
+                }
+            } else if (StructuredMetricsListener.METRICS_RECORD.equals(recordType)) {
+                final Map<String, Double> values = new LinkedHashMap<>();
+                final Iterator<Map.Entry<String, JsonNode>> fields
+                        = node.path(StructuredMetricsListener.METRICS).fields();
+                while (fields.hasNext()) {
+                    final Map.Entry<String, JsonNode> field = fields.next();
+                    if (field.getValue().isNumber()) {
+                        values.put(field.getKey(), field.getValue().asDouble());
+                    } else {
+                        values.put(field.getKey(), parseDouble(field.getValue().asText()));
+                    }
+                }
+                records.add(new Record(node.path(StructuredMetricsListener.TIMESTAMP).asLong(),
+                        node.path(StructuredMetricsListener.ELAPSED_MILLIS).asLong(),
+                        node.path(StructuredMetricsListener.SEQUENCE).asLong(),
+                        node.path(StructuredMetricsListener.TYPE).asText(),
+                        values));
+            }
+        }
+    }
+
+    private void readCsv(final List<String> lines) throws IOException {
+        final String propertyPrefix = StructuredMetricsListener.PROPERTIES + ".";
+        Record current = null;
+        for (final String line : lines) {
+            if (line.startsWith(StructuredMetricsListener.CSV_COMMENT)) {
+                final String comment = line.substring(StructuredMetricsListener.CSV_COMMENT.length()).trim();
+                final int equals = comment.indexOf('=');
+                if (equals < 0) {
+                    continue;
+                }
+                final String key = comment.substring(0, equals);
+                final String value = comment.substring(equals + 1);
+                if (key.startsWith(propertyPrefix)) {
+                    properties.put(key.substring(propertyPrefix.length()), value);
+                } else if (StructuredMetricsListener.RUN_RECORD.equals(key)) {
+                    runId = value;
+                } else if (StructuredMetricsListener.START_TIME.equals(key)) {
+                    startTime = Long.parseLong(value);
+                } else if (StructuredMetricsListener.HOST.equals(key)) {
+                    host = value;
+                }
+            } else if (!line.equals(StructuredMetricsListener.CSV_HEADER)) {
+                final List<String> fields = splitCsv(line);
+                if (fields.size() != 7) {
+                    throw new IOException("Expected 7 fields in line: " + line);
+                }
+                final long timestamp = Long.parseLong(fields.get(1));
+                final long sequence = Long.parseLong(fields.get(3));
+                final String type = fields.get(4);
+                // Consecutive rows with the same type and sequence number are from the same update
+                if (null == current || current.sequence != sequence || !current.type.equals(type)) {
+                    current = new Record(timestamp, Long.parseLong(fields.get(2)), sequence, type,
+                            new LinkedHashMap<>());
+                    records.add(current);
+                }
+                current.values.put(fields.get(5), parseDouble(fields.get(6)));
+            }
+        }
+    }
+
+    private static Double parseDouble(final String value) {
+        try {
+            return Double.parseDouble(value);
+        } catch (final NumberFormatException e) {
+            return Double.NaN;
+        }
+    }
+
+    static List<String> splitCsv(final String line) {
+        final List<String> fields = new ArrayList<>();
+        final StringBuilder field = new StringBuilder();
+        boolean quoted = false;
+        for (int i = 0; i < line.length(); i++) {
+            final char c = line.charAt(i);
+            if (quoted) {
+                if ('"' == c && i + 1 < line.length() && '"' == line.charAt(i + 1)) {
+                    field.append('"');
+                    i++;
+                } else if ('"' == c) {
+                    quoted = false;
+                } else {
+                    field.append(c);
+                }
+            } else if ('"' == c) {
+                quoted = true;
+            } else if (',' == c) {
+                fields.add(field.toString());
+                field.setLength(0);
+            } else {
+                field.append(c);
+            }
+        }
+        fields.add(field.toString());
+        return fields;
+    }
+
+    public String getRunId() {
+        return runId;
+    }
+
+    public long getStartTime() {
+        return startTime;
+    }
+
+    public String getHost() {
+        return host;
+    }
+
+    public Map<String, String> getProperties() {
+        return Collections.unmodifiableMap(properties);
+    }
+
+    public List<Record> getRecords() {
+        return Collections.unmodifiableList(records);
+    }
+
+    /**
+     * @return the names of all the metrics in the log, in alphabetical order
+     */
+    public TreeSet<String> getMetricNames() {
+        final TreeSet<String> names = new TreeSet<>();
+        records.forEach(record -> names.addAll(record.values.keySet()));
+        return names;
+    }
+
+    /**
+     * A single update from the log.
+     */
+    public static final class Record {
+        private final long timestamp;
+        private final long elapsedMillis;
+        private final long sequence;
+        private final String type;
+        private final Map<String, Double> values;
+
+        public Record(final long timestamp, final long elapsedMillis, final long sequence, final String type,
+                      final Map<String, Double> values) {
+            this.timestamp = timestamp;
+            this.elapsedMillis = elapsedMillis;
+            this.sequence = sequence;
+            this.type = type;
+            this.values = values;
+        }
+
+        public long getTimestamp() {
+            return timestamp;
+        }
+
+        public long getElapsedMillis() {
+            return elapsedMillis;
+        }
+
+        public long getSequence() {
+            return sequence;
+        }
+
+        public String getType() {
+            return type;
+        }
+
+        public Map<String, Double> getValues() {
+            return Collections.unmodifiableMap(values);
+        }
+    }
+}
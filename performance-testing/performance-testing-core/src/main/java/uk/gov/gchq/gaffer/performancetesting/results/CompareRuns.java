@@ -0,0 +1,233 @@
+/*
+ * Copyright 2019 Crown Copyright
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package uk.gov.gchq.gaffer.performancetesting.results;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import uk.gov.gchq.gaffer.commonutil.ToStringBuilder;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Properties;
+import java.util.Set;
+
+/**
+ * Compares the results of a candidate revision with those of a baseline revision, both taken from a
+ * {@link ResultsStore}, and reports any regressions.
+ *
+ * <p>For each metric the values from all the runs of each revision are pooled and their medians compared. Metrics whose
+ * names contain <code>per_second</code> are throughput metrics, where higher is better; metrics whose names end in
+ * <code>_ms</code> are latency metrics (e.g. the 99th percentile of the batch latency), where lower is better. A metric
+ * has regressed if its median is worse by more than the threshold percentage and a two-sided {@link MannWhitneyUTest}
+ * gives a p-value below the significance level. The exact test is used when both revisions have at most
+ * {@link MannWhitneyUTest#EXACT_MAX_SAMPLE_SIZE} values, as the normal approximation is not accurate for so few. If
+ * there are so few values that no p-value could be below the significance level (e.g. a percentile reported once per
+ * run, and only three runs of each revision) then the threshold alone is used. Other metrics are reported but never
+ * flagged.
+ */
+public final class CompareRuns {
+    public static final double DEFAULT_THRESHOLD_PERCENT = 5.0D;
+    public static final double DEFAULT_SIGNIFICANCE_LEVEL = 0.05D;
+    private static final Logger LOGGER = LoggerFactory.getLogger(CompareRuns.class);
+
+    private CompareRuns() {
+    }
+
+    public static List<Comparison> compare(final List<RunResult> baseline,
+                                           final List<RunResult> candidate,
+                                           final double thresholdPercent,
+                                           final double significanceLevel) {
+        final Set<String> metricNames = new LinkedHashSet<>();
+        baseline.forEach(result -> metricNames.addAll(result.getSamples().keySet()));
+        final List<Comparison> comparisons = new ArrayList<>();
+        for (final String metricName : metricNames) {
+            final double[] baselineValues = getValues(baseline, metricName);
+            final double[] candidateValues = getValues(candidate, metricName);
+            if (0 == baselineValues.length || 0 == candidateValues.length) {
+                continue;
+            }
+            final double baselineMedian = median(baselineValues);
+            final double candidateMedian = median(candidateValues);
+            final double changePercent = 0.0D == baselineMedian
+                    ? 0.0D
+                    : 100.0D * (candidateMedian - baselineMedian) / Math.abs(baselineMedian);
+            final double pValue = MannWhitneyUTest.getMinPValue(baselineValues.length, candidateValues.length)
+                    < significanceLevel
+                    ? MannWhitneyUTest.bestTest(baselineValues, candidateValues).getPValue()
+                    : Double.NaN;
+            final Direction direction = Direction.of(metricName);
+            final boolean worse = (Direction.HIGHER_IS_BETTER == direction && -changePercent > thresholdPercent)
+                    || (Direction.LOWER_IS_BETTER == direction && changePercent > thresholdPercent);
+            final boolean significant = Double.isNaN(pValue) || pValue < significanceLevel;
+            comparisons.add(new Comparison(metricName, baselineValues.length, candidateValues.length, baselineMedian,
+                    candidateMedian, changePercent, pValue, worse && significant));
+        }
+        return comparisons;
+    }
+
+    private static double[] getValues(final List<RunResult> results, final String metricName) {
+        return results.stream()
+                .filter(result -> result.getSamples().containsKey(metricName))
+                .flatMap(result -> result.getSamples().get(metricName).stream())
+                .filter(value -> null != value && !value.isNaN())
+                .mapToDouble(Double::doubleValue)
+                .toArray();
+    }
+
+    static double median(final double[] values) {
+        final double[] sorted = values.clone();
+        Arrays.sort(sorted);
+        final int middle = sorted.length / 2;
+        return 0 == sorted.length % 2 ? (sorted[middle - 1] + sorted[middle]) / 2.0D : sorted[middle];
+    }
+
+    /**
+     * Whether higher or lower values of a metric are better.
+     */
+    public enum Direction {
+        HIGHER_IS_BETTER,
+        LOWER_IS_BETTER,
+        UNKNOWN;
+
+        public static Direction of(final String metricName) {
+            if (metricName.contains("per_second")) {
+                return HIGHER_IS_BETTER;
+            }
+            if (metricName.endsWith("_ms")) {
+                return LOWER_IS_BETTER;
+            }
+            return UNKNOWN;
+        }
+    }
+
+    /**
+     * The comparison of one metric between the baseline and the candidate.
+     */
+    public static final class Comparison {
+        private final String metricName;
+        private final int baselineCount;
+        private final int candidateCount;
+        private final double baselineMedian;
+        private final double candidateMedian;
+        private final double changePercent;
+        private final double pValue;
+        private final boolean regression;
+
+        private Comparison(final String metricName, final int baselineCount, final int candidateCount,
+                           final double baselineMedian, final double candidateMedian, final double changePercent,
+                           final double pValue, final boolean regression) {
+            this.metricName = metricName;
+            this.baselineCount = baselineCount;
+            this.candidateCount = candidateCount;
+            this.baselineMedian = baselineMedian;
+            this.candidateMedian = candidateMedian;
+            this.changePercent = changePercent;
+            this.pValue = pValue;
+            this.regression = regression;
+        }
+
+        public String getMetricName() {
+            return metricName;
+        }
+
+        public double getBaselineMedian() {
+            return baselineMedian;
+        }
+
+        public double getCandidateMedian() {
+            return candidateMedian;
+        }
+
+        public double getChangePercent() {
+            return changePercent;
+        }
+
+        /**
+         * @return the p-value of the Mann-Whitney U test, or NaN if there were too few values for it to find one
+         */
+        public double getPValue() {
+            return pValue;
+        }
+
+        public boolean isRegression() {
+            return regression;
+        }
+
+        @Override
+        public String toString() {
+            return new ToStringBuilder(this)
+                    .append("metricName", metricName)
+                    .append("baselineCount", baselineCount)
+                    .append("candidateCount", candidateCount)
+                    .append("baselineMedian", baselineMedian)
+                    .append("candidateMedian", candidateMedian)
+                    .append("changePercent", changePercent)
+                    .append("pValue", pValue)
+                    .append("regression", regression)
+                    .build();
+        }
+    }
+
+    public static void main(final String[] args) throws IOException {
+        if (args.length < 5 || args.length > 7) {
+            throw new RuntimeException("Usage: <results_directory> <graph_id> <properties_hash|test_properties_file> "
+                    + "<baseline_revision> <candidate_revision> [<threshold_percent> [<significance_level>]]");
+        }
+        final ResultsStore store = new ResultsStore(Paths.get(args[0]));
+        final String graphId = args[1];
+        final String propertiesHash = getPropertiesHash(args[2]);
+        final double thresholdPercent = args.length > 5 ? Double.parseDouble(args[5]) : DEFAULT_THRESHOLD_PERCENT;
+        final double significanceLevel = args.length > 6 ? Double.parseDouble(args[6]) : DEFAULT_SIGNIFICANCE_LEVEL;
+        final List<RunResult> baseline = store.load(graphId, propertiesHash, args[3]);
+        final List<RunResult> candidate = store.load(graphId, propertiesHash, args[4]);
+        if (baseline.isEmpty() || candidate.isEmpty()) {
+            throw new RuntimeException("No results found for revision " + (baseline.isEmpty() ? args[3] : args[4])
+                    + " (available revisions are " + store.getRevisions(graphId, propertiesHash) + ")");
+        }
+        boolean regressed = false;
+        for (final Comparison comparison : compare(baseline, candidate, thresholdPercent, significanceLevel)) {
+            if (comparison.isRegression()) {
+                LOGGER.error("REGRESSION " + comparison);
+                regressed = true;
+            } else {
+                LOGGER.info(comparison.toString());
+            }
+        }
+        if (regressed) {
+            System.exit(1);
+        }
+    }
+
+    private static String getPropertiesHash(final String hashOrFile) throws IOException {
+        final Path path = Paths.get(hashOrFile);
+        if (!Files.isRegularFile(path)) {
+            return hashOrFile;
+        }
+        final Properties properties = new Properties();
+        try (final InputStream in = Files.newInputStream(path)) {
+            properties.load(in);
+        }
+        return RunResult.hashProperties(properties);
+    }
+}
@@ -0,0 +1,213 @@
+/*
+ * Copyright 2019 Crown Copyright
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package uk.gov.gchq.gaffer.performancetesting.results;
+
+import java.util.Arrays;
+
+/**
+ * The Mann-Whitney U test (also called the Wilcoxon rank-sum test) of whether two samples come from the same
+ * distribution. It makes no assumption about the shape of the distribution, which suits the per-batch rates of a
+ * test as they are often skewed by compactions and garbage collection.
+ *
+ * <p>The p-value of {@link #test(double[], double[])} uses the normal approximation with a correction for ties and a
+ * continuity correction, which is accurate once each sample has more than about {@link #EXACT_MAX_SAMPLE_SIZE} values.
+ * {@link #exactTest(double[], double[])} instead counts every way of dividing the ranks between the two samples, which
+ * is exact for samples of any size (including ties) but is only fast enough for small ones.
+ */
+public final class MannWhitneyUTest {
+    public static final int EXACT_MAX_SAMPLE_SIZE = 8;
+
+    private MannWhitneyUTest() {
+    }
+
+    /**
+     * Runs a two-sided test, using the normal approximation for the p-value.
+     *
+     * @param x the first sample
+     * @param y the second sample
+     * @return the result of the test
+     */
+    public static Result test(final double[] x, final double[] y) {
+        return test(x, y, false);
+    }
+
+    /**
+     * Runs a two-sided test, with the exact p-value.
+     *
+     * @param x the first sample
+     * @param y the second sample
+     * @return the result of the test
+     */
+    public static Result exactTest(final double[] x, final double[] y) {
+        return test(x, y, true);
+    }
+
+    /**
+     * Runs the test that suits the sizes of the samples: the exact test if both have at most
+     * {@link #EXACT_MAX_SAMPLE_SIZE} values, otherwise the normal approximation.
+     *
+     * @param x the first sample
+     * @param y the second sample
+     * @return the result of the test
+     */
+    public static Result bestTest(final double[] x, final double[] y) {
+        return test(x, y, x.length <= EXACT_MAX_SAMPLE_SIZE && y.length <= EXACT_MAX_SAMPLE_SIZE);
+    }
+
+    /**
+     * Returns the smallest p-value a two-sided test of samples of the given sizes can give, i.e. that of two samples
+     * with no ties in which every value of one is smaller than every value of the other. If this is not below the
+     * significance level then the test can never find a significant difference.
+     *
+     * @param n1 the number of values in the first sample
+     * @param n2 the number of values in the second sample
+     * @return the smallest possible p-value
+     */
+    public static double getMinPValue(final int n1, final int n2) {
+        // 2 / (n1 + n2 choose n1)
+        double pValue = 2.0D;
+        for (int k = 1; k <= Math.min(n1, n2); k++) {
+            pValue *= k / (double) (Math.max(n1, n2) + k);
+        }
+        return Math.min(1.0D, pValue);
+    }
+
+    private static Result test(final double[] x, final double[] y, final boolean exact) {
+        if (0 == x.length || 0 == y.length) {
+            throw new IllegalArgumentException("Both samples must contain at least one value");
+        }
+        final int n1 = x.length;
+        final int n2 = y.length;
+        final int n = n1 + n2;
+        // Sort all the values, remembering which sample each came from, and assign average ranks to ties
+        final double[][] combined = new double[n][];
+        for (int i = 0; i < n1; i++) {
+            combined[i] = new double[]{x[i], 0};
+        }
+        for (int i = 0; i < n2; i++) {
+            combined[n1 + i] = new double[]{y[i], 1};
+        }
+        Arrays.sort(combined, (a, b) -> Double.compare(a[0], b[0]));
+        double rankSumX = 0.0D;
+        double tieCorrection = 0.0D;
+        // Twice the rank of each value, which is a whole number even for the average rank of a tie
+        final int[] doubledRanks = new int[n];
+        int i = 0;
+        while (i < n) {
+            int j = i;
+            while (j + 1 < n && combined[j + 1][0] == combined[i][0]) {
+                j++;
+            }
+            final double averageRank = (i + j) / 2.0D + 1.0D;
+            for (int k = i; k <= j; k++) {
+                doubledRanks[k] = i + j + 2;
+                if (0 == combined[k][1]) {
+                    rankSumX += averageRank;
+                }
+            }
+            final double ties = j - i + 1;
+            tieCorrection += ties * ties * ties - ties;
+            i = j + 1;
+        }
+        final double u = rankSumX - n1 * (n1 + 1) / 2.0D;
+        final double mean = n1 * (double) n2 / 2.0D;
+        final double variance = n1 * (double) n2 / 12.0D * ((n + 1) - tieCorrection / ((double) n * (n - 1)));
+        if (variance <= 0.0D) {
+            // Every value is the same
+            return new Result(u, 0.0D, 1.0D);
+        }
+        final double z = Math.signum(u - mean) * Math.max(0.0D, Math.abs(u - mean) - 0.5D) / Math.sqrt(variance);
+        final double pValue = exact
+                ? exactPValue(doubledRanks, n1, (int) Math.round(2.0D * rankSumX))
+                : Math.min(1.0D, 2.0D * (1.0D - normalCdf(Math.abs(z))));
+        return new Result(u, z, pValue);
+    }
+
+    /**
+     * Returns the two-sided p-value of the rank sum of the first sample: twice the proportion of the ways of choosing
+     * its ranks from all the ranks that give a rank sum at least as extreme.
+     */
+    private static double exactPValue(final int[] doubledRanks, final int n1, final int observed) {
+        int maxSum = 0;
+        for (final int rank : doubledRanks) {
+            maxSum += rank;
+        }
+        // ways[k][s] is the number of ways of choosing k of the ranks seen so far with a (doubled) sum of s
+        final double[][] ways = new double[n1 + 1][maxSum + 1];
+        ways[0][0] = 1.0D;
+        for (final int rank : doubledRanks) {
+            for (int k = n1; k >= 1; k--) {
+                for (int sum = maxSum; sum >= rank; sum--) {
+                    ways[k][sum] += ways[k - 1][sum - rank];
+                }
+            }
+        }
+        double total = 0.0D;
+        double atMost = 0.0D;
+        double atLeast = 0.0D;
+        for (int sum = 0; sum <= maxSum; sum++) {
+            total += ways[n1][sum];
+            if (sum <= observed) {
+                atMost += ways[n1][sum];
+            }
+            if (sum >= observed) {
+                atLeast += ways[n1][sum];
+            }
+        }
+        return Math.min(1.0D, 2.0D * Math.min(atMost, atLeast) / total);
+    }
+
+    static double normalCdf(final double z) {
+        return 0.5D * (1.0D + erf(z / Math.sqrt(2.0D)));
+    }
+
+    // Abramowitz and Stegun formula 7.1.26, accurate to 1.5e-7
+    private static double erf(final double x) {
+        final double t = 1.0D / (1.0D + 0.3275911D * Math.abs(x));
+        final double y = 1.0D - (((((1.061405429D * t - 1.453152027D) * t) + 1.421413741D) * t - 0.284496736D) * t
+                + 0.254829592D) * t * Math.exp(-x * x);
+        return x >= 0.0D ? y : -y;
+    }
+
+    /**
+     * The result of a test. The U statistic is the number of pairs in which the value from the first sample is
+     * greater than the value from the second (counting ties as a half), and z is positive when the first sample tends
+     * to be larger.
+     */
+    public static final class Result {
+        private final double u;
+        private final double z;
+        private final double pValue;
+
+        private Result(final double u, final double z, final double pValue) {
+            this.u = u;
+            this.z = z;
+            this.pValue = pValue;
+        }
+
+        public double getU() {
+            return u;
+        }
+
+        public double getZ() {
+            return z;
+        }
+
+        public double getPValue() {
+            return pValue;
+        }
+    }
+}
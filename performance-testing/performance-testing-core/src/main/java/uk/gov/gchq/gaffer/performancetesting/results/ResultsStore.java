@@ -0,0 +1,116 @@
+/*
+ * Copyright 2019 Crown Copyright
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package uk.gov.gchq.gaffer.performancetesting.results;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import java.io.IOException;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.UUID;
+
+/**
+ * A store of {@link RunResult}s in a local directory. Each result is a JSON file, stored at
+ * <code>&lt;graph id&gt;/&lt;properties hash&gt;/&lt;revision&gt;/&lt;timestamp&gt;-&lt;uuid&gt;.json</code>, so that
+ * results can be looked up by graph, test properties and revision without an external database, and the store can
+ * be copied between machines or kept under version control.
+ */
+public class ResultsStore {
+    private static final ObjectMapper MAPPER = new ObjectMapper();
+    private static final String SUFFIX = ".json";
+
+    private final Path root;
+
+    public ResultsStore(final Path root) {
+        this.root = root;
+    }
+
+    /**
+     * Saves a result.
+     *
+     * @param result the result
+     * @return the path the result was written to
+     * @throws IOException if the result cannot be written
+     */
+    public Path save(final RunResult result) throws IOException {
+        final Path directory = getDirectory(result.getGraphId(), result.getPropertiesHash(), result.getRevision());
+        Files.createDirectories(directory);
+        final Path path = directory.resolve(result.getTimestamp() + "-" + UUID.randomUUID() + SUFFIX);
+        MAPPER.writeValue(path.toFile(), result);
+        return path;
+    }
+
+    /**
+     * Loads all the results of a revision, oldest first.
+     *
+     * @param graphId        the graph id
+     * @param propertiesHash the hash of the test properties
+     * @param revision       the revision
+     * @return the results, which are empty if there are none
+     * @throws IOException if a result cannot be read
+     */
+    public List<RunResult> load(final String graphId, final String propertiesHash, final String revision)
+            throws IOException {
+        final Path directory = getDirectory(graphId, propertiesHash, revision);
+        final List<RunResult> results = new ArrayList<>();
+        if (!Files.isDirectory(directory)) {
+            return results;
+        }
+        try (final DirectoryStream<Path> files = Files.newDirectoryStream(directory, "*" + SUFFIX)) {
+            for (final Path file : files) {
+                results.add(MAPPER.readValue(file.toFile(), RunResult.class));
+            }
+        }
+        results.sort(Comparator.comparingLong(RunResult::getTimestamp));
+        return results;
+    }
+
+    /**
+     * Lists the revisions that have results for the given graph and test properties.
+     *
+     * @param graphId        the graph id
+     * @param propertiesHash the hash of the test properties
+     * @return the revisions
+     * @throws IOException if the store cannot be read
+     */
+    public List<String> getRevisions(final String graphId, final String propertiesHash) throws IOException {
+        final Path directory = root.resolve(sanitise(graphId)).resolve(sanitise(propertiesHash));
+        final List<String> revisions = new ArrayList<>();
+        if (Files.isDirectory(directory)) {
+            try (final DirectoryStream<Path> subdirectories = Files.newDirectoryStream(directory,
+                    Files::isDirectory)) {
+                subdirectories.forEach(subdirectory -> revisions.add(subdirectory.getFileName().toString()));
+            }
+        }
+        revisions.sort(null);
+        return revisions;
+    }
+
+    private Path getDirectory(final String graphId, final String propertiesHash, final String revision) {
+        return root.resolve(sanitise(graphId)).resolve(sanitise(propertiesHash)).resolve(sanitise(revision));
+    }
+
+    private static String sanitise(final String name) {
+        if (null == name || name.isEmpty()) {
+            return "unknown";
+        }
+        return name.replaceAll("[^A-Za-z0-9._-]", "_");
+    }
+}
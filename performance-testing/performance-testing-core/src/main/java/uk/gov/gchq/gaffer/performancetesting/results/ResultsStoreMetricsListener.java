@@ -0,0 +1,91 @@
+/*
+ * Copyright 2019 Crown Copyright
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package uk.gov.gchq.gaffer.performancetesting.results;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import uk.gov.gchq.gaffer.commonutil.ToStringBuilder;
+import uk.gov.gchq.gaffer.performancetesting.Metrics;
+import uk.gov.gchq.gaffer.performancetesting.MetricsListener;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.Properties;
+
+/**
+ * A {@link MetricsListener} that keeps every value reported during a test and, when the test finishes, saves them as
+ * a {@link RunResult} in the {@link ResultsStore} in the directory given by the property {@link #DIRECTORY}. The
+ * result is keyed by the revision given by the property {@link #REVISION} (e.g. the output of
+ * <code>git rev-parse HEAD</code>), the graph id and a hash of the test properties. {@link CompareRuns} can then
+ * compare the results of two revisions.
+ */
+public class ResultsStoreMetricsListener implements MetricsListener {
+    public static final String PREFIX = "gaffer.performancetesting.resultsstore.";
+    public static final String DIRECTORY = PREFIX + "directory";
+    public static final String REVISION = PREFIX + "revision";
+    public static final String GRAPH_ID = "gaffer.graph.id";
+    private static final Logger LOGGER = LoggerFactory.getLogger(ResultsStoreMetricsListener.class);
+
+    private ResultsStore store;
+    private RunResult result;
+
+    public ResultsStoreMetricsListener() {
+    }
+
+    @Override
+    public void initialise(final Properties properties) {
+        if (!properties.containsKey(DIRECTORY)) {
+            throw new IllegalArgumentException("Properties should contain the directory of the results store "
+                    + "(property " + DIRECTORY + ")");
+        }
+        store = new ResultsStore(Paths.get(properties.getProperty(DIRECTORY)));
+        result = new RunResult(properties.getProperty(REVISION, "unknown"), properties.getProperty(GRAPH_ID),
+                RunResult.hashProperties(properties), System.currentTimeMillis());
+    }
+
+    @Override
+    public synchronized void update(final Metrics metrics) {
+        for (final String metricName : metrics.getMetricNames()) {
+            final Object value = metrics.getMetric(metricName);
+            if (value instanceof Double) {
+                result.addSample(metricName, (Double) value);
+            }
+        }
+    }
+
+    @Override
+    public synchronized void close() {
+        try {
+            final Path path = store.save(result);
+            LOGGER.info("Saved results of revision {} to {}", result.getRevision(), path);
+        } catch (final IOException e) {
+            throw new RuntimeException("IOException saving results to results store", e);
+        }
+    }
+
+    public RunResult getResult() {
+        return result;
+    }
+
+    @Override
+    public String toString() {
+        return new ToStringBuilder(this)
+                .append("result", result)
+                .build();
+    }
+}
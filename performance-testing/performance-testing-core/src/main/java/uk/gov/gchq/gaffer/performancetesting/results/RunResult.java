@@ -0,0 +1,140 @@
+/*
+ * Copyright 2019 Crown Copyright
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package uk.gov.gchq.gaffer.performancetesting.results;
+
+import uk.gov.gchq.gaffer.commonutil.ToStringBuilder;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Properties;
+import java.util.TreeMap;
+
+/**
+ * The results of a single run of a test: every value reported for each metric (e.g. the rate of each batch), together
+ * with the git revision that was tested, the graph id and a hash of the test properties. Runs with the same graph id
+ * and properties hash are comparable.
+ */
+public class RunResult {
+    private String revision;
+    private String graphId;
+    private String propertiesHash;
+    private long timestamp;
+    private Map<String, List<Double>> samples = new LinkedHashMap<>();
+
+    public RunResult() {
+    }
+
+    public RunResult(final String revision, final String graphId, final String propertiesHash,
+                     final long timestamp) {
+        this.revision = revision;
+        this.graphId = graphId;
+        this.propertiesHash = propertiesHash;
+        this.timestamp = timestamp;
+    }
+
+    /**
+     * Returns a hash of the properties that affect the results of a test. Properties that only configure where the
+     * results are sent (those whose names contain "metricslistener", ignoring case, or start with
+     * {@link ResultsStoreMetricsListener#PREFIX}) and properties whose names contain "password" are ignored.
+     *
+     * @param properties the test properties
+     * @return the first 16 hex characters of the SHA-256 hash of the properties
+     */
+    public static String hashProperties(final Properties properties) {
+        final Map<String, String> sorted = new TreeMap<>();
+        for (final String key : properties.stringPropertyNames()) {
+            final String lowerCaseKey = key.toLowerCase();
+            if (!lowerCaseKey.contains("password") && !lowerCaseKey.contains("metricslistener")
+                    && !key.startsWith(ResultsStoreMetricsListener.PREFIX)) {
+                sorted.put(key, properties.getProperty(key));
+            }
+        }
+        final MessageDigest digest;
+        try {
+            digest = MessageDigest.getInstance("SHA-256");
+        } catch (final NoSuchAlgorithmException e) {
+            throw new RuntimeException("SHA-256 is not available", e);
+        }
+        for (final Map.Entry<String, String> entry : sorted.entrySet()) {
+            digest.update((entry.getKey() + "=" + entry.getValue() + "\n").getBytes(StandardCharsets.UTF_8));
+        }
+        final StringBuilder hash = new StringBuilder();
+        for (final byte b : digest.digest()) {
+            hash.append(String.format("%02x", b));
+        }
+        return hash.substring(0, 16);
+    }
+
+    public void addSample(final String metricName, final double value) {
+        samples.computeIfAbsent(metricName, k -> new ArrayList<>()).add(value);
+    }
+
+    public String getRevision() {
+        return revision;
+    }
+
+    public void setRevision(final String revision) {
+        this.revision = revision;
+    }
+
+    public String getGraphId() {
+        return graphId;
+    }
+
+    public void setGraphId(final String graphId) {
+        this.graphId = graphId;
+    }
+
+    public String getPropertiesHash() {
+        return propertiesHash;
+    }
+
+    public void setPropertiesHash(final String propertiesHash) {
+        this.propertiesHash = propertiesHash;
+    }
+
+    public long getTimestamp() {
+        return timestamp;
+    }
+
+    public void setTimestamp(final long timestamp) {
+        this.timestamp = timestamp;
+    }
+
+    public Map<String, List<Double>> getSamples() {
+        return samples;
+    }
+
+    public void setSamples(final Map<String, List<Double>> samples) {
+        this.samples = samples;
+    }
+
+    @Override
+    public String toString() {
+        return new ToStringBuilder(this)
+                .append("revision", revision)
+                .append("graphId", graphId)
+                .append("propertiesHash", propertiesHash)
+                .append("timestamp", timestamp)
+                .append("metrics", samples.keySet())
+                .build();
+    }
+}
@@ -0,0 +1,51 @@
+/*
+ * Copyright 2019 Crown Copyright
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package uk.gov.gchq.gaffer.performancetesting.scenario;
+
+import com.fasterxml.jackson.annotation.JsonCreator;
+import com.fasterxml.jackson.annotation.JsonValue;
+
+/**
+ * The types of operation that a {@link WorkloadOperation} can run. In a workload file each type is given by the
+ * simple name of the Gaffer operation, e.g. <code>GetAdjacentIds</code>.
+ */
+public enum OperationType {
+    ADD_ELEMENTS("AddElements"),
+    GET_ELEMENTS("GetElements"),
+    GET_ADJACENT_IDS("GetAdjacentIds"),
+    GET_ALL_ELEMENTS("GetAllElements");
+
+    private final String operationName;
+
+    OperationType(final String operationName) {
+        this.operationName = operationName;
+    }
+
+    @JsonValue
+    public String getOperationName() {
+        return operationName;
+    }
+
+    @JsonCreator
+    public static OperationType fromOperationName(final String operationName) {
+        for (final OperationType type : values()) {
+            if (type.operationName.equals(operationName) || type.name().equals(operationName)) {
+                return type;
+            }
+        }
+        throw new IllegalArgumentException("Unknown operation type " + operationName);
+    }
+}
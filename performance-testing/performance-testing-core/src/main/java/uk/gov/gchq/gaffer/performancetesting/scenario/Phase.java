@@ -0,0 +1,127 @@
+/*
+ * Copyright 2019 Crown Copyright
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package uk.gov.gchq.gaffer.performancetesting.scenario;
+
+import uk.gov.gchq.gaffer.commonutil.ToStringBuilder;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * A period of a {@link Workload} during which a mix of operations runs concurrently. Phases start at an offset from
+ * the start of the scenario, so they can run one after another or overlap.
+ *
+ * <p>If the phase has a target rate then it is shared between those of its operations that do not have their own
+ * target rate, in proportion to their weights. Operations without a target rate run as fast as their threads allow.
+ */
+public class Phase {
+    private String name;
+    private long startSeconds = 0L;
+    private long durationSeconds;
+    private Double targetOperationsPerSecond;
+    private List<WorkloadOperation> operations = new ArrayList<>();
+
+    public String getName() {
+        return name;
+    }
+
+    public void setName(final String name) {
+        this.name = name;
+    }
+
+    public long getStartSeconds() {
+        return startSeconds;
+    }
+
+    public void setStartSeconds(final long startSeconds) {
+        this.startSeconds = startSeconds;
+    }
+
+    public long getDurationSeconds() {
+        return durationSeconds;
+    }
+
+    public void setDurationSeconds(final long durationSeconds) {
+        this.durationSeconds = durationSeconds;
+    }
+
+    public Double getTargetOperationsPerSecond() {
+        return targetOperationsPerSecond;
+    }
+
+    public void setTargetOperationsPerSecond(final Double targetOperationsPerSecond) {
+        this.targetOperationsPerSecond = targetOperationsPerSecond;
+    }
+
+    public List<WorkloadOperation> getOperations() {
+        return operations;
+    }
+
+    public void setOperations(final List<WorkloadOperation> operations) {
+        this.operations = operations;
+    }
+
+    /**
+     * Returns the target rate of the given operation: its own target rate if it has one, otherwise its share of the
+     * target rate of this phase, or null if neither has a target rate.
+     *
+     * @param operation one of the operations of this phase
+     * @return the target number of operations per second, or null if the operation is not throttled
+     */
+    public Double getTargetOperationsPerSecond(final WorkloadOperation operation) {
+        if (null != operation.getTargetOperationsPerSecond()) {
+            return operation.getTargetOperationsPerSecond();
+        }
+        if (null == targetOperationsPerSecond) {
+            return null;
+        }
+        final double totalWeight = operations.stream()
+                .filter(o -> null == o.getTargetOperationsPerSecond())
+                .mapToDouble(WorkloadOperation::getWeight)
+                .sum();
+        return targetOperationsPerSecond * operation.getWeight() / totalWeight;
+    }
+
+    void validate() {
+        if (null == name || name.isEmpty()) {
+            throw new IllegalArgumentException("Every phase must have a name");
+        }
+        if (startSeconds < 0L) {
+            throw new IllegalArgumentException("The start of phase " + name + " must not be negative");
+        }
+        if (durationSeconds <= 0L) {
+            throw new IllegalArgumentException("The duration of phase " + name + " must be greater than 0");
+        }
+        if (null != targetOperationsPerSecond && targetOperationsPerSecond <= 0.0D) {
+            throw new IllegalArgumentException("The target rate of phase " + name + " must be greater than 0");
+        }
+        if (null == operations || operations.isEmpty()) {
+            throw new IllegalArgumentException("Phase " + name + " must have at least one operation");
+        }
+        operations.forEach(operation -> operation.validate(this));
+    }
+
+    @Override
+    public String toString() {
+        return new ToStringBuilder(this)
+                .append("name", name)
+                .append("startSeconds", startSeconds)
+                .append("durationSeconds", durationSeconds)
+                .append("targetOperationsPerSecond", targetOperationsPerSecond)
+                .append("operations", operations)
+                .build();
+    }
+}
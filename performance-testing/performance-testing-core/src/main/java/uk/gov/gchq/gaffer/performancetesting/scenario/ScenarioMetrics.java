@@ -0,0 +1,71 @@
+/*
+ * Copyright 2019 Crown Copyright
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package uk.gov.gchq.gaffer.performancetesting.scenario;
+
+import uk.gov.gchq.gaffer.performancetesting.LatencyHistogram;
+import uk.gov.gchq.gaffer.performancetesting.LatencyMetrics;
+
+/**
+ * The results of the operations of a {@link ScenarioRunner} over one reporting interval, or over the whole scenario.
+ * All the operations that were running are reported together, against the time since the start of the scenario, so
+ * the latency of queries can be seen next to the rate of ingest at the same time.
+ *
+ * <p>The name of each metric of an operation is the name of the operation followed by the name of the statistic,
+ * e.g. <code>ingest_GetElements_operations_per_second</code> or <code>ingest_GetElements_latency_p99_ms</code>. The
+ * number of items per second is the number of elements added or results returned per second.
+ */
+public class ScenarioMetrics extends LatencyMetrics {
+    public static final String ELAPSED_SECONDS = "elapsed_seconds";
+    public static final String OPERATIONS_PER_SECOND = "operations_per_second";
+    public static final String ITEMS_PER_SECOND = "items_per_second";
+    public static final String ERRORS = "errors";
+    public static final String LATENCY = "latency";
+
+    public ScenarioMetrics(final double elapsedSeconds) {
+        addMetricName(ELAPSED_SECONDS);
+        putMetric(ELAPSED_SECONDS, elapsedSeconds);
+    }
+
+    /**
+     * Adds the results of an operation to these metrics.
+     *
+     * @param operationName     the name of the operation
+     * @param durationInSeconds the time over which the results were recorded
+     * @param numOperations     the number of operations that completed
+     * @param numItems          the number of elements added or results returned
+     * @param numErrors         the number of operations that failed
+     * @param latencies         the latencies, in microseconds, of the operations that completed
+     * @return this object
+     */
+    public ScenarioMetrics addOperation(final String operationName,
+                                        final double durationInSeconds,
+                                        final long numOperations,
+                                        final long numItems,
+                                        final long numErrors,
+                                        final LatencyHistogram latencies) {
+        putOperationMetric(operationName, OPERATIONS_PER_SECOND, numOperations / durationInSeconds);
+        putOperationMetric(operationName, ITEMS_PER_SECOND, numItems / durationInSeconds);
+        putOperationMetric(operationName, ERRORS, (double) numErrors);
+        addHistogram(getMetricName(operationName, LATENCY), latencies);
+        return this;
+    }
+
+    private void putOperationMetric(final String operationName, final String statistic, final double value) {
+        final String metricName = getMetricName(operationName, statistic);
+        addMetricName(metricName);
+        putMetric(metricName, value);
+    }
+}
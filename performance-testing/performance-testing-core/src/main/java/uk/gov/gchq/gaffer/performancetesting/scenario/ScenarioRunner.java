@@ -0,0 +1,475 @@
+/*
+ * Copyright 2019 Crown Copyright
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package uk.gov.gchq.gaffer.performancetesting.scenario;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import uk.gov.gchq.gaffer.commonutil.iterable.CloseableIterable;
+import uk.gov.gchq.gaffer.data.element.Element;
+import uk.gov.gchq.gaffer.data.element.id.EntityId;
+import uk.gov.gchq.gaffer.data.elementdefinition.view.View;
+import uk.gov.gchq.gaffer.graph.Graph;
+import uk.gov.gchq.gaffer.operation.OperationException;
+import uk.gov.gchq.gaffer.operation.data.ElementSeed;
+import uk.gov.gchq.gaffer.operation.impl.add.AddElements;
+import uk.gov.gchq.gaffer.operation.impl.get.GetAdjacentIds;
+import uk.gov.gchq.gaffer.operation.impl.get.GetAllElements;
+import uk.gov.gchq.gaffer.operation.impl.get.GetElements;
+import uk.gov.gchq.gaffer.performancetesting.LatencyHistogram;
+import uk.gov.gchq.gaffer.performancetesting.Metrics;
+import uk.gov.gchq.gaffer.performancetesting.MetricsListener;
+import uk.gov.gchq.gaffer.performancetesting.RateLimiter;
+import uk.gov.gchq.gaffer.performancetesting.TestProperties;
+import uk.gov.gchq.gaffer.performancetesting.ingest.ElementIngestTest;
+import uk.gov.gchq.gaffer.performancetesting.ingest.ElementIngestTestProperties;
+import uk.gov.gchq.gaffer.performancetesting.query.QueryTest;
+import uk.gov.gchq.gaffer.performancetesting.query.QueryTestProperties;
+import uk.gov.gchq.gaffer.performancetesting.query.QueryType;
+import uk.gov.gchq.gaffer.store.StoreProperties;
+import uk.gov.gchq.gaffer.store.schema.Schema;
+import uk.gov.gchq.gaffer.user.User;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.LockSupport;
+import java.util.function.Supplier;
+
+/**
+ * Runs a mixed read/write {@link Workload} against a {@link Graph}, e.g. queries while elements are being added, which
+ * the {@link ElementIngestTest} and {@link QueryTest} cannot do on their own.
+ *
+ * <p>Every {@link WorkloadOperation} of every {@link Phase} has its own pool of threads. From the start of its phase
+ * until the end, each thread prepares an operation in memory (generating the elements to add or the seeds to query
+ * for, in the same way as the ingest and query tests), waits for the operation's {@link RateLimiter} if it has a
+ * target rate, and then runs and times the operation. If it has a target rate, the operations are sent on a fixed
+ * schedule and each is timed from its scheduled start, as in an open-loop {@link QueryTest}, so that operations
+ * delayed by slow ones before them are not left out of the latencies. A failed operation is counted and logged, but
+ * does not stop the scenario.
+ *
+ * <p>Every reporting interval, the throughput and latency percentiles of each operation that was running are sent to
+ * the {@link MetricsListener} in a single {@link ScenarioMetrics}, against the time since the start of the scenario.
+ * At the end a final {@link ScenarioMetrics} gives the results of each operation over its whole phase.
+ */
+public class ScenarioRunner {
+    private static final Logger LOGGER = LoggerFactory.getLogger(ScenarioRunner.class);
+    private static final ObjectMapper MAPPER = new ObjectMapper();
+
+    private final Graph graph;
+    private final Workload workload;
+    private MetricsListener metricsListener;
+    private long startTimeInNanos;
+
+    public ScenarioRunner(final Graph graph, final Workload workload) {
+        this.graph = graph;
+        this.workload = workload;
+        workload.validate();
+        final TestProperties testProperties = createTestProperties(new TestProperties(), 1);
+        if (null != testProperties.getMetricsListenerClass()) {
+            try {
+                metricsListener = Class.forName(testProperties.getMetricsListenerClass())
+                        .asSubclass(MetricsListener.class).newInstance();
+                metricsListener.initialise(testProperties);
+                LOGGER.info("Initialised MetricsListener of {}", metricsListener);
+            } catch (final ClassNotFoundException | InstantiationException | IllegalAccessException e) {
+                throw new IllegalArgumentException("MetricsListener could not be created: "
+                        + testProperties.getMetricsListenerClass(), e);
+            }
+        }
+    }
+
+    /**
+     * Runs every phase of the workload and waits for them all to finish.
+     *
+     * @return the results of each operation over its whole phase
+     */
+    public ScenarioMetrics run() {
+        final List<OperationRunner> operationRunners = new ArrayList<>();
+        for (final Phase phase : workload.getPhases()) {
+            for (final WorkloadOperation operation : phase.getOperations()) {
+                operationRunners.add(new OperationRunner(phase, operation));
+            }
+        }
+        final int numThreads = operationRunners.stream().mapToInt(runner -> runner.operation.getThreads()).sum();
+        final ExecutorService executorService = Executors.newFixedThreadPool(numThreads);
+        final ScheduledExecutorService reporter = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            final Thread thread = new Thread(runnable, "scenario-reporter");
+            thread.setDaemon(true);
+            return thread;
+        });
+        LOGGER.info("Running scenario of " + workload.getPhases().size() + " phase(s) and "
+                + operationRunners.size() + " operation(s) on " + numThreads + " thread(s)");
+        startTimeInNanos = System.nanoTime();
+        final long intervalMillis = TimeUnit.SECONDS.toMillis(workload.getReportingIntervalSeconds());
+        final AtomicLong lastReportNanos = new AtomicLong(startTimeInNanos);
+        reporter.scheduleAtFixedRate(() -> reportInterval(operationRunners, lastReportNanos), intervalMillis,
+                intervalMillis, TimeUnit.MILLISECONDS);
+        try {
+            final List<Callable<Void>> workers = new ArrayList<>();
+            for (final OperationRunner operationRunner : operationRunners) {
+                for (int i = 0; i < operationRunner.operation.getThreads(); i++) {
+                    workers.add(operationRunner.createWorker(i));
+                }
+            }
+            for (final Future<Void> future : executorService.invokeAll(workers)) {
+                future.get();
+            }
+        } catch (final InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new RuntimeException("Interrupted running scenario", e);
+        } catch (final ExecutionException e) {
+            throw new RuntimeException("Exception thrown running scenario", e.getCause());
+        } finally {
+            executorService.shutdownNow();
+            reporter.shutdownNow();
+            try {
+                reporter.awaitTermination(intervalMillis, TimeUnit.MILLISECONDS);
+            } catch (final InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }
+        // Report the final partial interval, then the whole scenario
+        reportInterval(operationRunners, lastReportNanos);
+        final ScenarioMetrics summary = new ScenarioMetrics(elapsedSeconds());
+        for (final OperationRunner operationRunner : operationRunners) {
+            operationRunner.addSummary(summary);
+        }
+        update(summary);
+        if (null != metricsListener) {
+            metricsListener.close();
+        }
+        return summary;
+    }
+
+    private synchronized void reportInterval(final List<OperationRunner> operationRunners,
+                                             final AtomicLong lastReportNanos) {
+        final long now = System.nanoTime();
+        final double durationInSeconds = (now - lastReportNanos.getAndSet(now)) / 1.0E9;
+        if (durationInSeconds <= 0.0D) {
+            return;
+        }
+        final ScenarioMetrics metrics = new ScenarioMetrics(elapsedSeconds());
+        boolean anyActive = false;
+        for (final OperationRunner operationRunner : operationRunners) {
+            anyActive |= operationRunner.addInterval(metrics, durationInSeconds);
+        }
+        if (anyActive) {
+            update(metrics);
+        }
+    }
+
+    private double elapsedSeconds() {
+        return (System.nanoTime() - startTimeInNanos) / 1.0E9;
+    }
+
+    private <T extends TestProperties> T createTestProperties(final T testProperties, final int batchSize) {
+        testProperties.putAll(workload.getProperties());
+        testProperties.setBatchSize(batchSize);
+        return testProperties;
+    }
+
+    private void update(final Metrics metrics) {
+        if (null != metricsListener) {
+            synchronized (metricsListener) {
+                metricsListener.update(metrics);
+            }
+        }
+    }
+
+    private static void waitUntil(final long nanoTime) {
+        long remaining = nanoTime - System.nanoTime();
+        while (remaining > 0L) {
+            LockSupport.parkNanos(remaining);
+            remaining = nanoTime - System.nanoTime();
+        }
+    }
+
+    /**
+     * An operation that has been prepared in memory and is ready to be timed.
+     */
+    private interface PreparedOperation {
+        /**
+         * @return the number of elements added or results returned
+         * @throws OperationException if the operation fails
+         */
+        long execute() throws OperationException;
+    }
+
+    /**
+     * Runs one {@link WorkloadOperation} on its threads and records its results, both over the current reporting
+     * interval and over its whole phase.
+     */
+    private final class OperationRunner {
+        private final WorkloadOperation operation;
+        private final String name;
+        private final long startNanos;
+        private final long endNanos;
+        private final RateLimiter rateLimiter;
+        private final View view;
+        private final ElementIngestTest.ElementSupplierFactory elementSupplierFactory;
+        private final QueryTest.ElementIdSupplierFactory elementIdSupplierFactory;
+        private final boolean reproducible;
+        private final AtomicLong nextEdge = new AtomicLong(0L);
+        private final LatencyHistogram intervalLatencies = new LatencyHistogram();
+        private final LatencyHistogram totalLatencies = new LatencyHistogram();
+        private long intervalOperations = 0L;
+        private long intervalItems = 0L;
+        private long intervalErrors = 0L;
+        private long totalOperations = 0L;
+        private long totalItems = 0L;
+        private long totalErrors = 0L;
+        private long firstStartNanos = Long.MAX_VALUE;
+        private long lastEndNanos = Long.MIN_VALUE;
+
+        private OperationRunner(final Phase phase, final WorkloadOperation operation) {
+            this.operation = operation;
+            this.name = operation.getName(phase);
+            this.startNanos = TimeUnit.SECONDS.toNanos(phase.getStartSeconds());
+            this.endNanos = startNanos + TimeUnit.SECONDS.toNanos(phase.getDurationSeconds());
+            final Double targetRate = phase.getTargetOperationsPerSecond(operation);
+            this.rateLimiter = null == targetRate ? null : new RateLimiter(targetRate);
+            this.view = createView(operation);
+            final ElementIngestTestProperties ingestProperties
+                    = createTestProperties(new ElementIngestTestProperties(), operation.getBatchSize());
+            this.reproducible = null != ingestProperties.getSeed();
+            this.elementSupplierFactory = new ElementIngestTest.ElementSupplierFactory(ingestProperties);
+            this.elementIdSupplierFactory = new QueryTest.ElementIdSupplierFactory(
+                    createTestProperties(new QueryTestProperties(), operation.getBatchSize()), graph.getSchema());
+            LOGGER.info("Operation " + name + ": " + operation.getThreads() + " thread(s)"
+                    + (null == targetRate ? "" : " at a target rate of " + targetRate + " per second"));
+        }
+
+        private View createView(final WorkloadOperation operation) {
+            if (null == operation.getView()) {
+                return null;
+            }
+            try {
+                return View.fromJson(MAPPER.writeValueAsBytes(operation.getView()));
+            } catch (final IOException e) {
+                throw new IllegalArgumentException("The view of " + name + " is not valid", e);
+            }
+        }
+
+        /**
+         * Creates a worker thread. Each of the operation's threads queries for its own sequence of seeds, so that
+         * the threads do not send the same queries in lockstep.
+         *
+         * @param thread the index of the thread, from 0 to one less than the number of threads
+         * @return the worker
+         */
+        private Callable<Void> createWorker(final int thread) {
+            return () -> {
+                final Supplier<Element> elementSupplier
+                        = OperationType.ADD_ELEMENTS == operation.getType() && !reproducible
+                        ? elementSupplierFactory.get()
+                        : null;
+                final Supplier<? extends ElementSeed> seedSupplier
+                        = OperationType.GET_ELEMENTS == operation.getType()
+                        || OperationType.GET_ADJACENT_IDS == operation.getType()
+                        ? elementIdSupplierFactory.get(thread, operation.getThreads())
+                        : null;
+                waitUntil(startTimeInNanos + startNanos);
+                while (!isFinished()) {
+                    final PreparedOperation prepared = prepare(elementSupplier, seedSupplier);
+                    // An operation with a target rate is timed from when it was scheduled to start, so that the time
+                    // it spent waiting behind slower operations is included in its latency
+                    final long startTime;
+                    if (null != rateLimiter) {
+                        startTime = rateLimiter.acquireScheduled(1L);
+                        if (isFinished()) {
+                            break;
+                        }
+                    } else {
+                        startTime = System.nanoTime();
+                    }
+                    try {
+                        final long numItems = prepared.execute();
+                        record(startTime, System.nanoTime(), numItems);
+                    } catch (final OperationException e) {
+                        recordError(startTime, System.nanoTime());
+                        LOGGER.warn("Operation " + name + " failed after " + (System.nanoTime() - startTime) / 1.0E9
+                                + " seconds", e);
+                    }
+                }
+                return null;
+            };
+        }
+
+        private boolean isFinished() {
+            return System.nanoTime() - (startTimeInNanos + endNanos) >= 0L;
+        }
+
+        private PreparedOperation prepare(final Supplier<Element> elementSupplier,
+                                          final Supplier<? extends ElementSeed> seedSupplier) {
+            final int batchSize = operation.getBatchSize();
+            switch (operation.getType()) {
+                case ADD_ELEMENTS:
+                    final List<Element> elements;
+                    if (null != elementSupplier) {
+                        elements = new ArrayList<>(batchSize);
+                        for (int i = 0; i < batchSize; i++) {
+                            elements.add(elementSupplier.get());
+                        }
+                    } else {
+                        final long edgesPerBatch = elementSupplierFactory.getEdgesPerBatch(batchSize);
+                        final long firstEdge = nextEdge.getAndAdd(edgesPerBatch);
+                        elements = elementSupplierFactory.getElementsOfEdges(firstEdge, firstEdge + edgesPerBatch);
+                    }
+                    final AddElements addElements = new AddElements.Builder()
+                            .input(elements)
+                            .validate(false)
+                            .build();
+                    return () -> {
+                        graph.execute(addElements, new User());
+                        return elements.size();
+                    };
+                case GET_ELEMENTS:
+                    final List<ElementSeed> seeds = new ArrayList<>(batchSize);
+                    for (int i = 0; i < batchSize; i++) {
+                        seeds.add(seedSupplier.get());
+                    }
+                    final GetElements getElements = new GetElements.Builder()
+                            .input(seeds)
+                            .view(view)
+                            .directedType(operation.getDirectedType())
+                            .build();
+                    return () -> count(graph.execute(getElements, new User()));
+                case GET_ADJACENT_IDS:
+                    final List<EntityId> vertices = new ArrayList<>(batchSize);
+                    for (int i = 0; i < batchSize; i++) {
+                        vertices.add(QueryType.toEntityId(seedSupplier.get()));
+                    }
+                    final GetAdjacentIds getAdjacentIds = new GetAdjacentIds.Builder()
+                            .input(vertices)
+                            .view(view)
+                            .directedType(operation.getDirectedType())
+                            .build();
+                    return () -> count(graph.execute(getAdjacentIds, new User()));
+                case GET_ALL_ELEMENTS:
+                    final GetAllElements getAllElements = new GetAllElements.Builder()
+                            .view(view)
+                            .directedType(operation.getDirectedType())
+                            .build();
+                    return () -> count(graph.execute(getAllElements, new User()));
+                default:
+                    throw new IllegalArgumentException("Unknown operation type " + operation.getType());
+            }
+        }
+
+        /**
+         * Reads the results of a query, up to the maximum number of results, and closes them.
+         */
+        private long count(final CloseableIterable<?> results) {
+            final Long maxResults = operation.getMaxResults();
+            long numResults = 0L;
+            try {
+                for (final Object ignored : results) {
+                    numResults++;
+                    if (null != maxResults && numResults >= maxResults) {
+                        break;
+                    }
+                }
+            } finally {
+                results.close();
+            }
+            return numResults;
+        }
+
+        private synchronized void record(final long startTime, final long endTime, final long numItems) {
+            final long durationInMicros = TimeUnit.NANOSECONDS.toMicros(endTime - startTime);
+            intervalLatencies.recordValue(durationInMicros);
+            totalLatencies.recordValue(durationInMicros);
+            intervalOperations++;
+            intervalItems += numItems;
+            totalOperations++;
+            totalItems += numItems;
+            firstStartNanos = Math.min(firstStartNanos, startTime);
+            lastEndNanos = Math.max(lastEndNanos, endTime);
+        }
+
+        private synchronized void recordError(final long startTime, final long endTime) {
+            intervalErrors++;
+            totalErrors++;
+            firstStartNanos = Math.min(firstStartNanos, startTime);
+            lastEndNanos = Math.max(lastEndNanos, endTime);
+        }
+
+        /**
+         * Adds the results of the interval that has just ended, if this operation was running during it, and starts
+         * a new interval.
+         *
+         * @return whether the results were added
+         */
+        private synchronized boolean addInterval(final ScenarioMetrics metrics, final double durationInSeconds) {
+            if (0L == intervalOperations && 0L == intervalErrors) {
+                return false;
+            }
+            metrics.addOperation(name, durationInSeconds, intervalOperations, intervalItems, intervalErrors,
+                    intervalLatencies);
+            LOGGER.info("Operation " + name + ": " + intervalOperations / durationInSeconds + " operations per second, "
+                    + intervalItems / durationInSeconds + " items per second, " + intervalErrors + " error(s), p99 = "
+                    + intervalLatencies.getValueAtPercentile(99.0D) / 1000.0 + "ms");
+            intervalLatencies.reset();
+            intervalOperations = 0L;
+            intervalItems = 0L;
+            intervalErrors = 0L;
+            return true;
+        }
+
+        private synchronized void addSummary(final ScenarioMetrics metrics) {
+            final double durationInSeconds = lastEndNanos > firstStartNanos
+                    ? (lastEndNanos - firstStartNanos) / 1.0E9
+                    : 0.0D;
+            if (durationInSeconds <= 0.0D) {
+                LOGGER.info("Operation " + name + " did not complete");
+                return;
+            }
+            LOGGER.info("Operation " + name + " result: " + totalOperations + " operations (" + totalErrors
+                    + " failed) and " + totalItems + " items in " + durationInSeconds + " seconds, p50 = "
+                    + totalLatencies.getValueAtPercentile(50.0D) / 1000.0 + "ms, p99 = "
+                    + totalLatencies.getValueAtPercentile(99.0D) / 1000.0 + "ms");
+            metrics.addOperation(name, durationInSeconds, totalOperations, totalItems, totalErrors, totalLatencies);
+        }
+    }
+
+    public static void main(final String[] args) throws IOException {
+        if (args.length != 3) {
+            throw new RuntimeException("Usage: <schema_directory> <store_properties_file> <workload_file>");
+        }
+        final Schema schema = Schema.fromJson(new File(args[0]).toPath());
+        final StoreProperties storeProperties = StoreProperties.loadStoreProperties(args[1]);
+        final Workload workload = Workload.fromJson(new File(args[2]).toPath());
+        final TestProperties testProperties = new TestProperties();
+        testProperties.putAll(workload.getProperties());
+        final Graph graph = new Graph.Builder()
+                .graphId(testProperties.getGraphId())
+                .storeProperties(storeProperties)
+                .addSchema(schema)
+                .build();
+        new ScenarioRunner(graph, workload).run();
+    }
+}
@@ -0,0 +1,114 @@
+/*
+ * Copyright 2019 Crown Copyright
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package uk.gov.gchq.gaffer.performancetesting.scenario;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import uk.gov.gchq.gaffer.commonutil.ToStringBuilder;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * A mixed read/write scenario for a {@link ScenarioRunner}, read from a JSON workload file. The workload consists of
+ * one or more {@link Phase}s, each of which runs a mix of {@link WorkloadOperation}s for a fixed duration.
+ *
+ * <p>The properties are test properties, as used by the
+ * {@link uk.gov.gchq.gaffer.performancetesting.ingest.ElementIngestTest} and
+ * {@link uk.gov.gchq.gaffer.performancetesting.query.QueryTest}. They configure how elements and seeds are generated
+ * (or read from a corpus), the graph id and the metrics listener.
+ */
+public class Workload {
+    private static final ObjectMapper MAPPER = new ObjectMapper();
+
+    private Map<String, String> properties = new LinkedHashMap<>();
+    private long reportingIntervalSeconds = 10L;
+    private List<Phase> phases = new ArrayList<>();
+
+    public static Workload fromJson(final Path path) throws IOException {
+        final Workload workload = MAPPER.readValue(path.toFile(), Workload.class);
+        workload.validate();
+        return workload;
+    }
+
+    public static Workload fromJson(final byte[] json) throws IOException {
+        final Workload workload = MAPPER.readValue(json, Workload.class);
+        workload.validate();
+        return workload;
+    }
+
+    public Map<String, String> getProperties() {
+        return properties;
+    }
+
+    public void setProperties(final Map<String, String> properties) {
+        this.properties = properties;
+    }
+
+    public long getReportingIntervalSeconds() {
+        return reportingIntervalSeconds;
+    }
+
+    public void setReportingIntervalSeconds(final long reportingIntervalSeconds) {
+        this.reportingIntervalSeconds = reportingIntervalSeconds;
+    }
+
+    public List<Phase> getPhases() {
+        return phases;
+    }
+
+    public void setPhases(final List<Phase> phases) {
+        this.phases = phases;
+    }
+
+    /**
+     * Checks that the workload can be run: there is at least one phase, each phase and operation is valid, and no
+     * two operations have the same name.
+     */
+    public void validate() {
+        if (reportingIntervalSeconds <= 0L) {
+            throw new IllegalArgumentException("The reporting interval must be greater than 0");
+        }
+        if (null == phases || phases.isEmpty()) {
+            throw new IllegalArgumentException("A workload must have at least one phase");
+        }
+        final Set<String> names = new HashSet<>();
+        for (final Phase phase : phases) {
+            phase.validate();
+            for (final WorkloadOperation operation : phase.getOperations()) {
+                if (!names.add(operation.getName(phase))) {
+                    throw new IllegalArgumentException("There is more than one operation called "
+                            + operation.getName(phase));
+                }
+            }
+        }
+    }
+
+    @Override
+    public String toString() {
+        return new ToStringBuilder(this)
+                .append("properties", properties)
+                .append("reportingIntervalSeconds", reportingIntervalSeconds)
+                .append("phases", phases)
+                .build();
+    }
+}
@@ -0,0 +1,172 @@
+/*
+ * Copyright 2019 Crown Copyright
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package uk.gov.gchq.gaffer.performancetesting.scenario;
+
+import com.fasterxml.jackson.databind.JsonNode;
+
+import uk.gov.gchq.gaffer.commonutil.ToStringBuilder;
+import uk.gov.gchq.gaffer.data.element.id.DirectedType;
+
+/**
+ * One of the operations run during a {@link Phase}. Each operation has its own pool of threads, which run it
+ * repeatedly until the end of the phase, and optionally its own target rate.
+ *
+ * <p>The batch size is the number of elements added by each <code>AddElements</code> or the number of seeds queried
+ * for by each <code>GetElements</code> or <code>GetAdjacentIds</code>. The view is given as the JSON of a Gaffer
+ * <code>View</code>, so it can contain filters and aggregation. If a maximum number of results is given then only that
+ * many results of each query are read before it is closed, which stops a <code>GetAllElements</code> from reading the
+ * whole graph.
+ */
+public class WorkloadOperation {
+    private String name;
+    private OperationType type;
+    private double weight = 1.0D;
+    private int threads = 1;
+    private Double targetOperationsPerSecond;
+    private int batchSize = 100;
+    private Long maxResults;
+    private JsonNode view;
+    private DirectedType directedType;
+
+    /**
+     * Returns the name of this operation, which prefixes the names of its metrics. If it is not set then the name of
+     * the phase followed by the type of the operation is used, e.g. <code>ingest_GetElements</code>.
+     *
+     * @param phase the phase that runs this operation
+     * @return the name
+     */
+    public String getName(final Phase phase) {
+        return null != name ? name : phase.getName() + "_" + type.getOperationName();
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    public void setName(final String name) {
+        this.name = name;
+    }
+
+    public OperationType getType() {
+        return type;
+    }
+
+    public void setType(final OperationType type) {
+        this.type = type;
+    }
+
+    /**
+     * @return the share of the target rate of the phase given to this operation, relative to the weights of the
+     * other operations in the phase
+     */
+    public double getWeight() {
+        return weight;
+    }
+
+    public void setWeight(final double weight) {
+        this.weight = weight;
+    }
+
+    public int getThreads() {
+        return threads;
+    }
+
+    public void setThreads(final int threads) {
+        this.threads = threads;
+    }
+
+    /**
+     * @return the target number of operations per second, which overrides this operation's share of the target
+     * rate of the phase
+     */
+    public Double getTargetOperationsPerSecond() {
+        return targetOperationsPerSecond;
+    }
+
+    public void setTargetOperationsPerSecond(final Double targetOperationsPerSecond) {
+        this.targetOperationsPerSecond = targetOperationsPerSecond;
+    }
+
+    public int getBatchSize() {
+        return batchSize;
+    }
+
+    public void setBatchSize(final int batchSize) {
+        this.batchSize = batchSize;
+    }
+
+    public Long getMaxResults() {
+        return maxResults;
+    }
+
+    public void setMaxResults(final Long maxResults) {
+        this.maxResults = maxResults;
+    }
+
+    public JsonNode getView() {
+        return view;
+    }
+
+    public void setView(final JsonNode view) {
+        this.view = view;
+    }
+
+    public DirectedType getDirectedType() {
+        return directedType;
+    }
+
+    public void setDirectedType(final DirectedType directedType) {
+        this.directedType = directedType;
+    }
+
+    void validate(final Phase phase) {
+        if (null == type) {
+            throw new IllegalArgumentException("Every operation in phase " + phase.getName() + " must have a type");
+        }
+        if (weight <= 0.0D) {
+            throw new IllegalArgumentException("The weight of " + getName(phase) + " must be greater than 0");
+        }
+        if (threads <= 0) {
+            throw new IllegalArgumentException("The number of threads of " + getName(phase)
+                    + " must be greater than 0");
+        }
+        if (null != targetOperationsPerSecond && targetOperationsPerSecond <= 0.0D) {
+            throw new IllegalArgumentException("The target rate of " + getName(phase) + " must be greater than 0");
+        }
+        if (batchSize <= 0) {
+            throw new IllegalArgumentException("The batch size of " + getName(phase) + " must be greater than 0");
+        }
+        if (null != maxResults && maxResults <= 0L) {
+            throw new IllegalArgumentException("The maximum number of results of " + getName(phase)
+                    + " must be greater than 0");
+        }
+    }
+
+    @Override
+    public String toString() {
+        return new ToStringBuilder(this)
+                .append("name", name)
+                .append("type", type)
+                .append("weight", weight)
+                .append("threads", threads)
+                .append("targetOperationsPerSecond", targetOperationsPerSecond)
+                .append("batchSize", batchSize)
+                .append("maxResults", maxResults)
+                .append("view", view)
+                .append("directedType", directedType)
+                .build();
+    }
+}
@@ -0,0 +1,291 @@
+/*
+ * Copyright 2019 Crown Copyright
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package uk.gov.gchq.gaffer.performancetesting.sweep;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import uk.gov.gchq.gaffer.performancetesting.MetricsListener;
+import uk.gov.gchq.gaffer.performancetesting.TestProperties;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.SortedMap;
+import java.util.TreeMap;
+
+/**
+ * Searches for the batch size that gives the highest rate, by running a test once for each of a number of batch
+ * sizes.
+ *
+ * <p>The search first measures geometric steps from the minimum to the maximum batch size, each step multiplying the
+ * batch size by the configured factor. It then refines the best of these with a golden-section search between its
+ * neighbours, on a logarithmic scale. Each step of the refinement narrows the bracket by the golden ratio and measures
+ * one new batch size (the first step measures two). Batch sizes are whole numbers, so a batch size is never measured
+ * twice and the refinement stops early once the bracket cannot be narrowed any further.
+ *
+ * <p>If a maximum 99th percentile batch latency is specified then the best batch size is the one with the highest
+ * rate among those that meet it; if none meets it then the one with the lowest latency is chosen.
+ *
+ * <p>The sweep is configured using the batch size sweep properties of a {@link TestProperties}. Every measured point
+ * is sent to the {@link MetricsListener}, if there is one, as a {@link BatchSizeSweepMetrics}, followed by the best
+ * point; the curve is also logged and, if an output file is specified, written to it as CSV.
+ */
+public class BatchSizeSweep {
+    public static final String CSV_HEADER = "batch_size,per_second,batch_latency_p99_millis";
+    private static final Logger LOGGER = LoggerFactory.getLogger(BatchSizeSweep.class);
+    private static final double GOLDEN_RATIO = (1.0D + Math.sqrt(5.0D)) / 2.0D;
+
+    /**
+     * Runs a test with a given batch size.
+     */
+    public interface Measurement {
+        Point measure(int batchSize);
+    }
+
+    private final int minBatchSize;
+    private final int maxBatchSize;
+    private final double factor;
+    private final int refinementSteps;
+    private final Double maxP99Millis;
+    private final Measurement measurement;
+    private final SortedMap<Integer, Point> points = new TreeMap<>();
+    private String outputFile;
+    private MetricsListener metricsListener;
+
+    public BatchSizeSweep(final int minBatchSize,
+                          final int maxBatchSize,
+                          final double factor,
+                          final int refinementSteps,
+                          final Double maxP99Millis,
+                          final Measurement measurement) {
+        if (minBatchSize <= 0 || maxBatchSize < minBatchSize) {
+            throw new IllegalArgumentException("The batch sizes must satisfy 0 < min <= max (got min = "
+                    + minBatchSize + ", max = " + maxBatchSize + ")");
+        }
+        if (factor <= 1.0D) {
+            throw new IllegalArgumentException("The factor must be greater than 1 (got " + factor + ")");
+        }
+        this.minBatchSize = minBatchSize;
+        this.maxBatchSize = maxBatchSize;
+        this.factor = factor;
+        this.refinementSteps = refinementSteps;
+        this.maxP99Millis = maxP99Millis;
+        this.measurement = measurement;
+    }
+
+    public BatchSizeSweep(final TestProperties testProperties, final Measurement measurement) {
+        this(testProperties.getSweepMinBatchSize(), testProperties.getSweepMaxBatchSize(),
+                testProperties.getSweepFactor(), testProperties.getSweepRefinementSteps(),
+                testProperties.getSweepMaxP99Millis(), measurement);
+        this.outputFile = testProperties.getSweepOutputFile();
+        if (null != testProperties.getMetricsListenerClass()) {
+            try {
+                metricsListener = Class.forName(testProperties.getMetricsListenerClass())
+                        .asSubclass(MetricsListener.class).newInstance();
+                metricsListener.initialise(testProperties);
+                LOGGER.info("Initialised MetricsListener of {}", metricsListener);
+            } catch (final ClassNotFoundException | InstantiationException | IllegalAccessException e) {
+                throw new IllegalArgumentException("MetricsListener could not be created: "
+                        + testProperties.getMetricsListenerClass(), e);
+            }
+        }
+    }
+
+    /**
+     * Runs the sweep.
+     *
+     * @return the best batch size and the measured curve
+     */
+    public Result run() {
+        points.clear();
+        final List<Integer> geometricSizes = getGeometricBatchSizes();
+        LOGGER.info("Sweeping batch sizes " + geometricSizes);
+        int bestIndex = 0;
+        for (int i = 0; i < geometricSizes.size(); i++) {
+            final Point point = measure(geometricSizes.get(i));
+            if (isBetter(point, points.get(geometricSizes.get(bestIndex)))) {
+                bestIndex = i;
+            }
+        }
+        refine(geometricSizes.get(Math.max(0, bestIndex - 1)),
+                geometricSizes.get(Math.min(geometricSizes.size() - 1, bestIndex + 1)));
+        Point best = null;
+        for (final Point point : points.values()) {
+            if (null == best || isBetter(point, best)) {
+                best = point;
+            }
+        }
+        final Result result = new Result(best, new ArrayList<>(points.values()));
+        LOGGER.info("Best batch size was " + best.getBatchSize() + " (rate was " + best.getPerSecond()
+                + " per second, p99 batch latency was " + best.getBatchLatencyP99Millis() + "ms)");
+        if (null != maxP99Millis && best.getBatchLatencyP99Millis() > maxP99Millis) {
+            LOGGER.warn("No batch size had a p99 batch latency of at most " + maxP99Millis + "ms");
+        }
+        if (null != metricsListener) {
+            metricsListener.update(new BatchSizeSweepMetrics(best, true));
+            metricsListener.close();
+        }
+        if (null != outputFile) {
+            writeCurve(result);
+        }
+        return result;
+    }
+
+    /**
+     * @return the batch sizes of the geometric steps, from the minimum batch size up to and including the maximum
+     */
+    List<Integer> getGeometricBatchSizes() {
+        final List<Integer> sizes = new ArrayList<>();
+        for (double size = minBatchSize; size < maxBatchSize; size *= factor) {
+            final int batchSize = (int) Math.round(size);
+            if (sizes.isEmpty() || batchSize > sizes.get(sizes.size() - 1)) {
+                sizes.add(batchSize);
+            }
+        }
+        if (sizes.isEmpty() || sizes.get(sizes.size() - 1) < maxBatchSize) {
+            sizes.add(maxBatchSize);
+        }
+        return sizes;
+    }
+
+    private void refine(final int low, final int high) {
+        if (refinementSteps <= 0 || high - low <= 2) {
+            return;
+        }
+        double lo = Math.log(low);
+        double hi = Math.log(high);
+        double x1 = hi - (hi - lo) / GOLDEN_RATIO;
+        double x2 = lo + (hi - lo) / GOLDEN_RATIO;
+        Point p1 = measure(toBatchSize(x1));
+        Point p2 = measure(toBatchSize(x2));
+        for (int i = 1; i < refinementSteps && toBatchSize(hi) - toBatchSize(lo) > 2; i++) {
+            if (isBetter(p2, p1)) {
+                lo = x1;
+                x1 = x2;
+                p1 = p2;
+                x2 = lo + (hi - lo) / GOLDEN_RATIO;
+                p2 = measure(toBatchSize(x2));
+            } else {
+                hi = x2;
+                x2 = x1;
+                p2 = p1;
+                x1 = hi - (hi - lo) / GOLDEN_RATIO;
+                p1 = measure(toBatchSize(x1));
+            }
+        }
+    }
+
+    private static int toBatchSize(final double logBatchSize) {
+        return (int) Math.round(Math.exp(logBatchSize));
+    }
+
+    private Point measure(final int batchSize) {
+        Point point = points.get(batchSize);
+        if (null == point) {
+            LOGGER.info("Measuring batch size " + batchSize);
+            point = measurement.measure(batchSize);
+            points.put(batchSize, point);
+            LOGGER.info("Batch size " + batchSize + ": rate was " + point.getPerSecond() + " per second, p99 batch "
+                    + "latency was " + point.getBatchLatencyP99Millis() + "ms");
+            if (null != metricsListener) {
+                metricsListener.update(new BatchSizeSweepMetrics(point, false));
+            }
+        }
+        return point;
+    }
+
+    private boolean meetsLatencyLimit(final Point point) {
+        return null == maxP99Millis || point.getBatchLatencyP99Millis() <= maxP99Millis;
+    }
+
+    private boolean isBetter(final Point point, final Point other) {
+        final boolean meetsLimit = meetsLatencyLimit(point);
+        final boolean otherMeetsLimit = meetsLatencyLimit(other);
+        if (meetsLimit != otherMeetsLimit) {
+            return meetsLimit;
+        }
+        if (meetsLimit) {
+            return point.getPerSecond() > other.getPerSecond();
+        }
+        return point.getBatchLatencyP99Millis() < other.getBatchLatencyP99Millis();
+    }
+
+    private void writeCurve(final Result result) {
+        final List<String> lines = new ArrayList<>();
+        lines.add(CSV_HEADER);
+        for (final Point point : result.getCurve()) {
+            lines.add(point.getBatchSize() + "," + point.getPerSecond() + "," + point.getBatchLatencyP99Millis());
+        }
+        try {
+            Files.write(Paths.get(outputFile), lines, StandardCharsets.UTF_8);
+            LOGGER.info("Wrote batch size curve to " + outputFile);
+        } catch (final IOException e) {
+            throw new RuntimeException("Exception writing batch size curve to " + outputFile, e);
+        }
+    }
+
+    /**
+     * The rate and 99th percentile batch latency measured for a batch size.
+     */
+    public static final class Point {
+        private final int batchSize;
+        private final double perSecond;
+        private final double batchLatencyP99Millis;
+
+        public Point(final int batchSize, final double perSecond, final double batchLatencyP99Millis) {
+            this.batchSize = batchSize;
+            this.perSecond = perSecond;
+            this.batchLatencyP99Millis = batchLatencyP99Millis;
+        }
+
+        public int getBatchSize() {
+            return batchSize;
+        }
+
+        public double getPerSecond() {
+            return perSecond;
+        }
+
+        public double getBatchLatencyP99Millis() {
+            return batchLatencyP99Millis;
+        }
+    }
+
+    /**
+     * The best batch size and every measured point, in order of batch size.
+     */
+    public static final class Result {
+        private final Point best;
+        private final List<Point> curve;
+
+        private Result(final Point best, final List<Point> curve) {
+            this.best = best;
+            this.curve = curve;
+        }
+
+        public Point getBest() {
+            return best;
+        }
+
+        public List<Point> getCurve() {
+            return curve;
+        }
+    }
+}
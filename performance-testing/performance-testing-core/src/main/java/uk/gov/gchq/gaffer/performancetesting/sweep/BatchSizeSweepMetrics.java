@@ -0,0 +1,71 @@
+/*
+ * Copyright 2019 Crown Copyright
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package uk.gov.gchq.gaffer.performancetesting.sweep;
+
+import uk.gov.gchq.gaffer.performancetesting.Metrics;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.SortedSet;
+import java.util.TreeSet;
+
+/**
+ * This class contains one point of a {@link BatchSizeSweep}. It provides the batch size, the rate (elements or seeds
+ * per second) and the 99th percentile batch latency. The final update of a sweep is the best point, which also has
+ * the best batch size set.
+ */
+public class BatchSizeSweepMetrics implements Metrics {
+    public static final String BATCH_SIZE = "batch_size";
+    public static final String BEST_BATCH_SIZE = "best_batch_size";
+    public static final String PER_SECOND = "per_second";
+    public static final String BATCH_LATENCY_P99_MILLIS = "batch_latency_p99_millis";
+    private static final SortedSet<String> METRIC_NAMES = Collections.unmodifiableSortedSet(new TreeSet<>(
+            Arrays.asList(BATCH_SIZE, BEST_BATCH_SIZE, PER_SECOND, BATCH_LATENCY_P99_MILLIS)));
+    private final Map<String, Double> metrics;
+
+    public BatchSizeSweepMetrics(final BatchSizeSweep.Point point, final boolean best) {
+        this.metrics = new HashMap<>();
+        metrics.put(BATCH_SIZE, (double) point.getBatchSize());
+        metrics.put(PER_SECOND, point.getPerSecond());
+        metrics.put(BATCH_LATENCY_P99_MILLIS, point.getBatchLatencyP99Millis());
+        if (best) {
+            metrics.put(BEST_BATCH_SIZE, (double) point.getBatchSize());
+        }
+    }
+
+    @Override
+    public SortedSet<String> getMetricNames() {
+        return METRIC_NAMES;
+    }
+
+    @Override
+    public Object getMetric(final String metricName) {
+        return metrics.get(metricName);
+    }
+
+    @Override
+    public void putMetric(final String metricName, final Object metric) {
+        if (!METRIC_NAMES.contains(metricName)) {
+            throw new IllegalArgumentException("Unrecognised metric " + metricName);
+        }
+        if (!(metric instanceof Double)) {
+            throw new IllegalArgumentException("Metric must be a double (got " + metricName.getClass().getName() + ")");
+        }
+        metrics.put(metricName, (Double) metric);
+    }
+}
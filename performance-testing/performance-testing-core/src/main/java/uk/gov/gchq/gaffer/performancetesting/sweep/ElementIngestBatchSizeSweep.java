@@ -0,0 +1,81 @@
+/*
+ * Copyright 2019 Crown Copyright
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package uk.gov.gchq.gaffer.performancetesting.sweep;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import uk.gov.gchq.gaffer.graph.Graph;
+import uk.gov.gchq.gaffer.performancetesting.ingest.ElementIngestTest;
+import uk.gov.gchq.gaffer.performancetesting.ingest.ElementIngestTestProperties;
+import uk.gov.gchq.gaffer.store.StoreProperties;
+import uk.gov.gchq.gaffer.store.schema.Schema;
+
+import java.io.File;
+import java.util.function.IntFunction;
+
+/**
+ * Runs a {@link BatchSizeSweep} of an {@link ElementIngestTest}: the test is run once, with the given properties, for
+ * each batch size measured by the sweep. Each run adds its elements to a new, empty {@link Graph}, so that every batch
+ * size is measured against a graph of the same size, whatever the order in which the sweep measures them. When run
+ * from the command line the graph for a batch size has the graph id from the test properties followed by
+ * <code>_batchSize</code> and the batch size; these graphs are not deleted once the sweep has finished.
+ */
+public final class ElementIngestBatchSizeSweep {
+    private static final Logger LOGGER = LoggerFactory.getLogger(ElementIngestBatchSizeSweep.class);
+
+    private ElementIngestBatchSizeSweep() {
+
+    }
+
+    /**
+     * Runs the sweep.
+     *
+     * @param graphFactory   creates the empty graph to add elements to with a given batch size
+     * @param testProperties the test properties
+     * @return the best batch size and the measured curve
+     */
+    public static BatchSizeSweep.Result sweep(final IntFunction<Graph> graphFactory,
+                                              final ElementIngestTestProperties testProperties) {
+        return new BatchSizeSweep(testProperties, batchSize -> {
+            final ElementIngestTestProperties properties = new ElementIngestTestProperties();
+            properties.putAll(testProperties);
+            // The sweep reports to the metrics listener, not each run
+            properties.setMetricsListenerClass(null);
+            properties.setBatchSize(batchSize);
+            final ElementIngestTest test = new ElementIngestTest(graphFactory.apply(batchSize), properties);
+            final double rate = test.run();
+            return new BatchSizeSweep.Point(batchSize, rate,
+                    test.getBatchLatencies().getValueAtPercentile(99.0D) / 1000.0D);
+        }).run();
+    }
+
+    public static void main(final String[] args) {
+        if (args.length != 3) {
+            throw new RuntimeException("Usage: <schema_directory> <store_properties_file> <test_properties_file>");
+        }
+        final Schema schema = Schema.fromJson(new File(args[0]).toPath());
+        final StoreProperties storeProperties = StoreProperties.loadStoreProperties(args[1]);
+        final ElementIngestTestProperties testProperties = new ElementIngestTestProperties();
+        testProperties.loadTestProperties(args[2]);
+        final BatchSizeSweep.Result result = sweep(batchSize -> new Graph.Builder()
+                .graphId(testProperties.getGraphId() + "_batchSize" + batchSize)
+                .storeProperties(storeProperties)
+                .addSchema(schema)
+                .build(), testProperties);
+        LOGGER.info("Sweep result: the best batch size for adding elements was " + result.getBest().getBatchSize());
+    }
+}
@@ -0,0 +1,72 @@
+/*
+ * Copyright 2019 Crown Copyright
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package uk.gov.gchq.gaffer.performancetesting.sweep;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import uk.gov.gchq.gaffer.graph.Graph;
+import uk.gov.gchq.gaffer.performancetesting.query.QueryTest;
+import uk.gov.gchq.gaffer.performancetesting.query.QueryTestProperties;
+import uk.gov.gchq.gaffer.store.StoreProperties;
+import uk.gov.gchq.gaffer.store.schema.Schema;
+
+import java.io.File;
+
+/**
+ * Runs a {@link BatchSizeSweep} of the number of seeds per query in a closed-loop {@link QueryTest}: the test is run
+ * once, with the given properties, for each batch size measured by the sweep. Any target rates in the properties are
+ * ignored.
+ */
+public final class QueryBatchSizeSweep {
+    private static final Logger LOGGER = LoggerFactory.getLogger(QueryBatchSizeSweep.class);
+
+    private QueryBatchSizeSweep() {
+
+    }
+
+    public static BatchSizeSweep.Result sweep(final Graph graph, final QueryTestProperties testProperties) {
+        return new BatchSizeSweep(testProperties, batchSize -> {
+            final QueryTestProperties properties = new QueryTestProperties();
+            properties.putAll(testProperties);
+            // The sweep reports to the metrics listener, not each run
+            properties.setMetricsListenerClass(null);
+            properties.setTargetQueriesPerSecond();
+            properties.setBatchSize(batchSize);
+            final QueryTest test = new QueryTest(graph, properties);
+            final double rate = test.run();
+            return new BatchSizeSweep.Point(batchSize, rate,
+                    test.getBatchLatencies().getValueAtPercentile(99.0D) / 1000.0D);
+        }).run();
+    }
+
+    public static void main(final String[] args) {
+        if (args.length != 3) {
+            throw new RuntimeException("Usage: <schema_directory> <store_properties_file> <test_properties_file>");
+        }
+        final Schema schema = Schema.fromJson(new File(args[0]).toPath());
+        final StoreProperties storeProperties = StoreProperties.loadStoreProperties(args[1]);
+        final QueryTestProperties testProperties = new QueryTestProperties();
+        testProperties.loadTestProperties(args[2]);
+        final Graph graph = new Graph.Builder()
+                .graphId(testProperties.getGraphId())
+                .storeProperties(storeProperties)
+                .addSchema(schema)
+                .build();
+        final BatchSizeSweep.Result result = sweep(graph, testProperties);
+        LOGGER.info("Sweep result: the best number of seeds per query was " + result.getBest().getBatchSize());
+    }
+}
@@ -0,0 +1,208 @@
+/*
+ * Copyright 2019 Crown Copyright
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package uk.gov.gchq.gaffer.performancetesting;
+
+import org.junit.Test;
+
+import uk.gov.gchq.gaffer.performancetesting.ingest.IngestMetrics;
+import uk.gov.gchq.gaffer.performancetesting.query.QueryMetrics;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Properties;
+import java.util.concurrent.CountDownLatch;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+public class TestAsyncMetricsListener {
+
+    @Test
+    public void testAllUpdatesArePassedOnInOrderBeforeClose() {
+        // Given
+        final RecordingMetricsListener delegate = new RecordingMetricsListener(null);
+        final AsyncMetricsListener listener
+                = new AsyncMetricsListener(delegate, 1000, AsyncMetricsListener.OverflowPolicy.DROP);
+
+        // When
+        for (int i = 0; i < 500; i++) {
+            listener.update(ingestMetrics(i));
+        }
+        listener.close();
+
+        // Then
+        assertEquals(500, delegate.updates.size());
+        for (int i = 0; i < 500; i++) {
+            assertEquals((double) i, delegate.updates.get(i).getMetric(IngestMetrics.ELEMENTS_PER_SECOND_BATCH));
+        }
+        assertTrue(delegate.closed);
+        assertEquals(0L, listener.getNumDropped());
+    }
+
+    @Test
+    public void testUpdatesAreDroppedWhenQueueIsFull() throws InterruptedException {
+        // Given - a delegate that blocks until released, so the queue fills up
+        final CountDownLatch release = new CountDownLatch(1);
+        final RecordingMetricsListener delegate = new RecordingMetricsListener(release);
+        final AsyncMetricsListener listener
+                = new AsyncMetricsListener(delegate, 10, AsyncMetricsListener.OverflowPolicy.DROP);
+
+        // When
+        for (int i = 0; i < 100; i++) {
+            listener.update(ingestMetrics(i));
+        }
+        release.countDown();
+        listener.close();
+
+        // Then - at most one update can have been taken by the delegate before the queue filled
+        assertTrue(delegate.updates.size() <= 11);
+        assertEquals(100L, delegate.updates.size() + listener.getNumDropped());
+    }
+
+    @Test
+    public void testLatestOverflowingUpdateOfEachTypeIsKeptWhenCoalescing() {
+        // Given
+        final CountDownLatch release = new CountDownLatch(1);
+        final RecordingMetricsListener delegate = new RecordingMetricsListener(release);
+        final AsyncMetricsListener listener
+                = new AsyncMetricsListener(delegate, 10, AsyncMetricsListener.OverflowPolicy.COALESCE);
+
+        // When
+        for (int i = 0; i < 100; i++) {
+            listener.update(ingestMetrics(i));
+        }
+        listener.update(new QueryMetrics(1.0D, 2.0D));
+        release.countDown();
+        listener.close();
+
+        // Then
+        final Metrics lastIngestMetrics = delegate.updates.stream()
+                .filter(m -> m instanceof IngestMetrics)
+                .reduce((first, second) -> second)
+                .get();
+        assertEquals(99.0D, lastIngestMetrics.getMetric(IngestMetrics.ELEMENTS_PER_SECOND_BATCH));
+        assertEquals(1L, delegate.updates.stream().filter(m -> m instanceof QueryMetrics).count());
+    }
+
+    @Test
+    public void testCoalescingKeepsLatestUpdateOfEachWorkerAndOfOverallRate() {
+        // Given
+        final CountDownLatch release = new CountDownLatch(1);
+        final RecordingMetricsListener delegate = new RecordingMetricsListener(release);
+        final AsyncMetricsListener listener
+                = new AsyncMetricsListener(delegate, 10, AsyncMetricsListener.OverflowPolicy.COALESCE);
+        for (int i = 0; i < 20; i++) {
+            listener.update(ingestMetrics(i));
+        }
+
+        // When
+        listener.update(workerMetrics(0, 1.0D));
+        listener.update(workerMetrics(1, 2.0D));
+        listener.update(workerMetrics(0, 3.0D));
+        final IngestMetrics overall = new IngestMetrics();
+        overall.putMetric(IngestMetrics.ELEMENTS_PER_SECOND_OVERALL, 4.0D);
+        listener.update(overall);
+        listener.update(ingestMetrics(100));
+        release.countDown();
+        listener.close();
+
+        // Then
+        // Each overflowing update replaces the latest queued update of its kind, or joins the end of the queue
+        final List<Metrics> updates = new ArrayList<>(delegate.updates);
+        assertEquals(100.0D, updates.get(updates.size() - 4).getMetric(IngestMetrics.ELEMENTS_PER_SECOND_BATCH));
+        assertEquals(3.0D, updates.get(updates.size() - 3).getMetric(IngestMetrics.ELEMENTS_PER_SECOND_WORKER));
+        assertEquals(2.0D, updates.get(updates.size() - 2).getMetric(IngestMetrics.ELEMENTS_PER_SECOND_WORKER));
+        assertEquals(4.0D, updates.get(updates.size() - 1).getMetric(IngestMetrics.ELEMENTS_PER_SECOND_OVERALL));
+    }
+
+    @Test
+    public void testCoalescedUpdatesArePassedOnInTheirPlaceInTheQueue() throws InterruptedException {
+        // Given - the delegate has taken the first update and blocks until released, and the queue is full
+        final CountDownLatch release = new CountDownLatch(1);
+        final RecordingMetricsListener delegate = new RecordingMetricsListener(release);
+        final AsyncMetricsListener listener
+                = new AsyncMetricsListener(delegate, 2, AsyncMetricsListener.OverflowPolicy.COALESCE);
+        listener.update(ingestMetrics(0));
+        delegate.entered.await();
+        listener.update(workerMetrics(0, 1.0D));
+        listener.update(ingestMetrics(1));
+
+        // When
+        listener.update(workerMetrics(0, 2.0D));
+        listener.update(ingestMetrics(2));
+        release.countDown();
+        listener.close();
+
+        // Then
+        assertEquals(3, delegate.updates.size());
+        assertEquals(0.0D, delegate.updates.get(0).getMetric(IngestMetrics.ELEMENTS_PER_SECOND_BATCH));
+        assertEquals(2.0D, delegate.updates.get(1).getMetric(IngestMetrics.ELEMENTS_PER_SECOND_WORKER));
+        assertEquals(2.0D, delegate.updates.get(2).getMetric(IngestMetrics.ELEMENTS_PER_SECOND_BATCH));
+        assertEquals(2L, listener.getNumDropped());
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testDelegateClassMustBeSpecified() {
+        new AsyncMetricsListener().initialise(new Properties());
+    }
+
+    private static IngestMetrics ingestMetrics(final int i) {
+        final IngestMetrics metrics = new IngestMetrics();
+        metrics.putMetric(IngestMetrics.ELEMENTS_PER_SECOND_BATCH, (double) i);
+        return metrics;
+    }
+
+    private static IngestMetrics workerMetrics(final int workerId, final double rate) {
+        final IngestMetrics metrics = new IngestMetrics();
+        metrics.putMetric(IngestMetrics.ELEMENTS_PER_SECOND_WORKER, rate);
+        metrics.putMetric(Metrics.WORKER_ID, (double) workerId);
+        return metrics;
+    }
+
+    private static final class RecordingMetricsListener implements MetricsListener {
+        private final List<Metrics> updates = Collections.synchronizedList(new ArrayList<>());
+        private final CountDownLatch release;
+        private final CountDownLatch entered = new CountDownLatch(1);
+        private volatile boolean closed = false;
+
+        private RecordingMetricsListener(final CountDownLatch release) {
+            this.release = release;
+        }
+
+        @Override
+        public void initialise(final Properties properties) {
+        }
+
+        @Override
+        public void update(final Metrics metrics) {
+            entered.countDown();
+            if (null != release) {
+                try {
+                    release.await();
+                } catch (final InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+            }
+            updates.add(metrics);
+        }
+
+        @Override
+        public void close() {
+            closed = true;
+        }
+    }
+}
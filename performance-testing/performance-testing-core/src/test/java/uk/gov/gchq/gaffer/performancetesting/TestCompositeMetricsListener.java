@@ -0,0 +1,171 @@
+/*
+ * Copyright 2019 Crown Copyright
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package uk.gov.gchq.gaffer.performancetesting;
+
+import org.junit.After;
+import org.junit.Test;
+
+import uk.gov.gchq.gaffer.performancetesting.ingest.IngestMetrics;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.Properties;
+import java.util.TreeSet;
+import java.util.concurrent.ConcurrentHashMap;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+public class TestCompositeMetricsListener {
+    private static final String RECORDING_NAME = "gaffer.performancetesting.test.recordingName";
+    private static final Map<String, List<Metrics>> RECORDED = new ConcurrentHashMap<>();
+
+    @After
+    public void clearRecorded() {
+        RECORDED.clear();
+    }
+
+    @Test
+    public void testUpdatesAreFilteredAndSampledForEachSink() {
+        // Given
+        final Properties properties = new Properties();
+        properties.setProperty(CompositeMetricsListener.SINKS, "all,filtered,failing");
+        properties.setProperty(CompositeMetricsListener.getSinkProperty("all", CompositeMetricsListener.CLASS),
+                RecordingMetricsListener.class.getName());
+        properties.setProperty(CompositeMetricsListener.getSinkProperty("all", RECORDING_NAME), "all");
+        properties.setProperty(CompositeMetricsListener.getSinkProperty("filtered", CompositeMetricsListener.CLASS),
+                RecordingMetricsListener.class.getName());
+        properties.setProperty(CompositeMetricsListener.getSinkProperty("filtered", RECORDING_NAME), "filtered");
+        properties.setProperty(CompositeMetricsListener.getSinkProperty("filtered", CompositeMetricsListener.INCLUDE),
+                IngestMetrics.ELEMENTS_PER_SECOND_BATCH);
+        properties.setProperty(CompositeMetricsListener.getSinkProperty("filtered",
+                CompositeMetricsListener.SAMPLE_RATE), "0.1");
+        properties.setProperty(CompositeMetricsListener.getSinkProperty("failing", CompositeMetricsListener.CLASS),
+                FailingMetricsListener.class.getName());
+        final CompositeMetricsListener listener = new CompositeMetricsListener();
+        listener.initialise(properties);
+
+        // When
+        for (int i = 0; i < 100; i++) {
+            final IngestMetrics metrics = new IngestMetrics();
+            metrics.putMetric(IngestMetrics.ELEMENTS_PER_SECOND_BATCH, (double) i);
+            metrics.putMetric(IngestMetrics.ELEMENTS_PER_SECOND_OVERALL, (double) i);
+            listener.update(metrics);
+        }
+        listener.close();
+
+        // Then
+        assertEquals(100, RECORDED.get("all").size());
+        assertEquals(new TreeSet<>(Arrays.asList(IngestMetrics.ELEMENTS_PER_SECOND_BATCH,
+                IngestMetrics.ELEMENTS_PER_SECOND_OVERALL)), RECORDED.get("all").get(0).getMetricNames());
+        final List<Metrics> filtered = RECORDED.get("filtered");
+        assertEquals(10, filtered.size());
+        for (final Metrics metrics : filtered) {
+            assertEquals(Collections.singleton(IngestMetrics.ELEMENTS_PER_SECOND_BATCH), metrics.getMetricNames());
+        }
+        assertEquals(0.0D, filtered.get(0).getMetric(IngestMetrics.ELEMENTS_PER_SECOND_BATCH));
+        assertEquals(10.0D, filtered.get(1).getMetric(IngestMetrics.ELEMENTS_PER_SECOND_BATCH));
+        assertEquals("IngestMetrics", filtered.get(0).getType());
+    }
+
+    @Test
+    public void testOneOffUpdatesAreNotSampledOut() {
+        // Given
+        final Properties properties = new Properties();
+        properties.setProperty(CompositeMetricsListener.SINKS, "sampled");
+        properties.setProperty(CompositeMetricsListener.getSinkProperty("sampled", CompositeMetricsListener.CLASS),
+                RecordingMetricsListener.class.getName());
+        properties.setProperty(CompositeMetricsListener.getSinkProperty("sampled", RECORDING_NAME), "sampled");
+        properties.setProperty(CompositeMetricsListener.getSinkProperty("sampled",
+                CompositeMetricsListener.SAMPLE_RATE), "0.25");
+        final CompositeMetricsListener listener = new CompositeMetricsListener();
+        listener.initialise(properties);
+
+        // When
+        for (int i = 0; i < 10; i++) {
+            final IngestMetrics metrics = new IngestMetrics();
+            metrics.putMetric(IngestMetrics.ELEMENTS_PER_SECOND_BATCH, (double) i);
+            listener.update(metrics);
+        }
+        final IngestMetrics overall = new IngestMetrics();
+        overall.putMetric(IngestMetrics.ELEMENTS_PER_SECOND_OVERALL, 100.0D);
+        listener.update(overall);
+        listener.close();
+
+        // Then
+        final List<Metrics> sampled = RECORDED.get("sampled");
+        assertEquals(4, sampled.size());
+        assertEquals(0.0D, sampled.get(0).getMetric(IngestMetrics.ELEMENTS_PER_SECOND_BATCH));
+        assertEquals(4.0D, sampled.get(1).getMetric(IngestMetrics.ELEMENTS_PER_SECOND_BATCH));
+        assertEquals(8.0D, sampled.get(2).getMetric(IngestMetrics.ELEMENTS_PER_SECOND_BATCH));
+        assertEquals(100.0D, sampled.get(3).getMetric(IngestMetrics.ELEMENTS_PER_SECOND_OVERALL));
+    }
+
+    @Test
+    public void testSinkClassMustBeSpecified() {
+        // Given
+        final Properties properties = new Properties();
+        properties.setProperty(CompositeMetricsListener.SINKS, "missing");
+
+        // When / Then
+        try {
+            new CompositeMetricsListener().initialise(properties);
+        } catch (final IllegalArgumentException e) {
+            assertTrue(e.getMessage().contains(CompositeMetricsListener.getSinkProperty("missing",
+                    CompositeMetricsListener.CLASS)));
+            return;
+        }
+        throw new AssertionError("Expected an IllegalArgumentException");
+    }
+
+    public static class RecordingMetricsListener implements MetricsListener {
+        private List<Metrics> recorded;
+
+        @Override
+        public void initialise(final Properties properties) {
+            recorded = Collections.synchronizedList(new ArrayList<>());
+            RECORDED.put(properties.getProperty(RECORDING_NAME), recorded);
+        }
+
+        @Override
+        public void update(final Metrics metrics) {
+            recorded.add(metrics);
+        }
+
+        @Override
+        public void close() {
+        }
+    }
+
+    public static class FailingMetricsListener implements MetricsListener {
+        @Override
+        public void initialise(final Properties properties) {
+        }
+
+        @Override
+        public void update(final Metrics metrics) {
+            throw new RuntimeException("Failing sink");
+        }
+
+        @Override
+        public void close() {
+            throw new RuntimeException("Failing sink");
+        }
+    }
+}
@@ -0,0 +1,85 @@
+/*
+ * Copyright 2019 Crown Copyright
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package uk.gov.gchq.gaffer.performancetesting;
+
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+public class TestIntervalReporter {
+
+    @Test
+    public void testReportsRatesOnIntervalAndOnClose() throws InterruptedException {
+        // Given
+        final List<double[]> rates = new ArrayList<>();
+        final List<Double> durations = new ArrayList<>();
+        final IntervalReporter reporter = new IntervalReporter(100L, 2, (r, d) -> {
+            synchronized (rates) {
+                rates.add(r);
+                durations.add(d);
+            }
+        });
+
+        // When
+        reporter.add(0, 10L);
+        reporter.add(1, 20L);
+        TimeUnit.MILLISECONDS.sleep(250L);
+        reporter.add(0, 5L);
+        reporter.close();
+
+        // Then
+        synchronized (rates) {
+            assertTrue(rates.size() >= 3);
+            double total0 = 0.0D;
+            double total1 = 0.0D;
+            for (int i = 0; i < rates.size(); i++) {
+                total0 += rates.get(i)[0] * durations.get(i);
+                total1 += rates.get(i)[1] * durations.get(i);
+            }
+            assertEquals(15.0D, total0, 0.0001D);
+            assertEquals(20.0D, total1, 0.0001D);
+        }
+    }
+
+    @Test
+    public void testNoReportsAfterClose() throws InterruptedException {
+        // Given
+        final List<double[]> rates = new ArrayList<>();
+        final IntervalReporter reporter = new IntervalReporter(50L, 1, (r, d) -> {
+            synchronized (rates) {
+                rates.add(r);
+            }
+        });
+
+        // When
+        reporter.close();
+        final int numReports;
+        synchronized (rates) {
+            numReports = rates.size();
+        }
+        TimeUnit.MILLISECONDS.sleep(150L);
+
+        // Then
+        synchronized (rates) {
+            assertEquals(numReports, rates.size());
+        }
+    }
+}
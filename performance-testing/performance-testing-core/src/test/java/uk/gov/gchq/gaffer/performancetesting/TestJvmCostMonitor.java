@@ -0,0 +1,69 @@
+/*
+ * Copyright 2019 Crown Copyright
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package uk.gov.gchq.gaffer.performancetesting;
+
+import org.junit.Test;
+
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+public class TestJvmCostMonitor {
+
+    @Test
+    public void testAllocationAndCpuTimeAreMeasured() {
+        // Given
+        final JvmCostMonitor monitor = new JvmCostMonitor();
+
+        // When
+        final JvmCostMonitor.Sample sample = monitor.start();
+        long sum = 0L;
+        for (int i = 0; i < 100; i++) {
+            final long[] values = new long[10000];
+            values[i] = i;
+            sum += values[i];
+        }
+        final JvmCostMonitor.Cost cost = sample.stop();
+        monitor.close();
+
+        // Then
+        assertEquals(4950L, sum);
+        assertTrue(cost.getAllocatedBytes() >= 100L * 10000L * 8L);
+        assertTrue(cost.getCpuTimeNanos() >= 0L);
+    }
+
+    @Test
+    public void testGarbageCollectionsAreCounted() throws InterruptedException {
+        // Given
+        final JvmCostMonitor monitor = new JvmCostMonitor();
+
+        // When
+        final JvmCostMonitor.Sample sample = monitor.start();
+        System.gc();
+        // Notifications are sent asynchronously after the collection
+        for (int i = 0; i < 50 && 0L == monitor.getTotalGcCount(); i++) {
+            TimeUnit.MILLISECONDS.sleep(100L);
+        }
+        final JvmCostMonitor.Cost cost = sample.stop();
+        monitor.close();
+
+        // Then
+        assertTrue(monitor.getTotalGcCount() > 0L);
+        assertTrue(cost.getGcCount() > 0L);
+        assertTrue(cost.getGcTimeMillis() >= 0L);
+    }
+}
@@ -0,0 +1,98 @@
+/*
+ * Copyright 2019 Crown Copyright
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package uk.gov.gchq.gaffer.performancetesting;
+
+import org.junit.Test;
+
+import java.util.stream.LongStream;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+public class TestLatencyHistogram {
+
+    @Test
+    public void testSmallValuesAreExact() {
+        // Given
+        final LatencyHistogram histogram = new LatencyHistogram();
+
+        // When
+        LongStream.rangeClosed(1L, 100L).forEach(histogram::recordValue);
+
+        // Then
+        assertEquals(100L, histogram.getTotalCount());
+        assertEquals(1L, histogram.getMin());
+        assertEquals(100L, histogram.getMax());
+        assertEquals(50L, histogram.getValueAtPercentile(50.0D));
+        assertEquals(90L, histogram.getValueAtPercentile(90.0D));
+        assertEquals(99L, histogram.getValueAtPercentile(99.0D));
+        assertEquals(100L, histogram.getValueAtPercentile(100.0D));
+        assertEquals(50.5D, histogram.getMean(), 0.0001D);
+    }
+
+    @Test
+    public void testLargeValuesAreWithinOnePercent() {
+        // Given
+        final LatencyHistogram histogram = new LatencyHistogram();
+
+        // When
+        LongStream.rangeClosed(1L, 1000000L).forEach(histogram::recordValue);
+
+        // Then
+        assertWithinOnePercent(500000L, histogram.getValueAtPercentile(50.0D));
+        assertWithinOnePercent(990000L, histogram.getValueAtPercentile(99.0D));
+        assertWithinOnePercent(999000L, histogram.getValueAtPercentile(99.9D));
+        assertEquals(1000000L, histogram.getValueAtPercentile(100.0D));
+    }
+
+    @Test
+    public void testRecordValueWithCountAndAdd() {
+        // Given
+        final LatencyHistogram histogram = new LatencyHistogram();
+        final LatencyHistogram other = new LatencyHistogram();
+        histogram.recordValueWithCount(10L, 99L);
+        other.recordValue(5000L);
+
+        // When
+        histogram.add(other);
+
+        // Then
+        assertEquals(100L, histogram.getTotalCount());
+        assertEquals(10L, histogram.getValueAtPercentile(99.0D));
+        assertEquals(5000L, histogram.getValueAtPercentile(99.9D));
+        assertEquals(5000L, histogram.getMax());
+    }
+
+    @Test
+    public void testEmptyHistogramAndReset() {
+        // Given
+        final LatencyHistogram histogram = new LatencyHistogram();
+        histogram.recordValue(123456L);
+
+        // When
+        histogram.reset();
+
+        // Then
+        assertEquals(0L, histogram.getTotalCount());
+        assertEquals(0L, histogram.getValueAtPercentile(99.0D));
+        assertEquals(0L, histogram.getMax());
+        assertEquals(0L, histogram.getMin());
+    }
+
+    private static void assertWithinOnePercent(final long expected, final long actual) {
+        assertTrue("Expected " + expected + " but got " + actual, Math.abs(actual - expected) <= expected / 100L);
+    }
+}
@@ -0,0 +1,189 @@
+/*
+ * Copyright 2019 Crown Copyright
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package uk.gov.gchq.gaffer.performancetesting;
+
+import org.apache.commons.io.IOUtils;
+import org.junit.Test;
+
+import uk.gov.gchq.gaffer.performancetesting.ingest.IngestMetrics;
+import uk.gov.gchq.gaffer.performancetesting.query.QueryMetrics;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.net.HttpURLConnection;
+import java.net.URL;
+import java.nio.charset.StandardCharsets;
+import java.util.Properties;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+public class TestPrometheusMetricsListener {
+
+    @Test
+    public void testMetricsAreExposedInOpenMetricsFormat() throws IOException {
+        // Given
+        final PrometheusMetricsListener listener = createListener();
+        try {
+            // When
+            listener.update(ingestMetrics(5.0D));
+            listener.update(ingestMetrics(50.0D));
+            listener.update(new QueryMetrics(1.0D, 2.0D));
+            final String scrape = listener.scrape();
+
+            // Then
+            final String name = "gaffer_performancetesting_" + IngestMetrics.ELEMENTS_PER_SECOND_BATCH;
+            assertTrue(scrape.contains("# TYPE " + name + " gauge\n" + name + " 50.0\n"));
+            assertTrue(scrape.contains("# TYPE " + name + "_observed histogram\n"
+                    + name + "_observed_bucket{le=\"10.0\"} 1\n"
+                    + name + "_observed_bucket{le=\"100.0\"} 2\n"
+                    + name + "_observed_bucket{le=\"+Inf\"} 2\n"
+                    + name + "_observed_count 2\n"
+                    + name + "_observed_sum 55.0\n"));
+            assertTrue(scrape.contains("# TYPE gaffer_performancetesting_updates counter\n"
+                    + "gaffer_performancetesting_updates_total{type=\"IngestMetrics\"} 2\n"
+                    + "gaffer_performancetesting_updates_total{type=\"QueryMetrics\"} 1\n"));
+            assertTrue(scrape.endsWith("# EOF\n"));
+        } finally {
+            listener.close();
+        }
+    }
+
+    @Test
+    public void testWorkerIsALabelAndOnlyRatesAndLatenciesHaveHistograms() {
+        // Given
+        final PrometheusMetricsListener listener = createListener();
+        try {
+            // When
+            for (int workerId = 0; workerId < 2; workerId++) {
+                final IngestMetrics metrics = ingestMetrics(5.0D + workerId);
+                metrics.putMetric(Metrics.WORKER_ID, (double) workerId);
+                metrics.putMetric(IngestMetrics.JVM_GC_COUNT_BATCH, 3.0D);
+                listener.update(metrics);
+            }
+            final String scrape = listener.scrape();
+
+            // Then
+            final String name = "gaffer_performancetesting_" + IngestMetrics.ELEMENTS_PER_SECOND_BATCH;
+            assertTrue(scrape.contains("# TYPE " + name + " gauge\n"
+                    + name + "{worker=\"0\"} 5.0\n"
+                    + name + "{worker=\"1\"} 6.0\n"));
+            assertTrue(scrape.contains(name + "_observed_bucket{worker=\"1\",le=\"10.0\"} 1\n"));
+            assertTrue(scrape.contains(name + "_observed_count{worker=\"1\"} 1\n"));
+            final String gcCountName = "gaffer_performancetesting_" + IngestMetrics.JVM_GC_COUNT_BATCH;
+            assertTrue(scrape.contains(gcCountName + "{worker=\"0\"} 3.0\n"));
+            assertFalse(scrape.contains(gcCountName + "_observed"));
+            assertFalse(scrape.contains(Metrics.WORKER_ID));
+        } finally {
+            listener.close();
+        }
+    }
+
+    @Test
+    public void testMetricsCanBeScrapedOverHttp() throws IOException {
+        // Given
+        final PrometheusMetricsListener listener = createListener();
+        try {
+            listener.update(ingestMetrics(5.0D));
+
+            // When
+            final URL url = new URL("http://localhost:" + listener.getPort() + "/metrics");
+            final HttpURLConnection connection = (HttpURLConnection) url.openConnection();
+            final String response;
+            try (final InputStream in = connection.getInputStream()) {
+                response = IOUtils.toString(in, StandardCharsets.UTF_8);
+            }
+
+            // Then
+            assertEquals(200, connection.getResponseCode());
+            assertEquals(PrometheusMetricsListener.CONTENT_TYPE, connection.getContentType());
+            assertEquals(listener.scrape(), response);
+        } finally {
+            listener.close();
+        }
+    }
+
+    @Test
+    public void testCloseWaitsUntilTheFinalResultsHaveBeenScraped()
+            throws IOException, InterruptedException, ExecutionException, TimeoutException {
+        // Given
+        final PrometheusMetricsListener listener = createListener("30");
+        final URL url = new URL("http://localhost:" + listener.getPort() + "/metrics");
+        // Something is scraping the server
+        IOUtils.toString(url, StandardCharsets.UTF_8);
+        listener.update(ingestMetrics(5.0D));
+        final ExecutorService executorService = Executors.newSingleThreadExecutor();
+        try {
+            // When
+            final Future<?> close = executorService.submit(listener::close);
+            Thread.sleep(200L);
+            final boolean closedBeforeScrape = close.isDone();
+            final String response;
+            try (final InputStream in = url.openStream()) {
+                response = IOUtils.toString(in, StandardCharsets.UTF_8);
+            }
+            // Then the server stops once it has been scraped, well before the grace period is over
+            close.get(10L, TimeUnit.SECONDS);
+            assertFalse(closedBeforeScrape);
+            final String name = "gaffer_performancetesting_" + IngestMetrics.ELEMENTS_PER_SECOND_BATCH;
+            assertTrue(response.contains(name + " 5.0\n"));
+        } finally {
+            executorService.shutdownNow();
+        }
+    }
+
+    @Test
+    public void testCloseDoesNotWaitIfTheServerHasNeverBeenScraped() {
+        // Given
+        final PrometheusMetricsListener listener = createListener("30");
+        listener.update(ingestMetrics(5.0D));
+
+        // When
+        final long startTime = System.currentTimeMillis();
+        listener.close();
+
+        // Then
+        assertTrue(System.currentTimeMillis() - startTime < TimeUnit.SECONDS.toMillis(10L));
+    }
+
+    private static PrometheusMetricsListener createListener() {
+        return createListener("0");
+    }
+
+    private static PrometheusMetricsListener createListener(final String closeGraceSeconds) {
+        final Properties properties = new Properties();
+        properties.setProperty(PrometheusMetricsListener.CLOSE_GRACE_SECONDS, closeGraceSeconds);
+        properties.setProperty(PrometheusMetricsListener.PORT, "0");
+        properties.setProperty(PrometheusMetricsListener.HOST, "localhost");
+        properties.setProperty(PrometheusMetricsListener.BUCKETS, "10,100");
+        final PrometheusMetricsListener listener = new PrometheusMetricsListener();
+        listener.initialise(properties);
+        return listener;
+    }
+
+    private static IngestMetrics ingestMetrics(final double value) {
+        final IngestMetrics metrics = new IngestMetrics();
+        metrics.putMetric(IngestMetrics.ELEMENTS_PER_SECOND_BATCH, value);
+        return metrics;
+    }
+}
@@ -0,0 +1,82 @@
+/*
+ * Copyright 2019 Crown Copyright
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package uk.gov.gchq.gaffer.performancetesting;
+
+import org.junit.Test;
+
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+public class TestRateLimiter {
+
+    @Test
+    public void testRateIsLimitedToTarget() {
+        // Given
+        final RateLimiter rateLimiter = new RateLimiter(1000.0D);
+
+        // When
+        final long startTime = System.nanoTime();
+        for (int i = 0; i < 10; i++) {
+            rateLimiter.acquire(50L);
+        }
+        final double durationInSeconds = (System.nanoTime() - startTime) / 1.0E9;
+
+        // Then - the first acquisition does not wait, the other nine each wait for 50 permits
+        assertTrue(durationInSeconds >= 0.45D);
+    }
+
+    @Test
+    public void testNoBurstAfterIdlePeriod() throws InterruptedException {
+        // Given
+        final RateLimiter rateLimiter = new RateLimiter(100.0D);
+        rateLimiter.acquire(1L);
+        TimeUnit.MILLISECONDS.sleep(200L);
+
+        // When
+        rateLimiter.acquire(1L);
+        final long waited = rateLimiter.acquire(1L);
+
+        // Then
+        assertTrue(waited >= TimeUnit.MILLISECONDS.toNanos(5L));
+    }
+
+    @Test
+    public void testScheduledSlotsAreNotResetWhenCallerFallsBehind() throws InterruptedException {
+        // Given
+        final RateLimiter rateLimiter = new RateLimiter(100.0D);
+        final long firstSlot = rateLimiter.acquireScheduled(1L);
+        TimeUnit.MILLISECONDS.sleep(200L);
+
+        // When
+        final long beforeSecond = System.nanoTime();
+        final long secondSlot = rateLimiter.acquireScheduled(1L);
+        final long thirdSlot = rateLimiter.acquireScheduled(1L);
+        final long afterThird = System.nanoTime();
+
+        // Then - the slots stay on the schedule, so they are in the past and the caller does not wait for them
+        assertEquals(TimeUnit.MILLISECONDS.toNanos(10L), secondSlot - firstSlot);
+        assertEquals(TimeUnit.MILLISECONDS.toNanos(10L), thirdSlot - secondSlot);
+        assertTrue(thirdSlot < beforeSecond);
+        assertTrue(afterThird - beforeSecond < TimeUnit.MILLISECONDS.toNanos(100L));
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testTargetRateMustBePositive() {
+        new RateLimiter(0.0D);
+    }
+}
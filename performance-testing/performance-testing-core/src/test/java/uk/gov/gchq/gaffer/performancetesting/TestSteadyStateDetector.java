@@ -0,0 +1,90 @@
+/*
+ * Copyright 2019 Crown Copyright
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package uk.gov.gchq.gaffer.performancetesting;
+
+import org.junit.Test;
+
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+public class TestSteadyStateDetector {
+
+    @Test
+    public void testSteadyStateFoundAfterSlowBatches() {
+        // Given
+        final SteadyStateDetector detector = new SteadyStateDetector(3, 0.05D);
+        final long[] durationsInMillis = {10L, 5L, 3L, 1L, 1L, 1L, 1L, 1L, 1L, 1L, 1L, 1L, 1L};
+
+        // When
+        long time = 0L;
+        for (final long duration : durationsInMillis) {
+            final long end = time + TimeUnit.MILLISECONDS.toNanos(duration);
+            detector.record(1000L, time, end);
+            time = end;
+        }
+        final SteadyStateDetector.Result result = detector.getResult();
+
+        // Then
+        assertTrue(result.isSteadyStateReached());
+        assertEquals(4L, result.getSteadyStateStartBatch());
+        assertEquals(3000.0D / 0.018D, result.getWarmUpRate(), 0.01D);
+        assertEquals(10000.0D / 0.010D, result.getSteadyStateRate(), 0.01D);
+    }
+
+    @Test
+    public void testSteadyFromTheStartHasNoWarmUpRate() {
+        // Given
+        final SteadyStateDetector detector = new SteadyStateDetector(2, 0.05D);
+
+        // When
+        detector.record(100L, 0L, 1000000L);
+        detector.record(100L, 1000000L, 2000000L);
+        final SteadyStateDetector.Result result = detector.getResult();
+
+        // Then
+        assertEquals(1L, result.getSteadyStateStartBatch());
+        assertTrue(Double.isNaN(result.getWarmUpRate()));
+        assertEquals(100000.0D, result.getSteadyStateRate(), 0.01D);
+    }
+
+    @Test
+    public void testSteadyStateNotReachedWhenRatesKeepChanging() {
+        // Given
+        final SteadyStateDetector detector = new SteadyStateDetector(2, 0.05D);
+
+        // When
+        long time = 0L;
+        for (long duration = 1L; duration <= 5L; duration++) {
+            final long end = time + TimeUnit.MILLISECONDS.toNanos(duration);
+            detector.record(1000L, time, end);
+            time = end;
+        }
+        final SteadyStateDetector.Result result = detector.getResult();
+
+        // Then
+        assertFalse(result.isSteadyStateReached());
+        assertEquals(-1L, result.getSteadyStateStartBatch());
+        assertTrue(Double.isNaN(result.getSteadyStateRate()));
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testWindowMustBeAtLeastTwo() {
+        new SteadyStateDetector(1, 0.05D);
+    }
+}
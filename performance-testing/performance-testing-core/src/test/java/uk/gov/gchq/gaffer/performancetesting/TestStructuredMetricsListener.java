@@ -0,0 +1,92 @@
+/*
+ * Copyright 2019 Crown Copyright
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package uk.gov.gchq.gaffer.performancetesting;
+
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import uk.gov.gchq.gaffer.commonutil.CommonTestConstants;
+import uk.gov.gchq.gaffer.performancetesting.ingest.IngestMetrics;
+import uk.gov.gchq.gaffer.performancetesting.query.QueryMetrics;
+import uk.gov.gchq.gaffer.performancetesting.report.MetricsLog;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.List;
+import java.util.Properties;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+public class TestStructuredMetricsListener {
+
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder(CommonTestConstants.TMP_DIRECTORY);
+
+    @Test
+    public void testJsonLogCanBeReadBack() throws IOException {
+        testLogCanBeReadBack(StructuredMetricsListener.Format.JSON);
+    }
+
+    @Test
+    public void testCsvLogCanBeReadBack() throws IOException {
+        testLogCanBeReadBack(StructuredMetricsListener.Format.CSV);
+    }
+
+    private void testLogCanBeReadBack(final StructuredMetricsListener.Format format) throws IOException {
+        // Given
+        final File file = folder.newFile();
+        final Properties properties = new Properties();
+        properties.setProperty(StructuredMetricsListener.FILENAME, file.getAbsolutePath());
+        properties.setProperty(StructuredMetricsListener.FORMAT, format.name());
+        properties.setProperty(StructuredMetricsListener.RUN_ID, "run,1");
+        properties.setProperty("gaffer.graph.id", "graph1");
+        properties.setProperty("accumulo.password", "secret");
+        final StructuredMetricsListener listener = new StructuredMetricsListener();
+        listener.initialise(properties);
+
+        // When
+        for (int i = 1; i <= 3; i++) {
+            final IngestMetrics metrics = new IngestMetrics();
+            metrics.putMetric(IngestMetrics.ELEMENTS_PER_SECOND_BATCH, 100.0D * i);
+            listener.update(metrics);
+        }
+        listener.update(new QueryMetrics(1.5D, 2.5D));
+        listener.close();
+        final MetricsLog log = MetricsLog.read(file.toPath());
+
+        // Then
+        assertEquals("run,1", log.getRunId());
+        assertTrue(log.getStartTime() > 0L);
+        assertEquals("graph1", log.getProperties().get("gaffer.graph.id"));
+        assertFalse(log.getProperties().containsKey("accumulo.password"));
+        final List<MetricsLog.Record> records = log.getRecords();
+        assertEquals(4, records.size());
+        for (int i = 0; i < 3; i++) {
+            assertEquals("IngestMetrics", records.get(i).getType());
+            assertEquals(i + 1, records.get(i).getSequence());
+            assertEquals(1, records.get(i).getValues().size());
+            assertEquals(100.0D * (i + 1), records.get(i).getValues().get(IngestMetrics.ELEMENTS_PER_SECOND_BATCH),
+                    0.0D);
+        }
+        assertEquals("QueryMetrics", records.get(3).getType());
+        assertEquals(1L, records.get(3).getSequence());
+        assertEquals(1.5D, records.get(3).getValues().get(QueryMetrics.SEEDS_PER_SECOND), 0.0D);
+        assertEquals(2.5D, records.get(3).getValues().get(QueryMetrics.RESULTS_PER_SECOND), 0.0D);
+    }
+}
@@ -0,0 +1,155 @@
+/*
+ * Copyright 2019 Crown Copyright
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package uk.gov.gchq.gaffer.performancetesting.corpus;
+
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import uk.gov.gchq.gaffer.commonutil.CommonTestConstants;
+import uk.gov.gchq.gaffer.commonutil.StreamUtil;
+import uk.gov.gchq.gaffer.data.element.Element;
+import uk.gov.gchq.gaffer.data.element.Entity;
+import uk.gov.gchq.gaffer.operation.data.EdgeSeed;
+import uk.gov.gchq.gaffer.operation.data.ElementSeed;
+import uk.gov.gchq.gaffer.operation.data.EntitySeed;
+import uk.gov.gchq.gaffer.randomelementgeneration.Constants;
+import uk.gov.gchq.gaffer.randomelementgeneration.supplier.RmatElementSpliterator;
+import uk.gov.gchq.gaffer.store.schema.Schema;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.stream.Collectors;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+public class TestElementCorpus {
+
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder(CommonTestConstants.TMP_DIRECTORY);
+
+    @Test
+    public void testElementsAreReplayedInOrder() throws IOException {
+        // Given
+        final Schema schema = Schema.fromJson(StreamUtil.schemas(Constants.class));
+        final List<Element> elements = createElements();
+        final File corpus = folder.newFile();
+        try (final ElementCorpusWriter writer = new ElementCorpusWriter(corpus.toPath(), schema)) {
+            writer.write(elements);
+        }
+
+        // When - use small regions so that elements span the boundaries between regions
+        final ElementCorpusReader reader = new ElementCorpusReader(corpus.toPath(), schema, 1000);
+        final List<Element> read = new ArrayList<>();
+        reader.forEach(read::add);
+        final List<Element> readAgain = new ArrayList<>();
+        reader.forEach(readAgain::add);
+
+        // Then
+        assertEquals(elements.size(), reader.getNumElements());
+        assertEquals(elements, read);
+        assertEquals(elements, readAgain);
+    }
+
+    @Test
+    public void testSeedsAreCreatedForEachElement() throws IOException {
+        // Given
+        final Schema schema = Schema.fromJson(StreamUtil.schemas(Constants.class));
+        final List<Element> elements = createElements();
+        final File corpus = folder.newFile();
+        try (final ElementCorpusWriter writer = new ElementCorpusWriter(corpus.toPath(), schema)) {
+            writer.write(elements);
+        }
+
+        // When
+        final List<ElementSeed> seeds = new ArrayList<>();
+        new ElementCorpusReader(corpus.toPath(), schema).seeds().forEach(seeds::add);
+
+        // Then
+        assertEquals(elements.size(), seeds.size());
+        for (int i = 0; i < elements.size(); i++) {
+            if (elements.get(i) instanceof Entity) {
+                assertTrue(seeds.get(i) instanceof EntitySeed);
+            } else {
+                assertTrue(seeds.get(i) instanceof EdgeSeed);
+            }
+        }
+    }
+
+    @Test
+    public void testSeedSupplierStartsAgainWhenCorpusIsExhausted() throws IOException {
+        // Given
+        final Schema schema = Schema.fromJson(StreamUtil.schemas(Constants.class));
+        final File corpus = folder.newFile();
+        try (final ElementCorpusWriter writer = new ElementCorpusWriter(corpus.toPath(), schema)) {
+            writer.write(createElements());
+        }
+        final CorpusSeedSupplier supplier = new CorpusSeedSupplier(new ElementCorpusReader(corpus.toPath(), schema));
+
+        // When / Then
+        for (int i = 0; i < 2500; i++) {
+            assertTrue(null != supplier.get());
+        }
+    }
+
+    @Test
+    public void testSeedSupplierCanStartPartWayThroughCorpus() throws IOException {
+        // Given
+        final Schema schema = Schema.fromJson(StreamUtil.schemas(Constants.class));
+        final File corpus = folder.newFile();
+        try (final ElementCorpusWriter writer = new ElementCorpusWriter(corpus.toPath(), schema)) {
+            writer.write(createElements());
+        }
+        // Use small regions so that the skipped elements span the boundaries between regions
+        final ElementCorpusReader reader = new ElementCorpusReader(corpus.toPath(), schema, 1000);
+        final List<ElementSeed> seeds = new ArrayList<>();
+        reader.seeds().forEach(seeds::add);
+
+        // When
+        final CorpusSeedSupplier supplier = new CorpusSeedSupplier(reader, 300L);
+
+        // Then
+        for (int i = 0; i < 1500; i++) {
+            assertEquals(seeds.get((300 + i) % seeds.size()), supplier.get());
+        }
+    }
+
+    @Test(expected = IOException.class)
+    public void testFileThatIsNotACorpusIsRejected() throws IOException {
+        // Given
+        final File notACorpus = folder.newFile();
+        Files.write(notACorpus.toPath(), "This is not a corpus file".getBytes());
+
+        // When
+        new ElementCorpusReader(notACorpus.toPath(), Schema.fromJson(StreamUtil.schemas(Constants.class)));
+    }
+
+    private static List<Element> createElements() {
+        final List<Element> elements = RmatElementSpliterator
+                .stream(Constants.RMAT_PROBABILITIES, 1000L, false, 1L, 1000L, false)
+                .collect(Collectors.toList());
+        for (long i = 0L; i < 10L; i++) {
+            final Entity entity = new Entity("entityGroup", i);
+            entity.putProperty("count", i);
+            elements.add(entity);
+        }
+        return elements;
+    }
+}
@@ -0,0 +1,126 @@
+/*
+ * Copyright 2019 Crown Copyright
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package uk.gov.gchq.gaffer.performancetesting.ingest;
+
+import org.junit.Test;
+
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+public class TestAimdController {
+    private static final long TARGET = TimeUnit.MILLISECONDS.toNanos(100L);
+    private static final long FAST = TimeUnit.MILLISECONDS.toNanos(10L);
+    private static final long SLOW = TimeUnit.MILLISECONDS.toNanos(500L);
+
+    private static void completeRound(final AimdController controller) throws InterruptedException {
+        final int concurrency = controller.getConcurrency();
+        final AimdController.Permit[] permits = new AimdController.Permit[concurrency];
+        for (int i = 0; i < concurrency; i++) {
+            permits[i] = controller.acquire();
+        }
+        for (final AimdController.Permit permit : permits) {
+            controller.complete(permit, FAST, true);
+        }
+    }
+
+    @Test
+    public void testIncreasesAdditivelyAfterEachRound() throws InterruptedException {
+        // Given
+        final AimdController controller = new AimdController(100, 10, 1000, 50, 4, TARGET, 0.5D);
+
+        // When - one batch completes the first round, then two batches complete the second
+        controller.complete(controller.acquire(), FAST, true);
+        final AimdController.Permit first = controller.acquire();
+        final AimdController.Permit second = controller.acquire();
+        controller.complete(first, FAST, true);
+        controller.complete(second, FAST, true);
+
+        // Then
+        assertEquals(200, controller.getBatchSize());
+        assertEquals(3, controller.getConcurrency());
+        assertEquals(2L, controller.getNumIncreases());
+    }
+
+    @Test
+    public void testDecreasesMultiplicativelyOnceForBatchesInFlight() throws InterruptedException {
+        // Given
+        final AimdController controller = new AimdController(400, 10, 1000, 50, 4, TARGET, 0.5D);
+        for (int i = 0; i < 3; i++) {
+            completeRound(controller);
+        }
+        final int batchSizeBefore = controller.getBatchSize();
+        final int concurrencyBefore = controller.getConcurrency();
+
+        // When - two batches in flight at the same time are both slow
+        final AimdController.Permit slow1 = controller.acquire();
+        final AimdController.Permit slow2 = controller.acquire();
+        controller.complete(slow1, SLOW, true);
+        controller.complete(slow2, FAST, false);
+
+        // Then
+        assertEquals(4, concurrencyBefore);
+        assertEquals(batchSizeBefore / 2, controller.getBatchSize());
+        assertEquals(2, controller.getConcurrency());
+        assertEquals(1L, controller.getNumDecreases());
+    }
+
+    @Test
+    public void testBatchSizeStaysWithinLimits() throws InterruptedException {
+        // Given
+        final AimdController controller = new AimdController(20, 10, 30, 50, 1, TARGET, 0.1D);
+
+        // When
+        controller.complete(controller.acquire(), FAST, true);
+        final int afterIncrease = controller.getBatchSize();
+        controller.complete(controller.acquire(), SLOW, true);
+        final int afterDecrease = controller.getBatchSize();
+
+        // Then
+        assertEquals(30, afterIncrease);
+        assertEquals(10, afterDecrease);
+        assertEquals(1, controller.getConcurrency());
+    }
+
+    @Test
+    public void testAcquireWaitsForConcurrency() throws InterruptedException {
+        // Given
+        final AimdController controller = new AimdController(100, 10, 1000, 50, 4, TARGET, 0.5D);
+        final AimdController.Permit permit = controller.acquire();
+        final CountDownLatch acquired = new CountDownLatch(1);
+        final Thread thread = new Thread(() -> {
+            try {
+                controller.acquire();
+                acquired.countDown();
+            } catch (final InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        });
+
+        // When
+        thread.start();
+        final boolean acquiredBeforeRelease = acquired.await(100L, TimeUnit.MILLISECONDS);
+        controller.release(permit);
+        final boolean acquiredAfterRelease = acquired.await(5L, TimeUnit.SECONDS);
+
+        // Then
+        assertFalse(acquiredBeforeRelease);
+        assertTrue(acquiredAfterRelease);
+    }
+}
@@ -0,0 +1,163 @@
+/*
+ * Copyright 2019 Crown Copyright
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package uk.gov.gchq.gaffer.performancetesting.ingest;
+
+import com.clearspring.analytics.stream.cardinality.HyperLogLogPlus;
+import org.junit.Test;
+
+import uk.gov.gchq.gaffer.commonutil.StreamUtil;
+import uk.gov.gchq.gaffer.data.element.Edge;
+import uk.gov.gchq.gaffer.data.element.Element;
+import uk.gov.gchq.gaffer.data.element.Entity;
+import uk.gov.gchq.gaffer.randomelementgeneration.Constants;
+import uk.gov.gchq.gaffer.store.schema.Schema;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Iterator;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+public class TestElementCombiner {
+    private static final Schema SCHEMA = Schema.fromJson(StreamUtil.schemas(Constants.class));
+
+    @Test
+    public void shouldMergeDuplicateElements() {
+        // Given
+        final ElementCombiner combiner = new ElementCombiner(SCHEMA, 10);
+        final List<Element> elements = Arrays.asList(edge(1L, 2L), entity(1L, 2L), edge(1L, 2L), edge(2L, 1L),
+                entity(1L, 3L), entity(2L, 1L));
+
+        // When
+        final ElementCombiner.CombinedElements combined = combiner.combine(elements);
+        final List<Element> result = toList(combined);
+
+        // Then
+        assertEquals(4, result.size());
+        assertEquals(2L, result.get(0).getProperty("count"));
+        assertEquals(2L, result.get(1).getProperty("count"));
+        assertEquals(2L, ((HyperLogLogPlus) result.get(1).getProperty("approxDegree")).cardinality());
+        assertEquals(1L, result.get(2).getProperty("count"));
+        assertEquals(1L, result.get(3).getProperty("count"));
+        assertEquals(6L, combined.getElementsIn());
+        assertEquals(4L, combined.getElementsOut());
+        assertEquals(1.0D / 3.0D, combined.getReductionRatio(), 1.0E-9D);
+    }
+
+    @Test
+    public void shouldNotChangeCountsOfInputElements() {
+        // Given
+        final ElementCombiner combiner = new ElementCombiner(SCHEMA, 10);
+        final List<Element> elements = Arrays.asList(edge(1L, 2L), edge(1L, 2L));
+
+        // When
+        toList(combiner.combine(elements));
+        toList(combiner.combine(elements));
+
+        // Then
+        assertEquals(1L, elements.get(0).getProperty("count"));
+        assertEquals(1L, elements.get(1).getProperty("count"));
+    }
+
+    @Test
+    public void shouldOnlyMergeElementsWithinTheWindow() {
+        // Given
+        final ElementCombiner combiner = new ElementCombiner(SCHEMA, 2);
+        final List<Element> elements = Arrays.asList(edge(1L, 2L), edge(2L, 3L), edge(3L, 4L), edge(1L, 2L),
+                edge(3L, 4L));
+
+        // When
+        final List<Element> result = toList(combiner.combine(elements));
+
+        // Then
+        final Edge mergedEdge = edge(3L, 4L);
+        mergedEdge.putProperty("count", 2L);
+        assertEquals(Arrays.asList(edge(1L, 2L), edge(2L, 3L), mergedEdge, edge(1L, 2L)), result);
+    }
+
+    @Test
+    public void shouldCountElementsOverAllBatches() {
+        // Given
+        final ElementCombiner combiner = new ElementCombiner(SCHEMA, 10);
+
+        // When
+        toList(combiner.combine(Arrays.asList(edge(1L, 2L), edge(1L, 2L), edge(1L, 2L), edge(1L, 2L))));
+        toList(combiner.combine(Arrays.asList(edge(1L, 2L), edge(2L, 3L), edge(3L, 4L), edge(4L, 5L))));
+
+        // Then
+        assertEquals(8L, combiner.getTotalElementsIn());
+        assertEquals(5L, combiner.getTotalElementsOut());
+        assertEquals(3.0D / 8.0D, combiner.getReductionRatio(), 1.0E-9D);
+    }
+
+    @Test
+    public void shouldNotIncludeTimeTakenToReadInputInCombiningTime() {
+        // Given
+        final ElementCombiner combiner = new ElementCombiner(SCHEMA, 10);
+        final List<Element> elements = Arrays.asList(edge(1L, 2L), edge(1L, 2L), edge(2L, 3L));
+        final long readDelayInMillis = 50L;
+        final Iterable<Element> slowInput = () -> new Iterator<Element>() {
+            private final Iterator<Element> iterator = elements.iterator();
+
+            @Override
+            public boolean hasNext() {
+                return iterator.hasNext();
+            }
+
+            @Override
+            public Element next() {
+                try {
+                    TimeUnit.MILLISECONDS.sleep(readDelayInMillis);
+                } catch (final InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+                return iterator.next();
+            }
+        };
+
+        // When
+        final ElementCombiner.CombinedElements combined = combiner.combine(slowInput);
+        toList(combined);
+
+        // Then
+        assertTrue(combined.getCombiningNanos() < TimeUnit.MILLISECONDS.toNanos(readDelayInMillis));
+        assertEquals(combined.getCombiningNanos(), combiner.getTotalCombiningNanos());
+    }
+
+    private static List<Element> toList(final Iterable<Element> elements) {
+        final List<Element> list = new ArrayList<>();
+        elements.forEach(list::add);
+        return list;
+    }
+
+    private static Edge edge(final long source, final long destination) {
+        final Edge edge = new Edge("edgeGroup", source, destination, true);
+        edge.putProperty("count", 1L);
+        return edge;
+    }
+
+    private static Entity entity(final long vertex, final long neighbour) {
+        final Entity entity = new Entity("entityGroup", vertex);
+        entity.putProperty("count", 1L);
+        final HyperLogLogPlus hllpp = new HyperLogLogPlus(5, 5);
+        hllpp.offer(neighbour);
+        entity.putProperty("approxDegree", hllpp);
+        return entity;
+    }
+}
@@ -24,15 +24,28 @@ import uk.gov.gchq.gaffer.accumulostore.AccumuloProperties;
 import uk.gov.gchq.gaffer.accumulostore.MockAccumuloStore;
 import uk.gov.gchq.gaffer.commonutil.CommonTestConstants;
 import uk.gov.gchq.gaffer.commonutil.StreamUtil;
+import uk.gov.gchq.gaffer.data.element.Edge;
+import uk.gov.gchq.gaffer.data.element.Element;
+import uk.gov.gchq.gaffer.data.element.Entity;
 import uk.gov.gchq.gaffer.graph.Graph;
+import uk.gov.gchq.gaffer.operation.OperationException;
+import uk.gov.gchq.gaffer.operation.impl.get.GetAllElements;
 import uk.gov.gchq.gaffer.performancetesting.FileWriterMetricsListener;
 import uk.gov.gchq.gaffer.randomelementgeneration.Constants;
 import uk.gov.gchq.gaffer.randomelementgeneration.supplier.RmatElementSupplier;
+import uk.gov.gchq.gaffer.user.User;
 
 import java.io.File;
 import java.io.IOException;
+import java.util.HashMap;
+import java.util.HashSet;
 import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.function.Consumer;
 
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
 import static org.junit.Assert.assertTrue;
 
 public class TestElementIngestTest {
@@ -65,6 +78,185 @@ public class TestElementIngestTest {
         assertTrue(result > 0.0D);
     }
 
+    @Test
+    public void testElementIngestTestRunsWithMultipleThreads() throws IOException {
+        // Given
+        final ElementIngestTestProperties testProperties = createTestProperties();
+        testProperties.setNumElements(100L);
+        testProperties.setBatchSize(10);
+        testProperties.setNumThreads(4);
+
+        // When
+        final Run run = runAndReadMetrics(testProperties);
+
+        // Then
+        assertTrue(run.rate > 0.0D);
+        assertEquals(10L, countLinesWith(run.lines, IngestMetrics.ELEMENTS_PER_SECOND_BATCH));
+        assertEquals(4L, countLinesWith(run.lines, IngestMetrics.ELEMENTS_PER_SECOND_WORKER));
+    }
+
+    @Test
+    public void testWorkerRatesIncludeTimeSpentWaitingForTheRateLimiter() throws IOException {
+        // Given
+        final ElementIngestTestProperties testProperties = createTestProperties();
+        testProperties.setNumElements(1000L);
+        testProperties.setBatchSize(10);
+        testProperties.setNumThreads(2);
+        testProperties.setTargetElementsPerSecond(500.0D);
+
+        // When
+        final Run run = runAndReadMetrics(testProperties);
+
+        // Then
+        final double sumOfWorkerRates = run.lines.stream()
+                .map(TestElementIngestTest::parseLine)
+                .filter(values -> values.containsKey(IngestMetrics.ELEMENTS_PER_SECOND_WORKER))
+                .mapToDouble(values -> Double.parseDouble(values.get(IngestMetrics.ELEMENTS_PER_SECOND_WORKER)))
+                .sum();
+        assertTrue(sumOfWorkerRates > 0.0D);
+        assertTrue(sumOfWorkerRates < 600.0D);
+    }
+
+    @Test
+    public void testAdaptiveElementIngestTestReportsBatchSizeAndConcurrency() throws IOException {
+        // Given
+        final ElementIngestTestProperties testProperties = createTestProperties();
+        testProperties.setNumElements(1000L);
+        testProperties.setBatchSize(10);
+        testProperties.setNumThreads(4);
+        testProperties.setAdaptive(true);
+        testProperties.setAdaptiveBatchSizeIncrement(10);
+        testProperties.setAdaptiveTargetLatencyMillis(60000L);
+
+        // When
+        final Run run = runAndReadMetrics(testProperties);
+
+        // Then
+        assertTrue(run.rate > 0.0D);
+        final long numBatchSizeLines = countLinesWith(run.lines, IngestMetrics.INGEST_BATCH_SIZE);
+        final long numBatchLines = countLinesWith(run.lines, IngestMetrics.ELEMENTS_PER_SECOND_BATCH);
+        // Every batch is within the target latency so the batch size grows, giving fewer than 100 batches
+        assertTrue(numBatchLines < 100L);
+        assertEquals(numBatchLines + 1L, numBatchSizeLines);
+    }
+
+    @Test
+    public void testAdaptiveElementIngestTestReportsBatchSizeAndConcurrencyOnInterval() throws IOException {
+        // Given
+        final ElementIngestTestProperties testProperties = createTestProperties();
+        testProperties.setNumElements(1000L);
+        testProperties.setBatchSize(10);
+        testProperties.setNumThreads(4);
+        testProperties.setAdaptive(true);
+        testProperties.setReportingIntervalSeconds(1L);
+
+        // When
+        final Run run = runAndReadMetrics(testProperties);
+
+        // Then
+        final long numIntervalLines = countLinesWith(run.lines, IngestMetrics.ELEMENTS_PER_SECOND_REPORTING_INTERVAL);
+        assertTrue(numIntervalLines >= 1L);
+        assertEquals(0L, countLinesWith(run.lines, IngestMetrics.ELEMENTS_PER_SECOND_BATCH));
+        for (final String line : run.lines) {
+            final Map<String, String> values = parseLine(line);
+            if (values.containsKey(IngestMetrics.ELEMENTS_PER_SECOND_REPORTING_INTERVAL)) {
+                assertTrue(values.containsKey(IngestMetrics.INGEST_BATCH_SIZE));
+                assertTrue(values.containsKey(IngestMetrics.INGEST_CONCURRENCY));
+            }
+        }
+    }
+
+    @Test
+    public void testPipelinedElementIngestTestAddsEveryBatch() throws IOException {
+        // Given
+        final ElementIngestTestProperties testProperties = createTestProperties();
+        testProperties.setNumElements(95L);
+        testProperties.setBatchSize(10);
+        testProperties.setNumThreads(2);
+        testProperties.setPipelined(true);
+        testProperties.setPipelineGeneratorThreads(2);
+        testProperties.setPipelineBufferSize(2);
+
+        // When
+        final Run run = runAndReadMetrics(testProperties);
+
+        // Then
+        assertTrue(run.rate > 0.0D);
+        assertEquals(10L, countLinesWith(run.lines, IngestMetrics.ELEMENTS_PER_SECOND_BATCH));
+        assertEquals(1L, countLinesWith(run.lines, IngestMetrics.PIPELINE_WRITER_STALL_MILLIS));
+        assertEquals(10L, run.test.getBatchLatencies().getTotalCount());
+    }
+
+    @Test
+    public void testPreAggregatingElementIngestTestReportsReductionRatio() throws IOException {
+        // Given
+        final ElementIngestTestProperties testProperties = createTestProperties();
+        testProperties.setNumElements(200L);
+        testProperties.setBatchSize(50);
+        testProperties.setPreAggregate(true);
+        testProperties.setRmatMaxNodeId(10L);
+
+        // When
+        final Run run = runAndReadMetrics(testProperties);
+
+        // Then
+        assertTrue(run.rate > 0.0D);
+        assertEquals(4L, countLinesWith(run.lines, IngestMetrics.PRE_AGGREGATION_REDUCTION_RATIO_BATCH));
+        assertEquals(4L, countLinesWith(run.lines, IngestMetrics.PRE_AGGREGATION_MILLIS_BATCH));
+        assertEquals(4L, countLinesWith(run.lines, IngestMetrics.STORE_MILLIS_BATCH));
+        final Map<String, String> overall = parseLine(run.lines.get(run.lines.size() - 1));
+        // With only 10 vertices many of the elements are duplicates
+        assertTrue(Double.parseDouble(overall.get(IngestMetrics.PRE_AGGREGATION_REDUCTION_RATIO_OVERALL)) > 0.0D);
+        assertTrue(overall.containsKey(IngestMetrics.PRE_AGGREGATION_MILLIS_TOTAL));
+    }
+
+    @Test
+    public void testPreAggregatingElementIngestTestReportsReductionRatioOnInterval() throws IOException {
+        // Given
+        final ElementIngestTestProperties testProperties = createTestProperties();
+        testProperties.setNumElements(200L);
+        testProperties.setBatchSize(50);
+        testProperties.setPreAggregate(true);
+        testProperties.setRmatMaxNodeId(10L);
+        testProperties.setReportingIntervalSeconds(1L);
+
+        // When
+        final Run run = runAndReadMetrics(testProperties);
+
+        // Then
+        assertEquals(0L, countLinesWith(run.lines, IngestMetrics.PRE_AGGREGATION_REDUCTION_RATIO_BATCH));
+        final long numIntervalLines = countLinesWith(run.lines, IngestMetrics.ELEMENTS_PER_SECOND_REPORTING_INTERVAL);
+        assertTrue(numIntervalLines >= 1L);
+        assertEquals(numIntervalLines,
+                countLinesWith(run.lines, IngestMetrics.PRE_AGGREGATION_REDUCTION_RATIO_REPORTING_INTERVAL));
+        assertEquals(numIntervalLines,
+                countLinesWith(run.lines, IngestMetrics.PRE_AGGREGATION_MILLIS_REPORTING_INTERVAL));
+        assertEquals(numIntervalLines, countLinesWith(run.lines, IngestMetrics.STORE_MILLIS_REPORTING_INTERVAL));
+    }
+
+    @Test
+    public void testElementIngestTestRunsForDurationAndReportsOnInterval() throws IOException {
+        // Given
+        final ElementIngestTestProperties testProperties = createTestProperties();
+        testProperties.setDurationSeconds(2L);
+        testProperties.setReportingIntervalSeconds(1L);
+        testProperties.setTargetElementsPerSecond(500.0D);
+        testProperties.setBatchSize(10);
+
+        // When
+        final Run run = runAndReadMetrics(testProperties);
+
+        // Then
+        assertTrue(run.rate > 0.0D);
+        assertTrue(run.rate < 600.0D);
+        assertEquals(0L, countLinesWith(run.lines, IngestMetrics.ELEMENTS_PER_SECOND_BATCH));
+        final long numIntervalLines = countLinesWith(run.lines, IngestMetrics.ELEMENTS_PER_SECOND_REPORTING_INTERVAL);
+        assertTrue(numIntervalLines >= 2L);
+        assertEquals(numIntervalLines, countLinesWith(run.lines, IngestMetrics.JVM_GC_COUNT_REPORTING_INTERVAL));
+        assertEquals(numIntervalLines, countLinesWith(run.lines, IngestMetrics.JVM_GC_TIME_MILLIS_REPORTING_INTERVAL));
+        assertEquals(0L, countLinesWith(run.lines, IngestMetrics.JVM_GC_COUNT_BATCH));
+    }
+
     @Test
     public void testElementIngestTestOutputsToListener() throws IOException {
         // Given
@@ -93,21 +285,142 @@ public class TestElementIngestTest {
 
         // Then
         assertTrue(lines.size() > 0);
-        final int offsetBatch = IngestMetrics.ELEMENTS_PER_SECOND_BATCH.length() + 1;
-        final int offsetOverall = IngestMetrics.ELEMENTS_PER_SECOND_OVERALL.length() + 1;
+        final Set<String> batchNumbers = new HashSet<>();
         for (int i = 0; i < lines.size() - 2; i++) {
-            final String[] tokens = lines.get(i).split(",");
-            assertTrue(tokens[0].replaceAll(" ", "").startsWith(IngestMetrics.ELEMENTS_PER_SECOND_BATCH + ":"));
-            assertTrue(nullOrPositive(tokens[0].substring(offsetBatch)));
-            assertTrue(tokens[1].replaceAll(" ", "").startsWith(IngestMetrics.ELEMENTS_PER_SECOND_OVERALL + ":"));
-            assertTrue(nullOrPositive(tokens[1].substring(offsetOverall)));
+            final Map<String, String> values = parseLine(lines.get(i));
+            assertTrue(Double.parseDouble(values.get(IngestMetrics.ELEMENTS_PER_SECOND_BATCH)) > 0.0D);
+            assertFalse(values.containsKey(IngestMetrics.ELEMENTS_PER_SECOND_OVERALL));
+            batchNumbers.add(values.get(IngestMetrics.BATCH_NUMBER));
         }
+        assertFalse(batchNumbers.contains(null));
+        assertEquals(lines.size() - 2, batchNumbers.size());
+    }
+
+    @Test
+    public void testSeededElementIngestTestAddsSameElementsWhateverBatchSizesAndThreads() throws OperationException {
+        // Given
+        final long numElements = 300L;
+
+        // When
+        final Map<String, Long> singleThreaded = runSeededTest("seeded1", numElements, 10, 1,
+                properties -> properties.setPipelined(false));
+        final Map<String, Long> multiThreaded = runSeededTest("seeded2", numElements, 25, 3,
+                properties -> properties.setPipelined(false));
+        final Map<String, Long> adaptive = runSeededTest("seeded3", numElements, 10, 3, properties -> {
+            properties.setAdaptive(true);
+            properties.setAdaptiveBatchSizeIncrement(7);
+            properties.setAdaptiveTargetLatencyMillis(60000L);
+        });
+        final Map<String, Long> pipelined = runSeededTest("seeded4", numElements, 40, 2, properties -> {
+            properties.setPipelined(true);
+            properties.setPipelineGeneratorThreads(2);
+            properties.setPipelineBufferSize(2);
+        });
+
+        // Then
+        assertEquals(singleThreaded, multiThreaded);
+        assertEquals(singleThreaded, adaptive);
+        assertEquals(singleThreaded, pipelined);
+        // Every element of the first 100 edges (each of which has up to 3 elements) was added
+        final long numEdges = singleThreaded.entrySet().stream()
+                .filter(entry -> entry.getKey().startsWith("edgeGroup"))
+                .mapToLong(Map.Entry::getValue)
+                .sum();
+        final long numEntities = singleThreaded.entrySet().stream()
+                .filter(entry -> entry.getKey().startsWith("entityGroup"))
+                .mapToLong(Map.Entry::getValue)
+                .sum();
+        assertEquals(numElements / 3L, numEdges);
+        assertTrue(numEntities > numEdges);
     }
 
-    private boolean nullOrPositive(final String string) {
-        if (string.equals(": null")) {
-            return true;
+    private Map<String, Long> runSeededTest(final String graphId, final long numElements, final int batchSize,
+                                            final int numThreads, final Consumer<ElementIngestTestProperties> mode)
+            throws OperationException {
+        final ElementIngestTestProperties testProperties = new ElementIngestTestProperties();
+        testProperties.setNumElements(numElements);
+        testProperties.setBatchSize(batchSize);
+        testProperties.setNumThreads(numThreads);
+        testProperties.setSeed(1L);
+        testProperties.setElementSupplierClass(RmatElementSupplier.class.getName());
+        testProperties.setRmatProbabilities(Constants.RMAT_PROBABILITIES);
+        testProperties.setRmatMaxNodeId(100L);
+        testProperties.setRmatIncludeEntities(true);
+        mode.accept(testProperties);
+        final Graph graph = createGraph(graphId);
+        new ElementIngestTest(graph, testProperties).run();
+        // The count of each element is the number of times it was added
+        final Map<String, Long> counts = new HashMap<>();
+        for (final Element element : graph.execute(new GetAllElements(), new User())) {
+            final String key;
+            if (element instanceof Edge) {
+                final Edge edge = (Edge) element;
+                key = edge.getGroup() + " " + edge.getSource() + " " + edge.getDestination() + " " + edge.isDirected();
+            } else {
+                key = element.getGroup() + " " + ((Entity) element).getVertex();
+            }
+            counts.put(key, (Long) element.getProperty("count"));
+        }
+        return counts;
+    }
+
+    private static ElementIngestTestProperties createTestProperties() {
+        final ElementIngestTestProperties testProperties = new ElementIngestTestProperties();
+        testProperties.setElementSupplierClass(RmatElementSupplier.class.getName());
+        testProperties.setRmatProbabilities(Constants.RMAT_PROBABILITIES);
+        testProperties.setRmatMaxNodeId(100L);
+        return testProperties;
+    }
+
+    private static Graph createGraph(final String graphId) {
+        final AccumuloProperties storeProperties = new AccumuloProperties();
+        storeProperties.setStoreClass(MockAccumuloStore.class.getName());
+        return new Graph.Builder()
+                .graphId(graphId)
+                .storeProperties(storeProperties)
+                .addSchemas(StreamUtil.schemas(Constants.class))
+                .build();
+    }
+
+    /**
+     * Runs the test with a {@link FileWriterMetricsListener} and reads back the lines it wrote.
+     */
+    private Run runAndReadMetrics(final ElementIngestTestProperties testProperties) throws IOException {
+        final File metricsResults = folder.newFile();
+        testProperties.setMetricsListenerClass(FileWriterMetricsListener.class.getName());
+        testProperties.setProperty(FileWriterMetricsListener.FILENAME, metricsResults.getPath());
+        final ElementIngestTest test = new ElementIngestTest(createGraph("id"), testProperties);
+        final double rate = test.run();
+        return new Run(test, rate, FileUtils.readLines(metricsResults));
+    }
+
+    /**
+     * @return the number of lines that have a value for the metric
+     */
+    private static long countLinesWith(final List<String> lines, final String metricName) {
+        return lines.stream()
+                .filter(line -> parseLine(line).containsKey(metricName))
+                .count();
+    }
+
+    private static Map<String, String> parseLine(final String line) {
+        final Map<String, String> values = new HashMap<>();
+        for (final String token : line.split(",")) {
+            final String[] nameAndValue = token.split(":");
+            values.put(nameAndValue[0].trim(), nameAndValue[1].trim());
+        }
+        return values;
+    }
+
+    private static final class Run {
+        private final ElementIngestTest test;
+        private final double rate;
+        private final List<String> lines;
+
+        private Run(final ElementIngestTest test, final double rate, final List<String> lines) {
+            this.test = test;
+            this.rate = rate;
+            this.lines = lines;
         }
-        return Double.parseDouble(string) > 0.0D;
     }
 }
@@ -0,0 +1,125 @@
+/*
+ * Copyright 2019 Crown Copyright
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package uk.gov.gchq.gaffer.performancetesting.ingest;
+
+import org.junit.Test;
+
+import uk.gov.gchq.gaffer.data.element.Element;
+import uk.gov.gchq.gaffer.data.element.Entity;
+import uk.gov.gchq.gaffer.operation.OperationException;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Supplier;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+public class TestIngestPipeline {
+
+    private static Supplier<IngestPipeline.Batch> source(final long numBatches, final int batchSize,
+                                                         final long delayInMillis) {
+        final AtomicLong batchCounter = new AtomicLong(0L);
+        return () -> {
+            final long batchNumber = batchCounter.incrementAndGet();
+            if (batchNumber > numBatches) {
+                return null;
+            }
+            sleep(delayInMillis);
+            final List<Element> elements = new ArrayList<>();
+            for (int i = 0; i < batchSize; i++) {
+                elements.add(new Entity("BasicEntity", "" + batchNumber + "-" + i));
+            }
+            return new IngestPipeline.Batch(batchNumber, elements);
+        };
+    }
+
+    private static void sleep(final long millis) {
+        try {
+            TimeUnit.MILLISECONDS.sleep(millis);
+        } catch (final InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    @Test
+    public void testEveryBatchIsWrittenOnce() {
+        // Given
+        final IngestPipeline pipeline = new IngestPipeline(3, 4, 2);
+        final Set<Long> written = ConcurrentHashMap.newKeySet();
+        final AtomicLong numWrites = new AtomicLong(0L);
+
+        // When
+        final long total = pipeline.run(source(50L, 10, 0L), batch -> {
+            written.add(batch.getBatchNumber());
+            numWrites.incrementAndGet();
+        });
+
+        // Then
+        assertEquals(500L, total);
+        assertEquals(50L, numWrites.get());
+        assertEquals(50, written.size());
+    }
+
+    @Test
+    public void testWritersStallWhenGenerationIsSlow() {
+        // Given
+        final IngestPipeline pipeline = new IngestPipeline(1, 2, 4);
+
+        // When
+        pipeline.run(source(10L, 1, 20L), batch -> {
+        });
+
+        // Then
+        assertTrue(pipeline.getWriterStallNanos() >= TimeUnit.MILLISECONDS.toNanos(150L));
+    }
+
+    @Test
+    public void testGeneratorsStallWhenWritingIsSlow() {
+        // Given
+        final IngestPipeline pipeline = new IngestPipeline(2, 1, 1);
+
+        // When
+        pipeline.run(source(10L, 1, 0L), batch -> sleep(20L));
+
+        // Then
+        assertTrue(pipeline.getGeneratorStallNanos() >= TimeUnit.MILLISECONDS.toNanos(150L));
+    }
+
+    @Test
+    public void testWriterExceptionStopsPipeline() {
+        // Given
+        final IngestPipeline pipeline = new IngestPipeline(1, 2, 2);
+
+        // When
+        try {
+            pipeline.run(source(Long.MAX_VALUE, 1, 0L), batch -> {
+                if (5L == batch.getBatchNumber()) {
+                    throw new OperationException("Failed to add batch");
+                }
+            });
+            fail("Exception expected");
+        } catch (final RuntimeException e) {
+            // Then
+            assertTrue(e.getCause() instanceof OperationException);
+        }
+    }
+}
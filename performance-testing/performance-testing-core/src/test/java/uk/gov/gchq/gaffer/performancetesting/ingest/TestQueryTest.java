@@ -24,13 +24,18 @@ import uk.gov.gchq.gaffer.accumulostore.AccumuloProperties;
 import uk.gov.gchq.gaffer.accumulostore.MockAccumuloStore;
 import uk.gov.gchq.gaffer.commonutil.CommonTestConstants;
 import uk.gov.gchq.gaffer.commonutil.StreamUtil;
+import uk.gov.gchq.gaffer.data.element.id.DirectedType;
 import uk.gov.gchq.gaffer.graph.Graph;
 import uk.gov.gchq.gaffer.operation.OperationException;
 import uk.gov.gchq.gaffer.operation.impl.add.AddElements;
 import uk.gov.gchq.gaffer.performancetesting.FileWriterMetricsListener;
+import uk.gov.gchq.gaffer.performancetesting.LatencyMetrics;
+import uk.gov.gchq.gaffer.performancetesting.query.OpenLoopQueryMetrics;
 import uk.gov.gchq.gaffer.performancetesting.query.QueryMetrics;
 import uk.gov.gchq.gaffer.performancetesting.query.QueryTest;
 import uk.gov.gchq.gaffer.performancetesting.query.QueryTestProperties;
+import uk.gov.gchq.gaffer.performancetesting.query.QueryType;
+import uk.gov.gchq.gaffer.performancetesting.query.QueryTypeMetrics;
 import uk.gov.gchq.gaffer.randomelementgeneration.Constants;
 import uk.gov.gchq.gaffer.randomelementgeneration.supplier.ElementsSupplier;
 import uk.gov.gchq.gaffer.randomelementgeneration.supplier.EntitySeedSupplier;
@@ -42,6 +47,7 @@ import java.io.IOException;
 import java.util.List;
 import java.util.stream.Stream;
 
+import static org.junit.Assert.assertEquals;
 import static org.junit.Assert.assertTrue;
 
 public class TestQueryTest {
@@ -111,13 +117,117 @@ public class TestQueryTest {
         final List<String> lines = FileUtils.readLines(new File(metricsResultsFilename));
 
         // Then
-        assertTrue(lines.size() > 0);
-        lines.forEach(line -> {
+        assertTrue(lines.size() > 1);
+        lines.subList(0, lines.size() - 1).forEach(line -> {
             final String[] fields = line.split(", ");
-            assertTrue(fields[0].startsWith(QueryMetrics.RESULTS_PER_SECOND));
-            assertTrue(Double.parseDouble(fields[0].split(":")[1]) > 0.0D);
-            assertTrue(fields[1].startsWith(QueryMetrics.SEEDS_PER_SECOND));
+            assertTrue(fields[0].startsWith(QueryMetrics.BATCH_NUMBER));
+            assertTrue(fields[1].startsWith(QueryMetrics.RESULTS_PER_SECOND));
             assertTrue(Double.parseDouble(fields[1].split(":")[1]) > 0.0D);
+            assertTrue(fields[2].startsWith(QueryMetrics.SEEDS_PER_SECOND));
+            assertTrue(Double.parseDouble(fields[2].split(":")[1]) > 0.0D);
         });
+        final String latencies = lines.get(lines.size() - 1);
+        assertTrue(latencies.startsWith(LatencyMetrics.getMetricName(LatencyMetrics.BATCH_LATENCY,
+                LatencyMetrics.COUNT) + ": 10.0"));
+        assertTrue(latencies.contains(LatencyMetrics.getMetricName(LatencyMetrics.AMORTISED_SEED_LATENCY,
+                LatencyMetrics.COUNT) + ": 100.0"));
+    }
+
+    @Test
+    public void testQueryTestReportsEachQueryType() throws IOException, OperationException {
+        // Given
+        final QueryTestProperties testProperties = new QueryTestProperties();
+        testProperties.setNumSeeds(100L);
+        testProperties.setBatchSize(10);
+        testProperties.setElementIdSupplierClass(EntitySeedSupplier.class.getName());
+        testProperties.setRmatProbabilities(Constants.RMAT_PROBABILITIES);
+        testProperties.setRmatMaxNodeId(100L);
+        testProperties.setQueryTypes("edges", "twoHops");
+        testProperties.setQueryTypeView("edges", "{\"edges\": {\"${group}\": {}}}");
+        testProperties.setQueryTypeParameter("edges", "group", "edgeGroup");
+        testProperties.setQueryTypeOperation("twoHops", QueryType.GET_ADJACENT_IDS);
+        testProperties.setQueryTypeHops("twoHops", 2);
+        testProperties.setQueryTypeFetchElements("twoHops", true);
+        testProperties.setQueryTypeDirectedType("twoHops", DirectedType.DIRECTED);
+        testProperties.setMetricsListenerClass(FileWriterMetricsListener.class.getName());
+        final File metricsResults = folder.newFile();
+        final String metricsResultsFilename = metricsResults.getPath();
+        testProperties.setProperty(FileWriterMetricsListener.FILENAME, metricsResultsFilename);
+        final AccumuloProperties storeProperties = new AccumuloProperties();
+        storeProperties.setStoreClass(MockAccumuloStore.class.getName());
+        final Graph graph = new Graph.Builder()
+                .graphId("id")
+                .storeProperties(storeProperties)
+                .addSchemas(StreamUtil.schemas(Constants.class))
+                .build();
+        graph.execute(new AddElements.Builder()
+                .input(Stream
+                        .generate(new ElementsSupplier(new RmatElementSupplier(Constants.RMAT_PROBABILITIES, 100L, true)))
+                        .limit(1000L)::iterator)
+                .build(), new User());
+
+        // When
+        final QueryTest test = new QueryTest(graph, testProperties);
+        final double result = test.run();
+        final List<String> lines = FileUtils.readLines(new File(metricsResultsFilename));
+
+        // Then
+        assertTrue(result > 0.0D);
+        for (final String queryType : new String[]{"edges", "twoHops"}) {
+            final String metrics = lines.stream()
+                    .filter(line -> line.contains(LatencyMetrics.getMetricName(queryType,
+                            QueryTypeMetrics.RESULT_BYTES) + ": "))
+                    .findFirst()
+                    .orElseThrow(() -> new AssertionError("No metrics for query type " + queryType));
+            assertTrue(metrics.contains(LatencyMetrics.getMetricName(LatencyMetrics.getMetricName(queryType,
+                    LatencyMetrics.BATCH_LATENCY), LatencyMetrics.COUNT) + ": 10.0"));
+            assertTrue(metrics.contains(LatencyMetrics.getMetricName(LatencyMetrics.getMetricName(queryType,
+                    QueryTypeMetrics.TIME_TO_FIRST_RESULT), LatencyMetrics.P99)));
+            final String resultBytes = metrics.replaceAll(".*" + LatencyMetrics.getMetricName(queryType,
+                    QueryTypeMetrics.RESULT_BYTES) + ": ([^,]*),.*", "$1");
+            assertTrue(Double.parseDouble(resultBytes) > 0.0D);
+        }
+    }
+
+    @Test
+    public void testOpenLoopQueryTestSweepsTargetRates() throws IOException, OperationException {
+        // Given
+        final QueryTestProperties testProperties = new QueryTestProperties();
+        testProperties.setNumSeeds(100L);
+        testProperties.setBatchSize(10);
+        testProperties.setElementIdSupplierClass(EntitySeedSupplier.class.getName());
+        testProperties.setRmatProbabilities(Constants.RMAT_PROBABILITIES);
+        testProperties.setRmatMaxNodeId(100L);
+        testProperties.setTargetQueriesPerSecond(50.0D, 100.0D);
+        testProperties.setMaxQueriesInFlight(2);
+        testProperties.setMetricsListenerClass(FileWriterMetricsListener.class.getName());
+        final File metricsResults = folder.newFile();
+        final String metricsResultsFilename = metricsResults.getPath();
+        testProperties.setProperty(FileWriterMetricsListener.FILENAME, metricsResultsFilename);
+        final AccumuloProperties storeProperties = new AccumuloProperties();
+        storeProperties.setStoreClass(MockAccumuloStore.class.getName());
+        final Graph graph = new Graph.Builder()
+                .graphId("id")
+                .storeProperties(storeProperties)
+                .addSchemas(StreamUtil.schemas(Constants.class))
+                .build();
+        graph.execute(new AddElements.Builder()
+                .input(Stream
+                        .generate(new ElementsSupplier(new RmatElementSupplier(Constants.RMAT_PROBABILITIES, 100L, true)))
+                        .limit(1000L)::iterator)
+                .build(), new User());
+
+        // When
+        final QueryTest test = new QueryTest(graph, testProperties);
+        final double result = test.run();
+        final List<String> lines = FileUtils.readLines(new File(metricsResultsFilename));
+
+        // Then
+        assertTrue(result > 0.0D);
+        assertEquals(2, lines.size());
+        assertTrue(lines.get(0).contains(OpenLoopQueryMetrics.TARGET_QUERIES_PER_SECOND + ": 50.0"));
+        assertTrue(lines.get(1).contains(OpenLoopQueryMetrics.TARGET_QUERIES_PER_SECOND + ": 100.0"));
+        lines.forEach(line -> assertTrue(line.contains(LatencyMetrics.getMetricName(OpenLoopQueryMetrics.RESPONSE_TIME,
+                LatencyMetrics.COUNT) + ": 10.0")));
     }
 }
@@ -0,0 +1,133 @@
+/*
+ * Copyright 2019 Crown Copyright
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package uk.gov.gchq.gaffer.performancetesting.query;
+
+import org.junit.Test;
+
+import uk.gov.gchq.gaffer.data.element.id.DirectedType;
+
+import java.util.List;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+public class TestQueryTestProperties {
+
+    @Test
+    public void shouldHaveNoQueryTypesByDefault() {
+        // Given
+        final QueryTestProperties testProperties = new QueryTestProperties();
+
+        // When
+        final List<QueryType> queryTypes = testProperties.getQueryTypes();
+
+        // Then
+        assertTrue(queryTypes.isEmpty());
+    }
+
+    @Test
+    public void shouldReadQueryTypesInOrder() {
+        // Given
+        final QueryTestProperties testProperties = new QueryTestProperties();
+        testProperties.setQueryTypes("lookup", "threeHops");
+        testProperties.setQueryTypeOperation("threeHops", QueryType.GET_ADJACENT_IDS);
+        testProperties.setQueryTypeHops("threeHops", 3);
+        testProperties.setQueryTypeFetchElements("threeHops", true);
+        testProperties.setQueryTypeDirectedType("threeHops", DirectedType.UNDIRECTED);
+
+        // When
+        final List<QueryType> queryTypes = testProperties.getQueryTypes();
+
+        // Then
+        assertEquals(2, queryTypes.size());
+        final QueryType lookup = queryTypes.get(0);
+        assertEquals("lookup", lookup.getName());
+        assertEquals(QueryType.GET_ELEMENTS, lookup.getOperation());
+        assertFalse(lookup.isFetchElements());
+        assertNull(lookup.getView());
+        assertNull(lookup.getDirectedType());
+        final QueryType threeHops = queryTypes.get(1);
+        assertEquals("threeHops", threeHops.getName());
+        assertEquals(QueryType.GET_ADJACENT_IDS, threeHops.getOperation());
+        assertEquals(3, threeHops.getHops());
+        assertTrue(threeHops.isFetchElements());
+        assertEquals(DirectedType.UNDIRECTED, threeHops.getDirectedType());
+    }
+
+    @Test
+    public void shouldRejectViewWithMissingParameter() {
+        // Given
+        final QueryTestProperties testProperties = new QueryTestProperties();
+        testProperties.setQueryTypes("filtered");
+        testProperties.setQueryTypeView("filtered", "{\"edges\": {\"${group}\": {}}}");
+
+        // When / Then
+        try {
+            testProperties.getQueryTypes();
+            fail("Exception expected");
+        } catch (final IllegalArgumentException e) {
+            assertTrue(e.getMessage().contains("group"));
+        }
+    }
+
+    @Test
+    public void shouldRejectUnknownOperation() {
+        // Given
+        final QueryTestProperties testProperties = new QueryTestProperties();
+        testProperties.setQueryTypes("scan");
+        testProperties.setQueryTypeOperation("scan", "GetAllElements");
+
+        // When / Then
+        try {
+            testProperties.getQueryTypes();
+            fail("Exception expected");
+        } catch (final IllegalArgumentException e) {
+            assertTrue(e.getMessage().contains("scan"));
+        }
+    }
+
+    @Test
+    public void shouldRejectNonPositiveTargetRateReadFromProperties() {
+        // Given
+        final QueryTestProperties testProperties = new QueryTestProperties();
+        testProperties.setProperty("gaffer.performancetesting.query.targetQueriesPerSecond", "10.0,0.0");
+
+        // When / Then
+        try {
+            testProperties.getTargetQueriesPerSecond();
+            fail("Exception expected");
+        } catch (final IllegalArgumentException e) {
+            assertTrue(e.getMessage().contains("0.0"));
+        }
+    }
+
+    @Test
+    public void shouldRejectNonPositiveTargetRateWhenSet() {
+        // Given
+        final QueryTestProperties testProperties = new QueryTestProperties();
+
+        // When / Then
+        try {
+            testProperties.setTargetQueriesPerSecond(10.0D, -1.0D);
+            fail("Exception expected");
+        } catch (final IllegalArgumentException e) {
+            assertTrue(e.getMessage().contains("-1.0"));
+        }
+    }
+}
@@ -0,0 +1,96 @@
+/*
+ * Copyright 2019 Crown Copyright
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package uk.gov.gchq.gaffer.performancetesting.query;
+
+import org.junit.Test;
+
+import uk.gov.gchq.gaffer.commonutil.StreamUtil;
+import uk.gov.gchq.gaffer.data.element.Element;
+import uk.gov.gchq.gaffer.randomelementgeneration.Constants;
+import uk.gov.gchq.gaffer.randomelementgeneration.supplier.RmatElementSpliterator;
+import uk.gov.gchq.gaffer.store.schema.Schema;
+
+import java.util.List;
+import java.util.stream.Collectors;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+public class TestResultBytesCounter {
+
+    @Test
+    public void testCountsBytesOfEveryResult() {
+        // Given
+        final ResultSizer resultSizer = new ResultSizer(Schema.fromJson(StreamUtil.schemas(Constants.class)));
+        final List<Element> results = createResults();
+        final long expectedBytes = resultSizer.sizeOf(results);
+
+        // When
+        final long bytes;
+        try (final ResultBytesCounter counter = new ResultBytesCounter(resultSizer, results.size())) {
+            results.forEach(counter::add);
+            bytes = counter.getBytes();
+            assertEquals(results.size(), counter.getNumSized());
+        }
+
+        // Then
+        assertTrue(expectedBytes > 0L);
+        assertEquals(expectedBytes, bytes);
+    }
+
+    @Test
+    public void testEstimatesBytesWhenResultsCannotAllBeSized() {
+        // Given
+        final ResultSizer resultSizer = new ResultSizer(Schema.fromJson(StreamUtil.schemas(Constants.class)));
+        final List<Element> results = createResults();
+
+        // When
+        final long bytes;
+        final long numSized;
+        try (final ResultBytesCounter counter = new ResultBytesCounter(resultSizer, 1)) {
+            results.forEach(counter::add);
+            bytes = counter.getBytes();
+            numSized = counter.getNumSized();
+            assertEquals(results.size(), counter.getNumResults());
+        }
+
+        // Then
+        assertTrue(numSized >= 1L);
+        assertTrue(numSized <= results.size());
+        assertTrue(bytes > 0L);
+    }
+
+    @Test
+    public void testResetForgetsResults() {
+        // Given
+        final ResultSizer resultSizer = new ResultSizer(Schema.fromJson(StreamUtil.schemas(Constants.class)));
+        try (final ResultBytesCounter counter = new ResultBytesCounter(resultSizer)) {
+            createResults().forEach(counter::add);
+
+            // When
+            counter.reset();
+
+            // Then
+            assertEquals(0L, counter.getNumResults());
+            assertEquals(0L, counter.getBytes());
+        }
+    }
+
+    private static List<Element> createResults() {
+        return RmatElementSpliterator.stream(Constants.RMAT_PROBABILITIES, 1000L, true, 1L, 100L, false)
+                .collect(Collectors.toList());
+    }
+}
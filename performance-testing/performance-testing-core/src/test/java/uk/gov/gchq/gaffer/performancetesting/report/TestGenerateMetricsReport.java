@@ -0,0 +1,85 @@
+/*
+ * Copyright 2019 Crown Copyright
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package uk.gov.gchq.gaffer.performancetesting.report;
+
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import uk.gov.gchq.gaffer.commonutil.CommonTestConstants;
+import uk.gov.gchq.gaffer.performancetesting.StructuredMetricsListener;
+import uk.gov.gchq.gaffer.performancetesting.ingest.IngestMetrics;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Properties;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+public class TestGenerateMetricsReport {
+
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder(CommonTestConstants.TMP_DIRECTORY);
+
+    @Test
+    public void testReportAndSummaryAreWrittenForSeveralRuns() throws IOException {
+        // Given
+        final File log1 = writeLog("run1", StructuredMetricsListener.Format.JSON, 100);
+        final File log2 = writeLog("run2", StructuredMetricsListener.Format.CSV, 10);
+        final File outputDirectory = new File(folder.getRoot(), "report");
+
+        // When
+        GenerateMetricsReport.main(new String[]{outputDirectory.getAbsolutePath(), log1.getAbsolutePath(),
+                log2.getAbsolutePath()});
+
+        // Then
+        final String html = new String(Files.readAllBytes(
+                outputDirectory.toPath().resolve(GenerateMetricsReport.HTML_REPORT)), StandardCharsets.UTF_8);
+        assertTrue(html.contains("<h2>" + IngestMetrics.ELEMENTS_PER_SECOND_BATCH + "</h2>"));
+        assertEquals(2, html.split("<polyline").length - 1);
+        assertTrue(html.contains("run1"));
+        assertTrue(html.contains("run2"));
+
+        final List<String> summary = Files.readAllLines(
+                outputDirectory.toPath().resolve(GenerateMetricsReport.CSV_SUMMARY), StandardCharsets.UTF_8);
+        assertEquals(Arrays.asList(GenerateMetricsReport.SUMMARY_HEADER,
+                "run1,elements_per_second_batch,100,1.0,50.5,50.0,90.0,99.0,100.0",
+                "run2,elements_per_second_batch,10,1.0,5.5,5.0,9.0,10.0,10.0"), summary);
+    }
+
+    private File writeLog(final String runId, final StructuredMetricsListener.Format format, final int numUpdates)
+            throws IOException {
+        final File file = folder.newFile();
+        final Properties properties = new Properties();
+        properties.setProperty(StructuredMetricsListener.FILENAME, file.getAbsolutePath());
+        properties.setProperty(StructuredMetricsListener.FORMAT, format.name());
+        properties.setProperty(StructuredMetricsListener.RUN_ID, runId);
+        final StructuredMetricsListener listener = new StructuredMetricsListener();
+        listener.initialise(properties);
+        for (int i = 1; i <= numUpdates; i++) {
+            final IngestMetrics metrics = new IngestMetrics();
+            metrics.putMetric(IngestMetrics.ELEMENTS_PER_SECOND_BATCH, (double) i);
+            listener.update(metrics);
+        }
+        listener.close();
+        return file;
+    }
+}
@@ -0,0 +1,176 @@
+/*
+ * Copyright 2019 Crown Copyright
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package uk.gov.gchq.gaffer.performancetesting.results;
+
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import uk.gov.gchq.gaffer.commonutil.CommonTestConstants;
+import uk.gov.gchq.gaffer.performancetesting.LatencyHistogram;
+import uk.gov.gchq.gaffer.performancetesting.LatencyMetrics;
+import uk.gov.gchq.gaffer.performancetesting.ingest.IngestMetrics;
+
+import java.io.IOException;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.Properties;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotEquals;
+import static org.junit.Assert.assertTrue;
+
+public class TestCompareRuns {
+
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder(CommonTestConstants.TMP_DIRECTORY);
+
+    @Test
+    public void testResultsAreSavedByListenerAndLoadedByRevision() throws IOException {
+        // Given
+        final Properties properties = getProperties("abc123");
+
+        // When
+        runTest(properties, 1000.0D, 10L);
+        runTest(properties, 1000.0D, 10L);
+        final ResultsStore store = new ResultsStore(folder.getRoot().toPath());
+        final List<RunResult> results = store.load("graph1", RunResult.hashProperties(properties), "abc123");
+
+        // Then
+        assertEquals(2, results.size());
+        assertEquals(Collections.singletonList("abc123"),
+                store.getRevisions("graph1", RunResult.hashProperties(properties)));
+        assertEquals(10, results.get(0).getSamples().get(IngestMetrics.ELEMENTS_PER_SECOND_BATCH).size());
+        assertEquals("graph1", results.get(0).getGraphId());
+    }
+
+    @Test
+    public void testPropertiesHashIgnoresWhereResultsAreSent() {
+        // Given
+        final Properties properties1 = getProperties("abc123");
+        final Properties properties2 = getProperties("def456");
+        properties2.setProperty("gaffer.performancetesting.filewritermetricslistener.filename", "other");
+        final Properties properties3 = getProperties("abc123");
+        properties3.setProperty("gaffer.performancetesting.batchSize", "1");
+
+        // When / Then
+        assertEquals(RunResult.hashProperties(properties1), RunResult.hashProperties(properties2));
+        assertNotEquals(RunResult.hashProperties(properties1), RunResult.hashProperties(properties3));
+    }
+
+    @Test
+    public void testThroughputAndLatencyRegressionsAreFlagged() throws IOException {
+        // Given
+        final ResultsStore store = new ResultsStore(folder.getRoot().toPath());
+        runTest(getProperties("baseline"), 1000.0D, 10L);
+        runTest(getProperties("candidate"), 800.0D, 20L);
+        final String hash = RunResult.hashProperties(getProperties("baseline"));
+
+        // When
+        final Map<String, CompareRuns.Comparison> comparisons = CompareRuns.compare(
+                store.load("graph1", hash, "baseline"), store.load("graph1", hash, "candidate"),
+                CompareRuns.DEFAULT_THRESHOLD_PERCENT, CompareRuns.DEFAULT_SIGNIFICANCE_LEVEL).stream()
+                .collect(Collectors.toMap(CompareRuns.Comparison::getMetricName, Function.identity()));
+
+        // Then
+        final CompareRuns.Comparison rate = comparisons.get(IngestMetrics.ELEMENTS_PER_SECOND_BATCH);
+        assertEquals(-20.0D, rate.getChangePercent(), 1.0D);
+        assertTrue(rate.getPValue() < 0.05D);
+        assertTrue(rate.isRegression());
+        final String p99 = LatencyMetrics.getMetricName(LatencyMetrics.BATCH_LATENCY, LatencyMetrics.P99);
+        assertTrue(Double.isNaN(comparisons.get(p99).getPValue()));
+        assertTrue(comparisons.get(p99).isRegression());
+        final String count = LatencyMetrics.getMetricName(LatencyMetrics.BATCH_LATENCY, LatencyMetrics.COUNT);
+        assertFalse(comparisons.get(count).isRegression());
+    }
+
+    @Test
+    public void testSmallChangesAreNotFlagged() {
+        // Given
+        final RunResult baseline = new RunResult("baseline", "graph1", "hash", 0L);
+        final RunResult candidate = new RunResult("candidate", "graph1", "hash", 1L);
+        for (final double value : Arrays.asList(100.0D, 101.0D, 99.0D, 102.0D, 98.0D)) {
+            baseline.addSample(IngestMetrics.ELEMENTS_PER_SECOND_BATCH, value);
+            candidate.addSample(IngestMetrics.ELEMENTS_PER_SECOND_BATCH, value - 2.0D);
+        }
+
+        // When
+        final List<CompareRuns.Comparison> comparisons = CompareRuns.compare(Collections.singletonList(baseline),
+                Collections.singletonList(candidate), 5.0D, 0.05D);
+
+        // Then
+        assertEquals(1, comparisons.size());
+        assertFalse(comparisons.get(0).isRegression());
+    }
+
+    @Test
+    public void testExactTestIsUsedForFewValuesAndThresholdAloneWhenTooFew() {
+        // Given
+        final RunResult baseline = new RunResult("baseline", "graph1", "hash", 0L);
+        final RunResult candidate = new RunResult("candidate", "graph1", "hash", 1L);
+        for (final double value : Arrays.asList(100.0D, 101.0D, 99.0D, 102.0D)) {
+            baseline.addSample(IngestMetrics.ELEMENTS_PER_SECOND_BATCH, value);
+            candidate.addSample(IngestMetrics.ELEMENTS_PER_SECOND_BATCH, value - 20.0D);
+        }
+        for (final double value : Arrays.asList(100.0D, 101.0D, 99.0D)) {
+            baseline.addSample(IngestMetrics.ELEMENTS_PER_SECOND_OVERALL, value);
+            candidate.addSample(IngestMetrics.ELEMENTS_PER_SECOND_OVERALL, value - 20.0D);
+        }
+
+        // When
+        final Map<String, CompareRuns.Comparison> comparisons = CompareRuns.compare(
+                Collections.singletonList(baseline), Collections.singletonList(candidate), 5.0D, 0.05D).stream()
+                .collect(Collectors.toMap(CompareRuns.Comparison::getMetricName, Function.identity()));
+
+        // Then - with 4 values each the exact p-value is 2 / 70
+        final CompareRuns.Comparison batchRate = comparisons.get(IngestMetrics.ELEMENTS_PER_SECOND_BATCH);
+        assertEquals(2.0D / 70.0D, batchRate.getPValue(), 1e-12D);
+        assertTrue(batchRate.isRegression());
+        // With 3 values each no p-value could be below 0.05, so the threshold alone is used
+        final CompareRuns.Comparison overallRate = comparisons.get(IngestMetrics.ELEMENTS_PER_SECOND_OVERALL);
+        assertTrue(Double.isNaN(overallRate.getPValue()));
+        assertTrue(overallRate.isRegression());
+    }
+
+    private Properties getProperties(final String revision) {
+        final Properties properties = new Properties();
+        properties.setProperty(ResultsStoreMetricsListener.DIRECTORY, folder.getRoot().getAbsolutePath());
+        properties.setProperty(ResultsStoreMetricsListener.REVISION, revision);
+        properties.setProperty(ResultsStoreMetricsListener.GRAPH_ID, "graph1");
+        properties.setProperty("gaffer.performancetesting.batchSize", "1000");
+        return properties;
+    }
+
+    private static void runTest(final Properties properties, final double rate, final long latencyMillis) {
+        final ResultsStoreMetricsListener listener = new ResultsStoreMetricsListener();
+        listener.initialise(properties);
+        final LatencyHistogram latencies = new LatencyHistogram();
+        for (int i = 0; i < 10; i++) {
+            final IngestMetrics metrics = new IngestMetrics();
+            // Vary the rate a little between batches
+            metrics.putMetric(IngestMetrics.ELEMENTS_PER_SECOND_BATCH, rate + i);
+            listener.update(metrics);
+            latencies.recordValue(latencyMillis * 1000L);
+        }
+        listener.update(new LatencyMetrics().addHistogram(LatencyMetrics.BATCH_LATENCY, latencies));
+        listener.close();
+    }
+}
@@ -0,0 +1,102 @@
+/*
+ * Copyright 2019 Crown Copyright
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package uk.gov.gchq.gaffer.performancetesting.results;
+
+import org.junit.Test;
+
+import static org.junit.Assert.assertEquals;
+
+public class TestMannWhitneyUTest {
+
+    @Test
+    public void testSeparatedSamplesAreSignificantlyDifferent() {
+        // Given
+        final double[] x = {1.0D, 2.0D, 3.0D, 4.0D, 5.0D};
+        final double[] y = {6.0D, 7.0D, 8.0D, 9.0D, 10.0D};
+
+        // When
+        final MannWhitneyUTest.Result result = MannWhitneyUTest.test(x, y);
+
+        // Then - matches scipy.stats.mannwhitneyu(x, y, method="asymptotic")
+        assertEquals(0.0D, result.getU(), 0.0D);
+        assertEquals(-2.5067D, result.getZ(), 1e-4D);
+        assertEquals(0.01219D, result.getPValue(), 1e-5D);
+    }
+
+    @Test
+    public void testTiesAreGivenAverageRanks() {
+        // Given
+        final double[] x = {1.0D, 2.0D, 2.0D, 3.0D};
+        final double[] y = {2.0D, 3.0D, 3.0D, 4.0D};
+
+        // When
+        final MannWhitneyUTest.Result result = MannWhitneyUTest.test(x, y);
+
+        // Then - ranks of x are 1, 3, 3, 6 so U = 13 - 10
+        assertEquals(3.0D, result.getU(), 0.0D);
+        assertEquals(0.1720D, result.getPValue(), 1e-4D);
+    }
+
+    @Test
+    public void testIdenticalSamplesAreNotDifferent() {
+        // Given
+        final double[] x = {5.0D, 5.0D, 5.0D};
+
+        // When
+        final MannWhitneyUTest.Result result = MannWhitneyUTest.test(x, x);
+
+        // Then
+        assertEquals(1.0D, result.getPValue(), 0.0D);
+    }
+
+    @Test
+    public void testExactTestOfSeparatedSamples() {
+        // Given
+        final double[] x = {1.0D, 2.0D, 3.0D, 4.0D, 5.0D};
+        final double[] y = {6.0D, 7.0D, 8.0D, 9.0D, 10.0D};
+
+        // When
+        final MannWhitneyUTest.Result result = MannWhitneyUTest.exactTest(x, y);
+
+        // Then - only 2 of the 252 ways of dividing the ranks are this extreme
+        assertEquals(0.0D, result.getU(), 0.0D);
+        assertEquals(2.0D / 252.0D, result.getPValue(), 1e-12D);
+        assertEquals(result.getPValue(), MannWhitneyUTest.getMinPValue(5, 5), 1e-12D);
+    }
+
+    @Test
+    public void testExactTestCountsTiedRanks() {
+        // Given
+        final double[] x = {1.0D, 2.0D, 2.0D, 3.0D};
+        final double[] y = {2.0D, 3.0D, 3.0D, 4.0D};
+
+        // When
+        final MannWhitneyUTest.Result result = MannWhitneyUTest.exactTest(x, y);
+
+        // Then - 10 of the 70 ways of choosing 4 of the ranks give a rank sum of at most 13
+        assertEquals(3.0D, result.getU(), 0.0D);
+        assertEquals(20.0D / 70.0D, result.getPValue(), 1e-12D);
+    }
+
+    @Test
+    public void testSmallestPossiblePValue() {
+        // When / Then
+        assertEquals(0.1D, MannWhitneyUTest.getMinPValue(3, 3), 1e-12D);
+        assertEquals(2.0D / 70.0D, MannWhitneyUTest.getMinPValue(4, 4), 1e-12D);
+        assertEquals(2.0D / 3.0D, MannWhitneyUTest.getMinPValue(1, 2), 1e-12D);
+        assertEquals(1.0D, MannWhitneyUTest.getMinPValue(1, 1), 0.0D);
+    }
+}
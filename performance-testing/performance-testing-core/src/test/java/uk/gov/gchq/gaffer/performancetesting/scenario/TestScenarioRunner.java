@@ -0,0 +1,90 @@
+/*
+ * Copyright 2019 Crown Copyright
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package uk.gov.gchq.gaffer.performancetesting.scenario;
+
+import org.apache.commons.io.FileUtils;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import uk.gov.gchq.gaffer.accumulostore.AccumuloProperties;
+import uk.gov.gchq.gaffer.accumulostore.MockAccumuloStore;
+import uk.gov.gchq.gaffer.commonutil.CommonTestConstants;
+import uk.gov.gchq.gaffer.commonutil.StreamUtil;
+import uk.gov.gchq.gaffer.graph.Graph;
+import uk.gov.gchq.gaffer.performancetesting.FileWriterMetricsListener;
+import uk.gov.gchq.gaffer.performancetesting.LatencyMetrics;
+import uk.gov.gchq.gaffer.randomelementgeneration.Constants;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+public class TestScenarioRunner {
+
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder(CommonTestConstants.TMP_DIRECTORY);
+
+    @Test
+    public void testScenarioRunsQueriesWhileAddingElements() throws IOException {
+        // Given
+        final File metricsResults = folder.newFile();
+        final String workloadJson = "{"
+                + "\"properties\": {"
+                + "  \"gaffer.performancetesting.rmat.maxNodeId\": \"100\","
+                + "  \"gaffer.performancetesting.metricsListener\": \""
+                + FileWriterMetricsListener.class.getName() + "\","
+                + "  \"" + FileWriterMetricsListener.FILENAME + "\": \""
+                + metricsResults.getPath().replace("\\", "\\\\") + "\"},"
+                + "\"reportingIntervalSeconds\": 1,"
+                + "\"phases\": ["
+                + "  {\"name\": \"ingest\", \"durationSeconds\": 3, \"operations\": ["
+                + "    {\"type\": \"AddElements\", \"threads\": 2, \"batchSize\": 10}]},"
+                + "  {\"name\": \"query\", \"startSeconds\": 1, \"durationSeconds\": 2, \"operations\": ["
+                + "    {\"type\": \"GetElements\", \"batchSize\": 5, \"targetOperationsPerSecond\": 20},"
+                + "    {\"type\": \"GetAdjacentIds\", \"batchSize\": 5},"
+                + "    {\"type\": \"GetAllElements\", \"maxResults\": 10}]}]}";
+        final Workload workload = Workload.fromJson(workloadJson.getBytes(StandardCharsets.UTF_8));
+        final AccumuloProperties storeProperties = new AccumuloProperties();
+        storeProperties.setStoreClass(MockAccumuloStore.class.getName());
+        final Graph graph = new Graph.Builder()
+                .graphId("id")
+                .storeProperties(storeProperties)
+                .addSchemas(StreamUtil.schemas(Constants.class))
+                .build();
+
+        // When
+        final ScenarioMetrics result = new ScenarioRunner(graph, workload).run();
+        final List<String> lines = FileUtils.readLines(metricsResults);
+
+        // Then
+        for (final String operation : new String[]{"ingest_AddElements", "query_GetElements",
+                "query_GetAdjacentIds", "query_GetAllElements"}) {
+            final String metricName = LatencyMetrics.getMetricName(operation, ScenarioMetrics.OPERATIONS_PER_SECOND);
+            assertTrue((Double) result.getMetric(metricName) > 0.0D);
+            assertEquals(0.0D, (Double) result.getMetric(
+                    LatencyMetrics.getMetricName(operation, ScenarioMetrics.ERRORS)), 0.0D);
+        }
+        assertTrue((Double) result.getMetric("query_GetElements_operations_per_second") <= 25.0D);
+        // Some interval reports the queries and the ingest together
+        assertTrue(lines.stream().anyMatch(line -> line.contains("ingest_AddElements_operations_per_second")
+                && line.contains("query_GetElements_latency_p99_ms")));
+    }
+}
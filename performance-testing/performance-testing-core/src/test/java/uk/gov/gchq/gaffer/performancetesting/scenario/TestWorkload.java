@@ -0,0 +1,105 @@
+/*
+ * Copyright 2019 Crown Copyright
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package uk.gov.gchq.gaffer.performancetesting.scenario;
+
+import org.junit.Test;
+
+import uk.gov.gchq.gaffer.data.element.id.DirectedType;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+public class TestWorkload {
+    private static final String WORKLOAD = "{"
+            + "\"properties\": {\"gaffer.performancetesting.rmat.maxNodeId\": \"100\"},"
+            + "\"reportingIntervalSeconds\": 5,"
+            + "\"phases\": ["
+            + "  {\"name\": \"load\", \"durationSeconds\": 60, \"operations\": ["
+            + "    {\"type\": \"AddElements\", \"threads\": 4, \"batchSize\": 1000}]},"
+            + "  {\"name\": \"mixed\", \"startSeconds\": 30, \"durationSeconds\": 60,"
+            + "   \"targetOperationsPerSecond\": 100,"
+            + "   \"operations\": ["
+            + "    {\"type\": \"GetElements\", \"weight\": 3, \"view\": {\"edges\": {\"edgeGroup\": {}}}},"
+            + "    {\"type\": \"GetAdjacentIds\", \"weight\": 1, \"directedType\": \"DIRECTED\"},"
+            + "    {\"name\": \"scan\", \"type\": \"GetAllElements\", \"targetOperationsPerSecond\": 2,"
+            + "     \"maxResults\": 1000}]}]}";
+
+    @Test
+    public void shouldReadWorkloadFromJson() throws IOException {
+        // When
+        final Workload workload = Workload.fromJson(WORKLOAD.getBytes(StandardCharsets.UTF_8));
+
+        // Then
+        assertEquals("100", workload.getProperties().get("gaffer.performancetesting.rmat.maxNodeId"));
+        assertEquals(5L, workload.getReportingIntervalSeconds());
+        assertEquals(2, workload.getPhases().size());
+        final Phase load = workload.getPhases().get(0);
+        assertEquals(0L, load.getStartSeconds());
+        assertEquals(OperationType.ADD_ELEMENTS, load.getOperations().get(0).getType());
+        assertEquals(4, load.getOperations().get(0).getThreads());
+        assertEquals("load_AddElements", load.getOperations().get(0).getName(load));
+        final Phase mixed = workload.getPhases().get(1);
+        assertEquals(30L, mixed.getStartSeconds());
+        final WorkloadOperation getElements = mixed.getOperations().get(0);
+        assertEquals(OperationType.GET_ELEMENTS, getElements.getType());
+        assertEquals(100, getElements.getBatchSize());
+        assertTrue(getElements.getView().has("edges"));
+        assertEquals(DirectedType.DIRECTED, mixed.getOperations().get(1).getDirectedType());
+        assertEquals("scan", mixed.getOperations().get(2).getName(mixed));
+        assertEquals(1000L, (long) mixed.getOperations().get(2).getMaxResults());
+    }
+
+    @Test
+    public void shouldShareTargetRateOfPhaseByWeight() throws IOException {
+        // Given
+        final Workload workload = Workload.fromJson(WORKLOAD.getBytes(StandardCharsets.UTF_8));
+        final Phase load = workload.getPhases().get(0);
+        final Phase mixed = workload.getPhases().get(1);
+
+        // When / Then
+        assertNull(load.getTargetOperationsPerSecond(load.getOperations().get(0)));
+        assertEquals(75.0D, mixed.getTargetOperationsPerSecond(mixed.getOperations().get(0)), 1.0E-9D);
+        assertEquals(25.0D, mixed.getTargetOperationsPerSecond(mixed.getOperations().get(1)), 1.0E-9D);
+        assertEquals(2.0D, mixed.getTargetOperationsPerSecond(mixed.getOperations().get(2)), 1.0E-9D);
+    }
+
+    @Test
+    public void shouldRejectInvalidWorkloads() {
+        shouldReject("{\"phases\": []}");
+        shouldReject("{\"phases\": [{\"name\": \"p\", \"operations\": [{\"type\": \"GetElements\"}]}]}");
+        shouldReject("{\"phases\": [{\"name\": \"p\", \"durationSeconds\": 1, \"operations\": []}]}");
+        shouldReject("{\"phases\": [{\"name\": \"p\", \"durationSeconds\": 1, \"operations\": "
+                + "[{\"type\": \"GetElements\", \"threads\": 0}]}]}");
+        shouldReject("{\"phases\": [{\"name\": \"p\", \"durationSeconds\": 1, \"operations\": "
+                + "[{\"type\": \"GetElements\"}, {\"type\": \"GetElements\"}]}]}");
+        shouldReject("{\"phases\": [{\"name\": \"p\", \"durationSeconds\": 1, \"operations\": "
+                + "[{\"type\": \"DeleteElements\"}]}]}");
+    }
+
+    private static void shouldReject(final String json) {
+        try {
+            Workload.fromJson(json.getBytes(StandardCharsets.UTF_8));
+            fail("Exception expected for " + json);
+        } catch (final IllegalArgumentException | IOException e) {
+            assertTrue(null != e.getMessage());
+        }
+    }
+}
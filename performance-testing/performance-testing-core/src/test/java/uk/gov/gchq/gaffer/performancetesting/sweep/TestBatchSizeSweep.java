@@ -0,0 +1,117 @@
+/*
+ * Copyright 2019 Crown Copyright
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package uk.gov.gchq.gaffer.performancetesting.sweep;
+
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import uk.gov.gchq.gaffer.commonutil.CommonTestConstants;
+import uk.gov.gchq.gaffer.performancetesting.TestProperties;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.List;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+public class TestBatchSizeSweep {
+
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder(CommonTestConstants.TMP_DIRECTORY);
+
+    // A rate that peaks at a batch size of 3000, with a latency proportional to the batch size
+    private static BatchSizeSweep.Point measure(final int batchSize) {
+        final double distance = Math.log(batchSize) - Math.log(3000.0D);
+        return new BatchSizeSweep.Point(batchSize, 100000.0D - 10000.0D * distance * distance, batchSize / 10.0D);
+    }
+
+    @Test
+    public void testGeometricBatchSizesIncludeMinAndMax() {
+        // Given
+        final BatchSizeSweep sweep = new BatchSizeSweep(100, 1000, 2.0D, 0, null, TestBatchSizeSweep::measure);
+
+        // When
+        final List<Integer> sizes = sweep.getGeometricBatchSizes();
+
+        // Then
+        assertEquals(Arrays.asList(100, 200, 400, 800, 1000), sizes);
+    }
+
+    @Test
+    public void testRefinementFindsPeakWithoutRepeatingBatchSizes() {
+        // Given
+        final List<Integer> measured = new ArrayList<>();
+        final BatchSizeSweep sweep = new BatchSizeSweep(100, 100000, 2.0D, 8, null, batchSize -> {
+            measured.add(batchSize);
+            return measure(batchSize);
+        });
+
+        // When
+        final BatchSizeSweep.Result result = sweep.run();
+
+        // Then
+        final int best = result.getBest().getBatchSize();
+        assertTrue("Best batch size was " + best, best >= 2800 && best <= 3200);
+        assertEquals(measured.size(), new HashSet<>(measured).size());
+        assertEquals(measured.size(), result.getCurve().size());
+        for (int i = 1; i < result.getCurve().size(); i++) {
+            assertTrue(result.getCurve().get(i - 1).getBatchSize() < result.getCurve().get(i).getBatchSize());
+        }
+    }
+
+    @Test
+    public void testLatencyLimitIsRespected() {
+        // Given
+        final BatchSizeSweep sweep = new BatchSizeSweep(100, 100000, 2.0D, 8, 150.0D, TestBatchSizeSweep::measure);
+
+        // When
+        final BatchSizeSweep.Result result = sweep.run();
+
+        // Then
+        assertTrue(result.getBest().getBatchLatencyP99Millis() <= 150.0D);
+        assertTrue(result.getBest().getBatchSize() > 1000);
+    }
+
+    @Test
+    public void testCurveIsWrittenToOutputFile() throws IOException {
+        // Given
+        final File outputFile = new File(folder.getRoot(), "curve.csv");
+        final TestProperties testProperties = new TestProperties();
+        testProperties.setSweepMinBatchSize(10);
+        testProperties.setSweepMaxBatchSize(1000);
+        testProperties.setSweepFactor(10.0D);
+        testProperties.setSweepRefinementSteps(0);
+        testProperties.setSweepOutputFile(outputFile.getPath());
+
+        // When
+        final BatchSizeSweep.Result result = new BatchSizeSweep(testProperties, TestBatchSizeSweep::measure).run();
+        final List<String> lines = Files.readAllLines(outputFile.toPath(), StandardCharsets.UTF_8);
+
+        // Then
+        assertEquals(1000, result.getBest().getBatchSize());
+        assertEquals(4, lines.size());
+        assertEquals(BatchSizeSweep.CSV_HEADER, lines.get(0));
+        assertTrue(lines.get(1).startsWith("10,"));
+        assertTrue(lines.get(3).startsWith("1000,"));
+    }
+}
@@ -0,0 +1,120 @@
+/*
+ * Copyright 2019 Crown Copyright
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package uk.gov.gchq.gaffer.randomelementgeneration.cache;
+
+import java.util.Random;
+
+/**
+ * A Fenwick tree (binary indexed tree) over a fixed number of non-negative <code>long</code> weights. Updating a
+ * weight and sampling an index with probability proportional to its weight both take O(log n) time and do not
+ * allocate any objects, which makes this suitable for repeatedly sampling from a distribution that changes slowly,
+ * e.g. in {@link PreferentialAttachmentCache}.
+ */
+public class FenwickTree {
+    private final long[] tree;
+    private final long[] weights;
+    private final int highestPowerOfTwo;
+    private long total;
+
+    public FenwickTree(final int size) {
+        if (size <= 0) {
+            throw new IllegalArgumentException("The size must be greater than 0.");
+        }
+        this.tree = new long[size + 1];
+        this.weights = new long[size];
+        this.highestPowerOfTwo = Integer.highestOneBit(size);
+        this.total = 0L;
+    }
+
+    public int size() {
+        return weights.length;
+    }
+
+    public long get(final int index) {
+        return weights[index];
+    }
+
+    public long getTotal() {
+        return total;
+    }
+
+    public void add(final int index, final long delta) {
+        if (weights[index] + delta < 0L) {
+            throw new IllegalArgumentException("Weights must be non-negative.");
+        }
+        weights[index] += delta;
+        total += delta;
+        for (int i = index + 1; i < tree.length; i += i & -i) {
+            tree[i] += delta;
+        }
+    }
+
+    public void set(final int index, final long weight) {
+        add(index, weight - weights[index]);
+    }
+
+    /**
+     * Returns the sum of the weights of the first <code>count</code> indices.
+     *
+     * @param count the number of indices to sum the weights of
+     * @return the sum of the weights of indices 0 to <code>count - 1</code>
+     */
+    public long prefixSum(final int count) {
+        long sum = 0L;
+        for (int i = count; i > 0; i -= i & -i) {
+            sum += tree[i];
+        }
+        return sum;
+    }
+
+    /**
+     * Returns the smallest index whose cumulative weight is greater than the given value. If the value is chosen
+     * uniformly at random from 0 (inclusive) to the total weight (exclusive), then each index is returned with
+     * probability proportional to its weight.
+     *
+     * @param value a value between 0 (inclusive) and the total weight (exclusive)
+     * @return the smallest index <code>i</code> such that <code>prefixSum(i + 1) &gt; value</code>
+     */
+    public int find(final long value) {
+        if (value < 0L || value >= total) {
+            throw new IllegalArgumentException("Value must be between 0 and the total weight (got " + value + ")");
+        }
+        int position = 0;
+        long remaining = value;
+        for (int step = highestPowerOfTwo; step > 0; step >>= 1) {
+            final int next = position + step;
+            if (next < tree.length && tree[next] <= remaining) {
+                position = next;
+                remaining -= tree[next];
+            }
+        }
+        return position;
+    }
+
+    /**
+     * Returns an index chosen at random with probability proportional to its weight.
+     *
+     * @param random the source of randomness
+     * @return a random index, or -1 if all the weights are 0
+     */
+    public int sample(final Random random) {
+        if (0L == total) {
+            return -1;
+        }
+        final long value = (long) (random.nextDouble() * total);
+        return find(Math.min(value, total - 1L));
+    }
+}
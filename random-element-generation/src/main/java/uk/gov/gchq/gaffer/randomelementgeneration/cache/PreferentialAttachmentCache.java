@@ -17,18 +17,15 @@ package uk.gov.gchq.gaffer.randomelementgeneration.cache;
 
 import org.apache.log4j.Logger;
 
-import java.util.Arrays;
 import java.util.Collections;
-import java.util.HashSet;
-import java.util.Iterator;
+import java.util.HashMap;
 import java.util.Map;
 import java.util.Random;
-import java.util.Set;
-import java.util.TreeMap;
 
 /**
  * A {@link Cache} that has a maximum size. Each item is associated with a count. As an item is added that count is
- * incremented. If more than the maximum number of items are added then the one with the smallest count is removed.
+ * incremented. If more than the maximum number of items are added then one of the items with the smallest count, chosen
+ * at random, is removed. As the item that was just added has the smallest possible count, it may be the one removed.
  * When the <code>get()</code> method is called, one of the items is returned at random. The probability of each item
  * being returned is proportional to its count - items with large counts are more likely to be returned. When the
  * <code>get()</code> method is called the count of that item is incremented. The result is that the rich grow richer
@@ -39,64 +36,67 @@ import java.util.TreeMap;
  * adding elements to both a graph and this cache, and repeatedly also adding the result of calling <code>get()</code>
  * on this cache, then some elements will be added many more times that others. This can be used to test the performance
  * when the same element is added multiple times causing many aggregations.
+ *
+ * <p>Each item occupies a slot in a fixed size array. The counts are held in a {@link FenwickTree} indexed by slot, so
+ * that <code>get()</code> samples an item and increments its count in O(log n) time without allocating any objects.
+ * A min-heap of slots ordered by count is maintained alongside so that the items with the smallest count can be found
+ * when an item needs to be removed.
  */
 public class PreferentialAttachmentCache<T> implements Cache<T> {
     private static final Logger LOGGER = Logger.getLogger(PreferentialAttachmentCache.class);
 
     private final Random random = new Random();
-    private TreeMap<Long, Set<T>> mapFreqToItems;
-    private TreeMap<T, Long> itemsToFreq;
-    private int maxSize;
+    private final Map<T, Integer> itemsToSlot;
+    private final T[] items;
+    private final FenwickTree counts;
+    private final int[] heap;
+    private final int[] slotToHeapPosition;
+    private final int[] heapPositionsToVisit;
+    private final int maxSize;
+    private int size;
 
+    @SuppressWarnings("unchecked")
     public PreferentialAttachmentCache(final int maxSize) {
-        this.mapFreqToItems = new TreeMap<>(Collections.reverseOrder());
-        this.itemsToFreq = new TreeMap<>();
+        if (maxSize <= 0) {
+            throw new IllegalArgumentException("The maximum size must be greater than 0.");
+        }
+        this.itemsToSlot = new HashMap<>();
+        this.items = (T[]) new Object[maxSize];
+        this.counts = new FenwickTree(maxSize);
+        this.heap = new int[maxSize];
+        this.slotToHeapPosition = new int[maxSize];
+        this.heapPositionsToVisit = new int[maxSize];
         this.maxSize = maxSize;
+        this.size = 0;
     }
 
     @Override
     public void add(final T t) {
-        if (!itemsToFreq.containsKey(t)) {
-            itemsToFreq.put(t, 1L);
-            if (mapFreqToItems.containsKey(1L)) {
-                mapFreqToItems.get(1L).add(t);
-            } else {
-                mapFreqToItems.put(1L, new HashSet<>(Arrays.asList(t)));
-            }
-            if (itemsToFreq.keySet().size() > maxSize) {
-                final Set<T> items = mapFreqToItems.get(mapFreqToItems.lastKey()); // Last key as stored in reverse order
-                final int itemToRemove = random.nextInt(items.size());
-                int count = 0;
-                final Iterator<T> it = items.iterator();
-                while (it.hasNext()) {
-                    T x = it.next();
-                    if (count == itemToRemove) {
-                        items.remove(x);
-                        itemsToFreq.remove(x);
-                    }
-                    count++;
-                    if (count > itemToRemove) {
-                        break;
-                    }
-                }
-            }
-        } else {
-            incrementFrequency(t);
-        }
-    }
-
-    private void incrementFrequency(final T t) {
-        long currentFreq = itemsToFreq.get(t);
-        long newFreq = currentFreq + 1L;
-        itemsToFreq.put(t, newFreq);
-        mapFreqToItems.get(currentFreq).remove(t);
-        if (mapFreqToItems.get(currentFreq).size() == 0) {
-            mapFreqToItems.remove(currentFreq);
+        final Integer existingSlot = itemsToSlot.get(t);
+        if (null != existingSlot) {
+            incrementCount(existingSlot);
+            return;
         }
-        if (!mapFreqToItems.containsKey(newFreq)) {
-            mapFreqToItems.put(newFreq, new HashSet<>());
+        final int slot;
+        if (size < maxSize) {
+            slot = size;
+            heap[size] = slot;
+            slotToHeapPosition[slot] = size;
+            size++;
+        } else {
+            final int slotToReplace = chooseSlotToReplace();
+            if (slotToReplace < 0) {
+                // The new item was chosen to be removed
+                return;
+            }
+            slot = slotToReplace;
+            itemsToSlot.remove(items[slot]);
         }
-        mapFreqToItems.get(newFreq).add(t);
+        items[slot] = t;
+        itemsToSlot.put(t, slot);
+        counts.set(slot, 1L);
+        // A count of 1 is the smallest possible count so the slot can only need to move towards the root
+        siftUp(slotToHeapPosition[slot]);
     }
 
     /**
@@ -106,23 +106,96 @@ public class PreferentialAttachmentCache<T> implements Cache<T> {
      */
     @Override
     public T get() {
-        final long totalCount = getNumberOfElements();
-        if (totalCount == 0) {
+        if (0 == size) {
             LOGGER.warn("get() called on empty cache");
             return null;
         }
-        final ProbabilityGenerator<T> generator = new ProbabilityGenerator<>(itemsToFreq);
-        final T sample = generator.sample();
-        // Increment current count for the sample
-        itemsToFreq.put(sample, itemsToFreq.get(sample) + 1L);
-        return sample;
+        final int slot = counts.sample(random);
+        incrementCount(slot);
+        return items[slot];
     }
 
     public long getNumberOfElements() {
-        return itemsToFreq.values().stream().mapToLong(Long::longValue).sum();
+        return counts.getTotal();
     }
 
     public Map<T, Long> getItemsAndFrequencies() {
+        final Map<T, Long> itemsToFreq = new HashMap<>(size);
+        for (int slot = 0; slot < size; slot++) {
+            itemsToFreq.put(items[slot], counts.get(slot));
+        }
         return Collections.unmodifiableMap(itemsToFreq);
     }
+
+    /**
+     * Chooses the item to remove when a new item is added to a full cache. The new item has a count of 1, which is the
+     * smallest possible count, so the item removed is chosen uniformly at random from the new item and the items that
+     * have a count of 1. Those items form a subtree at the root of the heap, so only that subtree is visited.
+     *
+     * @return the slot of the item to remove, or -1 if the new item should be removed
+     */
+    private int chooseSlotToReplace() {
+        int chosenSlot = -1;
+        int numCandidates = 1;
+        int numToVisit = 0;
+        if (1L == counts.get(heap[0])) {
+            heapPositionsToVisit[numToVisit++] = 0;
+        }
+        while (numToVisit > 0) {
+            final int position = heapPositionsToVisit[--numToVisit];
+            numCandidates++;
+            if (0 == random.nextInt(numCandidates)) {
+                chosenSlot = heap[position];
+            }
+            for (int child = 2 * position + 1; child <= 2 * position + 2 && child < size; child++) {
+                if (1L == counts.get(heap[child])) {
+                    heapPositionsToVisit[numToVisit++] = child;
+                }
+            }
+        }
+        return chosenSlot;
+    }
+
+    private void incrementCount(final int slot) {
+        counts.add(slot, 1L);
+        siftDown(slotToHeapPosition[slot]);
+    }
+
+    private void siftUp(final int heapPosition) {
+        int position = heapPosition;
+        while (position > 0) {
+            final int parent = (position - 1) / 2;
+            if (counts.get(heap[parent]) <= counts.get(heap[position])) {
+                return;
+            }
+            swap(position, parent);
+            position = parent;
+        }
+    }
+
+    private void siftDown(final int heapPosition) {
+        int position = heapPosition;
+        while (true) {
+            final int left = 2 * position + 1;
+            if (left >= size) {
+                return;
+            }
+            final int right = left + 1;
+            final int smallest = right < size && counts.get(heap[right]) < counts.get(heap[left]) ? right : left;
+            if (counts.get(heap[position]) <= counts.get(heap[smallest])) {
+                return;
+            }
+            swap(position, smallest);
+            position = smallest;
+        }
+    }
+
+    private void swap(final int i, final int j) {
+        final int slotI = heap[i];
+        final int slotJ = heap[j];
+        heap[i] = slotJ;
+        heap[j] = slotI;
+        slotToHeapPosition[slotJ] = i;
+        slotToHeapPosition[slotI] = j;
+    }
 }
@@ -0,0 +1,177 @@
+/*
+ * Copyright 2019 Crown Copyright
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package uk.gov.gchq.gaffer.randomelementgeneration.rmat;
+
+import java.util.Arrays;
+
+/**
+ * Generates the source and destination vertices of RMAT edges (http://www.cs.cmu.edu/~christos/PUBLICATIONS/siam04.pdf)
+ * into primitive <code>long</code> arrays, without creating any objects.
+ *
+ * <p>Each edge is formed by repeatedly choosing one of the four quadrants of the adjacency matrix, with the given
+ * probabilities, and each choice determines one bit of the source and one bit of the destination:
+ * <pre>
+ *        destination
+ *         +---+---+
+ *         | 0 | 1 |
+ * source  +---+---+
+ *         | 2 | 3 |
+ *         +---+---+
+ * </pre>
+ * Rather than drawing one random double per bit, a table is precomputed that maps a 16 bit random value to the
+ * quadrants chosen at two consecutive levels, using the joint probability of each pair of quadrants. A single 64 bit
+ * random value from a {@link SplitMix64} therefore determines 8 bits of both the source and the destination. The
+ * probabilities are quantised to multiples of 2<sup>-16</sup>, which is far finer than is needed for benchmarking.
+ *
+ * <p>Every edge uses the same number of random values, so the n-th edge depends only on the seed and n. The generator
+ * can {@link #seek(long)} directly to any edge, which allows several generators to produce disjoint slices of the
+ * same graph.
+ *
+ * <p>This class is not thread-safe.
+ */
+public class RmatEdgeGenerator {
+    private static final int LOOKUP_BITS = 16;
+    private static final int LOOKUP_MASK = (1 << LOOKUP_BITS) - 1;
+    private static final int LEVELS_PER_LOOKUP = 2;
+    private static final int LOOKUPS_PER_LONG = Long.SIZE / LOOKUP_BITS;
+
+    private final byte[] quadrantTable;
+    private final int numBits;
+    private final long vertexMask;
+    private final int randomValuesPerEdge;
+    private final long seed;
+    private SplitMix64 random;
+    private long position = 0L;
+
+    public RmatEdgeGenerator(final double[] probabilities, final long maxNodeId, final long seed) {
+        validateProbabilities(probabilities);
+        this.quadrantTable = createQuadrantTable(probabilities);
+        this.numBits = (int) (Math.log(maxNodeId) / Math.log(2));
+        if (numBits <= 0 || numBits >= Long.SIZE - 1) {
+            throw new IllegalArgumentException("The maximum node id must be between 2 and 2^62 (got " + maxNodeId
+                    + ")");
+        }
+        this.vertexMask = (1L << numBits) - 1L;
+        final int lookupsPerEdge = (numBits + LEVELS_PER_LOOKUP - 1) / LEVELS_PER_LOOKUP;
+        this.randomValuesPerEdge = (lookupsPerEdge + LOOKUPS_PER_LONG - 1) / LOOKUPS_PER_LONG;
+        this.seed = seed;
+        this.random = new SplitMix64(seed);
+    }
+
+    public int getNumBits() {
+        return numBits;
+    }
+
+    /**
+     * @return the index of the next edge that will be generated
+     */
+    public long getPosition() {
+        return position;
+    }
+
+    /**
+     * Moves the generator so that the next edge generated is the edge with the given index.
+     *
+     * @param edgeIndex the index of the next edge to generate
+     */
+    public void seek(final long edgeIndex) {
+        if (edgeIndex < 0L) {
+            throw new IllegalArgumentException("The edge index must not be negative (got " + edgeIndex + ")");
+        }
+        random = new SplitMix64(seed);
+        random.advance(edgeIndex * randomValuesPerEdge);
+        position = edgeIndex;
+    }
+
+    /**
+     * Generates <code>length</code> edges, writing the source and destination of edge <code>i</code> to
+     * <code>sources[offset + i]</code> and <code>destinations[offset + i]</code>.
+     *
+     * @param sources      the array to write the sources to
+     * @param destinations the array to write the destinations to
+     * @param offset       the index of the first edge to write
+     * @param length       the number of edges to generate
+     */
+    public void generate(final long[] sources, final long[] destinations, final int offset, final int length) {
+        for (int i = offset; i < offset + length; i++) {
+            long source = 0L;
+            long destination = 0L;
+            long randomBits = 0L;
+            int lookupsRemaining = 0;
+            for (int level = 0; level < numBits; level += LEVELS_PER_LOOKUP) {
+                if (0 == lookupsRemaining) {
+                    randomBits = random.nextLong();
+                    lookupsRemaining = LOOKUPS_PER_LONG;
+                }
+                final int quadrants = quadrantTable[(int) (randomBits & LOOKUP_MASK)];
+                randomBits >>>= LOOKUP_BITS;
+                lookupsRemaining--;
+                source |= ((long) (quadrants & 3)) << level;
+                destination |= ((long) ((quadrants >>> 2) & 3)) << level;
+            }
+            // If the number of bits is odd then the final lookup sets one bit too many
+            sources[i] = source & vertexMask;
+            destinations[i] = destination & vertexMask;
+        }
+        position += length;
+    }
+
+    /**
+     * Creates a table mapping each 16 bit value to the quadrants chosen at two consecutive levels. Bits 0 and 1 of each
+     * entry are the source bits for the two levels and bits 2 and 3 are the destination bits.
+     */
+    private static byte[] createQuadrantTable(final double[] probabilities) {
+        final double[] cumulative = new double[16];
+        final byte[] outcomes = new byte[16];
+        double total = 0.0D;
+        int n = 0;
+        for (int first = 0; first < 4; first++) {
+            for (int second = 0; second < 4; second++) {
+                total += probabilities[first] * probabilities[second];
+                cumulative[n] = total;
+                final int sourceBits = (first >>> 1) | ((second >>> 1) << 1);
+                final int destinationBits = (first & 1) | ((second & 1) << 1);
+                outcomes[n] = (byte) (sourceBits | (destinationBits << 2));
+                n++;
+            }
+        }
+        final byte[] table = new byte[1 << LOOKUP_BITS];
+        int outcome = 0;
+        for (int i = 0; i < table.length; i++) {
+            final double u = (i + 0.5D) / table.length * total;
+            while (outcome < 15 && u >= cumulative[outcome]) {
+                outcome++;
+            }
+            table[i] = outcomes[outcome];
+        }
+        return table;
+    }
+
+    private static void validateProbabilities(final double[] probabilities) {
+        // There should be 4 probabilities, they should all be greater than 0 and they should sum to 1.
+        if (probabilities == null || probabilities.length != 4) {
+            throw new IllegalArgumentException("Probabilities should be non-null and of length 4.");
+        }
+        final double min = Arrays.stream(probabilities).min().getAsDouble();
+        if (min <= 0.0) {
+            throw new IllegalArgumentException("Every entry in probabilities must be strictly positive.");
+        }
+        final double sum = Arrays.stream(probabilities).sum();
+        if (sum < 0.999999999 || sum > 1.00000001) {
+            throw new IllegalArgumentException("The entries in probabilities must sum to 1.");
+        }
+    }
+}
@@ -0,0 +1,81 @@
+/*
+ * Copyright 2019 Crown Copyright
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package uk.gov.gchq.gaffer.randomelementgeneration.rmat;
+
+/**
+ * The SplitMix64 pseudo-random number generator (Steele, Lea and Flood, "Fast splittable pseudorandom number
+ * generators", OOPSLA 2014). It is much cheaper than {@link java.util.Random} (no synchronisation and a handful of
+ * arithmetic operations per value) and its state is a single <code>long</code> that advances by a constant on each
+ * call, so it can be split into independent generators.
+ *
+ * <p>Because the state advances by a constant, {@link #advance(long)} can jump forwards any number of values in
+ * constant time. This allows a sequence to be divided into disjoint, reproducible sub-sequences.
+ *
+ * <p>This class is not thread-safe; each thread should use its own instance, e.g. one obtained from {@link #split()}.
+ */
+public final class SplitMix64 {
+    private static final long GOLDEN_GAMMA = 0x9e3779b97f4a7c15L;
+    private static final double DOUBLE_UNIT = 0x1.0p-53;
+
+    private long state;
+
+    public SplitMix64(final long seed) {
+        this.state = seed;
+    }
+
+    public long nextLong() {
+        state += GOLDEN_GAMMA;
+        return mix(state);
+    }
+
+    /**
+     * Returns a uniformly distributed double between 0 (inclusive) and 1 (exclusive).
+     *
+     * @return the next pseudo-random double
+     */
+    public double nextDouble() {
+        return (nextLong() >>> 11) * DOUBLE_UNIT;
+    }
+
+    /**
+     * Returns a new generator whose seed is taken from this generator. The sequence produced by the new generator is
+     * statistically independent of the remainder of the sequence produced by this one.
+     *
+     * @return a new generator
+     */
+    public SplitMix64 split() {
+        return new SplitMix64(nextLong());
+    }
+
+    /**
+     * Skips forward in the sequence, as if {@link #nextLong()} had been called <code>numValues</code> times.
+     *
+     * @param numValues the number of values to skip
+     */
+    public void advance(final long numValues) {
+        if (numValues < 0L) {
+            throw new IllegalArgumentException("Cannot advance by a negative number of values (got " + numValues + ")");
+        }
+        state += numValues * GOLDEN_GAMMA;
+    }
+
+    private static long mix(final long value) {
+        long z = value;
+        z = (z ^ (z >>> 30)) * 0xbf58476d1ce4e5b9L;
+        z = (z ^ (z >>> 27)) * 0x94d049bb133111ebL;
+        return z ^ (z >>> 31);
+    }
+}
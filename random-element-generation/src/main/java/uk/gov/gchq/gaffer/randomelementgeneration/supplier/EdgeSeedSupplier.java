@@ -28,6 +28,16 @@ public class EdgeSeedSupplier implements ElementSeedSupplier<EdgeSeed> {
         this.entitySeedSupplier = new EntitySeedSupplier(maxNodeId);
     }
 
+    /**
+     * Creates a supplier that always supplies the same sequence of seeds for the same <code>seed</code>.
+     *
+     * @param maxNodeId the maximum vertex
+     * @param seed      the seed for the random number generator
+     */
+    public EdgeSeedSupplier(final long maxNodeId, final long seed) {
+        this.entitySeedSupplier = new EntitySeedSupplier(maxNodeId, seed);
+    }
+
     @Override
     public EdgeSeed get() {
         return new EdgeSeed(entitySeedSupplier.get(), entitySeedSupplier.get(), DirectedType.EITHER);
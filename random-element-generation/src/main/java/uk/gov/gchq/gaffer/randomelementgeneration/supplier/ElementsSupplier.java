@@ -17,9 +17,9 @@ package uk.gov.gchq.gaffer.randomelementgeneration.supplier;
 
 import uk.gov.gchq.gaffer.data.element.Element;
 
-import java.util.ArrayList;
+import java.util.ArrayDeque;
+import java.util.Deque;
 import java.util.Iterator;
-import java.util.List;
 import java.util.NoSuchElementException;
 import java.util.Set;
 import java.util.function.Supplier;
@@ -45,11 +45,11 @@ public class ElementsSupplier implements Supplier<Element> {
 
     protected static class ElementIterator implements Iterator<Element> {
         private Supplier<Set<Element>> elementSupplier;
-        private List<Element> cache;
+        private Deque<Element> cache;
 
         ElementIterator(final Supplier<Set<Element>> elementSupplier) {
             this.elementSupplier = elementSupplier;
-            this.cache = new ArrayList<>();
+            this.cache = new ArrayDeque<>();
         }
 
         @Override
@@ -69,9 +69,7 @@ public class ElementsSupplier implements Supplier<Element> {
             if (!hasNext()) {
                 throw new NoSuchElementException("Supplier is exhausted");
             }
-            final Element elementToReturn = cache.get(0);
-            cache.remove(0);
-            return elementToReturn;
+            return cache.removeFirst();
         }
     }
 }
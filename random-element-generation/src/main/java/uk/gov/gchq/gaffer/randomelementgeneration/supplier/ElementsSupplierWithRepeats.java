@@ -34,8 +34,33 @@ public class ElementsSupplierWithRepeats extends ElementsSupplier {
     public ElementsSupplierWithRepeats(final Supplier<Set<Element>> elementSupplier,
                                        final double repeatProb,
                                        final Cache<Element> cache) {
+        this(elementSupplier, repeatProb, cache, new Random());
+    }
+
+    /**
+     * Creates a supplier whose choice of when to repeat an element is always the same for the same <code>seed</code>.
+     * The elements themselves are only reproducible if the provided <code>elementSupplier</code> and
+     * <code>cache</code> are.
+     *
+     * @param elementSupplier the supplier of new elements
+     * @param repeatProb      the probability of repeating an element
+     * @param cache           the cache of elements to repeat
+     * @param seed            the seed for the random number generator
+     */
+    public ElementsSupplierWithRepeats(final Supplier<Set<Element>> elementSupplier,
+                                       final double repeatProb,
+                                       final Cache<Element> cache,
+                                       final long seed) {
+        this(elementSupplier, repeatProb, cache, new Random(seed));
+    }
+
+    private ElementsSupplierWithRepeats(final Supplier<Set<Element>> elementSupplier,
+                                        final double repeatProb,
+                                        final Cache<Element> cache,
+                                        final Random random) {
         super(elementSupplier);
-        this.elementIterator = new ElementIteratorWithRepeats(new ElementIterator(elementSupplier), repeatProb, cache);
+        this.elementIterator
+                = new ElementIteratorWithRepeats(new ElementIterator(elementSupplier), repeatProb, cache, random);
     }
 
     @Override
@@ -47,14 +72,16 @@ public class ElementsSupplierWithRepeats extends ElementsSupplier {
     }
 
     protected static class ElementIteratorWithRepeats implements Iterator<Element> {
-        private final Random random = new Random();
+        private final Random random;
         private Iterator<Element> elementIterator;
         private double repeatProb;
         private Cache<Element> cache;
 
         ElementIteratorWithRepeats(final Iterator<Element> elementIterator,
                                    final double repeatProb,
-                                   final Cache<Element> cache) {
+                                   final Cache<Element> cache,
+                                   final Random random) {
+            this.random = random;
             this.elementIterator = elementIterator;
             this.repeatProb = repeatProb;
             this.cache = cache;
@@ -20,11 +20,26 @@ import uk.gov.gchq.gaffer.operation.data.EntitySeed;
 import java.util.Random;
 
 public class EntitySeedSupplier implements ElementSeedSupplier<EntitySeed> {
-    protected final Random random = new Random();
+    protected final Random random;
     private final long maxNodeId;
     private final int numBits;
 
     public EntitySeedSupplier(final long maxNodeId) {
+        this(maxNodeId, new Random());
+    }
+
+    /**
+     * Creates a supplier that always supplies the same sequence of seeds for the same <code>seed</code>.
+     *
+     * @param maxNodeId the maximum vertex
+     * @param seed      the seed for the random number generator
+     */
+    public EntitySeedSupplier(final long maxNodeId, final long seed) {
+        this(maxNodeId, new Random(seed));
+    }
+
+    private EntitySeedSupplier(final long maxNodeId, final Random random) {
+        this.random = random;
         this.maxNodeId = maxNodeId;
         this.numBits = (int) (Math.log(maxNodeId) / Math.log(2));
     }
@@ -35,7 +50,7 @@ public class EntitySeedSupplier implements ElementSeedSupplier<EntitySeed> {
         long id = 0L;
         for (int i = 0; i < numBits; i++) {
             if (random.nextDouble() < 0.5D) {
-                id = id ^ (1 << i);
+                id = id ^ (1L << i);
             }
         }
         return new EntitySeed(id);
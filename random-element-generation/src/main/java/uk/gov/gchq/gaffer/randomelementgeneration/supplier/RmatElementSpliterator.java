@@ -0,0 +1,158 @@
+/*
+ * Copyright 2017-2019 Crown Copyright
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package uk.gov.gchq.gaffer.randomelementgeneration.supplier;
+
+import uk.gov.gchq.gaffer.data.element.Element;
+import uk.gov.gchq.gaffer.randomelementgeneration.rmat.RmatEdgeGenerator;
+
+import java.util.Spliterator;
+import java.util.function.Consumer;
+import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
+
+/**
+ * A {@link Spliterator} over the {@link Element}s of a fixed number of RMAT edges, generated from a seed. The edges
+ * with indices <code>firstEdge</code> (inclusive) to <code>lastEdge</code> (exclusive) of the graph determined by the
+ * seed are generated (see {@link RmatEdgeGenerator}), and for each edge the elements are those supplied by
+ * {@link RmatElementStreamSupplier}.
+ *
+ * <p>Splitting divides the range of edges in two, and each part generates its own edges, so a parallel
+ * {@link Stream} from {@link #stream(double[], long, boolean, long, long, boolean)} uses every core. The elements
+ * produced do not depend on how the range is split, so the same seed always gives the same graph. Alternatively,
+ * {@link #slice(double[], long, boolean, long, long, int, int)} gives one of a number of disjoint slices of the graph,
+ * e.g. for a worker in a multi-threaded or multi-process ingest.
+ */
+public class RmatElementSpliterator implements Spliterator<Element> {
+    private static final int MIN_EDGES_TO_SPLIT = 1024;
+
+    private final double[] probabilities;
+    private final long maxNodeId;
+    private final boolean includeEntities;
+    private final long seed;
+    private long firstEdge;
+    private final long lastEdge;
+    private RmatElementStreamSupplier supplier;
+
+    public RmatElementSpliterator(final double[] probabilities,
+                                  final long maxNodeId,
+                                  final boolean includeEntities,
+                                  final long seed,
+                                  final long firstEdge,
+                                  final long lastEdge) {
+        if (firstEdge < 0L || lastEdge < firstEdge) {
+            throw new IllegalArgumentException("Invalid range of edges: " + firstEdge + " to " + lastEdge);
+        }
+        this.probabilities = probabilities;
+        this.maxNodeId = maxNodeId;
+        this.includeEntities = includeEntities;
+        this.seed = seed;
+        this.firstEdge = firstEdge;
+        this.lastEdge = lastEdge;
+    }
+
+    /**
+     * Creates a {@link Stream} of the {@link Element}s of the first <code>numEdges</code> edges of the graph
+     * determined by the seed.
+     *
+     * @param probabilities   the RMAT probabilities
+     * @param maxNodeId       the maximum vertex
+     * @param includeEntities whether to include an entity for each end of each edge
+     * @param seed            the seed
+     * @param numEdges        the number of edges
+     * @param parallel        whether the stream should be parallel
+     * @return a stream of the elements
+     */
+    public static Stream<Element> stream(final double[] probabilities,
+                                         final long maxNodeId,
+                                         final boolean includeEntities,
+                                         final long seed,
+                                         final long numEdges,
+                                         final boolean parallel) {
+        return StreamSupport.stream(
+                new RmatElementSpliterator(probabilities, maxNodeId, includeEntities, seed, 0L, numEdges), parallel);
+    }
+
+    /**
+     * Creates a {@link Stream} of the {@link Element}s in one of <code>numSlices</code> equal, disjoint slices of the
+     * first <code>numEdges</code> edges of the graph determined by the seed.
+     *
+     * @param probabilities   the RMAT probabilities
+     * @param maxNodeId       the maximum vertex
+     * @param includeEntities whether to include an entity for each end of each edge
+     * @param seed            the seed
+     * @param numEdges        the total number of edges in all the slices
+     * @param slice           the slice, from 0 to <code>numSlices - 1</code>
+     * @param numSlices       the number of slices
+     * @return a stream of the elements in the slice
+     */
+    public static Stream<Element> slice(final double[] probabilities,
+                                        final long maxNodeId,
+                                        final boolean includeEntities,
+                                        final long seed,
+                                        final long numEdges,
+                                        final int slice,
+                                        final int numSlices) {
+        if (numSlices <= 0 || slice < 0 || slice >= numSlices) {
+            throw new IllegalArgumentException("Invalid slice " + slice + " of " + numSlices);
+        }
+        final long firstEdge = sliceBoundary(numEdges, slice, numSlices);
+        final long lastEdge = sliceBoundary(numEdges, slice + 1, numSlices);
+        return StreamSupport.stream(new RmatElementSpliterator(probabilities, maxNodeId, includeEntities, seed,
+                firstEdge, lastEdge), false);
+    }
+
+    @Override
+    public boolean tryAdvance(final Consumer<? super Element> action) {
+        if (null == supplier) {
+            supplier = new RmatElementStreamSupplier(probabilities, maxNodeId, includeEntities, seed, firstEdge,
+                    (int) Math.max(1L, Math.min(RmatElementStreamSupplier.DEFAULT_BATCH_SIZE, lastEdge - firstEdge)));
+        }
+        if (supplier.getNextEdge() >= lastEdge) {
+            return false;
+        }
+        action.accept(supplier.get());
+        return true;
+    }
+
+    @Override
+    public Spliterator<Element> trySplit() {
+        // Only split before any elements have been generated, so that a split is always on an edge boundary
+        if (null != supplier || lastEdge - firstEdge < 2 * MIN_EDGES_TO_SPLIT) {
+            return null;
+        }
+        final long mid = firstEdge + (lastEdge - firstEdge) / 2;
+        final RmatElementSpliterator prefix
+                = new RmatElementSpliterator(probabilities, maxNodeId, includeEntities, seed, firstEdge, mid);
+        firstEdge = mid;
+        return prefix;
+    }
+
+    @Override
+    public long estimateSize() {
+        final long remainingEdges = lastEdge - (null == supplier ? firstEdge : supplier.getNextEdge());
+        return includeEntities ? 3 * remainingEdges : remainingEdges;
+    }
+
+    @Override
+    public int characteristics() {
+        return ORDERED | NONNULL | IMMUTABLE | (includeEntities ? 0 : SIZED | SUBSIZED);
+    }
+
+    private static long sliceBoundary(final long numEdges, final int slice, final int numSlices) {
+        // Avoids overflow when numEdges * slice is larger than a long
+        return (numEdges / numSlices) * slice + ((numEdges % numSlices) * slice) / numSlices;
+    }
+}
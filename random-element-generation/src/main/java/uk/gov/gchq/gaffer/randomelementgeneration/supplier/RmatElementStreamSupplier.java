@@ -0,0 +1,143 @@
+/*
+ * Copyright 2017-2019 Crown Copyright
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package uk.gov.gchq.gaffer.randomelementgeneration.supplier;
+
+import com.clearspring.analytics.stream.cardinality.HyperLogLogPlus;
+
+import uk.gov.gchq.gaffer.data.element.Edge;
+import uk.gov.gchq.gaffer.data.element.Element;
+import uk.gov.gchq.gaffer.data.element.Entity;
+import uk.gov.gchq.gaffer.randomelementgeneration.Constants;
+import uk.gov.gchq.gaffer.randomelementgeneration.rmat.RmatEdgeGenerator;
+
+import java.util.Random;
+import java.util.function.Supplier;
+
+/**
+ * Supplies an endless stream of {@link Element}s from random RMAT edges. The source and destination vertices are
+ * generated in batches into primitive arrays by a {@link RmatEdgeGenerator}, and an {@link Element} is only created
+ * when {@link #get()} is called, so no intermediate collections are allocated.
+ *
+ * <p>For each edge this supplies the edge, then (if entities are included) the entity for the source and then the
+ * entity for the destination. If the edge is a self-loop then only one entity is supplied, as the two entities would be
+ * identical.
+ *
+ * <p>If a seed is given then the elements are reproducible: the edges are those with indices
+ * <code>firstEdge</code>, <code>firstEdge + 1</code>, ... of the graph determined by the seed (see
+ * {@link RmatEdgeGenerator}). {@link RmatElementSpliterator} uses this to generate a graph in parallel.
+ */
+public class RmatElementStreamSupplier implements Supplier<Element> {
+    public static final int DEFAULT_BATCH_SIZE = 1024;
+    static final String EDGE_GROUP = "edgeGroup";
+    static final String ENTITY_GROUP = "entityGroup";
+    static final String COUNT = "count";
+    static final String APPROX_DEGREE = "approxDegree";
+
+    private final RmatEdgeGenerator edgeGenerator;
+    private final boolean includeEntities;
+    private final long[] sources;
+    private final long[] destinations;
+    private int index;
+    private int elementWithinEdge = 0;
+
+    public RmatElementStreamSupplier(final double[] probabilities,
+                                     final long maxNodeId,
+                                     final boolean includeEntities,
+                                     final long seed,
+                                     final long firstEdge,
+                                     final int batchSize) {
+        if (batchSize <= 0) {
+            throw new IllegalArgumentException("The batch size must be greater than 0 (got " + batchSize + ")");
+        }
+        this.edgeGenerator = new RmatEdgeGenerator(probabilities, maxNodeId, seed);
+        this.edgeGenerator.seek(firstEdge);
+        this.includeEntities = includeEntities;
+        this.sources = new long[batchSize];
+        this.destinations = new long[batchSize];
+        this.index = batchSize;
+    }
+
+    public RmatElementStreamSupplier(final double[] probabilities,
+                                     final long maxNodeId,
+                                     final boolean includeEntities,
+                                     final long seed) {
+        this(probabilities, maxNodeId, includeEntities, seed, 0L, DEFAULT_BATCH_SIZE);
+    }
+
+    public RmatElementStreamSupplier(final double[] probabilities,
+                                     final long maxNodeId,
+                                     final boolean includeEntities) {
+        this(probabilities, maxNodeId, includeEntities, new Random().nextLong());
+    }
+
+    public RmatElementStreamSupplier(final long maxNodeId, final boolean includeEntities) {
+        this(Constants.RMAT_PROBABILITIES, maxNodeId, includeEntities);
+    }
+
+    @Override
+    public Element get() {
+        if (index == sources.length) {
+            edgeGenerator.generate(sources, destinations, 0, sources.length);
+            index = 0;
+        }
+        final long source = sources[index];
+        final long destination = destinations[index];
+        final Element element;
+        if (0 == elementWithinEdge) {
+            element = createEdge(source, destination);
+        } else if (1 == elementWithinEdge) {
+            element = createEntity(source, destination);
+        } else {
+            element = createEntity(destination, source);
+        }
+        final int elementsForEdge = !includeEntities ? 1 : (source == destination ? 2 : 3);
+        elementWithinEdge++;
+        if (elementWithinEdge == elementsForEdge) {
+            elementWithinEdge = 0;
+            index++;
+        }
+        return element;
+    }
+
+    /**
+     * @return the index of the edge whose elements will be returned by the next call to {@link #get()}
+     */
+    public long getNextEdge() {
+        return edgeGenerator.getPosition() - sources.length + index;
+    }
+
+    static Edge createEdge(final long source, final long destination) {
+        final Edge edge = new Edge(EDGE_GROUP, source, destination, true);
+        edge.putProperty(COUNT, 1L);
+        return edge;
+    }
+
+    /**
+     * Creates the entity for one end of an edge. The approximate degree sketch contains the vertex at the other end.
+     *
+     * @param vertex    the vertex of the entity
+     * @param neighbour the vertex at the other end of the edge
+     * @return the entity
+     */
+    static Entity createEntity(final long vertex, final long neighbour) {
+        final Entity entity = new Entity(ENTITY_GROUP, vertex);
+        entity.putProperty(COUNT, 1L);
+        final HyperLogLogPlus hllpp = new HyperLogLogPlus(5, 5);
+        hllpp.offer(neighbour);
+        entity.putProperty(APPROX_DEGREE, hllpp);
+        return entity;
+    }
+}
@@ -15,14 +15,10 @@
  */
 package uk.gov.gchq.gaffer.randomelementgeneration.supplier;
 
-import com.clearspring.analytics.stream.cardinality.HyperLogLogPlus;
-
-import uk.gov.gchq.gaffer.data.element.Edge;
 import uk.gov.gchq.gaffer.data.element.Element;
-import uk.gov.gchq.gaffer.data.element.Entity;
 import uk.gov.gchq.gaffer.randomelementgeneration.Constants;
+import uk.gov.gchq.gaffer.randomelementgeneration.rmat.RmatEdgeGenerator;
 
-import java.util.Arrays;
 import java.util.HashSet;
 import java.util.Random;
 import java.util.Set;
@@ -34,22 +30,25 @@ import java.util.function.Supplier;
  * maximum value.
  *
  * <p>Each call to <code>get()</code> returns a {@link Set} of {@link Element}s. If the <code>includeEntities</code>
- * option is true, then the set will contain a single {@link Edge} and an {@link Entity} for each vertex in the
- * {@link Edge}. If the <code>includeEntities</code> option is false, then the set will contain a single {@link Edge}.
+ * option is true, then the set will contain a single {@link uk.gov.gchq.gaffer.data.element.Edge} and an
+ * {@link uk.gov.gchq.gaffer.data.element.Entity} for each vertex in the edge. If the <code>includeEntities</code>
+ * option is false, then the set will contain a single edge.
  *
  * <p>By default, the probabilities used for the generation of the edges are the same as those specified in the
  * Graph500 challenge, but other probabilities can be specified if desired.
+ *
+ * <p>The vertices are generated by a {@link RmatEdgeGenerator}. When a stream of {@link Element}s is required, the
+ * {@link RmatElementStreamSupplier} should be used instead as it does not create a {@link Set} for each edge and it
+ * generates the vertices in batches.
  */
 public class RmatElementSupplier implements Supplier<Set<Element>> {
-    protected final Random random = new Random();
-    private double[] cumulativeProbs;
-    private int numBits;
-    private boolean includeEntities;
+    private final RmatEdgeGenerator edgeGenerator;
+    private final boolean includeEntities;
+    private final long[] source = new long[1];
+    private final long[] destination = new long[1];
 
     public RmatElementSupplier(final double[] probabilities, final long maxNodeId, final boolean includeEntities) {
-        validateProbabilities(probabilities);
-        setCumulativeProbs(probabilities);
-        this.numBits = (int) (Math.log(maxNodeId) / Math.log(2));
+        this.edgeGenerator = new RmatEdgeGenerator(probabilities, maxNodeId, new Random().nextLong());
         this.includeEntities = includeEntities;
     }
 
@@ -57,88 +56,15 @@ public class RmatElementSupplier implements Supplier<Set<Element>> {
         this(Constants.RMAT_PROBABILITIES, maxNodeId, includeEntities);
     }
 
-    /**
-     *        destination
-     *         +---+---+
-     *         | 0 | 1 |
-     * source  +---+---+
-     *         | 2 | 3 |
-     *         +---+---+
-     */
     @Override
     public Set<Element> get() {
-        // Generate random source and destination nodes
-        long source = 0L;
-        long destination = 0L;
-        for (int i = 0; i < numBits; i++) {
-            final int quadrant = generateRandomQuadrant();
-            if (quadrant == 0) {
-                // Do nothing
-            } else if (quadrant == 1) {
-                destination = destination ^ (1 << i);
-            } else if (quadrant == 2) {
-                source = source ^ (1 << i);
-            } else {
-                source = source ^ (1 << i);
-                destination = destination ^ (1 << i);
-            }
-        }
+        edgeGenerator.generate(source, destination, 0, 1);
         final Set<Element> results = new HashSet<>();
-        // Create edge, and source and destination entities
-        final Edge edge = new Edge("edgeGroup", source, destination, true);
-        edge.putProperty("count", 1L);
-        results.add(edge);
+        results.add(RmatElementStreamSupplier.createEdge(source[0], destination[0]));
         if (includeEntities) {
-            final Entity sourceEntity = new Entity("entityGroup", source);
-            sourceEntity.putProperty("count", 1L);
-            final HyperLogLogPlus sourceHLLPP = new HyperLogLogPlus(5, 5);
-            sourceHLLPP.offer(destination);
-            sourceEntity.putProperty("approxDegree", sourceHLLPP);
-            results.add(sourceEntity);
-            final Entity destinationEntity = new Entity("entityGroup", destination);
-            destinationEntity.putProperty("count", 1L);
-            final HyperLogLogPlus destinationHLLPP = new HyperLogLogPlus(5, 5);
-            destinationHLLPP.offer(destination);
-            destinationEntity.putProperty("approxDegree", destinationHLLPP);
-            results.add(destinationEntity);
+            results.add(RmatElementStreamSupplier.createEntity(source[0], destination[0]));
+            results.add(RmatElementStreamSupplier.createEntity(destination[0], source[0]));
         }
         return results;
     }
-
-    private int generateRandomQuadrant() {
-        final double d = random.nextDouble();
-        if (d < cumulativeProbs[0]) {
-            return 0;
-        }
-        if (d < cumulativeProbs[1]) {
-            return 1;
-        }
-        if (d < cumulativeProbs[2]) {
-            return 2;
-        }
-        return 3;
-    }
-
-    private void validateProbabilities(final double[] probabilities) {
-        // There should be 4 probabilities, they should all be greater than 0 and they should sum to 1.
-        if (probabilities == null || probabilities.length != 4) {
-            throw new IllegalArgumentException("Probabilities should be non-null and of length 4.");
-        }
-        final double min = Arrays.stream(probabilities).min().getAsDouble();
-        if (min <= 0.0) {
-            throw new IllegalArgumentException("Every entry in probabilities must be strictly positive.");
-        }
-        final double sum = Arrays.stream(probabilities).sum();
-        if (sum < 0.999999999 || sum > 1.00000001) {
-            throw new IllegalArgumentException("The entries in probabilities must sum to 1.");
-        }
-    }
-
-    private void setCumulativeProbs(final double[] probabilities) {
-        this.cumulativeProbs = new double[4];
-        this.cumulativeProbs[0] = probabilities[0];
-        this.cumulativeProbs[1] = probabilities[1] + this.cumulativeProbs[0];
-        this.cumulativeProbs[2] = probabilities[2] + this.cumulativeProbs[1];
-        this.cumulativeProbs[3] = probabilities[3] + this.cumulativeProbs[2];
-    }
 }
@@ -0,0 +1,89 @@
+/*
+ * Copyright 2019 Crown Copyright
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package uk.gov.gchq.gaffer.randomelementgeneration.cache;
+
+import org.junit.Test;
+
+import java.util.Random;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+public class TestFenwickTree {
+
+    @Test
+    public void testPrefixSumsAndFind() {
+        // Given
+        final FenwickTree tree = new FenwickTree(5);
+        tree.set(0, 3L);
+        tree.set(1, 0L);
+        tree.set(2, 2L);
+        tree.set(3, 5L);
+        tree.add(4, 1L);
+
+        // When / Then
+        assertEquals(11L, tree.getTotal());
+        assertEquals(3L, tree.prefixSum(1));
+        assertEquals(5L, tree.prefixSum(3));
+        assertEquals(11L, tree.prefixSum(5));
+        assertEquals(0, tree.find(0L));
+        assertEquals(0, tree.find(2L));
+        assertEquals(2, tree.find(3L));
+        assertEquals(2, tree.find(4L));
+        assertEquals(3, tree.find(5L));
+        assertEquals(3, tree.find(9L));
+        assertEquals(4, tree.find(10L));
+    }
+
+    @Test
+    public void testSampleIsProportionalToWeight() {
+        // Given
+        final FenwickTree tree = new FenwickTree(3);
+        tree.set(0, 100L);
+        tree.set(1, 100L);
+        tree.set(2, 0L);
+        final Random random = new Random(0L);
+        final long[] counts = new long[3];
+
+        // When
+        for (int i = 0; i < 1000000; i++) {
+            counts[tree.sample(random)]++;
+        }
+
+        // Then
+        final double ratio = ((double) counts[0]) / counts[1];
+        assertTrue(0.99D < ratio && ratio < 1.01D);
+        assertEquals(0L, counts[2]);
+    }
+
+    @Test
+    public void testSampleOfEmptyTree() {
+        // Given
+        final FenwickTree tree = new FenwickTree(3);
+
+        // When / Then
+        assertEquals(-1, tree.sample(new Random()));
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testNegativeWeightsAreRejected() {
+        // Given
+        final FenwickTree tree = new FenwickTree(3);
+
+        // When
+        tree.add(1, -1L);
+    }
+}
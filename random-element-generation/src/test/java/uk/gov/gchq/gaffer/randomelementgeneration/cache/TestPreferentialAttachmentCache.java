@@ -59,6 +59,50 @@ public class TestPreferentialAttachmentCache {
         assertEquals(10, numberOfElements);
     }
 
+    @Test
+    public void testNewItemIsRemovedIfEveryOtherItemHasAHigherCount() {
+        // Given
+        final PreferentialAttachmentCache<String> cache = new PreferentialAttachmentCache<>(2);
+        cache.add("A");
+        cache.add("A");
+        cache.add("B");
+        cache.add("B");
+
+        // When
+        cache.add("C");
+
+        // Then
+        final Map<String, Long> expected = new HashMap<>();
+        expected.put("A", 2L);
+        expected.put("B", 2L);
+        assertEquals(expected, cache.getItemsAndFrequencies());
+    }
+
+    @Test
+    public void testItemRemovedIsChosenAtRandomFromTheItemsWithTheSmallestCount() {
+        // Given
+        final Set<String> itemsRemoved = new HashSet<>();
+
+        // When
+        IntStream.range(0, 1000).forEach(i -> {
+            final PreferentialAttachmentCache<String> cache = new PreferentialAttachmentCache<>(2);
+            cache.add("A");
+            cache.add("A");
+            cache.add("B");
+            cache.add("C");
+            final Set<String> items = cache.getItemsAndFrequencies().keySet();
+            assertEquals(2, items.size());
+            assertTrue(items.contains("A"));
+            itemsRemoved.add(items.contains("B") ? "C" : "B");
+        });
+
+        // Then
+        final Set<String> expected = new HashSet<>();
+        expected.add("B");
+        expected.add("C");
+        assertEquals(expected, itemsRemoved);
+    }
+
     /**
      * This test could be made sophisticated, e.g. checking that the exponent of the power-law lies within a certain
      * range. Currently, this test simply checks that the frequency of the most popular item is several orders of
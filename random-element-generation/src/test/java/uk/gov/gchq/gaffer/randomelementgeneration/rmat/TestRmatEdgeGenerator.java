@@ -0,0 +1,114 @@
+/*
+ * Copyright 2019-2019 Crown Copyright
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package uk.gov.gchq.gaffer.randomelementgeneration.rmat;
+
+import org.junit.Test;
+
+import uk.gov.gchq.gaffer.randomelementgeneration.Constants;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+public class TestRmatEdgeGenerator {
+
+    @Test
+    public void testVerticesAreInRange() {
+        // Given
+        final RmatEdgeGenerator generator = new RmatEdgeGenerator(Constants.RMAT_PROBABILITIES, 1000L, 1L);
+        final long[] sources = new long[10000];
+        final long[] destinations = new long[10000];
+
+        // When
+        generator.generate(sources, destinations, 0, sources.length);
+
+        // Then
+        assertEquals(9, generator.getNumBits());
+        for (int i = 0; i < sources.length; i++) {
+            assertTrue(0L <= sources[i] && sources[i] < 512L);
+            assertTrue(0L <= destinations[i] && destinations[i] < 512L);
+        }
+    }
+
+    @Test
+    public void testQuadrantFrequenciesMatchProbabilities() {
+        // Given - with 2 vertices each edge is determined by a single choice of quadrant
+        final double[] probabilities = new double[]{0.4, 0.3, 0.2, 0.1};
+        final RmatEdgeGenerator generator = new RmatEdgeGenerator(probabilities, 2L, 2L);
+        final int numEdges = 1000000;
+        final long[] sources = new long[numEdges];
+        final long[] destinations = new long[numEdges];
+
+        // When
+        generator.generate(sources, destinations, 0, numEdges);
+
+        // Then
+        final long[] counts = new long[4];
+        for (int i = 0; i < numEdges; i++) {
+            counts[(int) (2 * sources[i] + destinations[i])]++;
+        }
+        for (int quadrant = 0; quadrant < 4; quadrant++) {
+            assertEquals(probabilities[quadrant], ((double) counts[quadrant]) / numEdges, 0.005D);
+        }
+    }
+
+    @Test
+    public void testSameSeedGivesSameEdges() {
+        // Given
+        final RmatEdgeGenerator generator1 = new RmatEdgeGenerator(Constants.RMAT_PROBABILITIES, 1L << 40, 3L);
+        final RmatEdgeGenerator generator2 = new RmatEdgeGenerator(Constants.RMAT_PROBABILITIES, 1L << 40, 3L);
+        final long[] sources1 = new long[100];
+        final long[] destinations1 = new long[100];
+        final long[] sources2 = new long[100];
+        final long[] destinations2 = new long[100];
+
+        // When - one generator fills the arrays in one go, the other in two halves
+        generator1.generate(sources1, destinations1, 0, 100);
+        generator2.generate(sources2, destinations2, 0, 50);
+        generator2.generate(sources2, destinations2, 50, 50);
+
+        // Then
+        assertArrayEquals(sources1, sources2);
+        assertArrayEquals(destinations1, destinations2);
+    }
+
+    @Test
+    public void testSeekGivesSameEdgesAsGeneratingFromTheStart() {
+        // Given
+        final RmatEdgeGenerator generator = new RmatEdgeGenerator(Constants.RMAT_PROBABILITIES, 1000L, 4L);
+        final long[] allSources = new long[100];
+        final long[] allDestinations = new long[100];
+        generator.generate(allSources, allDestinations, 0, 100);
+        final long[] sources = new long[100];
+        final long[] destinations = new long[100];
+
+        // When - generate the second half and then the first half
+        generator.seek(50L);
+        generator.generate(sources, destinations, 50, 50);
+        generator.seek(0L);
+        generator.generate(sources, destinations, 0, 50);
+
+        // Then
+        assertArrayEquals(allSources, sources);
+        assertArrayEquals(allDestinations, destinations);
+        assertEquals(50L, generator.getPosition());
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testInvalidProbabilitiesAreRejected() {
+        new RmatEdgeGenerator(new double[]{0.5, 0.5, 0.5, 0.5}, 100L, 1L);
+    }
+}
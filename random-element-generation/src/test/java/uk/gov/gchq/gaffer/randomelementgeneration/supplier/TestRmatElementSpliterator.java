@@ -0,0 +1,100 @@
+/*
+ * Copyright 2019-2019 Crown Copyright
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package uk.gov.gchq.gaffer.randomelementgeneration.supplier;
+
+import org.junit.Test;
+
+import uk.gov.gchq.gaffer.data.element.Edge;
+import uk.gov.gchq.gaffer.data.element.Element;
+import uk.gov.gchq.gaffer.randomelementgeneration.Constants;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.stream.Collectors;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotEquals;
+
+public class TestRmatElementSpliterator {
+
+    @Test
+    public void testParallelStreamGivesSameElementsAsSequentialStream() {
+        // Given
+        final long numEdges = 100000L;
+
+        // When
+        final List<Element> sequential = RmatElementSpliterator
+                .stream(Constants.RMAT_PROBABILITIES, 1000000L, false, 1L, numEdges, false)
+                .collect(Collectors.toList());
+        final List<Element> parallel = RmatElementSpliterator
+                .stream(Constants.RMAT_PROBABILITIES, 1000000L, false, 1L, numEdges, true)
+                .collect(Collectors.toList());
+
+        // Then
+        assertEquals(numEdges, sequential.size());
+        assertEquals(sequential, parallel);
+    }
+
+    @Test
+    public void testSlicesAreDisjointAndCoverTheGraph() {
+        // Given
+        final long numEdges = 10001L;
+        final List<Element> expected = RmatElementSpliterator
+                .stream(Constants.RMAT_PROBABILITIES, 1000000L, false, 2L, numEdges, false)
+                .collect(Collectors.toList());
+
+        // When
+        final List<Element> slices = new ArrayList<>();
+        for (int slice = 0; slice < 3; slice++) {
+            slices.addAll(RmatElementSpliterator
+                    .slice(Constants.RMAT_PROBABILITIES, 1000000L, false, 2L, numEdges, slice, 3)
+                    .collect(Collectors.toList()));
+        }
+
+        // Then
+        assertEquals(expected, slices);
+    }
+
+    @Test
+    public void testEntitiesAreIncludedForEachEdge() {
+        // When
+        final List<Element> elements = RmatElementSpliterator
+                .stream(Constants.RMAT_PROBABILITIES, 1000L, true, 3L, 5000L, true)
+                .collect(Collectors.toList());
+
+        // Then
+        final long numEdges = elements.stream().filter(e -> e instanceof Edge).count();
+        final long numSelfLoops = elements.stream()
+                .filter(e -> e instanceof Edge && ((Edge) e).getSource().equals(((Edge) e).getDestination()))
+                .count();
+        assertEquals(5000L, numEdges);
+        assertEquals(3 * numEdges - numSelfLoops, elements.size());
+    }
+
+    @Test
+    public void testDifferentSeedsGiveDifferentGraphs() {
+        // When
+        final List<Element> elements1 = RmatElementSpliterator
+                .stream(Constants.RMAT_PROBABILITIES, 1000000L, false, 1L, 100L, false)
+                .collect(Collectors.toList());
+        final List<Element> elements2 = RmatElementSpliterator
+                .stream(Constants.RMAT_PROBABILITIES, 1000000L, false, 2L, 100L, false)
+                .collect(Collectors.toList());
+
+        // Then
+        assertNotEquals(elements1, elements2);
+    }
+}
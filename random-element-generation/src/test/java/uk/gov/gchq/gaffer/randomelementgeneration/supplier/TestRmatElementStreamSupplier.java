@@ -0,0 +1,66 @@
+/*
+ * Copyright 2019-2019 Crown Copyright
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package uk.gov.gchq.gaffer.randomelementgeneration.supplier;
+
+import org.junit.Test;
+
+import uk.gov.gchq.gaffer.data.element.Edge;
+import uk.gov.gchq.gaffer.data.element.Element;
+import uk.gov.gchq.gaffer.data.element.Entity;
+import uk.gov.gchq.gaffer.randomelementgeneration.Constants;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+public class TestRmatElementStreamSupplier {
+
+    @Test
+    public void testEachEdgeIsFollowedByItsEntities() {
+        // Given
+        final RmatElementStreamSupplier supplier
+                = new RmatElementStreamSupplier(Constants.RMAT_PROBABILITIES, 100L, true, 1L, 0L, 16);
+
+        // When / Then
+        int numEdges = 0;
+        Element element = supplier.get();
+        while (numEdges < 1000) {
+            assertTrue(element instanceof Edge);
+            final Edge edge = (Edge) element;
+            numEdges++;
+            element = supplier.get();
+            assertEquals(edge.getSource(), ((Entity) element).getVertex());
+            element = supplier.get();
+            if (!edge.getSource().equals(edge.getDestination())) {
+                assertEquals(edge.getDestination(), ((Entity) element).getVertex());
+                element = supplier.get();
+            }
+        }
+    }
+
+    @Test
+    public void testOnlyEdgesWhenEntitiesNotIncluded() {
+        // Given
+        final RmatElementStreamSupplier supplier
+                = new RmatElementStreamSupplier(Constants.RMAT_PROBABILITIES, 100L, false, 1L, 0L, 16);
+
+        // When / Then
+        for (int i = 0; i < 1000; i++) {
+            final Element element = supplier.get();
+            assertTrue(element instanceof Edge);
+            assertEquals(1L, element.getProperty("count"));
+        }
+    }
+}